@@ -37,6 +37,18 @@ tasks {
         }
         workingDir = runDir
     }
+    register<JavaExec>("runHeadless") {
+        group = "application"
+        description = "Plays AI-only games without a user interface, e.g. --args=\"--games=1000 --threads=8\""
+        classpath = sourceSets["main"].runtimeClasspath
+        mainClass.set("hProjekt.HeadlessRunner")
+    }
+    register<JavaExec>("runTournament") {
+        group = "application"
+        description = "Plays a round-robin tournament between AI controllers, e.g. --args=\"--rounds=1000\""
+        classpath = sourceSets["main"].runtimeClasspath
+        mainClass.set("hProjekt.TournamentRunner")
+    }
     test {
         doFirst {
             runDir.mkdirs()
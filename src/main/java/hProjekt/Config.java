@@ -12,6 +12,8 @@ import java.util.Set;
 
 import hProjekt.controller.AiController;
 import hProjekt.controller.BasicAiController;
+import hProjekt.controller.MctsAiController;
+import hProjekt.controller.PlannerAiController;
 import hProjekt.model.Tile;
 import javafx.util.Pair;
 
@@ -138,10 +140,38 @@ public class Config {
      */
     public static Path CSV_PATH = Paths.get("src/main/resources/leaderboard.csv");
 
+    /**
+     * The time in milliseconds an AI waits before each decision, so humans can
+     * follow its moves. See {@link hProjekt.controller.AiPacing}.
+     */
+    public static int AI_DELAY_MILLIS = 100;
+
+    /**
+     * The wall-clock time in milliseconds the {@link hProjekt.controller.MctsAiController}
+     * searches for each decision.
+     */
+    public static int MCTS_THINK_MILLIS = 200;
+
+    /**
+     * The number of simulations each worker of the
+     * {@link hProjekt.controller.MctsAiController} runs per decision instead of
+     * searching for {@link #MCTS_THINK_MILLIS}, or 0 to search for the think
+     * time. Only with a fixed number of simulations the decisions depend on
+     * nothing but the seed of the game and {@link #MCTS_WORKERS}.
+     */
+    public static int MCTS_ITERATIONS = 0;
+
+    /**
+     * The number of workers the {@link hProjekt.controller.MctsAiController} of
+     * a game searches with.
+     */
+    public static int MCTS_WORKERS = Runtime.getRuntime().availableProcessors();
+
     /**
      * A set of AI controllers that are available for the game.
      */
-    public static final Set<Class<? extends AiController>> AVAILABLE_AI_CONTROLLER = Set.of(BasicAiController.class);
+    public static final Set<Class<? extends AiController>> AVAILABLE_AI_CONTROLLER = Set.of(BasicAiController.class,
+            MctsAiController.class, PlannerAiController.class);
 
     /**
      * A list of town names to train the name generator on.
@@ -0,0 +1,258 @@
+package hProjekt;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import hProjekt.controller.AiController;
+import hProjekt.controller.BasicAiController;
+import hProjekt.controller.HeadlessGame;
+import hProjekt.controller.HeadlessGame.Outcome;
+import hProjekt.controller.HeadlessGame.Result;
+import hProjekt.model.HexGrid;
+import hProjekt.model.OffHeapHexGrid;
+
+/**
+ * Entry point for playing many AI-only games without a user interface, e.g.
+ * to compare AI controllers or to measure the performance of the game logic.
+ * <p>
+ * Arguments (all optional):
+ * <ul>
+ * <li>{@code --games=N} the number of games to play, default 100</li>
+ * <li>{@code --threads=N} the number of games played at the same time, default
+ * the number of processors</li>
+ * <li>{@code --players=N} the number of players per game, default 4</li>
+ * <li>{@code --ai=A,B,...} the fully qualified AI controller classes, assigned
+ * to the seats in turn and rotated every game, default
+ * {@link BasicAiController}</li>
+ * <li>{@code --seed=N} the seed all game seeds are derived from, default
+ * random</li>
+ * <li>{@code --timeout=N} the time limit of a game in milliseconds, default
+ * 60000</li>
+ * <li>{@code --think=N} the think time of the
+ * {@link hProjekt.controller.MctsAiController} per decision in milliseconds,
+ * default {@link Config#MCTS_THINK_MILLIS}</li>
+ * <li>{@code --iterations=N} the number of simulations of each worker of the
+ * {@link hProjekt.controller.MctsAiController} per decision instead of the
+ * think time, default {@link Config#MCTS_ITERATIONS}</li>
+ * <li>{@code --workers=N} the number of workers the
+ * {@link hProjekt.controller.MctsAiController} of a game searches with, default
+ * {@link Config#MCTS_WORKERS}</li>
+ * <li>{@code --radius=N} plays on hexagonal maps with the given radius
+ * generated by {@link OffHeapHexGrid#generate(int, int, Random)} instead of the
+ * usual maps, e.g. {@code 577} for about a million tiles</li>
+ * </ul>
+ * Runs with the same arguments play the same games, regardless of the number
+ * of threads. This does not hold for the
+ * {@link hProjekt.controller.MctsAiController} when it searches for a think
+ * time, only when it runs a fixed number of {@code --iterations}.
+ */
+public class HeadlessRunner {
+
+    /**
+     * Plays the games and prints a report to the standard output.
+     *
+     * @param args program arguments, see the class description
+     * @throws Exception if the games could not be played
+     */
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = parseOptions(args);
+        final int games = Integer.parseInt(options.getOrDefault("games", "100"));
+        final int threads = Integer.parseInt(
+                options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        final int players = Integer.parseInt(options.getOrDefault("players", "4"));
+        final long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : Config.RANDOM.nextLong();
+        final long timeout = Long.parseLong(options.getOrDefault("timeout", "60000"));
+        if (options.containsKey("think")) {
+            Config.MCTS_THINK_MILLIS = Integer.parseInt(options.get("think"));
+        }
+        if (options.containsKey("iterations")) {
+            Config.MCTS_ITERATIONS = Integer.parseInt(options.get("iterations"));
+        }
+        if (options.containsKey("workers")) {
+            Config.MCTS_WORKERS = Integer.parseInt(options.get("workers"));
+        }
+        final List<Class<? extends AiController>> ais = parseControllers(
+                options.getOrDefault("ai", BasicAiController.class.getName()));
+
+        final Function<Random, HexGrid> gridFactory = options.containsKey("radius")
+                ? offHeapMaps(Integer.parseInt(options.get("radius")))
+                : null;
+
+        final List<HeadlessGame> setups = new ArrayList<>();
+        for (int i = 0; i < ais.size(); i++) {
+            final List<Class<? extends AiController>> seats = new ArrayList<>();
+            for (int seat = 0; seat < players; seat++) {
+                seats.add(ais.get((seat + i) % ais.size()));
+            }
+            setups.add(gridFactory != null ? new HeadlessGame(seats, timeout, gridFactory)
+                    : new HeadlessGame(seats, timeout));
+        }
+
+        System.out.printf("Playing %d games with %d players on %d threads, seed %d%n", games, players, threads, seed);
+        final PrintStream out = System.out;
+        final List<Result> results = new ArrayList<>(games);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "headless-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long start = System.nanoTime();
+        try {
+            // the game logic reports every action on the standard output, errors stay
+            // visible on the standard error stream
+            System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+            final List<Future<Result>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                final HeadlessGame game = setups.get(i % setups.size());
+                final long gameSeed = HeadlessGame.seedOf(seed, i);
+                futures.add(executor.submit(() -> game.play(gameSeed)));
+            }
+            for (final Future<Result> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game could not be played", e.getCause());
+        } finally {
+            System.setOut(out);
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        report(results, setups, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns a factory for off-heap maps with the given radius and the number of
+     * cities in {@link Config}.
+     *
+     * @param radius the radius of the maps
+     * @return the factory
+     * @throws IllegalArgumentException if the radius is negative
+     */
+    static Function<Random, HexGrid> offHeapMaps(final int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("The radius must not be negative, got " + radius);
+        }
+        return random -> OffHeapHexGrid.generate(radius, Config.NUMBER_OF_CITIES, random);
+    }
+
+    /**
+     * Parses arguments of the form {@code --name=value}.
+     *
+     * @param args the arguments
+     * @return the values by name
+     * @throws IllegalArgumentException if an argument has a different form
+     */
+    static Map<String, String> parseOptions(final String[] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (final String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Loads the AI controllers with the given comma separated, fully qualified
+     * class names.
+     *
+     * @param names the class names
+     * @return the AI controller classes in the given order
+     * @throws ClassNotFoundException if a class does not exist
+     * @throws ClassCastException     if a class is not an {@link AiController}
+     */
+    static List<Class<? extends AiController>> parseControllers(final String names) throws ClassNotFoundException {
+        final List<Class<? extends AiController>> controllers = new ArrayList<>();
+        for (final String name : names.split(",")) {
+            controllers.add(Class.forName(name.trim()).asSubclass(AiController.class));
+        }
+        return controllers;
+    }
+
+    /**
+     * Prints the throughput, the timing of the phases and the distribution of
+     * the outcomes.
+     *
+     * @param results   the results of the games
+     * @param setups    the seat assignments the games were played with, in turn
+     * @param wallNanos the time it took to play all games
+     */
+    private static void report(final List<Result> results, final List<HeadlessGame> setups, final long wallNanos) {
+        final int[] outcomes = new int[Outcome.values().length];
+        final LongSummaryStatistics setup = new LongSummaryStatistics();
+        final LongSummaryStatistics building = new LongSummaryStatistics();
+        final LongSummaryStatistics driving = new LongSummaryStatistics();
+        final IntSummaryStatistics buildingRounds = new IntSummaryStatistics();
+        final IntSummaryStatistics drivingRounds = new IntSummaryStatistics();
+        final int seats = setups.getFirst().getSeats().size();
+        final int[] seatWins = new int[seats];
+        final Map<String, int[]> aiWins = new HashMap<>();
+        final Map<String, IntSummaryStatistics> aiCredits = new HashMap<>();
+        final Map<String, IntSummaryStatistics> aiRails = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            final Result result = results.get(i);
+            outcomes[result.outcome().ordinal()]++;
+            if (result.outcome() != Outcome.FINISHED) {
+                continue;
+            }
+            setup.accept(result.setupNanos());
+            building.accept(result.buildingNanos());
+            driving.accept(result.drivingNanos());
+            buildingRounds.accept(result.buildingRounds());
+            drivingRounds.accept(result.drivingRounds());
+            final List<Class<? extends AiController>> ais = setups.get(i % setups.size()).getSeats();
+            for (int seat = 0; seat < seats; seat++) {
+                final String ai = ais.get(seat).getSimpleName();
+                final int[] wins = aiWins.computeIfAbsent(ai, key -> new int[2]);
+                wins[1]++;
+                if (seat == result.winner()) {
+                    wins[0]++;
+                    seatWins[seat]++;
+                }
+                aiCredits.computeIfAbsent(ai, key -> new IntSummaryStatistics()).accept(result.credits().get(seat));
+                aiRails.computeIfAbsent(ai, key -> new IntSummaryStatistics()).accept(result.rails().get(seat));
+            }
+        }
+
+        System.out.printf("%d games in %.2f s (%.1f games/s)%n", results.size(), wallNanos / 1e9,
+                results.size() / (wallNanos / 1e9));
+        System.out.printf("Outcomes: %s%n", Arrays.stream(Outcome.values())
+                .map(outcome -> outcome + "=" + outcomes[outcome.ordinal()]).toList());
+        results.stream().filter(result -> result.error() != null).findFirst()
+                .ifPresent(result -> System.out.printf("First failure (seed %d): %s%n", result.seed(),
+                        result.error()));
+        if (setup.getCount() == 0) {
+            return;
+        }
+        System.out.printf("Mean time per game: setup %.2f ms, building %.2f ms, driving %.2f ms%n",
+                setup.getAverage() / 1e6, building.getAverage() / 1e6, driving.getAverage() / 1e6);
+        System.out.printf("Rounds: building %.1f (%d-%d), driving %.1f (%d-%d)%n", buildingRounds.getAverage(),
+                buildingRounds.getMin(), buildingRounds.getMax(), drivingRounds.getAverage(),
+                drivingRounds.getMin(), drivingRounds.getMax());
+        System.out.printf("Wins per seat: %s%n", Arrays.toString(seatWins));
+        System.out.printf("%-24s %8s %8s %22s %22s%n", "AI", "seats", "win %", "credits (min/avg/max)",
+                "rails (min/avg/max)");
+        aiWins.keySet().stream().sorted().forEach(ai -> {
+            final int[] wins = aiWins.get(ai);
+            final IntSummaryStatistics credits = aiCredits.get(ai);
+            final IntSummaryStatistics rails = aiRails.get(ai);
+            System.out.printf("%-24s %8d %7.1f%% %22s %22s%n", ai, wins[1], 100.0 * wins[0] / wins[1],
+                    String.format("%d/%.1f/%d", credits.getMin(), credits.getAverage(), credits.getMax()),
+                    String.format("%d/%.1f/%d", rails.getMin(), rails.getAverage(), rails.getMax()));
+        });
+    }
+}
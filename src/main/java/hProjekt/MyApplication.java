@@ -10,6 +10,7 @@ import java.util.function.Consumer;
 import org.tudalgo.algoutils.student.annotation.DoNotTouch;
 
 import hProjekt.controller.GameController;
+import hProjekt.controller.HexGridPool;
 import hProjekt.controller.gui.SceneSwitcher;
 import hProjekt.controller.gui.SceneSwitcher.SceneType;
 import javafx.application.Application;
@@ -58,6 +59,7 @@ public class MyApplication extends Application {
         }
         stage.show();
 
+        HexGridPool.getInstance().fill();
         SceneSwitcher.getInstance(stage, gameLoopStart).loadScene(SceneType.MAIN_MENU);
     }
 
@@ -0,0 +1,128 @@
+package hProjekt;
+
+import java.io.BufferedWriter;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import hProjekt.controller.AiController;
+import hProjekt.controller.Tournament;
+import hProjekt.controller.TournamentRatings;
+
+/**
+ * Entry point for a round-robin {@link Tournament} between AI controllers
+ * without a user interface.
+ * <p>
+ * Arguments (all optional):
+ * <ul>
+ * <li>{@code --ai=A,B,...} the fully qualified AI controller classes of the
+ * entrants, default all of {@link Config#AVAILABLE_AI_CONTROLLER}; a single
+ * controller plays against itself</li>
+ * <li>{@code --rounds=N} the number of rounds, default 100</li>
+ * <li>{@code --threads=N} the number of games played at the same time, default
+ * the number of processors</li>
+ * <li>{@code --seed=N} the seed the maps are derived from, default random</li>
+ * <li>{@code --timeout=N} the time limit of a game in milliseconds, default
+ * 60000</li>
+ * <li>{@code --think=N} the think time of the
+ * {@link hProjekt.controller.MctsAiController} per decision in milliseconds,
+ * default {@link Config#MCTS_THINK_MILLIS}</li>
+ * <li>{@code --iterations=N} the number of simulations of each worker of the
+ * {@link hProjekt.controller.MctsAiController} per decision instead of the
+ * think time, default {@link Config#MCTS_ITERATIONS}</li>
+ * <li>{@code --workers=N} the number of workers the
+ * {@link hProjekt.controller.MctsAiController} of a game searches with, default
+ * {@link Config#MCTS_WORKERS}</li>
+ * <li>{@code --output=FILE} the CSV file the results of the games are streamed
+ * to, default {@code tournament.csv}</li>
+ * <li>{@code --report-every=N} the number of games after which the standings
+ * are printed, default 100</li>
+ * </ul>
+ * Tournaments with the same arguments play the same games, unless the
+ * {@link hProjekt.controller.MctsAiController} searches for a think time
+ * instead of a fixed number of {@code --iterations}.
+ */
+public class TournamentRunner {
+
+    /**
+     * Plays the tournament and prints the standings to the standard output.
+     *
+     * @param args program arguments, see the class description
+     * @throws Exception if the tournament could not be played
+     */
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = HeadlessRunner.parseOptions(args);
+        final int rounds = Integer.parseInt(options.getOrDefault("rounds", "100"));
+        final int threads = Integer.parseInt(
+                options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        final long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : Config.RANDOM.nextLong();
+        final long timeout = Long.parseLong(options.getOrDefault("timeout", "60000"));
+        if (options.containsKey("think")) {
+            Config.MCTS_THINK_MILLIS = Integer.parseInt(options.get("think"));
+        }
+        if (options.containsKey("iterations")) {
+            Config.MCTS_ITERATIONS = Integer.parseInt(options.get("iterations"));
+        }
+        if (options.containsKey("workers")) {
+            Config.MCTS_WORKERS = Integer.parseInt(options.get("workers"));
+        }
+        final Path output = Paths.get(options.getOrDefault("output", "tournament.csv"));
+        final int reportEvery = Integer.parseInt(options.getOrDefault("report-every", "100"));
+        final List<Class<? extends AiController>> controllers = new ArrayList<>();
+        if (options.containsKey("ai")) {
+            controllers.addAll(HeadlessRunner.parseControllers(options.get("ai")));
+        } else {
+            Config.AVAILABLE_AI_CONTROLLER.stream().sorted(Comparator.comparing(Class::getName))
+                    .forEach(controllers::add);
+        }
+        if (controllers.size() == 1) {
+            controllers.add(controllers.getFirst());
+        }
+
+        final Tournament tournament = new Tournament(controllers, threads, timeout);
+        System.out.printf("Playing %d rounds of %d games between %s on %d threads, seed %d%n", rounds,
+                tournament.getGamesPerRound(), tournament.getNames(), threads, seed);
+        System.out.println("Writing results to " + output.toAbsolutePath());
+        final PrintStream out = System.out;
+        final long start = System.nanoTime();
+        final TournamentRatings ratings;
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            // the game logic reports every action on the standard output, errors stay
+            // visible on the standard error stream
+            System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+            ratings = tournament.run(seed, rounds, writer, reportEvery,
+                    progress -> report(out, progress, System.nanoTime() - start));
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println("Final standings:");
+        report(System.out, ratings, System.nanoTime() - start);
+    }
+
+    /**
+     * Prints the ratings and the head-to-head results.
+     *
+     * @param out          the stream to print to
+     * @param ratings      the ratings
+     * @param elapsedNanos the time since the start of the tournament
+     */
+    private static void report(final PrintStream out, final TournamentRatings ratings, final long elapsedNanos) {
+        out.printf("%d games in %.1f s (%.1f games/s)%n", ratings.getGames(), elapsedNanos / 1e9,
+                ratings.getGames() / (elapsedNanos / 1e9));
+        out.printf("  %-28s %7s %7s %16s%n", "Entrant", "games", "score", "Elo (95% CI)");
+        for (final TournamentRatings.Rating rating : ratings.getRatings()) {
+            out.printf("  %-28s %7d %6.1f%% %8.0f +/- %-5.0f%n", rating.name(), rating.games(),
+                    100 * rating.score(), rating.elo(), rating.error95());
+        }
+        for (final TournamentRatings.Matchup matchup : ratings.getMatchups()) {
+            out.printf("  %s vs %s: %d games, score %.1f%%, Elo %+.0f [%+.0f, %+.0f], LOS %.1f%%%n",
+                    matchup.first(), matchup.second(), matchup.games(), 100 * matchup.score(), matchup.eloDiff(),
+                    matchup.lower95(), matchup.upper95(), 100 * matchup.los());
+        }
+    }
+}
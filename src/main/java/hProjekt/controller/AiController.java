@@ -1,8 +1,11 @@
 package hProjekt.controller;
 
+import java.util.Random;
+
 import hProjekt.model.City;
 import hProjekt.model.GameState;
 import hProjekt.model.HexGrid;
+import hProjekt.model.PlayerState;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.Property;
 import javafx.beans.property.ReadOnlyProperty;
@@ -13,13 +16,18 @@ import javafx.util.Pair;
  * objective.
  * Gets all information that could be needed to execute actions.
  * Automatically subscribes to the player objective property to execute actions
- * when the player's objective changes.
+ * when the player's objective changes. The actions are executed on the thread of
+ * the {@link AiScheduler} of the game, not on the game loop thread.
+ * Random decisions should be drawn from {@link #random}, so games can be
+ * replayed from their seed.
  */
 public abstract class AiController {
     protected final PlayerController playerController;
     protected final HexGrid hexGrid;
     protected final GameState gameState;
     protected final Property<PlayerController> activePlayerController;
+    protected final Random random;
+    private volatile PlayerState latestState;
 
     /**
      * Creates a new AI controller with the given player controller, hex grid, game
@@ -40,15 +48,26 @@ public abstract class AiController {
         this.hexGrid = hexGrid;
         this.gameState = gameState;
         this.activePlayerController = activePlayerController;
-        playerController.getPlayerStateProperty()
-                .subscribe(state -> this.executeActionBasedOnObjective(state.playerObjective()));
+        this.random = playerController.getRandom();
+        playerController.getPlayerStateProperty().subscribe(state -> {
+            latestState = state;
+            playerController.getAiScheduler().schedule(() -> {
+                // a newer state has its own decision scheduled
+                if (latestState == state) {
+                    this.executeActionBasedOnObjective(state);
+                }
+            });
+        });
     }
 
     /**
-     * Executes an action that is allowed by the given player objective.
+     * Executes an action that is allowed by the objective of the given player
+     * state.
      * May perform multiple actions if necessary and allowed.
+     * The game loop may already update the player state while the decision runs,
+     * so the decision is based on the given state only.
      *
-     * @param objective the player objective
+     * @param state the player state the decision is made for
      */
-    protected abstract void executeActionBasedOnObjective(final PlayerObjective objective);
+    protected abstract void executeActionBasedOnObjective(final PlayerState state);
 }
@@ -0,0 +1,44 @@
+package hProjekt.controller;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when an AI decision runs on the executor of an {@link AiScheduler}.
+ * The game loop does not wait for the pacing, it only waits for the actions the
+ * decision triggers.
+ */
+@FunctionalInterface
+public interface AiPacing {
+
+    /**
+     * Schedules the given decision on the given executor.
+     *
+     * @param decision the decision to run
+     * @param executor the executor to run the decision on
+     */
+    void schedule(Runnable decision, ScheduledExecutorService executor);
+
+    /**
+     * Returns a pacing that runs decisions as soon as possible, e.g. for headless
+     * games.
+     *
+     * @return a pacing without delay
+     */
+    static AiPacing instant() {
+        return (decision, executor) -> executor.execute(decision);
+    }
+
+    /**
+     * Returns a pacing that runs decisions after the given delay.
+     *
+     * @param delayMillis the delay in milliseconds
+     * @return a pacing with a fixed delay
+     */
+    static AiPacing fixedDelay(final long delayMillis) {
+        if (delayMillis <= 0) {
+            return instant();
+        }
+        return (decision, executor) -> executor.schedule(decision, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
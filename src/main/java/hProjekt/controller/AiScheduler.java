@@ -0,0 +1,115 @@
+package hProjekt.controller;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+
+import hProjekt.Config;
+
+/**
+ * Runs the decisions of the AI controllers of a game on a dedicated thread, so
+ * the game loop never blocks on the think time of an AI.
+ * Decisions of one game run one after another in the order given by the
+ * {@link AiPacing}.
+ * AI controllers that search in parallel use the {@link #getSearchPool() search
+ * pool} of their game, so the games played at the same time do not share their
+ * workers.
+ */
+public final class AiScheduler {
+
+    private final Consumer<RuntimeException> failureHandler;
+    private volatile AiPacing pacing = AiPacing.fixedDelay(Config.AI_DELAY_MILLIS);
+    private ScheduledThreadPoolExecutor executor;
+    private ForkJoinPool searchPool;
+    private boolean shutdown;
+
+    /**
+     * Creates a new AI scheduler that paces decisions by
+     * {@link Config#AI_DELAY_MILLIS}.
+     *
+     * @param failureHandler called on the AI thread with the exception if a
+     *                       decision fails
+     */
+    public AiScheduler(final Consumer<RuntimeException> failureHandler) {
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Returns the pacing of the decisions.
+     *
+     * @return the pacing of the decisions
+     */
+    public AiPacing getPacing() {
+        return pacing;
+    }
+
+    /**
+     * Sets the pacing of the decisions scheduled from now on.
+     *
+     * @param pacing the new pacing
+     */
+    public void setPacing(final AiPacing pacing) {
+        this.pacing = pacing;
+    }
+
+    /**
+     * Schedules the given decision according to the pacing.
+     * Decisions scheduled after {@link #shutdown()} are ignored.
+     *
+     * @param decision the decision to run
+     */
+    public synchronized void schedule(final Runnable decision) {
+        if (shutdown) {
+            return;
+        }
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "AiThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        try {
+            pacing.schedule(() -> {
+                try {
+                    decision.run();
+                } catch (RuntimeException e) {
+                    failureHandler.accept(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            // shut down while pacing
+        }
+    }
+
+    /**
+     * Returns the pool the AI controllers of this game search on, creating it with
+     * {@link Config#MCTS_WORKERS} workers on the first call.
+     * The pool is shut down together with this scheduler.
+     *
+     * @return the search pool of this game
+     */
+    public synchronized ForkJoinPool getSearchPool() {
+        if (searchPool == null) {
+            searchPool = new ForkJoinPool(Config.MCTS_WORKERS);
+            if (shutdown) {
+                searchPool.shutdown();
+            }
+        }
+        return searchPool;
+    }
+
+    /**
+     * Discards all pending decisions and stops the AI thread and the search pool.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (searchPool != null) {
+            searchPool.shutdownNow();
+        }
+    }
+}
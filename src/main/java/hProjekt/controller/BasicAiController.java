@@ -1,9 +1,9 @@
 package hProjekt.controller;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 
-import hProjekt.Config;
 import hProjekt.controller.actions.BuildRailAction;
 import hProjekt.controller.actions.ChooseCitiesAction;
 import hProjekt.controller.actions.ChooseRailsAction;
@@ -16,6 +16,7 @@ import hProjekt.model.City;
 import hProjekt.model.Edge;
 import hProjekt.model.GameState;
 import hProjekt.model.HexGrid;
+import hProjekt.model.PlayerState;
 import hProjekt.model.Tile;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.Property;
@@ -27,6 +28,13 @@ import javafx.util.Pair;
  */
 public class BasicAiController extends AiController {
 
+    /**
+     * Orders the candidates before picking one at random, so the pick only
+     * depends on the random instance and not on the iteration order of the sets.
+     */
+    private static final Comparator<Edge> EDGE_ORDER = Comparator.comparing(Edge::getPosition1)
+            .thenComparing(Edge::getPosition2);
+
     /**
      * Creates a new basic AI controller with the given player controller, hex grid,
      * game state and active player controller.
@@ -46,27 +54,18 @@ public class BasicAiController extends AiController {
     }
 
     @Override
-    protected void executeActionBasedOnObjective(PlayerObjective objective) {
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            throw new RuntimeException("Main thread was interrupted", e);
-        }
-
-        final Set<Class<? extends PlayerAction>> allowedActions = playerController.getPlayerObjective()
-                .getAllowedActions();
+    protected void executeActionBasedOnObjective(final PlayerState state) {
+        final Set<Class<? extends PlayerAction>> allowedActions = state.playerObjective().getAllowedActions();
         if (allowedActions.contains(RollDiceAction.class)) {
             playerController.triggerAction(new RollDiceAction());
         }
-        if (allowedActions.contains(BuildRailAction.class)
-                && !playerController.getPlayerState().buildableRailEdges().isEmpty()) {
-            int randomIndex = Config.RANDOM.nextInt(playerController.getPlayerState().buildableRailEdges().size());
+        if (allowedActions.contains(BuildRailAction.class) && !state.buildableRailEdges().isEmpty()) {
+            int randomIndex = random.nextInt(state.buildableRailEdges().size());
             playerController.triggerAction(new BuildRailAction(
-                    List.of(playerController.getPlayerState().buildableRailEdges()
-                            .toArray(Edge[]::new)[randomIndex])));
+                    List.of(state.buildableRailEdges().stream()
+                            .sorted(EDGE_ORDER).toArray(Edge[]::new)[randomIndex])));
         }
-        if (allowedActions.contains(ConfirmBuildAction.class) && playerController.getPlayerState().buildableRailEdges()
-                .isEmpty()) {
+        if (allowedActions.contains(ConfirmBuildAction.class) && state.buildableRailEdges().isEmpty()) {
             playerController.triggerAction(new ConfirmBuildAction());
         }
         if (allowedActions.contains(ChooseCitiesAction.class)) {
@@ -76,14 +75,15 @@ public class BasicAiController extends AiController {
             playerController.triggerAction(new ConfirmDrive(true));
         }
         if (allowedActions.contains(DriveAction.class)) {
-            int randomIndex = Config.RANDOM.nextInt(playerController.getPlayerState().drivableTiles().size());
+            int randomIndex = random.nextInt(state.drivableTiles().size());
             playerController
                     .triggerAction(new DriveAction(
-                            playerController.getPlayerState().drivableTiles().keySet()
+                            state.drivableTiles().keySet().stream()
+                                    .sorted(Comparator.comparing(Tile::getPosition))
                                     .toArray(Tile[]::new)[randomIndex]));
         }
         if (allowedActions.contains(ChooseRailsAction.class)) {
-            playerController.triggerAction(new ChooseRailsAction(Set.of()));
+            playerController.triggerAction(new ChooseRailsAction(playerController.getSuggestedRentals()));
         }
     }
 }
@@ -6,6 +6,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -38,13 +39,17 @@ public class GameController {
     private final Map<Player, PlayerController> playerControllers;
     private final List<AiController> aiControllers = new ArrayList<>();
     private final Supplier<Integer> dice;
+    private final Random random;
     private final IntegerProperty currentDiceRoll = new SimpleIntegerProperty(0);
     private final IntegerProperty roundCounter = new SimpleIntegerProperty(0);
     private final Property<Pair<City, City>> chosenCitiesProperty = new SimpleObjectProperty<>();
 
     private final Property<PlayerController> activePlayerController = new SimpleObjectProperty<>();
 
-    private boolean stopped = false;
+    private volatile boolean stopped = false;
+    private final AiScheduler aiScheduler = new AiScheduler(this::aiFailed);
+    private volatile Thread gameLoopThread;
+    private volatile RuntimeException aiFailure;
 
     /**
      * Creates a new GameController with the given game state and dice supplier.
@@ -53,9 +58,35 @@ public class GameController {
      * @param dice  the dice supplier
      */
     public GameController(GameState state, Supplier<Integer> dice) {
+        this(state, dice, Config.RANDOM);
+    }
+
+    /**
+     * Creates a new GameController with the given game state that draws the dice
+     * rolls and all other random decisions from the given random instance.
+     * Games running in parallel should use their own instance, so each game is
+     * reproducible from its seed.
+     *
+     * @param state  the game state
+     * @param random the random instance to use
+     */
+    public GameController(GameState state, Random random) {
+        this(state, () -> random.nextInt(1, Config.DICE_SIDES + 1), random);
+    }
+
+    /**
+     * Creates a new GameController with the given game state, dice supplier and
+     * random instance.
+     *
+     * @param state  the game state
+     * @param dice   the dice supplier
+     * @param random the random instance for all other random decisions
+     */
+    private GameController(GameState state, Supplier<Integer> dice, Random random) {
         this.state = state;
         this.playerControllers = new HashMap<>();
         this.dice = dice;
+        this.random = random;
     }
 
     /**
@@ -64,7 +95,7 @@ public class GameController {
      * @param state the game state
      */
     public GameController(GameState state) {
-        this(state, () -> Config.RANDOM.nextInt(1, Config.DICE_SIDES + 1));
+        this(state, Config.RANDOM);
     }
 
     /**
@@ -85,6 +116,41 @@ public class GameController {
         return state;
     }
 
+    /**
+     * Returns the random instance used for the random decisions of this game.
+     * AI controllers should draw from it too, so the game can be reproduced.
+     *
+     * @return the random instance of this game
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns the scheduler that runs the decisions of the AI controllers of this
+     * game.
+     *
+     * @return the scheduler for the decisions of AI controllers
+     */
+    public AiScheduler getAiScheduler() {
+        return aiScheduler;
+    }
+
+    /**
+     * Stops the game after an AI controller failed and wakes up the game loop,
+     * which would otherwise wait for the action of the AI forever.
+     *
+     * @param failure the exception thrown by the AI controller
+     */
+    private void aiFailed(final RuntimeException failure) {
+        aiFailure = failure;
+        stop();
+        final Thread thread = gameLoopThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
     /**
      * Returns a map from players to player controllers.
      *
@@ -223,27 +289,41 @@ public class GameController {
      *
      * The game consists of two phases: the building phase and the driving phase.
      *
-     * @throws IllegalStateException if there are not enough playerss
+     * @throws IllegalStateException if there are not enough playerss or an AI
+     *                               controller failed
      */
     public void startGame() {
         if (this.state.getPlayers().size() < Config.MIN_PLAYERS) {
             throw new IllegalStateException("Not enough players");
         }
-        if (playerControllers.isEmpty()) {
-            initPlayerControllers();
-        }
-
-        // Bauphase
-        getState().getGamePhaseProperty().setValue(GamePhase.BUILDING_PHASE);
-        executeBuildingPhase();
-
-        // Fahrphase
-        getState().getGamePhaseProperty().setValue(GamePhase.DRIVING_PHASE);
-        roundCounter.set(0);
-        executeDrivingPhase();
+        gameLoopThread = Thread.currentThread();
+        try {
+            if (playerControllers.isEmpty()) {
+                initPlayerControllers();
+            }
 
-        getState().getWinnerProperty().setValue(getState().getPlayers().stream()
-                .max((p1, p2) -> Integer.compare(p1.getCredits(), p2.getCredits())).get());
+            // Bauphase
+            getState().getGamePhaseProperty().setValue(GamePhase.BUILDING_PHASE);
+            executeBuildingPhase();
+
+            // Fahrphase
+            getState().getGamePhaseProperty().setValue(GamePhase.DRIVING_PHASE);
+            roundCounter.set(0);
+            executeDrivingPhase();
+
+            getState().getWinnerProperty().setValue(getState().getPlayers().stream()
+                    .max((p1, p2) -> Integer.compare(p1.getCredits(), p2.getCredits())).get());
+        } catch (RuntimeException e) {
+            if (aiFailure != null) {
+                final IllegalStateException failure = new IllegalStateException("An AI controller failed", aiFailure);
+                failure.addSuppressed(e);
+                throw failure;
+            }
+            throw e;
+        } finally {
+            aiScheduler.shutdown();
+            gameLoopThread = null;
+        }
     }
 
     /**
@@ -286,10 +366,10 @@ public class GameController {
         final List<City> tempCities = getState().getGrid().getCities().values().stream()
                 .filter(city -> !getState().getChosenCities().contains(city)).collect(Collectors.toList());
 
-        City startingCity = tempCities.get(Config.RANDOM.nextInt(tempCities.size()));
+        City startingCity = tempCities.get(random.nextInt(tempCities.size()));
         tempCities.remove(startingCity);
         getState().addChosenCity(startingCity);
-        City targetCity = tempCities.get(Config.RANDOM.nextInt(tempCities.size()));
+        City targetCity = tempCities.get(random.nextInt(tempCities.size()));
         getState().addChosenCity(targetCity);
 
         chosenCitiesProperty.setValue(new Pair<>(startingCity, targetCity));
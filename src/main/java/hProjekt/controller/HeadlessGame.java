@@ -0,0 +1,230 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import hProjekt.Config;
+import hProjekt.model.GameState;
+import hProjekt.model.HexGrid;
+import hProjekt.model.HexGridImpl;
+import hProjekt.model.Player;
+import javafx.scene.paint.Color;
+
+/**
+ * Plays a complete game between AI controllers without a user interface.
+ * All random decisions of a game are drawn from a {@link Random} seeded with
+ * the seed of the game, so the same seed and seats always result in the same
+ * game. The only exception is the {@link MctsAiController} when it searches
+ * for a think time, see {@link Config#MCTS_ITERATIONS}. Games may be played
+ * on multiple threads at the same time, as long as the settings in
+ * {@link Config} are not changed meanwhile.
+ */
+public final class HeadlessGame {
+
+    /**
+     * The colors of the seats in order.
+     */
+    private static final List<Color> SEAT_COLORS = List.of(Color.RED, Color.BLUE, Color.GREEN, Color.ORANGE,
+            Color.PURPLE, Color.BROWN);
+
+    /**
+     * Stops games that exceed their time limit.
+     */
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "headless-game-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * How a game ended.
+     */
+    public enum Outcome {
+        /**
+         * The game was played to the end.
+         */
+        FINISHED,
+        /**
+         * The game was stopped because it exceeded its time limit.
+         */
+        TIMED_OUT,
+        /**
+         * The game was aborted by an exception.
+         */
+        FAILED
+    }
+
+    /**
+     * The result of a game.
+     *
+     * @param seed           the seed of the game
+     * @param outcome        how the game ended
+     * @param winner         the seat of the winner or -1 if the game did not
+     *                       finish
+     * @param credits        the credits of each seat at the end of the game
+     * @param rails          the number of rails of each seat at the end of the
+     *                       game
+     * @param buildingRounds the number of rounds of the building phase
+     * @param drivingRounds  the number of rounds of the driving phase
+     * @param setupNanos     the time spent generating the map and creating the
+     *                       players
+     * @param buildingNanos  the time spent in the building phase
+     * @param drivingNanos   the time spent in the driving phase
+     * @param error          the exception that aborted the game or {@code null}
+     */
+    public record Result(long seed, Outcome outcome, int winner, List<Integer> credits, List<Integer> rails,
+            int buildingRounds, int drivingRounds, long setupNanos, long buildingNanos, long drivingNanos,
+            Throwable error) {
+    }
+
+    private final List<Class<? extends AiController>> seats;
+    private final long timeoutMillis;
+    private final Function<Random, HexGrid> gridFactory;
+
+    /**
+     * Creates a new headless game with the given AI controllers on maps generated
+     * by {@link HexGridImpl} with the settings in {@link Config}.
+     *
+     * @param seats         the AI controller of each seat in the order of play
+     * @param timeoutMillis the time after which a game is stopped or 0 for no
+     *                      limit
+     * @throws IllegalArgumentException if the number of seats is not allowed
+     */
+    public HeadlessGame(final List<Class<? extends AiController>> seats, final long timeoutMillis) {
+        this(seats, timeoutMillis,
+                random -> new HexGridImpl(Config.MAP_SCALE, Config.NUMBER_OF_CITIES, Config.TOWN_NAMES, random));
+    }
+
+    /**
+     * Creates a new headless game with the given AI controllers on maps created
+     * by the given factory.
+     *
+     * @param seats         the AI controller of each seat in the order of play
+     * @param timeoutMillis the time after which a game is stopped or 0 for no
+     *                      limit
+     * @param gridFactory   creates the map of a game from the random instance of
+     *                      the game, e.g.
+     *                      {@link hProjekt.model.OffHeapHexGrid#generate(int, int, Random)}
+     * @throws IllegalArgumentException if the number of seats is not allowed
+     */
+    public HeadlessGame(final List<Class<? extends AiController>> seats, final long timeoutMillis,
+            final Function<Random, HexGrid> gridFactory) {
+        if (seats.size() < Config.MIN_PLAYERS || seats.size() > Math.min(Config.MAX_PLAYERS, SEAT_COLORS.size())) {
+            throw new IllegalArgumentException("Invalid number of seats: " + seats.size());
+        }
+        this.seats = List.copyOf(seats);
+        this.timeoutMillis = timeoutMillis;
+        this.gridFactory = gridFactory;
+    }
+
+    /**
+     * Returns the AI controller of each seat.
+     *
+     * @return the AI controller of each seat
+     */
+    public List<Class<? extends AiController>> getSeats() {
+        return seats;
+    }
+
+    /**
+     * Derives the seed of a game from the seed of a run of games, so consecutive
+     * games do not get correlated seeds.
+     *
+     * @param seed  the seed of the run
+     * @param index the index of the game in the run
+     * @return the seed of the game
+     */
+    public static long seedOf(final long seed, final int index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays a game with the given seed on the calling thread.
+     *
+     * @param seed the seed of the game
+     * @return the result of the game
+     */
+    public Result play(final long seed) {
+        final long start = System.nanoTime();
+        final Random random = new Random(seed);
+        final GameState state = new GameState(gridFactory.apply(random), new ArrayList<>());
+        for (int i = 0; i < seats.size(); i++) {
+            state.newPlayer("Seat " + (i + 1), SEAT_COLORS.get(i), seats.get(i));
+        }
+        final GameController controller = new GameController(state, random);
+        controller.getAiScheduler().setPacing(AiPacing.instant());
+
+        final long[] phaseStart = { 0, 0 };
+        final int[] buildingRounds = { 0 };
+        state.getGamePhaseProperty().subscribe(phase -> {
+            if (phase == GamePhase.DRIVING_PHASE) {
+                phaseStart[1] = System.nanoTime();
+                buildingRounds[0] = controller.roundCounterProperty().get();
+            }
+        });
+
+        // the game loop waits for the actions of the AI controllers, so it has to be
+        // interrupted as well; the lock keeps the interrupt from leaking into the
+        // next game played on this thread
+        final Thread gameThread = Thread.currentThread();
+        final Object lock = new Object();
+        final boolean[] done = { false };
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final ScheduledFuture<?> watchdog = timeoutMillis > 0 ? WATCHDOG.schedule(() -> {
+            synchronized (lock) {
+                if (!done[0]) {
+                    timedOut.set(true);
+                    controller.stop();
+                    gameThread.interrupt();
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS) : null;
+
+        Outcome outcome = Outcome.FINISHED;
+        Throwable error = null;
+        phaseStart[0] = System.nanoTime();
+        try {
+            controller.startGame();
+        } catch (RuntimeException e) {
+            outcome = timedOut.get() ? Outcome.TIMED_OUT : Outcome.FAILED;
+            error = timedOut.get() ? null : e;
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            synchronized (lock) {
+                done[0] = true;
+            }
+            Thread.interrupted();
+        }
+        final long end = System.nanoTime();
+
+        final List<Integer> credits = new ArrayList<>();
+        final List<Integer> rails = new ArrayList<>();
+        for (final Player player : state.getPlayers()) {
+            credits.add(player.getCredits());
+            rails.add(state.getGrid().getRails(player).size());
+        }
+        final Player winner = state.getWinnerProperty().getValue();
+        final boolean driving = phaseStart[1] != 0;
+        return new Result(seed, outcome,
+                outcome == Outcome.FINISHED && winner != null ? state.getPlayers().indexOf(winner) : -1,
+                List.copyOf(credits), List.copyOf(rails),
+                driving ? buildingRounds[0] : controller.roundCounterProperty().get(),
+                driving ? controller.roundCounterProperty().get() : 0,
+                phaseStart[0] - start,
+                (driving ? phaseStart[1] : end) - phaseStart[0],
+                driving ? end - phaseStart[1] : 0,
+                error);
+    }
+}
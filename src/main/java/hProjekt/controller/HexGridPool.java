@@ -0,0 +1,187 @@
+package hProjekt.controller;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import hProjekt.Config;
+import hProjekt.model.HexGrid;
+import hProjekt.model.HexGridImpl;
+import hProjekt.model.MapSettings;
+
+/**
+ * Keeps a small pool of grids generated in the background for the current
+ * map settings in {@link Config}, so a new game does not have to wait for the
+ * generation.
+ * The pool is filled on a single low-priority daemon thread. Each pooled grid
+ * uses its own {@link Random} seeded from a sequence that is drawn from
+ * {@link Config#RANDOM} when the pool is (re)started, so generating in the
+ * background does not interfere with other users of {@link Config#RANDOM}.
+ * The worker never reads {@link Config} itself. The settings are snapshotted
+ * into a {@link MapSettings} by the thread that fills, invalidates or takes
+ * from the pool, and pooled grids are only handed out for equal settings.
+ * Whenever the map settings change, {@link #invalidate()} should be called to
+ * drop the grids generated for the old settings early.
+ */
+public final class HexGridPool {
+
+    /**
+     * The number of grids kept in the pool.
+     */
+    public static final int CAPACITY = 2;
+
+    private static final HexGridPool INSTANCE = new HexGridPool(CAPACITY);
+
+    private final int capacity;
+    private final Deque<PooledGrid> grids = new ArrayDeque<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "HexGridPoolThread");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private long generation;
+    private Random seeds;
+    private MapSettings requested;
+    private boolean filling;
+
+    /**
+     * A grid in the pool.
+     *
+     * @param settings the settings the grid was generated with
+     * @param grid     the grid
+     */
+    private record PooledGrid(MapSettings settings, HexGrid grid) {
+    }
+
+    /**
+     * Creates a new pool with the given capacity.
+     *
+     * @param capacity the number of grids to keep
+     */
+    private HexGridPool(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the shared pool.
+     *
+     * @return the shared pool
+     */
+    public static HexGridPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a grid for the current settings.
+     * Takes a pooled grid if there is one and generates one on the calling
+     * thread otherwise. Refills the pool in the background afterwards, for the
+     * current settings if they changed without {@link #invalidate()}.
+     *
+     * @return a new grid that has not been handed out before
+     */
+    public HexGrid take() {
+        final MapSettings settings = MapSettings.current();
+        HexGrid grid = null;
+        synchronized (this) {
+            while (!grids.isEmpty() && grid == null) {
+                final PooledGrid pooled = grids.poll();
+                if (pooled.settings().equals(settings)) {
+                    grid = pooled.grid();
+                }
+            }
+            if (!settings.equals(requested)) {
+                restart(settings);
+            }
+        }
+        fill();
+        return grid != null ? grid : new HexGridImpl(settings, Config.RANDOM);
+    }
+
+    /**
+     * Returns the number of grids currently in the pool.
+     *
+     * @return the number of pooled grids
+     */
+    public synchronized int size() {
+        return grids.size();
+    }
+
+    /**
+     * Drops all pooled grids and starts generating grids for the current
+     * settings. Grids that are being generated for the old settings are
+     * discarded when they are done.
+     */
+    public synchronized void invalidate() {
+        restart(MapSettings.current());
+        fill();
+    }
+
+    /**
+     * Drops all pooled grids and requests grids for the given settings.
+     *
+     * @param settings the settings to generate grids for
+     */
+    private void restart(final MapSettings settings) {
+        generation++;
+        seeds = null;
+        requested = settings;
+        grids.clear();
+    }
+
+    /**
+     * Starts filling the pool in the background if it is not full and not
+     * already being filled.
+     * The first call takes the settings for the pool from {@link Config}.
+     */
+    public synchronized void fill() {
+        if (requested == null) {
+            requested = MapSettings.current();
+        }
+        if (seeds == null) {
+            seeds = new Random(Config.RANDOM.nextLong());
+        }
+        if (filling || grids.size() >= capacity) {
+            return;
+        }
+        filling = true;
+        worker.execute(this::generate);
+    }
+
+    /**
+     * Generates grids on the worker thread until the pool is full.
+     */
+    private void generate() {
+        while (true) {
+            final long startGeneration;
+            final MapSettings settings;
+            final Random random;
+            synchronized (this) {
+                if (grids.size() >= capacity) {
+                    filling = false;
+                    return;
+                }
+                startGeneration = generation;
+                settings = requested;
+                random = new Random(seeds.nextLong());
+            }
+            final HexGrid grid;
+            try {
+                grid = new HexGridImpl(settings, random);
+            } catch (final RuntimeException e) {
+                // invalid settings fail again when take() generates a grid on the calling thread
+                synchronized (this) {
+                    filling = false;
+                }
+                return;
+            }
+            synchronized (this) {
+                if (startGeneration == generation) {
+                    grids.add(new PooledGrid(settings, grid));
+                }
+            }
+        }
+    }
+}
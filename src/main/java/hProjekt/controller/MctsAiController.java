@@ -0,0 +1,758 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import hProjekt.Config;
+import hProjekt.controller.actions.BuildRailAction;
+import hProjekt.controller.actions.ChooseCitiesAction;
+import hProjekt.controller.actions.ChooseRailsAction;
+import hProjekt.controller.actions.ConfirmBuildAction;
+import hProjekt.controller.actions.ConfirmDrive;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.RollDiceAction;
+import hProjekt.model.City;
+import hProjekt.model.Edge;
+import hProjekt.model.GameState;
+import hProjekt.model.HexGrid;
+import hProjekt.model.Player;
+import hProjekt.model.PlayerState;
+import hProjekt.model.Tile;
+import hProjekt.model.TilePosition;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.util.Pair;
+
+/**
+ * An AI controller that searches its building and driving decisions with Monte
+ * Carlo simulations on a {@link RolloutModel} of the rules.
+ * <p>
+ * Every decision gets {@link Config#MCTS_THINK_MILLIS} of wall-clock time. The
+ * simulations run on the {@link Config#MCTS_WORKERS} workers of the
+ * {@link AiScheduler#getSearchPool() search pool} of the game, and the results
+ * of all workers are added up at the end, so the AI gets stronger with more
+ * cores and more think time.
+ * <p>
+ * As the number of simulations in the think time depends on the machine and its
+ * load, games with this AI are not reproducible from their seed. With a fixed
+ * number of {@link Config#MCTS_ITERATIONS} per worker instead, the decisions
+ * only depend on the seed of the game and the number of workers.
+ * <ul>
+ * <li>Building: every worker grows its own search tree over the rails this
+ * player builds in the current turn, including confirming early. After the
+ * turn, the other players build with a greedy random policy for a few rounds
+ * and the position is rated by the credits and the network of each player.
+ * The most visited move is played.</li>
+ * <li>Driving: every drivable tile is rated by races of all driving players to
+ * the target city with random dice, using the same dice for every tile.</li>
+ * </ul>
+ * Renting and the other objectives are handled like in
+ * {@link BasicAiController}.
+ */
+public class MctsAiController extends AiController {
+
+    /**
+     * The move that confirms the build and ends the turn.
+     */
+    private static final int CONFIRM = -1;
+
+    /**
+     * The move leading to the root of a search tree.
+     */
+    private static final int ROOT = -2;
+
+    private static final double EXPLORATION = 0.5;
+
+    /**
+     * The number of rounds played after the current round of the building phase
+     * before a rollout is rated.
+     */
+    private static final int HORIZON_ROUNDS = 3;
+
+    /**
+     * The credit lead that counts as a clear win of a rollout.
+     */
+    private static final double CREDIT_SCALE = 20;
+
+    /**
+     * The probability that the rollout policy picks a rail by its category
+     * instead of uniformly at random.
+     */
+    private static final double GREEDY = 0.9;
+
+    /**
+     * The probability that the rollout policy stops building when the best rail
+     * neither connects a city nor is free.
+     */
+    private static final double STOP_WITHOUT_GAIN = 0.5;
+
+    /**
+     * The maximum number of races per worker for a driving decision.
+     */
+    private static final int MAX_RACES = 2000;
+
+    /**
+     * The maximum number of driving rounds of a race.
+     */
+    private static final int MAX_RACE_ROUNDS = 100;
+
+    private final IntegerProperty diceRollProperty;
+    private final IntegerProperty roundCounterProperty;
+    private final ReadOnlyProperty<Pair<City, City>> chosenCitiesProperty;
+    private RolloutModel model;
+
+    /**
+     * Creates a new MCTS AI controller with the given player controller, hex grid,
+     * game state and active player controller.
+     * Adds a subscription to the player objective property to execute actions when
+     * the player's objective changes.
+     *
+     * @param playerController       the player controller
+     * @param hexGrid                the hex grid
+     * @param gameState              the game state
+     * @param activePlayerController the active player controller
+     * @param diceRollProperty       the current dice roll
+     * @param roundCounterProperty   the current round
+     * @param chosenCitiesProperty   the starting and target city of the driving
+     *                               round
+     */
+    public MctsAiController(final PlayerController playerController, final HexGrid hexGrid, final GameState gameState,
+            final Property<PlayerController> activePlayerController, final IntegerProperty diceRollProperty,
+            final IntegerProperty roundCounterProperty, final ReadOnlyProperty<Pair<City, City>> chosenCitiesProperty) {
+        super(playerController, hexGrid, gameState, activePlayerController, diceRollProperty, roundCounterProperty,
+                chosenCitiesProperty);
+        this.diceRollProperty = diceRollProperty;
+        this.roundCounterProperty = roundCounterProperty;
+        this.chosenCitiesProperty = chosenCitiesProperty;
+    }
+
+    @Override
+    protected void executeActionBasedOnObjective(final PlayerState state) {
+        final Set<Class<? extends PlayerAction>> allowedActions = state.playerObjective().getAllowedActions();
+        if (allowedActions.contains(RollDiceAction.class)) {
+            playerController.triggerAction(new RollDiceAction());
+        }
+        if (allowedActions.contains(BuildRailAction.class) && !state.buildableRailEdges().isEmpty()) {
+            final Edge edge = chooseRail(state);
+            final PlayerAction action = edge == null ? new ConfirmBuildAction() : new BuildRailAction(List.of(edge));
+            playerController.triggerAction(action);
+        } else if (allowedActions.contains(ConfirmBuildAction.class)) {
+            playerController.triggerAction(new ConfirmBuildAction());
+        }
+        if (allowedActions.contains(ChooseCitiesAction.class)) {
+            playerController.triggerAction(new ChooseCitiesAction());
+        }
+        if (allowedActions.contains(ConfirmDrive.class)) {
+            playerController.triggerAction(new ConfirmDrive(true));
+        }
+        if (allowedActions.contains(DriveAction.class)) {
+            playerController.triggerAction(new DriveAction(chooseDestination(state)));
+        }
+        if (allowedActions.contains(ChooseRailsAction.class)) {
+            playerController.triggerAction(new ChooseRailsAction(playerController.getSuggestedRentals()));
+        }
+    }
+
+    /**
+     * Returns the model of the game, creating it on the first call.
+     *
+     * @return the model of the game
+     */
+    private RolloutModel getModel() {
+        if (model == null) {
+            model = new RolloutModel(hexGrid, gameState.getPlayers());
+        }
+        return model;
+    }
+
+    /**
+     * Returns the search limit of a decision that starts now.
+     *
+     * @return the search limit of the decision
+     */
+    private static SearchLimit searchLimit() {
+        return new SearchLimit(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Config.MCTS_THINK_MILLIS),
+                Config.MCTS_ITERATIONS);
+    }
+
+    /**
+     * Searches the next rail to build.
+     *
+     * @param state the state of the player
+     * @return the edge to build on or {@code null} to confirm the build
+     */
+    private Edge chooseRail(final PlayerState state) {
+        final RolloutModel model = getModel();
+        final int seat = model.seatOf(playerController.getPlayer());
+        final int players = model.getPlayerCount();
+        final boolean drivingPhase = gameState.getGamePhaseProperty().getValue() == GamePhase.DRIVING_PHASE;
+        final int[] moves = IntStream.concat(
+                state.buildableRailEdges().stream().mapToInt(model::indexOf).sorted(), IntStream.of(CONFIRM))
+                .toArray();
+
+        final List<Integer> laterSeats = new ArrayList<>();
+        final int laterBudget;
+        int nextRoller = 0;
+        final double drivingRounds;
+        if (drivingPhase) {
+            // the players build in the order of their credits, starting with the poorest
+            final List<Player> order = gameState.getPlayers().stream()
+                    .sorted(Comparator.comparingInt(Player::getCredits)).toList();
+            order.subList(order.indexOf(playerController.getPlayer()) + 1, order.size())
+                    .forEach(player -> laterSeats.add(model.seatOf(player)));
+            laterBudget = Config.MAX_BUILDINGBUDGET_DRIVING_PHASE;
+            drivingRounds = (model.getCityCount() - gameState.getChosenCities().size()) / 2.0;
+        } else {
+            final int roller = Math.floorMod(roundCounterProperty.get() - 1, players);
+            for (int turn = Math.floorMod(seat - roller, players) + 1; turn < players; turn++) {
+                laterSeats.add((roller + turn) % players);
+            }
+            laterBudget = diceRollProperty.get();
+            nextRoller = (roller + 1) % players;
+            drivingRounds = model.getCityCount() / 2.0;
+        }
+
+        final BuildSearch search = new BuildSearch(model, model.snapshot(), seat, state.buildingBudget(),
+                drivingPhase, moves, laterSeats.stream().mapToInt(Integer::intValue).toArray(), laterBudget,
+                nextRoller, drivingRounds);
+        final SearchLimit limit = searchLimit();
+        final ForkJoinPool pool = playerController.getAiScheduler().getSearchPool();
+        final List<ForkJoinTask<double[][]>> tasks = new ArrayList<>();
+        for (int worker = 0; worker < pool.getParallelism(); worker++) {
+            final long seed = random.nextLong();
+            tasks.add(pool.submit(() -> search.run(seed, limit)));
+        }
+        final double[] visits = new double[moves.length];
+        final double[] rewards = new double[moves.length];
+        for (final ForkJoinTask<double[][]> task : tasks) {
+            final double[][] result = task.join();
+            for (int move = 0; move < moves.length; move++) {
+                visits[move] += result[0][move];
+                rewards[move] += result[1][move];
+            }
+        }
+        int best = 0;
+        for (int move = 1; move < moves.length; move++) {
+            if (visits[move] > visits[best] || visits[move] == visits[best] && rewards[move] > rewards[best]) {
+                best = move;
+            }
+        }
+        return moves[best] == CONFIRM ? null : model.getEdge(moves[best]);
+    }
+
+    /**
+     * Rates the drivable tiles by races to the target city and returns the best.
+     *
+     * @param state the state of the player
+     * @return the tile to drive to
+     */
+    private Tile chooseDestination(final PlayerState state) {
+        final Map<Tile, List<Tile>> drivableTiles = state.drivableTiles();
+        final Tile[] candidates = drivableTiles.keySet().stream().sorted(Comparator.comparing(Tile::getPosition))
+                .toArray(Tile[]::new);
+        if (candidates.length == 1) {
+            return candidates[0];
+        }
+        final RolloutModel model = getModel();
+        final TilePosition targetPosition = chosenCitiesProperty.getValue().getValue().getPosition();
+        final int target = model.indexOf(targetPosition);
+        final List<Player> order = gameState.getDrivingPlayers().stream()
+                .sorted(Comparator.comparingInt(Player::getCredits).reversed()).toList();
+        final int me = order.indexOf(playerController.getPlayer());
+
+        final int[][] paths = new int[order.size()][];
+        final int[] surplus = new int[order.size()];
+        final boolean[] arrived = new boolean[order.size()];
+        for (int i = 0; i < order.size(); i++) {
+            final Player player = order.get(i);
+            final TilePosition position = gameState.getPlayerPositions().get(player);
+            surplus[i] = gameState.getPlayerPointSurplus().getOrDefault(player, 0);
+            arrived[i] = targetPosition.equals(position);
+            if (i != me && !arrived[i]) {
+                // the rented rails of the other players are unknown, so they may use any rail
+                final int from = model.indexOf(position);
+                paths[i] = model.cheapestPath(from, target, model.drivableEdges(player, Set.of()));
+                if (paths[i] == null) {
+                    paths[i] = model.cheapestPath(from, target, model.railedEdges());
+                }
+            }
+        }
+        final boolean[] drivable = model.drivableEdges(playerController.getPlayer(), state.rentedEdges());
+        final int[][] candidatePaths = new int[candidates.length][];
+        final int[] arrivalSurplus = new int[candidates.length];
+        for (int c = 0; c < candidates.length; c++) {
+            final int tile = model.indexOf(candidates[c].getPosition());
+            if (tile == target) {
+                candidatePaths[c] = new int[0];
+                arrivalSurplus[c] = diceRollProperty.get() - drivableTiles.get(candidates[c]).size();
+            } else {
+                candidatePaths[c] = model.cheapestPath(tile, target, drivable);
+            }
+        }
+
+        final Race race = new Race(me, paths, surplus, arrived, candidatePaths, arrivalSurplus);
+        final SearchLimit limit = searchLimit();
+        final ForkJoinPool pool = playerController.getAiScheduler().getSearchPool();
+        final List<ForkJoinTask<double[]>> tasks = new ArrayList<>();
+        for (int worker = 0; worker < pool.getParallelism(); worker++) {
+            final long seed = random.nextLong();
+            tasks.add(pool.submit(() -> race.run(seed, limit)));
+        }
+        final double[] credits = new double[candidates.length];
+        for (final ForkJoinTask<double[]> task : tasks) {
+            final double[] result = task.join();
+            for (int c = 0; c < candidates.length; c++) {
+                credits[c] += result[c];
+            }
+        }
+        // equal credits go to the tile closest to the target city, so the player
+        // keeps moving when the outcome is already decided
+        final int[] remaining = new int[candidates.length];
+        for (int c = 0; c < candidates.length; c++) {
+            remaining[c] = candidatePaths[c] == null ? Integer.MAX_VALUE : IntStream.of(candidatePaths[c]).sum();
+        }
+        int best = 0;
+        for (int c = 1; c < candidates.length; c++) {
+            if (credits[c] > credits[best] || credits[c] == credits[best] && remaining[c] < remaining[best]) {
+                best = c;
+            }
+        }
+        return candidates[best];
+    }
+
+    /**
+     * The number of simulations a worker may run for a decision.
+     *
+     * @param deadline   the end of the think time in {@link System#nanoTime()}
+     *                   units
+     * @param iterations the number of simulations per worker or 0 to simulate
+     *                   until the deadline
+     */
+    private record SearchLimit(long deadline, int iterations) {
+
+        /**
+         * Returns whether a worker that ran the given number of simulations has to
+         * stop.
+         *
+         * @param done the number of simulations the worker ran
+         * @return whether the limit is reached
+         */
+        private boolean isReached(final int done) {
+            return iterations > 0 ? done >= iterations : System.nanoTime() >= deadline;
+        }
+    }
+
+    /**
+     * A node of a search tree over the rails built in the current turn.
+     */
+    private static final class Node {
+        private final int move;
+        private int[] moves;
+        private Node[] children;
+        private int expanded;
+        private int visits;
+        private double reward;
+
+        /**
+         * Creates a new node that is reached with the given move.
+         *
+         * @param move the index of the edge built, {@link #CONFIRM} or
+         *             {@link #ROOT}
+         */
+        private Node(final int move) {
+            this.move = move;
+        }
+
+        /**
+         * Returns the child with the best upper confidence bound.
+         *
+         * @return the selected child
+         */
+        private Node select() {
+            final double logVisits = Math.log(visits);
+            Node best = null;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < expanded; i++) {
+                final Node child = children[i];
+                final double bound = child.reward / child.visits
+                        + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (bound > bestBound) {
+                    best = child;
+                    bestBound = bound;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * The search for the next rail to build, shared by all workers of a
+     * decision.
+     */
+    private static final class BuildSearch {
+        private final RolloutModel model;
+        private final RolloutModel.Position root;
+        private final int seat;
+        private final int budget;
+        private final boolean drivingPhase;
+        private final int[] moves;
+        private final int[] laterSeats;
+        private final int laterBudget;
+        private final int nextRoller;
+        private final double drivingRounds;
+
+        /**
+         * Creates a new search.
+         *
+         * @param model         the model of the game
+         * @param root          the current position
+         * @param seat          the seat of the searching player
+         * @param budget        the remaining building budget of the player
+         * @param drivingPhase  whether the game is in the driving phase
+         * @param moves         the possible moves, the indices of the buildable
+         *                      edges and {@link #CONFIRM}
+         * @param laterSeats    the seats of the players that build after the
+         *                      player in the current round
+         * @param laterBudget   the building budget of these players
+         * @param nextRoller    the seat of the player rolling the dice in the next
+         *                      round of the building phase
+         * @param drivingRounds the number of driving rounds after the current
+         *                      round
+         */
+        private BuildSearch(final RolloutModel model, final RolloutModel.Position root, final int seat,
+                final int budget, final boolean drivingPhase, final int[] moves, final int[] laterSeats,
+                final int laterBudget, final int nextRoller, final double drivingRounds) {
+            this.model = model;
+            this.root = root;
+            this.seat = seat;
+            this.budget = budget;
+            this.drivingPhase = drivingPhase;
+            this.moves = moves;
+            this.laterSeats = laterSeats;
+            this.laterBudget = laterBudget;
+            this.nextRoller = nextRoller;
+            this.drivingRounds = drivingRounds;
+        }
+
+        /**
+         * Grows a search tree until the limit is reached, but at least until
+         * every move was tried once.
+         *
+         * @param seed  the seed of the random numbers of this worker
+         * @param limit the limit of the search
+         * @return the visits and the summed rewards of each move
+         */
+        private double[][] run(final long seed, final SearchLimit limit) {
+            final SplittableRandom random = new SplittableRandom(seed);
+            final int[] buffer = new int[model.getEdgeCount()];
+            final Node tree = new Node(ROOT);
+            tree.moves = moves.clone();
+            shuffle(tree.moves, tree.moves.length, random);
+            tree.children = new Node[tree.moves.length];
+            final List<Node> path = new ArrayList<>();
+            int iterations = 0;
+            do {
+                final RolloutModel.Position position = root.copy();
+                int remainingBudget = budget;
+                Node node = tree;
+                path.clear();
+                path.add(node);
+                while (node.move != CONFIRM) {
+                    if (node.moves == null) {
+                        final int count = model.buildableEdges(position, seat, remainingBudget, drivingPhase, buffer);
+                        node.moves = new int[count + 1];
+                        System.arraycopy(buffer, 0, node.moves, 0, count);
+                        node.moves[count] = CONFIRM;
+                        shuffle(node.moves, node.moves.length, random);
+                        node.children = new Node[node.moves.length];
+                    }
+                    final boolean expand = node.expanded < node.moves.length;
+                    if (expand) {
+                        node.children[node.expanded] = new Node(node.moves[node.expanded]);
+                        node = node.children[node.expanded++];
+                    } else {
+                        node = node.select();
+                    }
+                    path.add(node);
+                    if (node.move != CONFIRM) {
+                        remainingBudget -= model.build(position, node.move, seat, drivingPhase);
+                    }
+                    if (expand) {
+                        break;
+                    }
+                }
+                if (node.move != CONFIRM) {
+                    playTurn(position, seat, remainingBudget, random, buffer);
+                }
+                final double reward = rollout(position, random, buffer);
+                for (final Node visited : path) {
+                    visited.visits++;
+                    visited.reward += reward;
+                }
+                iterations++;
+            } while (!limit.isReached(iterations) || iterations < moves.length);
+
+            final double[][] result = new double[2][moves.length];
+            for (int i = 0; i < tree.expanded; i++) {
+                final Node child = tree.children[i];
+                for (int move = 0; move < moves.length; move++) {
+                    if (moves[move] == child.move) {
+                        result[0][move] = child.visits;
+                        result[1][move] = child.reward;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Plays the rest of the game up to the horizon after the turn of the
+         * searching player and rates the final position.
+         *
+         * @param position the position after the turn of the searching player
+         * @param random   the random numbers of the worker
+         * @param buffer   an array for the buildable edges
+         * @return the reward of the searching player between 0 and 1
+         */
+        private double rollout(final RolloutModel.Position position, final SplittableRandom random,
+                final int[] buffer) {
+            for (final int later : laterSeats) {
+                playTurn(position, later, laterBudget, random, buffer);
+            }
+            if (!drivingPhase) {
+                final int players = model.getPlayerCount();
+                for (int round = 0; round < HORIZON_ROUNDS
+                        && position.getUnconnectedCities() > Config.UNCONNECTED_CITIES_START_THRESHOLD; round++) {
+                    final int dice = random.nextInt(1, Config.DICE_SIDES + 1);
+                    for (int turn = 0; turn < players; turn++) {
+                        playTurn(position, (nextRoller + round + turn) % players, dice, random, buffer);
+                    }
+                }
+            }
+            final double own = model.value(position, seat, drivingRounds);
+            double bestOther = Double.NEGATIVE_INFINITY;
+            for (int other = 0; other < model.getPlayerCount(); other++) {
+                if (other != seat) {
+                    bestOther = Math.max(bestOther, model.value(position, other, drivingRounds));
+                }
+            }
+            return 0.5 + 0.5 * Math.tanh((own - bestOther) / CREDIT_SCALE);
+        }
+
+        /**
+         * Plays a turn with the rollout policy. The policy prefers rails that
+         * connect a new city, then rails without parallel cost, and may stop when
+         * only other rails are left.
+         *
+         * @param position the position
+         * @param player   the seat of the building player
+         * @param budget   the building budget of the turn
+         * @param random   the random numbers of the worker
+         * @param buffer   an array for the buildable edges
+         */
+        private void playTurn(final RolloutModel.Position position, final int player, int budget,
+                final SplittableRandom random, final int[] buffer) {
+            while (true) {
+                final int count = model.buildableEdges(position, player, budget, drivingPhase, buffer);
+                if (count == 0) {
+                    return;
+                }
+                int choice = buffer[random.nextInt(count)];
+                if (random.nextDouble() < GREEDY) {
+                    int bestCategory = -1;
+                    int ties = 0;
+                    for (int i = 0; i < count; i++) {
+                        final int edge = buffer[i];
+                        final int category = model.connectsCity(position, edge) ? 2
+                                : model.parallelCost(position, edge, player, null) == 0 ? 1 : 0;
+                        if (category > bestCategory) {
+                            bestCategory = category;
+                            choice = edge;
+                            ties = 1;
+                        } else if (category == bestCategory && random.nextInt(++ties) == 0) {
+                            choice = edge;
+                        }
+                    }
+                    // building costs credits in the driving phase
+                    if ((bestCategory == 0 || drivingPhase && bestCategory == 1)
+                            && random.nextDouble() < STOP_WITHOUT_GAIN) {
+                        return;
+                    }
+                }
+                budget -= model.build(position, choice, player, drivingPhase);
+            }
+        }
+
+        /**
+         * Shuffles the first elements of the given array.
+         *
+         * @param array  the array
+         * @param length the number of elements to shuffle
+         * @param random the random numbers of the worker
+         */
+        private static void shuffle(final int[] array, final int length, final SplittableRandom random) {
+            for (int i = length - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1);
+                final int swap = array[i];
+                array[i] = array[j];
+                array[j] = swap;
+            }
+        }
+    }
+
+    /**
+     * Races of the driving players to the target city, following the rules of
+     * the driving phase in {@link GameController}. Each player moves along its
+     * cheapest path as far as its dice roll allows.
+     */
+    private static final class Race {
+        private final int me;
+        private final int[][] paths;
+        private final int[] surplus;
+        private final boolean[] arrived;
+        private final int[][] candidatePaths;
+        private final int[] arrivalSurplus;
+
+        /**
+         * Creates new races.
+         *
+         * @param me             the index of the deciding player in the driving
+         *                       order
+         * @param paths          the driving costs along the paths of the other
+         *                       players, {@code null} if a player cannot arrive
+         * @param surplus        the current point surplus of the players
+         * @param arrived        whether the players already arrived
+         * @param candidatePaths the driving costs along the path from each
+         *                       candidate tile of the deciding player,
+         *                       {@code null} if it cannot arrive from there
+         * @param arrivalSurplus the surplus of the deciding player if the
+         *                       candidate tile is the target city
+         */
+        private Race(final int me, final int[][] paths, final int[] surplus, final boolean[] arrived,
+                final int[][] candidatePaths, final int[] arrivalSurplus) {
+            this.me = me;
+            this.paths = paths;
+            this.surplus = surplus;
+            this.arrived = arrived;
+            this.candidatePaths = candidatePaths;
+            this.arrivalSurplus = arrivalSurplus;
+        }
+
+        /**
+         * Runs races for all candidates until the limit is reached, but at least
+         * one.
+         *
+         * @param seed  the seed of the random numbers of this worker
+         * @param limit the limit of the search
+         * @return the summed credits won with each candidate
+         */
+        private double[] run(final long seed, final SearchLimit limit) {
+            final SplittableRandom random = new SplittableRandom(seed);
+            final double[] credits = new double[candidatePaths.length];
+            int races = 0;
+            do {
+                final long dice = random.nextLong();
+                for (int candidate = 0; candidate < candidatePaths.length; candidate++) {
+                    credits[candidate] += race(candidate, new SplittableRandom(dice));
+                }
+                races++;
+            } while (races < MAX_RACES && !limit.isReached(races));
+            return credits;
+        }
+
+        /**
+         * Runs a race after driving to the given candidate tile.
+         *
+         * @param candidate the index of the candidate tile
+         * @param dice      the dice of the race
+         * @return the credits won by the deciding player
+         */
+        private int race(final int candidate, final SplittableRandom dice) {
+            final int players = paths.length;
+            final int[][] paths = this.paths.clone();
+            paths[me] = candidatePaths[candidate];
+            final int[] progress = new int[players];
+            final int[] surplus = this.surplus.clone();
+            final boolean[] arrived = this.arrived.clone();
+            if (candidatePaths[candidate] != null && candidatePaths[candidate].length == 0) {
+                arrived[me] = true;
+                surplus[me] += arrivalSurplus[candidate];
+            }
+            // the players after the deciding player still move in this round
+            for (int i = me + 1; i < players; i++) {
+                move(i, paths, progress, surplus, arrived, dice);
+            }
+            for (int round = 0; round < MAX_RACE_ROUNDS; round++) {
+                int finished = 0;
+                for (final boolean done : arrived) {
+                    finished += done ? 1 : 0;
+                }
+                if (finished >= Config.WINNING_CREDITS.size() || finished == players) {
+                    break;
+                }
+                for (int i = 0; i < players; i++) {
+                    if (finished > 0 && !arrived[i]) {
+                        surplus[i] -= Config.DICE_SIDES;
+                    }
+                }
+                for (int i = 0; i < players; i++) {
+                    move(i, paths, progress, surplus, arrived, dice);
+                }
+            }
+            if (!arrived[me]) {
+                return 0;
+            }
+            int rank = 0;
+            for (int i = 0; i < players; i++) {
+                // ties are counted against the deciding player
+                if (i != me && arrived[i] && surplus[i] >= surplus[me]) {
+                    rank++;
+                }
+            }
+            return rank < Config.WINNING_CREDITS.size() ? Config.WINNING_CREDITS.get(rank) : 0;
+        }
+
+        /**
+         * Rolls the dice for a player that has not arrived yet and moves it.
+         *
+         * @param player   the index of the player in the driving order
+         * @param paths    the driving costs along the paths of the players
+         * @param progress the number of edges of the paths already driven
+         * @param surplus  the point surplus of the players
+         * @param arrived  whether the players arrived
+         * @param dice     the dice of the race
+         */
+        private static void move(final int player, final int[][] paths, final int[] progress, final int[] surplus,
+                final boolean[] arrived, final SplittableRandom dice) {
+            if (arrived[player]) {
+                return;
+            }
+            final int roll = dice.nextInt(1, Config.DICE_SIDES + 1);
+            final int[] path = paths[player];
+            if (path == null) {
+                return;
+            }
+            int cost = 0;
+            int steps = 0;
+            while (progress[player] < path.length && cost + path[progress[player]] <= roll) {
+                cost += path[progress[player]++];
+                steps++;
+            }
+            if (progress[player] == path.length) {
+                arrived[player] = true;
+                // the driven path includes the start tile twice, see PlayerController#getDrivableTiles
+                surplus[player] += roll - (steps + 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import hProjekt.Config;
+import hProjekt.controller.actions.BuildRailAction;
+import hProjekt.controller.actions.ChooseCitiesAction;
+import hProjekt.controller.actions.ChooseRailsAction;
+import hProjekt.controller.actions.ConfirmBuildAction;
+import hProjekt.controller.actions.ConfirmDrive;
+import hProjekt.controller.actions.DriveAction;
+import hProjekt.controller.actions.PlayerAction;
+import hProjekt.controller.actions.RollDiceAction;
+import hProjekt.model.City;
+import hProjekt.model.Edge;
+import hProjekt.model.EdgeCostFunction;
+import hProjekt.model.GameFork;
+import hProjekt.model.GameState;
+import hProjekt.model.HexGrid;
+import hProjekt.model.Player;
+import hProjekt.model.PlayerState;
+import hProjekt.model.Tile;
+import hProjekt.model.TilePosition;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.util.Pair;
+
+/**
+ * An AI controller that plans its network as an approximate minimum Steiner
+ * tree over the cities it wants to connect.
+ * <p>
+ * The plan is a list of legs, each a path of edges from the network to one
+ * more city, built with the shortest path heuristic: the cheapest path from
+ * the network and the legs before to the nearest city that is not planned yet
+ * becomes the next leg. An edge costs its base building cost plus its current
+ * parallel cost. The targets are the unconnected cities that pay
+ * {@link Config#CITY_CONNECTION_BONUS}, or all cities outside the network once
+ * there are none left.
+ * <p>
+ * Before every decision the plan is repaired instead of recomputed: built
+ * edges are removed, and a leg is dropped together with the legs built on it if
+ * its city is no longer a target or an opponent made one of its edges more
+ * expensive. Only the dropped part is planned again, and at most
+ * {@link #MAX_PLANNED_LEGS} legs are planned ahead, so decisions stay fast on
+ * large maps.
+ * <p>
+ * Each turn builds the prefix of the plan with the highest value that fits into
+ * the building budget. The value is the change of the credits of the player
+ * when the prefix is built on a {@link GameFork} of the game: the connection
+ * bonuses minus the credits paid.
+ * When driving, the AI moves to the drivable tile closest to the target city.
+ */
+public class PlannerAiController extends AiController {
+
+    /**
+     * The maximum number of legs planned ahead.
+     */
+    static final int MAX_PLANNED_LEGS = 5;
+
+    private final ReadOnlyProperty<Pair<City, City>> chosenCitiesProperty;
+    private final List<Leg> plan = new ArrayList<>();
+
+    /**
+     * Creates a new planner AI controller with the given player controller, hex
+     * grid, game state and active player controller.
+     * Adds a subscription to the player objective property to execute actions when
+     * the player's objective changes.
+     *
+     * @param playerController       the player controller
+     * @param hexGrid                the hex grid
+     * @param gameState              the game state
+     * @param activePlayerController the active player controller
+     * @param diceRollProperty       the current dice roll
+     * @param roundCounterProperty   the current round
+     * @param chosenCitiesProperty   the starting and target city of the driving
+     *                               round
+     */
+    public PlannerAiController(final PlayerController playerController, final HexGrid hexGrid,
+            final GameState gameState, final Property<PlayerController> activePlayerController,
+            final IntegerProperty diceRollProperty, final IntegerProperty roundCounterProperty,
+            final ReadOnlyProperty<Pair<City, City>> chosenCitiesProperty) {
+        super(playerController, hexGrid, gameState, activePlayerController, diceRollProperty, roundCounterProperty,
+                chosenCitiesProperty);
+        this.chosenCitiesProperty = chosenCitiesProperty;
+    }
+
+    @Override
+    protected void executeActionBasedOnObjective(final PlayerState state) {
+        final Set<Class<? extends PlayerAction>> allowedActions = state.playerObjective().getAllowedActions();
+        if (allowedActions.contains(RollDiceAction.class)) {
+            playerController.triggerAction(new RollDiceAction());
+        }
+        if (allowedActions.contains(BuildRailAction.class) && !state.buildableRailEdges().isEmpty()) {
+            repairPlan();
+            final Edge edge = nextRail(state);
+            final PlayerAction action = edge == null ? new ConfirmBuildAction() : new BuildRailAction(List.of(edge));
+            playerController.triggerAction(action);
+        } else if (allowedActions.contains(ConfirmBuildAction.class)) {
+            playerController.triggerAction(new ConfirmBuildAction());
+        }
+        if (allowedActions.contains(ChooseCitiesAction.class)) {
+            playerController.triggerAction(new ChooseCitiesAction());
+        }
+        if (allowedActions.contains(ConfirmDrive.class)) {
+            playerController.triggerAction(new ConfirmDrive(true));
+        }
+        if (allowedActions.contains(DriveAction.class)) {
+            playerController.triggerAction(new DriveAction(chooseDestination(state)));
+        }
+        if (allowedActions.contains(ChooseRailsAction.class)) {
+            playerController.triggerAction(new ChooseRailsAction(playerController.getSuggestedRentals()));
+        }
+    }
+
+    /**
+     * Returns the planned cost of building on the given edge: the base building
+     * cost plus the current parallel cost, or 0 if the player already owns it.
+     *
+     * @param edge the edge
+     * @return the cost of the edge
+     */
+    private int buildingCost(final Edge edge) {
+        final Player player = playerController.getPlayer();
+        return edge.hasRailOwner(player) ? 0 : edge.getBaseBuildingCost() + edge.getTotalParallelCost(player);
+    }
+
+    /**
+     * Repairs the plan after the rails changed and plans new legs up to
+     * {@link #MAX_PLANNED_LEGS}.
+     */
+    void repairPlan() {
+        final Player player = playerController.getPlayer();
+        final Set<TilePosition> network = hexGrid.getRails(player).values().stream()
+                .flatMap(edge -> edge.getAdjacentTilePositions().stream()).collect(Collectors.toSet());
+        final Set<TilePosition> targets = hexGrid.getUnconnectedCities().values().stream()
+                .filter(city -> !city.isStartingCity()).map(City::getPosition).collect(Collectors.toSet());
+        if (targets.isEmpty()) {
+            hexGrid.getCities().keySet().stream().filter(position -> !network.contains(position))
+                    .forEach(targets::add);
+        }
+
+        // the first rail has to start at a starting city
+        final Set<TilePosition> tree = new HashSet<>(network);
+        boolean rooted = !network.isEmpty();
+        for (int i = 0; i < plan.size(); i++) {
+            final Leg leg = plan.get(i);
+            leg.edges.removeIf(edge -> edge.hasRailOwner(player));
+            final boolean attached = rooted ? tree.contains(leg.start)
+                    : hexGrid.getStartingCities().containsKey(leg.start);
+            if (!attached || !targets.contains(leg.city) || !leg.isUnchanged()) {
+                plan.remove(i--);
+                continue;
+            }
+            tree.addAll(leg.getTiles());
+            rooted = true;
+        }
+
+        final Set<TilePosition> remaining = new HashSet<>(targets);
+        remaining.removeAll(tree);
+        while (plan.size() < MAX_PLANNED_LEGS && !remaining.isEmpty()) {
+            final Leg leg = cheapestLeg(rooted ? tree : hexGrid.getStartingCities().keySet(), remaining, null);
+            if (leg == null) {
+                break;
+            }
+            plan.add(leg);
+            tree.addAll(leg.getTiles());
+            remaining.removeAll(leg.getTiles());
+            rooted = true;
+        }
+    }
+
+    /**
+     * Returns the cities of the planned legs in building order.
+     *
+     * @return the planned cities
+     */
+    List<TilePosition> getPlannedCities() {
+        return plan.stream().map(leg -> leg.city).toList();
+    }
+
+    /**
+     * Returns the remaining edges of the planned legs in building order.
+     *
+     * @return the edges of each planned leg
+     */
+    List<List<Edge>> getPlannedEdges() {
+        return plan.stream().map(leg -> List.copyOf(leg.edges)).toList();
+    }
+
+    /**
+     * Finds the cheapest path from the given tiles to the nearest of the given
+     * targets with Dijkstra's algorithm.
+     *
+     * @param sources    the tiles the path may start at
+     * @param targets    the tiles the path may end at
+     * @param firstEdges the edges the path may leave the sources on, or
+     *                   {@code null} for any edge
+     * @return the leg along the path or {@code null} if no target can be reached
+     */
+    private Leg cheapestLeg(final Set<TilePosition> sources, final Set<TilePosition> targets,
+            final Set<Edge> firstEdges) {
+        final Map<TilePosition, Integer> distances = new HashMap<>();
+        final Map<TilePosition, Edge> via = new HashMap<>();
+        final PriorityQueue<Pair<TilePosition, Integer>> queue = new PriorityQueue<>(
+                Comparator.<Pair<TilePosition, Integer>>comparingInt(Pair::getValue).thenComparing(Pair::getKey));
+        for (final TilePosition source : sources) {
+            distances.put(source, 0);
+            queue.add(new Pair<>(source, 0));
+        }
+        while (!queue.isEmpty()) {
+            final Pair<TilePosition, Integer> current = queue.poll();
+            final TilePosition position = current.getKey();
+            if (current.getValue() > distances.get(position)) {
+                continue;
+            }
+            if (targets.contains(position)) {
+                final List<Edge> edges = new ArrayList<>();
+                TilePosition tile = position;
+                while (via.containsKey(tile)) {
+                    final Edge edge = via.get(tile);
+                    edges.addFirst(edge);
+                    tile = edge.getPosition1().equals(tile) ? edge.getPosition2() : edge.getPosition1();
+                }
+                return new Leg(tile, position, edges);
+            }
+            for (final Edge edge : hexGrid.getTileAt(position).getEdges()) {
+                final TilePosition next = edge.getPosition1().equals(position) ? edge.getPosition2()
+                        : edge.getPosition1();
+                if (firstEdges != null && sources.contains(position) && !sources.contains(next)
+                        && !firstEdges.contains(edge)) {
+                    continue;
+                }
+                final int distance = current.getValue() + buildingCost(edge);
+                if (distance < distances.getOrDefault(next, Integer.MAX_VALUE)) {
+                    distances.put(next, distance);
+                    via.put(next, edge);
+                    queue.add(new Pair<>(next, distance));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first rail of the prefix of the plan with the highest value
+     * that can be built with the current budget and credits.
+     * The prefix is built on a {@link GameFork}, so later rails are priced with
+     * the parallel costs and connection bonuses the earlier rails cause. The
+     * value of a prefix is the change of the credits of the player.
+     * In the building phase, ties go to the longer prefix because its rails
+     * only cost building budget. If the first rail of the plan cannot be built
+     * in this phase, the budget is spent on {@link #railTowardsPlan(PlayerState)}
+     * instead.
+     *
+     * @param state the state of the player
+     * @return the edge to build on or {@code null} to confirm the build
+     */
+    Edge nextRail(final PlayerState state) {
+        final Player player = playerController.getPlayer();
+        final boolean drivingPhase = gameState.getGamePhaseProperty().getValue() == GamePhase.DRIVING_PHASE;
+        final GameFork fork = new GameFork(gameState);
+        final int credits = fork.getCredits(player);
+        int budget = state.buildingBudget();
+        int bestValue = 0;
+        int bestLength = 0;
+        int length = 0;
+        boolean blocked = false;
+        prefix: for (final Leg leg : plan) {
+            for (final Edge edge : leg.edges) {
+                budget -= edge.getBaseBuildingCost();
+                if (length == 0 && (budget < 0 || !state.buildableRailEdges().contains(edge))) {
+                    blocked = true;
+                    break prefix;
+                }
+                if (budget < 0 || !fork.buildRail(edge, player)) {
+                    break prefix;
+                }
+                length++;
+                final int value = fork.getCredits(player) - credits;
+                if (value > bestValue || value == bestValue && !drivingPhase) {
+                    bestValue = value;
+                    bestLength = length;
+                }
+            }
+        }
+        if (bestLength > 0) {
+            return plan.stream().flatMap(leg -> leg.edges.stream()).findFirst().orElseThrow();
+        }
+        return blocked && !drivingPhase ? railTowardsPlan(state) : null;
+    }
+
+    /**
+     * Returns the buildable rail that starts the cheapest path from the network
+     * to the plan. Used when the first rail of the plan costs more budget or
+     * credits than are left.
+     *
+     * @param state the state of the player
+     * @return the edge to build on or {@code null} if no buildable rail leads
+     *         towards the plan
+     */
+    Edge railTowardsPlan(final PlayerState state) {
+        final Set<TilePosition> sources = hexGrid.getRails(playerController.getPlayer()).values().stream()
+                .flatMap(edge -> edge.getAdjacentTilePositions().stream())
+                .collect(Collectors.toCollection(HashSet::new));
+        if (sources.isEmpty()) {
+            sources.addAll(hexGrid.getStartingCities().keySet());
+        }
+        final Set<TilePosition> targets = new HashSet<>();
+        plan.forEach(leg -> targets.addAll(leg.getTiles()));
+        targets.removeAll(sources);
+        final Leg leg = cheapestLeg(sources, targets, state.buildableRailEdges());
+        return leg == null || leg.edges.isEmpty() ? null : leg.edges.getFirst();
+    }
+
+    /**
+     * Returns the drivable tile with the cheapest remaining path to the target
+     * city.
+     *
+     * @param state the state of the player
+     * @return the tile to drive to
+     */
+    private Tile chooseDestination(final PlayerState state) {
+        final TilePosition target = chosenCitiesProperty.getValue().getValue().getPosition();
+        final Set<Edge> drivable = new HashSet<>(hexGrid.getRails(playerController.getPlayer()).values());
+        state.rentedEdges().stream().filter(Edge::hasRail).forEach(drivable::add);
+        Tile best = null;
+        int bestCost = Integer.MAX_VALUE;
+        for (final Tile tile : state.drivableTiles().keySet().stream().sorted(Comparator.comparing(Tile::getPosition))
+                .toList()) {
+            int cost = 0;
+            TilePosition position = tile.getPosition();
+            final List<Edge> path = position.equals(target) ? List.of()
+                    : hexGrid.findCheapestPath(position, target, drivable, EdgeCostFunction.drivingCost());
+            if (path.isEmpty() && !position.equals(target)) {
+                cost = Integer.MAX_VALUE;
+            }
+            for (final Edge edge : path) {
+                cost += edge.getDrivingCost(position);
+                position = edge.getPosition1().equals(position) ? edge.getPosition2() : edge.getPosition1();
+            }
+            if (best == null || cost < bestCost) {
+                best = tile;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A planned path from the network to a city.
+     */
+    private final class Leg {
+        private final TilePosition start;
+        private final TilePosition city;
+        private final List<Edge> edges;
+        private final Map<Edge, Integer> plannedCosts = new HashMap<>();
+
+        /**
+         * Creates a new leg and records the current cost of its edges.
+         *
+         * @param start the tile the path starts at
+         * @param city  the city the path ends at
+         * @param edges the edges of the path in building order
+         */
+        private Leg(final TilePosition start, final TilePosition city, final List<Edge> edges) {
+            this.start = start;
+            this.city = city;
+            this.edges = edges;
+            edges.forEach(edge -> plannedCosts.put(edge, buildingCost(edge)));
+        }
+
+        /**
+         * Returns whether none of the remaining edges got more expensive since the
+         * leg was planned.
+         *
+         * @return whether the leg is still valid
+         */
+        private boolean isUnchanged() {
+            return edges.stream().allMatch(edge -> buildingCost(edge) <= plannedCosts.get(edge));
+        }
+
+        /**
+         * Returns the tiles of the leg.
+         *
+         * @return the start tile and the tiles of the remaining edges
+         */
+        private Set<TilePosition> getTiles() {
+            final Set<TilePosition> tiles = new HashSet<>(Set.of(start));
+            edges.forEach(edge -> tiles.addAll(edge.getAdjacentTilePositions()));
+            return tiles;
+        }
+    }
+}
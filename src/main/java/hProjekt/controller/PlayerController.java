@@ -3,10 +3,12 @@ package hProjekt.controller;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -21,6 +23,7 @@ import hProjekt.controller.actions.IllegalActionException;
 import hProjekt.controller.actions.PlayerAction;
 import hProjekt.model.City;
 import hProjekt.model.Edge;
+import hProjekt.model.EdgeCostFunction;
 import hProjekt.model.GameState;
 import hProjekt.model.Player;
 import hProjekt.model.PlayerState;
@@ -93,6 +96,26 @@ public class PlayerController {
         return gameController.getState();
     }
 
+    /**
+     * Returns the random instance of the game, see
+     * {@link GameController#getRandom()}.
+     *
+     * @return the random instance of the game
+     */
+    public Random getRandom() {
+        return gameController.getRandom();
+    }
+
+    /**
+     * Returns the scheduler for the decisions of AI controllers, see
+     * {@link GameController#getAiScheduler()}.
+     *
+     * @return the scheduler for the decisions of AI controllers
+     */
+    public AiScheduler getAiScheduler() {
+        return gameController.getAiScheduler();
+    }
+
     /**
      * Returns a {@link Property} with the current {@link PlayerState}.
      *
@@ -314,7 +337,7 @@ public class PlayerController {
      */
     @StudentImplementationRequired("P2.1")
     public boolean canBuildRail(Edge edge) {
-        if (edge.getRailOwners().contains(getPlayer())) {
+        if (edge.hasRailOwner(getPlayer())) {
             return false;
         }
         boolean hasEnoughBuildingBudget = edge.getBaseBuildingCost() <= buildingBudget;
@@ -431,7 +454,7 @@ public class PlayerController {
         Set<Edge> chooseableEdges = new HashSet<>();
         chooseableEdges.addAll(builtEdges.stream()
                 .flatMap(edge -> edge.getConnectedEdges().stream().filter(Edge::hasRail)
-                        .filter(e -> !e.getRailOwners().contains(player)))
+                        .filter(e -> !e.hasRailOwner(player)))
                 .distinct().toList());
 
         if (chooseableEdges.isEmpty()) {
@@ -444,7 +467,7 @@ public class PlayerController {
             final Pair<Edge, Integer> currentPair = edgeQueue.removeFirst();
             for (Edge edge : currentPair.getKey().getConnectedEdges().stream()
                     .filter(Edge::hasRail)
-                    .filter(edge -> !edge.getRailOwners().contains(player))
+                    .filter(edge -> !edge.hasRailOwner(player))
                     .filter(Predicate.not(chooseableEdges::contains)).toList()) {
                 int newDistance = currentPair.getValue() + 1;
                 if (newDistance <= Math.min(player.getCredits(), Config.MAX_RENTABLE_DISTANCE)) {
@@ -457,6 +480,39 @@ public class PlayerController {
         return chooseableEdges;
     }
 
+    /**
+     * Returns the Pareto-optimal ways to the target city using the player's rails
+     * and the edges from {@link #getChooseableEdges()}, see
+     * {@link RentalOptimizer}. Each option is faster or cheaper than all others.
+     *
+     * @return the options, fastest first and cheapest last, or an empty list if
+     *         the target city cannot be reached
+     */
+    public List<RentalOptimizer.Option> getRentalOptions() {
+        if (!getState().getGamePhaseProperty().getValue().equals(GamePhase.DRIVING_PHASE)
+                || gameController.chosenCitiesProperty().getValue() == null) {
+            return List.of();
+        }
+        return RentalOptimizer.findOptions(getState().getGrid(), player,
+                gameController.getStartingCity().getPosition(), gameController.getTargetCity().getPosition(),
+                getChooseableEdges(), player.getCredits());
+    }
+
+    /**
+     * Returns the edges to rent of the rental option with the lowest sum of rent
+     * and driving cost, so one credit of rent has to save at least one point of
+     * driving cost. Prefers the cheaper option on ties.
+     *
+     * @return the edges to rent, empty if the player's rails suffice or the target
+     *         city cannot be reached
+     */
+    public Set<Edge> getSuggestedRentals() {
+        return getRentalOptions().stream()
+                .min(Comparator.comparingInt((RentalOptimizer.Option option) -> option.rent() + option.drivingCost())
+                        .thenComparingInt(RentalOptimizer.Option::rent))
+                .map(RentalOptimizer.Option::edges).orElse(Set.of());
+    }
+
     /**
      * Chooses the edges to rent.
      *
@@ -482,19 +538,24 @@ public class PlayerController {
             throw new IllegalArgumentException("Player cannot afford to rent the chosen edges");
         }
 
+        if (edges.isEmpty() && !getState().getGrid().isConnected(player,
+                gameController.getStartingCity().getPosition(), gameController.getTargetCity().getPosition())) {
+            rentedEdges = new HashSet<>();
+            return;
+        }
+
         Set<Edge> allAvailableEdges = List.of(getState().getGrid().getRails(player).values(), edges).stream()
                 .flatMap(set -> set.stream())
                 .filter(Edge::hasRail).collect(Collectors.toSet());
-        List<Edge> pathEdges = getState().getGrid().findPath(gameController.getStartingCity().getPosition(),
-                gameController.getTargetCity().getPosition(), allAvailableEdges,
-                (from, to) -> getState().getGrid().getEdge(from, to).getDrivingCost(from));
+        List<Edge> pathEdges = getState().getGrid().findCheapestPath(gameController.getStartingCity().getPosition(),
+                gameController.getTargetCity().getPosition(), allAvailableEdges, EdgeCostFunction.drivingCost());
         if (pathEdges.isEmpty()) {
             rentedEdges = new HashSet<>();
             return;
         }
 
         hasPath = true;
-        rentedEdges = pathEdges.stream().filter(edge -> !edge.getRailOwners().contains(player))
+        rentedEdges = pathEdges.stream().filter(edge -> !edge.hasRailOwner(player))
                 .collect(Collectors.toSet());
     }
 
@@ -0,0 +1,167 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import hProjekt.Config;
+import hProjekt.model.Edge;
+import hProjekt.model.HexGrid;
+import hProjekt.model.Player;
+import hProjekt.model.TilePosition;
+
+/**
+ * Finds the rails a player can rent to drive from the starting city to the
+ * target city, trading the rent paid against the driving cost.
+ * <p>
+ * The search is a bi-criteria label-setting search: every tile keeps the
+ * labels of the paths to it that are not dominated by another path, i.e. no
+ * other path is at most as expensive in driving cost, rent and number of rented
+ * rails. Labels are settled in lexicographic order of driving cost and rent, so
+ * a settled label is never dominated later. The result is the Pareto front of
+ * the paths to the target city: each option is faster or cheaper than all
+ * others. Paths that rent more than {@link Config#MAX_RENTABLE_DISTANCE} rails
+ * or more than the credits of the player are skipped.
+ */
+public final class RentalOptimizer {
+
+    /**
+     * A way to the target city.
+     *
+     * @param edges       the rails to rent, empty if the own rails suffice
+     * @param rent        the credits paid to the owners of the rented rails
+     * @param drivingCost the driving cost of the path
+     */
+    public record Option(Set<Edge> edges, int rent, int drivingCost) {
+    }
+
+    /**
+     * A path to a tile.
+     *
+     * @param position    the tile the path ends at
+     * @param drivingCost the driving cost of the path
+     * @param rent        the rent of the path
+     * @param rented      the number of rented rails on the path
+     * @param previous    the label of the path without its last edge, or
+     *                    {@code null} at the start
+     * @param rentedEdge  the last edge if it is rented, otherwise {@code null}
+     */
+    private record Label(TilePosition position, int drivingCost, int rent, int rented, Label previous,
+            Edge rentedEdge) {
+
+        /**
+         * Returns whether this path is at least as good as the given path in every
+         * criterion.
+         *
+         * @param other the other path to the same tile
+         * @return whether this path dominates the other path
+         */
+        private boolean dominates(final Label other) {
+            return drivingCost <= other.drivingCost && rent <= other.rent && rented <= other.rented;
+        }
+    }
+
+    private static final Comparator<Label> SETTLING_ORDER = Comparator.comparingInt(Label::drivingCost)
+            .thenComparingInt(Label::rent).thenComparingInt(Label::rented).thenComparing(Label::position);
+
+    /**
+     * This class only provides static methods.
+     */
+    private RentalOptimizer() {
+    }
+
+    /**
+     * Finds the Pareto front of the ways from the start to the target using the
+     * rails of the player and the given rentable rails.
+     *
+     * @param grid     the grid
+     * @param player   the driving player
+     * @param start    the starting city
+     * @param target   the target city
+     * @param rentable the rails the player may rent, see
+     *                 {@link PlayerController#getChooseableEdges()}
+     * @param credits  the credits the player can spend on rent
+     * @return the options, fastest first and cheapest last, or an empty list if
+     *         the target cannot be reached
+     */
+    public static List<Option> findOptions(final HexGrid grid, final Player player, final TilePosition start,
+            final TilePosition target, final Set<Edge> rentable, final int credits) {
+        final Set<Edge> own = new HashSet<>(grid.getRails(player).values());
+        final Map<TilePosition, List<Label>> settled = new HashMap<>();
+        final PriorityQueue<Label> queue = new PriorityQueue<>(SETTLING_ORDER);
+        queue.add(new Label(start, 0, 0, 0, null, null));
+        final List<Option> options = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            final Label label = queue.poll();
+            final List<Label> labels = settled.computeIfAbsent(label.position(), position -> new ArrayList<>());
+            if (isDominated(labels, label)) {
+                continue;
+            }
+            labels.add(label);
+            if (label.position().equals(target)) {
+                // slower paths only make it to the front if they are cheaper
+                if (options.isEmpty() || label.rent() < options.getLast().rent()) {
+                    options.add(new Option(rentedEdges(label), label.rent(), label.drivingCost()));
+                }
+                continue;
+            }
+            for (final Edge edge : grid.getTileAt(label.position()).getEdges()) {
+                final boolean owned = own.contains(edge);
+                if (!owned && !rentable.contains(edge)) {
+                    continue;
+                }
+                final int rent = label.rent()
+                        + (owned ? 0 : edge.getRentingCost(player).values().stream().mapToInt(Integer::intValue).sum());
+                final int rented = label.rented() + (owned ? 0 : 1);
+                if (rent > credits || rented > Config.MAX_RENTABLE_DISTANCE) {
+                    continue;
+                }
+                final TilePosition next = edge.getPosition1().equals(label.position()) ? edge.getPosition2()
+                        : edge.getPosition1();
+                final Label nextLabel = new Label(next, label.drivingCost() + edge.getDrivingCost(label.position()),
+                        rent, rented, label, owned ? null : edge);
+                if (!isDominated(settled.getOrDefault(next, List.of()), nextLabel)) {
+                    queue.add(nextLabel);
+                }
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Returns whether one of the given labels dominates the given label.
+     *
+     * @param labels the settled labels of the tile
+     * @param label  the label to check
+     * @return whether the label is dominated
+     */
+    private static boolean isDominated(final List<Label> labels, final Label label) {
+        for (final Label other : labels) {
+            if (other.dominates(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the rented edges of the path of the given label.
+     *
+     * @param label the label at the end of the path
+     * @return the rented edges of the path
+     */
+    private static Set<Edge> rentedEdges(final Label label) {
+        final Set<Edge> edges = new HashSet<>();
+        for (Label current = label; current != null; current = current.previous()) {
+            if (current.rentedEdge() != null) {
+                edges.add(current.rentedEdge());
+            }
+        }
+        return edges;
+    }
+}
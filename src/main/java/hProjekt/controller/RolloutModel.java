@@ -0,0 +1,567 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hProjekt.Config;
+import hProjekt.model.City;
+import hProjekt.model.Edge;
+import hProjekt.model.EdgeImpl;
+import hProjekt.model.HexGrid;
+import hProjekt.model.Player;
+import hProjekt.model.Tile;
+import hProjekt.model.TilePosition;
+
+/**
+ * A compact model of the building and driving rules of {@link PlayerController}
+ * and {@link EdgeImpl} for the rollouts of {@link MctsAiController}.
+ * <p>
+ * Tiles, edges and players are numbered, so a {@link Position} is a handful of
+ * arrays that can be copied and played out without touching the game state.
+ * Players are numbered by their index in the game, their seat, and rail owners
+ * are kept as a bitmask with bit {@code seat} set for every owner.
+ * <p>
+ * The model follows the rules of the game with two simplifications: parallel
+ * costs are paid to the other owners only, and the costs of the edges are read
+ * once when the model is created.
+ */
+final class RolloutModel {
+
+    /**
+     * The credits a player expects to win in a driving round in which both
+     * chosen cities are in its network.
+     */
+    private static final double EXPECTED_WINNING_CREDITS = Config.WINNING_CREDITS.stream()
+            .mapToInt(Integer::intValue).average().orElse(0);
+
+    private final HexGrid grid;
+    private final List<Player> players;
+    private final Tile[] tiles;
+    private final Edge[] edges;
+    private final Map<TilePosition, Integer> tileIndices = new HashMap<>();
+    private final Map<Edge, Integer> edgeIndices = new HashMap<>();
+    private final int[] edgeTile1;
+    private final int[] edgeTile2;
+    private final int[] baseCost;
+    private final int[] drivingCostFrom1;
+    private final int[] drivingCostFrom2;
+    private final boolean[] city;
+    private final boolean[] startingCity;
+    private final int[][] tileEdges;
+    private final int cityCount;
+
+    /**
+     * Creates a new model of the given grid for the given players.
+     *
+     * @param grid    the grid of the game
+     * @param players the players of the game in seat order
+     */
+    RolloutModel(final HexGrid grid, final List<Player> players) {
+        this.grid = grid;
+        this.players = List.copyOf(players);
+        tiles = grid.getTiles().values().stream().sorted(Comparator.comparing(Tile::getPosition))
+                .toArray(Tile[]::new);
+        edges = grid.getEdges().values().stream()
+                .sorted(Comparator.comparing(Edge::getPosition1).thenComparing(Edge::getPosition2))
+                .toArray(Edge[]::new);
+        city = new boolean[tiles.length];
+        startingCity = new boolean[tiles.length];
+        int cities = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            tileIndices.put(tiles[i].getPosition(), i);
+            final City cityAt = grid.getCityAt(tiles[i].getPosition());
+            if (cityAt != null) {
+                city[i] = true;
+                startingCity[i] = cityAt.isStartingCity();
+                cities++;
+            }
+        }
+        cityCount = cities;
+
+        edgeTile1 = new int[edges.length];
+        edgeTile2 = new int[edges.length];
+        baseCost = new int[edges.length];
+        drivingCostFrom1 = new int[edges.length];
+        drivingCostFrom2 = new int[edges.length];
+        final List<List<Integer>> edgesAtTile = new ArrayList<>();
+        for (int i = 0; i < tiles.length; i++) {
+            edgesAtTile.add(new ArrayList<>());
+        }
+        for (int i = 0; i < edges.length; i++) {
+            final Edge edge = edges[i];
+            edgeIndices.put(edge, i);
+            edgeTile1[i] = tileIndices.get(edge.getPosition1());
+            edgeTile2[i] = tileIndices.get(edge.getPosition2());
+            baseCost[i] = edge.getBaseBuildingCost();
+            drivingCostFrom1[i] = edge.getDrivingCost(edge.getPosition1());
+            drivingCostFrom2[i] = edge.getDrivingCost(edge.getPosition2());
+            edgesAtTile.get(edgeTile1[i]).add(i);
+            edgesAtTile.get(edgeTile2[i]).add(i);
+        }
+        tileEdges = edgesAtTile.stream().map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges
+     */
+    int getEdgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the number of players.
+     *
+     * @return the number of players
+     */
+    int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Returns the number of cities.
+     *
+     * @return the number of cities
+     */
+    int getCityCount() {
+        return cityCount;
+    }
+
+    /**
+     * Returns the seat of the given player.
+     *
+     * @param player the player
+     * @return the index of the player in the game
+     */
+    int seatOf(final Player player) {
+        return players.indexOf(player);
+    }
+
+    /**
+     * Returns the index of the given edge.
+     *
+     * @param edge the edge
+     * @return the index of the edge
+     */
+    int indexOf(final Edge edge) {
+        return edgeIndices.get(edge);
+    }
+
+    /**
+     * Returns the index of the tile at the given position.
+     *
+     * @param position the position of the tile
+     * @return the index of the tile
+     */
+    int indexOf(final TilePosition position) {
+        return tileIndices.get(position);
+    }
+
+    /**
+     * Returns the edge with the given index.
+     *
+     * @param edge the index of the edge
+     * @return the edge
+     */
+    Edge getEdge(final int edge) {
+        return edges[edge];
+    }
+
+    /**
+     * Returns the base building cost of the edge with the given index.
+     *
+     * @param edge the index of the edge
+     * @return the base building cost
+     */
+    int getBaseCost(final int edge) {
+        return baseCost[edge];
+    }
+
+    /**
+     * Creates a position from the current rails and credits of the game.
+     * Has to be called while the game waits for an action.
+     *
+     * @return the current position
+     */
+    Position snapshot() {
+        final Position position = new Position();
+        for (int seat = 0; seat < players.size(); seat++) {
+            final Player player = players.get(seat);
+            position.credits[seat] = player.getCredits();
+            for (final Edge edge : grid.getRails(player).values()) {
+                final int index = edgeIndices.get(edge);
+                position.owners[index] |= 1 << seat;
+                position.tileOwners[edgeTile1[index]] |= 1 << seat;
+                position.tileOwners[edgeTile2[index]] |= 1 << seat;
+                position.rails[seat]++;
+            }
+        }
+        for (int tile = 0; tile < tiles.length; tile++) {
+            if (city[tile] && position.tileOwners[tile] == 0) {
+                position.unconnectedCities++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns the parallel cost the given player has to pay to build on the given
+     * edge, see {@link EdgeImpl#getTotalParallelCost(Player)}.
+     *
+     * @param position the position
+     * @param edge     the index of the edge
+     * @param seat     the seat of the building player
+     * @param fees     the array to add the fee of every other player to, may be
+     *                 {@code null}
+     * @return the total parallel cost
+     */
+    int parallelCost(final Position position, final int edge, final int seat, final int[] fees) {
+        final int playerBit = 1 << seat;
+        final int tile1 = edgeTile1[edge];
+        final int tile2 = edgeTile2[edge];
+        final int parallelOwners = position.owners[edge] & ~playerBit;
+        int neighbourOwners = 0;
+        if (!city[tile1]) {
+            final int others = otherOwners(position, tile1, edge);
+            if ((others & playerBit) == 0) {
+                neighbourOwners |= others;
+            }
+        }
+        if (!city[tile2]) {
+            final int others = otherOwners(position, tile2, edge);
+            if ((others & playerBit) == 0) {
+                neighbourOwners |= others;
+            }
+        }
+        neighbourOwners &= ~parallelOwners;
+        final int cost = city[tile1] || city[tile2] ? EdgeImpl.PARALLEL_COST_AT_CITY : EdgeImpl.PARALLEL_COST;
+        if (fees != null) {
+            for (int bits = parallelOwners; bits != 0; bits &= bits - 1) {
+                fees[Integer.numberOfTrailingZeros(bits)] += cost;
+            }
+            for (int bits = neighbourOwners; bits != 0; bits &= bits - 1) {
+                fees[Integer.numberOfTrailingZeros(bits)] += EdgeImpl.NEIGHBOUR_PARALLEL_COST;
+            }
+        }
+        return cost * Integer.bitCount(parallelOwners)
+                + EdgeImpl.NEIGHBOUR_PARALLEL_COST * Integer.bitCount(neighbourOwners);
+    }
+
+    /**
+     * Returns the owners of the rails on the edges of the given tile except the
+     * given edge.
+     *
+     * @param position the position
+     * @param tile     the index of the tile
+     * @param edge     the index of the excluded edge
+     * @return the owner bitmask
+     */
+    private int otherOwners(final Position position, final int tile, final int edge) {
+        int owners = 0;
+        for (final int other : tileEdges[tile]) {
+            if (other != edge) {
+                owners |= position.owners[other];
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Returns whether the given player can afford to build on the given edge, see
+     * {@link PlayerController#canBuildRail(Edge)}.
+     *
+     * @param position     the position
+     * @param edge         the index of the edge
+     * @param seat         the seat of the building player
+     * @param budget       the remaining building budget
+     * @param drivingPhase whether the game is in the driving phase
+     * @return whether the player can afford the edge
+     */
+    boolean canAfford(final Position position, final int edge, final int seat, final int budget,
+            final boolean drivingPhase) {
+        if ((position.owners[edge] & 1 << seat) != 0 || baseCost[edge] > budget) {
+            return false;
+        }
+        final int parallelCost = parallelCost(position, edge, seat, null);
+        return (drivingPhase ? baseCost[edge] + parallelCost : parallelCost) <= position.credits[seat];
+    }
+
+    /**
+     * Collects the edges the given player can build on, see
+     * {@link PlayerController#getBuildableRails()}.
+     *
+     * @param position     the position
+     * @param seat         the seat of the building player
+     * @param budget       the remaining building budget
+     * @param drivingPhase whether the game is in the driving phase
+     * @param buildable    the array to write the indices of the edges to, at least
+     *                     as long as the number of edges
+     * @return the number of buildable edges
+     */
+    int buildableEdges(final Position position, final int seat, final int budget, final boolean drivingPhase,
+            final int[] buildable) {
+        final int mark = ++position.mark;
+        final int playerBit = 1 << seat;
+        final boolean first = position.rails[seat] == 0;
+        int count = 0;
+        for (int tile = 0; tile < tiles.length; tile++) {
+            if (first ? !startingCity[tile] : (position.tileOwners[tile] & playerBit) == 0) {
+                continue;
+            }
+            for (final int edge : tileEdges[tile]) {
+                if (position.marks[edge] != mark) {
+                    position.marks[edge] = mark;
+                    if (canAfford(position, edge, seat, budget, drivingPhase)) {
+                        buildable[count++] = edge;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether building on the given edge connects a city that is not a
+     * starting city and has no rail yet, which pays
+     * {@link Config#CITY_CONNECTION_BONUS}.
+     *
+     * @param position the position
+     * @param edge     the index of the edge
+     * @return whether the edge connects a new city
+     */
+    boolean connectsCity(final Position position, final int edge) {
+        return isNewCity(position, edgeTile1[edge]) || isNewCity(position, edgeTile2[edge]);
+    }
+
+    /**
+     * Returns whether the given tile is a city that is not a starting city and has
+     * no rail yet.
+     *
+     * @param position the position
+     * @param tile     the index of the tile
+     * @return whether the tile is a new city
+     */
+    private boolean isNewCity(final Position position, final int tile) {
+        return city[tile] && !startingCity[tile] && position.tileOwners[tile] == 0;
+    }
+
+    /**
+     * Builds a rail for the given player, see
+     * {@link PlayerController#buildRail(Edge)}. The player has to be able to
+     * afford the edge.
+     *
+     * @param position     the position
+     * @param edge         the index of the edge
+     * @param seat         the seat of the building player
+     * @param drivingPhase whether the game is in the driving phase
+     * @return the building budget used
+     */
+    int build(final Position position, final int edge, final int seat, final boolean drivingPhase) {
+        if (connectsCity(position, edge)) {
+            position.credits[seat] += Config.CITY_CONNECTION_BONUS;
+        }
+        final int[] fees = position.fees;
+        Arrays.fill(fees, 0);
+        final int parallelCost = parallelCost(position, edge, seat, fees);
+        for (int other = 0; other < fees.length; other++) {
+            position.credits[other] += fees[other];
+        }
+        position.credits[seat] -= drivingPhase ? baseCost[edge] + parallelCost : parallelCost;
+
+        addTileOwner(position, edgeTile1[edge], seat);
+        addTileOwner(position, edgeTile2[edge], seat);
+        position.owners[edge] |= 1 << seat;
+        position.rails[seat]++;
+        return baseCost[edge];
+    }
+
+    /**
+     * Marks the given tile as reached by a rail of the given player.
+     *
+     * @param position the position
+     * @param tile     the index of the tile
+     * @param seat     the seat of the player
+     */
+    private void addTileOwner(final Position position, final int tile, final int seat) {
+        if (city[tile] && position.tileOwners[tile] == 0) {
+            position.unconnectedCities--;
+        }
+        position.tileOwners[tile] |= 1 << seat;
+    }
+
+    /**
+     * Estimates the credits the given player will have at the end of the game:
+     * its current credits plus the credits it expects to win with its network
+     * in the remaining driving rounds. A network wins a round if both chosen
+     * cities are in it.
+     *
+     * @param position      the position
+     * @param seat          the seat of the player
+     * @param drivingRounds the number of driving rounds left
+     * @return the estimated final credits
+     */
+    double value(final Position position, final int seat, final double drivingRounds) {
+        final int playerBit = 1 << seat;
+        int connected = 0;
+        for (int tile = 0; tile < tiles.length; tile++) {
+            if (city[tile] && (position.tileOwners[tile] & playerBit) != 0) {
+                connected++;
+            }
+        }
+        final double bothChosen = cityCount < 2 ? 0
+                : (double) connected * (connected - 1) / ((double) cityCount * (cityCount - 1));
+        return position.credits[seat] + drivingRounds * bothChosen * EXPECTED_WINNING_CREDITS;
+    }
+
+    /**
+     * Returns the edges the given player can drive on: its own rails and the
+     * given rented edges.
+     *
+     * @param player the player
+     * @param rented the rented edges
+     * @return the drivable edges by index
+     */
+    boolean[] drivableEdges(final Player player, final Set<Edge> rented) {
+        final boolean[] drivable = new boolean[edges.length];
+        grid.getRails(player).values().forEach(edge -> drivable[edgeIndices.get(edge)] = true);
+        rented.stream().filter(Edge::hasRail).forEach(edge -> drivable[edgeIndices.get(edge)] = true);
+        return drivable;
+    }
+
+    /**
+     * Returns the edges with a rail of any player.
+     *
+     * @return the edges with a rail by index
+     */
+    boolean[] railedEdges() {
+        final boolean[] railed = new boolean[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            railed[i] = edges[i].hasRail();
+        }
+        return railed;
+    }
+
+    /**
+     * Finds the cheapest path by driving cost between two tiles over the given
+     * edges.
+     *
+     * @param from     the index of the start tile
+     * @param to       the index of the target tile
+     * @param drivable the edges that may be used
+     * @return the driving costs of the edges of the path in driving order, or
+     *         {@code null} if there is no path
+     */
+    int[] cheapestPath(final int from, final int to, final boolean[] drivable) {
+        final int[] distance = new int[tiles.length];
+        final int[] via = new int[tiles.length];
+        final boolean[] done = new boolean[tiles.length];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        Arrays.fill(via, -1);
+        distance[from] = 0;
+        while (true) {
+            int current = -1;
+            for (int tile = 0; tile < tiles.length; tile++) {
+                if (!done[tile] && distance[tile] != Integer.MAX_VALUE
+                        && (current < 0 || distance[tile] < distance[current])) {
+                    current = tile;
+                }
+            }
+            if (current < 0) {
+                return null;
+            }
+            if (current == to) {
+                break;
+            }
+            done[current] = true;
+            for (final int edge : tileEdges[current]) {
+                if (!drivable[edge]) {
+                    continue;
+                }
+                final boolean forward = edgeTile1[edge] == current;
+                final int next = forward ? edgeTile2[edge] : edgeTile1[edge];
+                final int cost = distance[current] + (forward ? drivingCostFrom1[edge] : drivingCostFrom2[edge]);
+                if (!done[next] && cost < distance[next]) {
+                    distance[next] = cost;
+                    via[next] = edge;
+                }
+            }
+        }
+
+        final List<Integer> costs = new ArrayList<>();
+        for (int tile = to; tile != from;) {
+            final int edge = via[tile];
+            final boolean forward = edgeTile2[edge] == tile;
+            costs.addFirst(forward ? drivingCostFrom1[edge] : drivingCostFrom2[edge]);
+            tile = forward ? edgeTile1[edge] : edgeTile2[edge];
+        }
+        return costs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The rails and credits of all players at one point of a rollout.
+     */
+    final class Position {
+        private final int[] owners = new int[edges.length];
+        private final int[] tileOwners = new int[tiles.length];
+        private final int[] credits = new int[players.size()];
+        private final int[] rails = new int[players.size()];
+        private final int[] marks = new int[edges.length];
+        private final int[] fees = new int[players.size()];
+        private int unconnectedCities;
+        private int mark;
+
+        /**
+         * Creates an empty position.
+         */
+        private Position() {
+        }
+
+        /**
+         * Creates a copy of the given position.
+         *
+         * @param position the position to copy
+         */
+        private Position(final Position position) {
+            System.arraycopy(position.owners, 0, owners, 0, owners.length);
+            System.arraycopy(position.tileOwners, 0, tileOwners, 0, tileOwners.length);
+            System.arraycopy(position.credits, 0, credits, 0, credits.length);
+            System.arraycopy(position.rails, 0, rails, 0, rails.length);
+            unconnectedCities = position.unconnectedCities;
+        }
+
+        /**
+         * Returns a copy of this position that can be changed independently.
+         *
+         * @return a copy of this position
+         */
+        Position copy() {
+            return new Position(this);
+        }
+
+        /**
+         * Returns the credits of the given player.
+         *
+         * @param seat the seat of the player
+         * @return the credits of the player
+         */
+        int getCredits(final int seat) {
+            return credits[seat];
+        }
+
+        /**
+         * Returns the number of cities without a rail.
+         *
+         * @return the number of unconnected cities
+         */
+        int getUnconnectedCities() {
+            return unconnectedCities;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package hProjekt.controller;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import hProjekt.controller.HeadlessGame.Outcome;
+import hProjekt.controller.HeadlessGame.Result;
+
+/**
+ * A round-robin tournament between AI controllers.
+ * In every round, each pair of entrants plays two head-to-head games on the
+ * same map, one with each entrant moving first. All pairs of a round share the
+ * map of the round, so no entrant gets easier maps than another. The games are
+ * played in parallel and their results are written to a CSV stream and added to
+ * {@link TournamentRatings} as they finish.
+ */
+public final class Tournament {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Class<? extends AiController>> controllers;
+    private final int threads;
+    private final long timeoutMillis;
+
+    /**
+     * Creates a new tournament between the given AI controllers.
+     * A controller that is given more than once takes part as multiple entrants,
+     * which shows how far apart the ratings of equal entrants are.
+     *
+     * @param controllers   the AI controllers of the entrants
+     * @param threads       the number of games to play at the same time
+     * @param timeoutMillis the time after which a game is stopped or 0 for no
+     *                      limit
+     * @throws IllegalArgumentException if there are fewer than two entrants
+     */
+    public Tournament(final List<Class<? extends AiController>> controllers, final int threads,
+            final long timeoutMillis) {
+        if (controllers.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two entrants");
+        }
+        this.controllers = List.copyOf(controllers);
+        this.threads = threads;
+        this.timeoutMillis = timeoutMillis;
+        final Map<String, Integer> counts = new HashMap<>();
+        for (final Class<? extends AiController> controller : controllers) {
+            counts.merge(controller.getSimpleName(), 1, Integer::sum);
+        }
+        final Map<String, Integer> seen = new HashMap<>();
+        for (final Class<? extends AiController> controller : controllers) {
+            final String name = controller.getSimpleName();
+            final int index = seen.merge(name, 1, Integer::sum);
+            names.add(counts.get(name) > 1 ? name + " #" + index : name);
+        }
+    }
+
+    /**
+     * Returns the names of the entrants.
+     *
+     * @return the names of the entrants
+     */
+    public List<String> getNames() {
+        return List.copyOf(names);
+    }
+
+    /**
+     * Returns the number of games played per round.
+     *
+     * @return the number of games per round
+     */
+    public int getGamesPerRound() {
+        return controllers.size() * (controllers.size() - 1);
+    }
+
+    /**
+     * Plays the given number of rounds.
+     * The results are written as CSV to the given writer, one line per game in
+     * the order the games finished, and flushed after every game.
+     *
+     * @param seed             the seed the maps of the rounds are derived from
+     * @param rounds           the number of rounds
+     * @param results          the writer for the results
+     * @param progressInterval the number of games after which the progress
+     *                         listener is called
+     * @param progress         called with the ratings after every
+     *                         {@code progressInterval} games, except after the
+     *                         last game
+     * @return the ratings after all games
+     * @throws IOException          if the results could not be written
+     * @throws InterruptedException if the thread was interrupted while waiting for
+     *                              the games
+     */
+    public TournamentRatings run(final long seed, final int rounds, final Writer results, final int progressInterval,
+            final Consumer<TournamentRatings> progress) throws IOException, InterruptedException {
+        final TournamentRatings ratings = new TournamentRatings(names);
+        final int n = controllers.size();
+        final HeadlessGame[][] games = new HeadlessGame[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    games[i][j] = new HeadlessGame(List.of(controllers.get(i), controllers.get(j)), timeoutMillis);
+                }
+            }
+        }
+
+        results.write("game,round,seed,first,second,outcome,score_first,credits_first,credits_second,"
+                + "rails_first,rails_second,building_rounds,driving_rounds,millis\n");
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "tournament-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final CompletionService<Game> completion = new ExecutorCompletionService<>(executor);
+            int submitted = 0;
+            for (int round = 0; round < rounds; round++) {
+                final long roundSeed = HeadlessGame.seedOf(seed, round);
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        if (i == j) {
+                            continue;
+                        }
+                        final Game game = new Game(submitted++, round, i, j);
+                        final HeadlessGame headlessGame = games[i][j];
+                        completion.submit(() -> game.play(headlessGame, roundSeed));
+                    }
+                }
+            }
+            for (int finished = 1; finished <= submitted; finished++) {
+                final Game game = completion.take().get();
+                final Result result = game.result;
+                final double score = score(result);
+                if (result.outcome() == Outcome.FINISHED) {
+                    ratings.record(game.first, game.second, score);
+                }
+                results.write("%d,%d,%d,%s,%s,%s,%s,%d,%d,%d,%d,%d,%d,%d%n".formatted(game.index, game.round,
+                        result.seed(), names.get(game.first), names.get(game.second), result.outcome(),
+                        result.outcome() == Outcome.FINISHED ? String.valueOf(score) : "",
+                        result.credits().get(0), result.credits().get(1), result.rails().get(0),
+                        result.rails().get(1), result.buildingRounds(), result.drivingRounds(),
+                        (result.setupNanos() + result.buildingNanos() + result.drivingNanos()) / 1_000_000));
+                results.flush();
+                if (finished % progressInterval == 0 && finished < submitted) {
+                    progress.accept(ratings);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game could not be played", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return ratings;
+    }
+
+    /**
+     * Returns the score of the entrant in the first seat. The entrant with more
+     * credits wins, equal credits are a draw.
+     *
+     * @param result the result of the game
+     * @return 1 for a win, 0.5 for a draw and 0 for a loss
+     */
+    private static double score(final Result result) {
+        return Math.signum(result.credits().get(0) - result.credits().get(1)) / 2 + 0.5;
+    }
+
+    /**
+     * A scheduled game of the tournament.
+     */
+    private static final class Game {
+        private final int index;
+        private final int round;
+        private final int first;
+        private final int second;
+        private Result result;
+
+        /**
+         * Creates a new scheduled game.
+         *
+         * @param index  the index of the game in the schedule
+         * @param round  the round of the game
+         * @param first  the index of the entrant in the first seat
+         * @param second the index of the entrant in the second seat
+         */
+        private Game(final int index, final int round, final int first, final int second) {
+            this.index = index;
+            this.round = round;
+            this.first = first;
+            this.second = second;
+        }
+
+        /**
+         * Plays the game.
+         *
+         * @param game the headless game with the entrants in their seats
+         * @param seed the seed of the round
+         * @return this game
+         */
+        private Game play(final HeadlessGame game, final long seed) {
+            result = game.play(seed);
+            return this;
+        }
+    }
+}
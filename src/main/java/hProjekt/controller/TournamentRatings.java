@@ -0,0 +1,257 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the results of head-to-head games between the entrants of a
+ * {@link Tournament} and derives Elo ratings with confidence intervals from
+ * them.
+ * <p>
+ * Results are added one game at a time. The ratings are a Bradley-Terry fit of
+ * all results so far, so they do not depend on the order in which the games
+ * finished, unlike a classic Elo update. Each entrant starts with one virtual
+ * draw against an average opponent, which keeps the ratings finite for
+ * entrants that won or lost every game. Draws count as half a win.
+ * <p>
+ * All methods are thread-safe.
+ */
+public final class TournamentRatings {
+
+    /**
+     * The Elo rating of an average entrant.
+     */
+    public static final double BASE_RATING = 1500;
+
+    /**
+     * The z-score of the two-sided 95% confidence intervals.
+     */
+    private static final double Z_95 = 1.959964;
+
+    private static final double ELO_PER_NAT = 400 / Math.log(10);
+    private static final int MAX_ITERATIONS = 1000;
+
+    /**
+     * The rating of an entrant.
+     *
+     * @param name    the name of the entrant
+     * @param games   the number of games the entrant played
+     * @param score   the mean score of the entrant, 1 for a win, 0.5 for a draw
+     * @param elo     the Elo rating
+     * @param error95 the half width of the 95% confidence interval of the rating
+     */
+    public record Rating(String name, int games, double score, double elo, double error95) {
+    }
+
+    /**
+     * The results of the games between two entrants.
+     *
+     * @param first   the name of the first entrant
+     * @param second  the name of the second entrant
+     * @param games   the number of games between them
+     * @param score   the mean score of the first entrant
+     * @param eloDiff the Elo difference of the first entrant to the second
+     *                entrant that corresponds to the score
+     * @param lower95 the lower bound of the 95% confidence interval of the
+     *                difference
+     * @param upper95 the upper bound of the 95% confidence interval of the
+     *                difference
+     * @param los     the likelihood that the first entrant is stronger than the
+     *                second entrant
+     */
+    public record Matchup(String first, String second, int games, double score, double eloDiff, double lower95,
+            double upper95, double los) {
+    }
+
+    private final List<String> names;
+    private final int[][] games;
+    private final double[][] scores;
+    private final double[][] squaredScores;
+    private int totalGames;
+
+    /**
+     * Creates new ratings for the given entrants.
+     *
+     * @param names the names of the entrants
+     */
+    public TournamentRatings(final List<String> names) {
+        this.names = List.copyOf(names);
+        this.games = new int[names.size()][names.size()];
+        this.scores = new double[names.size()][names.size()];
+        this.squaredScores = new double[names.size()][names.size()];
+    }
+
+    /**
+     * Adds the result of a game between two different entrants.
+     *
+     * @param first  the index of the first entrant
+     * @param second the index of the second entrant
+     * @param score  the score of the first entrant, 1 for a win, 0.5 for a draw
+     *               and 0 for a loss
+     * @throws IllegalArgumentException if the entrants are the same or the score
+     *                                  is not between 0 and 1
+     */
+    public synchronized void record(final int first, final int second, final double score) {
+        if (first == second || score < 0 || score > 1) {
+            throw new IllegalArgumentException("Invalid result: %d vs %d, %s".formatted(first, second, score));
+        }
+        games[first][second]++;
+        games[second][first]++;
+        scores[first][second] += score;
+        scores[second][first] += 1 - score;
+        squaredScores[first][second] += score * score;
+        squaredScores[second][first] += (1 - score) * (1 - score);
+        totalGames++;
+    }
+
+    /**
+     * Returns the number of recorded games.
+     *
+     * @return the number of recorded games
+     */
+    public synchronized int getGames() {
+        return totalGames;
+    }
+
+    /**
+     * Returns the ratings of all entrants, best first.
+     *
+     * @return the ratings of all entrants
+     */
+    public synchronized List<Rating> getRatings() {
+        final int n = names.size();
+        final double[] strengths = fitStrengths();
+        final List<Rating> ratings = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            // Fisher information of the log strength, including the virtual draw
+            double information = strengths[i] / ((strengths[i] + 1) * (strengths[i] + 1));
+            int played = 0;
+            double score = 0;
+            for (int j = 0; j < n; j++) {
+                final double sum = strengths[i] + strengths[j];
+                information += games[i][j] * strengths[i] * strengths[j] / (sum * sum);
+                played += games[i][j];
+                score += scores[i][j];
+            }
+            ratings.add(new Rating(names.get(i), played, played == 0 ? 0.5 : score / played,
+                    BASE_RATING + ELO_PER_NAT * Math.log(strengths[i]),
+                    Z_95 * ELO_PER_NAT / Math.sqrt(information)));
+        }
+        ratings.sort((r1, r2) -> Double.compare(r2.elo(), r1.elo()));
+        return ratings;
+    }
+
+    /**
+     * Returns the head-to-head results of all pairs of entrants that played each
+     * other.
+     *
+     * @return the head-to-head results
+     */
+    public synchronized List<Matchup> getMatchups() {
+        final List<Matchup> matchups = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = i + 1; j < names.size(); j++) {
+                final int n = games[i][j];
+                if (n == 0) {
+                    continue;
+                }
+                final double mean = scores[i][j] / n;
+                double variance = squaredScores[i][j] / n - mean * mean;
+                if (variance <= 0) {
+                    // all games ended the same, assume the variance of the clamped score
+                    final double clamped = clamp(mean, n);
+                    variance = clamped * (1 - clamped);
+                }
+                final double error = Math.sqrt(variance / n);
+                final double los = normalCdf((mean - 0.5) / error);
+                matchups.add(new Matchup(names.get(i), names.get(j), n, mean, eloDiff(mean, n),
+                        eloDiff(mean - Z_95 * error, n), eloDiff(mean + Z_95 * error, n), los));
+            }
+        }
+        return matchups;
+    }
+
+    /**
+     * Fits the Bradley-Terry strengths with the minorization-maximization
+     * algorithm, normalized to a geometric mean of 1.
+     *
+     * @return the strength of each entrant
+     */
+    private double[] fitStrengths() {
+        final int n = names.size();
+        final double[] strengths = new double[n];
+        Arrays.fill(strengths, 1);
+        final double[] wins = new double[n];
+        for (int i = 0; i < n; i++) {
+            wins[i] = 0.5;
+            for (int j = 0; j < n; j++) {
+                wins[i] += scores[i][j];
+            }
+        }
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double change = 0;
+            double logSum = 0;
+            final double[] next = new double[n];
+            for (int i = 0; i < n; i++) {
+                double denominator = 1 / (strengths[i] + 1);
+                for (int j = 0; j < n; j++) {
+                    if (games[i][j] > 0) {
+                        denominator += games[i][j] / (strengths[i] + strengths[j]);
+                    }
+                }
+                next[i] = wins[i] / denominator;
+                logSum += Math.log(next[i]);
+            }
+            final double scale = Math.exp(-logSum / n);
+            for (int i = 0; i < n; i++) {
+                next[i] *= scale;
+                change = Math.max(change, Math.abs(Math.log(next[i] / strengths[i])));
+            }
+            System.arraycopy(next, 0, strengths, 0, n);
+            if (change < 1e-9) {
+                break;
+            }
+        }
+        return strengths;
+    }
+
+    /**
+     * Converts a mean score to an Elo difference. Scores of 0 or 1 are clamped to
+     * half a game, so the difference stays finite.
+     *
+     * @param score the mean score
+     * @param games the number of games
+     * @return the Elo difference
+     */
+    private static double eloDiff(final double score, final int games) {
+        final double clamped = clamp(score, games);
+        return ELO_PER_NAT * Math.log(clamped / (1 - clamped));
+    }
+
+    /**
+     * Clamps a mean score to half a game away from 0 and 1.
+     *
+     * @param score the mean score
+     * @param games the number of games
+     * @return the clamped score
+     */
+    private static double clamp(final double score, final int games) {
+        return Math.min(Math.max(score, 0.5 / games), 1 - 0.5 / games);
+    }
+
+    /**
+     * Returns the cumulative distribution function of the standard normal
+     * distribution.
+     *
+     * @param x the argument
+     * @return the probability that a standard normal variable is at most x
+     */
+    private static double normalCdf(final double x) {
+        // Abramowitz and Stegun 7.1.26, accurate to 1.5e-7
+        final double t = 1 / (1 + 0.3275911 * Math.abs(x) / Math.sqrt(2));
+        final double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x / 2);
+        return x >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+}
@@ -0,0 +1,108 @@
+package hProjekt.controller.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import hProjekt.controller.AiPacing;
+import javafx.animation.Animation;
+
+/**
+ * Keeps track of the running animations of the game board, so AI controllers
+ * can wait until the players have seen the result of the previous action.
+ */
+public final class AnimationTracker {
+    private static final AnimationTracker INSTANCE = new AnimationTracker();
+
+    private final List<Runnable> idleListeners = new ArrayList<>();
+    private int runningAnimations;
+
+    /**
+     * Creates a new AnimationTracker.
+     */
+    private AnimationTracker() {
+    }
+
+    /**
+     * Returns the instance of the AnimationTracker.
+     *
+     * @return the instance of the AnimationTracker
+     */
+    public static AnimationTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Tracks the given animation until it stops.
+     * Has to be called on the JavaFX application thread after the animation was
+     * started.
+     *
+     * @param animation the started animation
+     */
+    public void track(final Animation animation) {
+        if (animation.getStatus() == Animation.Status.STOPPED) {
+            return;
+        }
+        synchronized (this) {
+            runningAnimations++;
+        }
+        animation.statusProperty().addListener((observable, oldStatus, newStatus) -> {
+            if (newStatus == Animation.Status.STOPPED && oldStatus != Animation.Status.STOPPED) {
+                animationStopped();
+            }
+        });
+    }
+
+    /**
+     * Runs the given action once no tracked animation is running anymore.
+     * The action runs on the calling thread if no animation is running, otherwise
+     * on the JavaFX application thread.
+     *
+     * @param action the action to run
+     */
+    public void whenIdle(final Runnable action) {
+        synchronized (this) {
+            if (runningAnimations > 0) {
+                idleListeners.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Returns a pacing that waits for the given delay and then for all tracked
+     * animations to finish. The delay also gives the JavaFX application thread the
+     * time to start the animations of the previous action.
+     *
+     * @param minDelayMillis the minimal delay in milliseconds
+     * @return a pacing that waits for the animations
+     */
+    public AiPacing pacing(final long minDelayMillis) {
+        return (decision, executor) -> executor.schedule(() -> whenIdle(() -> {
+            try {
+                executor.execute(decision);
+            } catch (RejectedExecutionException e) {
+                // the game ended while the animations were running
+            }
+        }), minDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts down the running animations and notifies the idle listeners once none
+     * is running anymore.
+     */
+    private void animationStopped() {
+        final List<Runnable> listeners;
+        synchronized (this) {
+            runningAnimations--;
+            if (runningAnimations > 0) {
+                return;
+            }
+            listeners = new ArrayList<>(idleListeners);
+            idleListeners.clear();
+        }
+        listeners.forEach(Runnable::run);
+    }
+}
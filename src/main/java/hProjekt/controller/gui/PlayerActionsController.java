@@ -16,6 +16,7 @@ import hProjekt.Config;
 import hProjekt.controller.GamePhase;
 import hProjekt.controller.PlayerController;
 import hProjekt.controller.PlayerObjective;
+import hProjekt.controller.RentalOptimizer;
 import hProjekt.controller.actions.BuildRailAction;
 import hProjekt.controller.actions.ChooseCitiesAction;
 import hProjekt.controller.actions.ChooseRailsAction;
@@ -26,10 +27,10 @@ import hProjekt.controller.actions.PlayerAction;
 import hProjekt.controller.actions.RollDiceAction;
 import hProjekt.controller.gui.scene.GameBoardController;
 import hProjekt.model.Edge;
+import hProjekt.model.EdgeCostFunction;
 import hProjekt.model.Player;
 import hProjekt.model.PlayerState;
 import hProjekt.model.Tile;
-import hProjekt.model.TilePosition;
 import hProjekt.view.menus.overlays.ChosenCitiesOverlayView;
 import hProjekt.view.menus.overlays.RollDiceOverlayView;
 import javafx.application.Platform;
@@ -71,6 +72,7 @@ public class PlayerActionsController {
     private final Property<Tile> selectedTile = new SimpleObjectProperty<>();
     private Subscription selectedTileSubscription = Subscription.EMPTY;
     private ObservableList<Edge> selectedRailPath = FXCollections.observableArrayList();
+    private int suggestedRentals;
     private final ListChangeListener<Edge> selectedRailPathListener = (change) -> {
         getHexGridController().getEdgeControllers().forEach(EdgeController::hideLabel);
         change.getList().forEach(edge -> {
@@ -204,10 +206,40 @@ public class PlayerActionsController {
     private void configureRailSelection() {
         selectedEdges.clear();
         selectedEdges.addListener(selctedEdgesListener);
+        suggestedRentals = 0;
         addChooseEdgesHandlers();
-        gameBoardController.updateConfirmationOverlay("Rent selected rails?", this::confirmSelectedRails, () -> {
+        showRailSelectionOverlay("Rent selected rails?");
+    }
+
+    /**
+     * Shows the overlay to confirm the selected rails with the given message.
+     *
+     * @param message the message to show
+     */
+    private void showRailSelectionOverlay(final String message) {
+        gameBoardController.updateConfirmationOverlay(message, this::confirmSelectedRails, () -> {
             selectedEdges.clear();
-        });
+        }, "Suggest", this::suggestRentals);
+    }
+
+    /**
+     * Selects the rails of the next Pareto-optimal rental option, see
+     * {@link PlayerController#getRentalOptions()}. Repeated clicks cycle through
+     * the options from the fastest to the cheapest.
+     */
+    private void suggestRentals() {
+        final List<RentalOptimizer.Option> options = getPlayerController().getRentalOptions();
+        selectedEdges.forEach(edge -> getHexGridController().getEdgeControllersMap().get(edge).unhighlight());
+        selectedEdges.clear();
+        if (options.isEmpty()) {
+            showRailSelectionOverlay("No rails lead to the target city. Rent selected rails?");
+            return;
+        }
+        final RentalOptimizer.Option option = options.get(suggestedRentals++ % options.size());
+        selectedEdges.addAll(option.edges());
+        showRailSelectionOverlay(String.format("Option %d/%d: %d rails for %d credits, driving cost %d. Rent?",
+                (suggestedRentals - 1) % options.size() + 1, options.size(), option.edges().size(), option.rent(),
+                option.drivingCost()));
     }
 
     /**
@@ -360,17 +392,6 @@ public class PlayerActionsController {
         getPlayerController().triggerAction(new ChooseCitiesAction());
     }
 
-    /**
-     * Calculates the driving cost function between two tiles.
-     *
-     * @param from the starting tile
-     * @param to   the target tile
-     * @return the driving cost between the two tiles
-     */
-    private Integer drivingCostFunction(TilePosition from, TilePosition to) {
-        return getHexGridController().getHexGrid().getEdge(from, to).getDrivingCost(from);
-    }
-
     /**
      * Finds the path between the hovered tile and the selected tile based on all
      * edges in the grid.
@@ -380,12 +401,11 @@ public class PlayerActionsController {
      * @return the path between the hovered and selected tile
      */
     private List<Edge> findBuildPath(Tile hoveredTile, Tile selectedTile) {
-        return getHexGridController().getHexGrid().findPath(
+        return getHexGridController().getHexGrid().findCheapestPath(
                 selectedTile.getPosition(),
                 hoveredTile.getPosition(),
-                getHexGridController().getHexGrid().getEdges().values().stream()
-                        .collect(Collectors.toSet()),
-                this::drivingCostFunction);
+                Set.copyOf(getHexGridController().getHexGrid().getEdges().values()),
+                EdgeCostFunction.drivingCost());
     }
 
     /**
@@ -440,7 +460,7 @@ public class PlayerActionsController {
         List<Edge> trimmedPath = new ArrayList<>();
 
         for (Edge edge : path) {
-            if (edge.getRailOwners().contains(getPlayer())) {
+            if (edge.hasRailOwner(getPlayer())) {
                 continue;
             }
 
@@ -591,10 +611,11 @@ public class PlayerActionsController {
      * @return the path between the hovered and selected tile
      */
     private List<Edge> findChoosenEdgesPath(Tile hoveredTile, Tile selectedTile) {
-        return getHexGridController().getHexGrid().findPath(selectedTile.getPosition(), hoveredTile.getPosition(),
+        return getHexGridController().getHexGrid().findCheapestPath(selectedTile.getPosition(),
+                hoveredTile.getPosition(),
                 Set.of(getPlayerState().choosableEdges(), getPlayer()
                         .getRails().values()).stream().flatMap(set -> set.stream()).collect(Collectors.toSet()),
-                this::drivingCostFunction);
+                EdgeCostFunction.drivingCost());
     }
 
     /**
@@ -112,6 +112,7 @@ public class PlayerAnimationController {
                 animationSequence, pulseAfter);
         showTrain();
         fullAnimation.play();
+        AnimationTracker.getInstance().track(fullAnimation);
         return fullAnimation;
     }
 
@@ -1,12 +1,15 @@
 package hProjekt.controller.gui;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.tudalgo.algoutils.student.annotation.DoNotTouch;
 
+import hProjekt.Config;
 import hProjekt.controller.GameController;
+import hProjekt.controller.HexGridPool;
 import hProjekt.controller.gui.scene.AboutSceneController;
 import hProjekt.controller.gui.scene.EndScreenSceneController;
 import hProjekt.controller.gui.scene.GameBoardController;
@@ -15,6 +18,8 @@ import hProjekt.controller.gui.scene.MainMenuSceneController;
 import hProjekt.controller.gui.scene.SceneController;
 import hProjekt.controller.gui.scene.SettingsSceneController;
 import hProjekt.controller.gui.scene.SetupGameSceneController;
+import hProjekt.model.GameState;
+import hProjekt.model.HexGrid;
 import hProjekt.model.Player;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -86,6 +91,8 @@ public class SceneSwitcher {
                     getInstance().gameController.currentDiceRollProperty(),
                     getInstance().gameController.roundCounterProperty(),
                     getInstance().gameController.chosenCitiesProperty());
+            getInstance().gameController.getAiScheduler()
+                    .setPacing(AnimationTracker.getInstance().pacing(Config.AI_DELAY_MILLIS));
             getInstance().gameLoopStarter.accept(getInstance().gameController);
             return controller;
         }),
@@ -93,7 +100,8 @@ public class SceneSwitcher {
         MAIN_MENU(MainMenuSceneController::new),
         ABOUT(AboutSceneController::new),
         SETUP_GAME_MENU(() -> {
-            getInstance().gameController = new GameController();
+            getInstance().gameController = new GameController(
+                    new GameState(HexGridPool.getInstance().take(), new ArrayList<>()));
             return new SetupGameSceneController(getInstance().gameController.getState());
         }),
         LEADERBOARD(LeaderboardSceneController::new),
@@ -115,6 +123,17 @@ public class SceneSwitcher {
         }
     }
 
+    /**
+     * Replaces the game that is being set up with a new game on the given grid.
+     *
+     * @param grid the grid to play on
+     * @return the state of the new game
+     */
+    public GameState setupGame(final HexGrid grid) {
+        gameController = new GameController(new GameState(grid, new ArrayList<>()));
+        return gameController.getState();
+    }
+
     /**
      * Loads the given {@link SceneType} and shows it on the {@link Stage}.
      *
@@ -6,6 +6,8 @@ import java.util.Map;
 import java.util.Set;
 
 import hProjekt.Config;
+import hProjekt.controller.HexGridPool;
+import hProjekt.model.CostTables;
 import hProjekt.model.Tile;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
@@ -100,6 +102,8 @@ public class SettingsController {
         drivingCostMap.put(new Pair<>(Tile.Type.PLAIN, Tile.Type.MOUNTAIN), plainToMountainDrivingCost.get());
         drivingCostMap.put(new Pair<>(Tile.Type.MOUNTAIN, Tile.Type.MOUNTAIN), mountainToMountainDrivingCost.get());
         Config.TILE_TYPE_TO_DRIVING_COST = Collections.unmodifiableMap(drivingCostMap);
+        CostTables.recompile();
+        HexGridPool.getInstance().invalidate();
 
         System.out.println("Settings saved successfully");
     }
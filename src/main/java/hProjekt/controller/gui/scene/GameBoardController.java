@@ -194,11 +194,28 @@ public class GameBoardController implements SceneController {
      * @param onNoAction  the action to execute when the no button is clicked
      */
     public void updateConfirmationOverlay(String message, Runnable onYesAction, Runnable onNoAction) {
+        updateConfirmationOverlay(message, onYesAction, onNoAction, null, null);
+    }
+
+    /**
+     * Updates the confirmation overlay with the given message and actions and an
+     * extra button.
+     *
+     * @param message       the message to show
+     * @param onYesAction   the action to execute when the yes button is clicked
+     * @param onNoAction    the action to execute when the no button is clicked
+     * @param extraText     the text of the extra button
+     * @param onExtraAction the action to execute when the extra button is
+     *                      clicked, or {@code null} to hide the extra button
+     */
+    public void updateConfirmationOverlay(String message, Runnable onYesAction, Runnable onNoAction,
+            String extraText, Runnable onExtraAction) {
         builder.addConfirmationOverlay();
         Platform.runLater(() -> {
             confirmationOverlayView.setMessage(message);
             confirmationOverlayView.setOnYesAction(onYesAction);
             confirmationOverlayView.setOnNoAction(onNoAction);
+            confirmationOverlayView.setExtraAction(extraText, onExtraAction);
         });
     }
 
@@ -1,12 +1,19 @@
 package hProjekt.controller.gui.scene;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import hProjekt.controller.AiController;
+import hProjekt.controller.gui.SceneSwitcher;
 import hProjekt.model.GameSetup;
 import hProjekt.model.GameSetupImpl;
 import hProjekt.model.GameState;
+import hProjekt.model.MapFile;
 import hProjekt.view.menus.SetupGameBuilder;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 import javafx.util.Builder;
@@ -15,9 +22,9 @@ import javafx.util.Builder;
  * The controller for the setup game scene.
  */
 public class SetupGameSceneController implements SceneController {
-    private final Builder<Region> builder;
+    private final SetupGameBuilder builder;
     private final GameSetup gameSetup;
-    private final GameState gameState;
+    private GameState gameState;
 
     /**
      * Creates a new setup game scene controller.
@@ -31,7 +38,9 @@ public class SetupGameSceneController implements SceneController {
         builder = new SetupGameBuilder(
                 this::loadGameSceneWithSetupData,
                 SceneController::loadMainMenuScene,
-                gameSetup);
+                gameSetup,
+                MapFile.listMaps(),
+                this::saveGeneratedMap);
     }
 
     @Override
@@ -48,6 +57,16 @@ public class SetupGameSceneController implements SceneController {
      * Loads the game scene with the setup data.
      */
     private void loadGameSceneWithSetupData() {
+        final String map = gameSetup.getMapSelection();
+        if (map != null && !map.isEmpty()) {
+            try {
+                gameState = SceneSwitcher.getInstance().setupGame(MapFile.read(MapFile.pathOf(map)));
+            } catch (IOException e) {
+                showError("Could not load map " + map, e);
+                builder.resetMapSelection(map);
+                return;
+            }
+        }
         System.out.println("Starting game with setup: ");
         List<String> playerNames = gameSetup.getPlayerNames();
 
@@ -87,4 +106,35 @@ public class SetupGameSceneController implements SceneController {
         SceneController.loadGameScene();
     }
 
+    /**
+     * Saves the map generated for this game to {@link MapFile#MAP_DIRECTORY}.
+     *
+     * @return the name of the saved map or {@code null} if it could not be saved
+     */
+    private String saveGeneratedMap() {
+        final String name = "map-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        try {
+            MapFile.write(gameState.getGrid(), MapFile.pathOf(name));
+        } catch (IOException e) {
+            showError("Could not save map " + name, e);
+            return null;
+        }
+        System.out.println("Saved map " + name);
+        return name;
+    }
+
+    /**
+     * Shows an error dialog for the given failed map operation.
+     *
+     * @param header    the operation that failed
+     * @param exception the cause of the failure
+     */
+    private static void showError(final String header, final IOException exception) {
+        final Alert alert = new Alert(AlertType.ERROR);
+        alert.setTitle("Map Error");
+        alert.setHeaderText(header);
+        alert.setContentText(exception.getMessage());
+        alert.showAndWait();
+    }
+
 }
@@ -13,6 +13,17 @@ public record CityImpl(
         boolean isStartingCity,
         HexGrid hexGrid) implements City {
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Leaves out the grid, whose hash code is its identity, so iterating hash
+     * based collections of cities is the same in every run.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * position.hashCode() + name.hashCode();
+    }
+
     @Override
     public String getName() {
         return name;
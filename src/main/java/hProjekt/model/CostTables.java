@@ -0,0 +1,143 @@
+package hProjekt.model;
+
+import java.util.Map;
+import java.util.Set;
+
+import hProjekt.Config;
+import javafx.util.Pair;
+
+/**
+ * The building and driving costs of {@link Config} compiled into primitive
+ * matrices indexed by {@link Tile.Type#ordinal()}.
+ * Every compilation gets a new version, so values cached from an older table
+ * can be detected with {@link #getVersion()}.
+ * The tables are recompiled by {@link #recompile()} and automatically when one
+ * of the cost maps in {@link Config} is replaced.
+ */
+public final class CostTables {
+
+    /**
+     * Marks a pair of tile types without a configured cost.
+     */
+    private static final int NO_COST = Integer.MIN_VALUE;
+
+    private static volatile CostTables current = new CostTables(0);
+
+    private final int version;
+    private final Map<Set<Tile.Type>, Integer> buildingCostSource;
+    private final Map<Pair<Tile.Type, Tile.Type>, Integer> drivingCostSource;
+    private final int[][] buildingCost;
+    private final int[][] drivingCost;
+    private final int minimumDrivingCost;
+
+    /**
+     * Compiles the current cost maps of {@link Config}.
+     *
+     * @param version the version of the new tables
+     */
+    private CostTables(final int version) {
+        final Tile.Type[] types = Tile.Type.values();
+        this.version = version;
+        this.buildingCostSource = Config.TILE_TYPE_TO_BUILDING_COST;
+        this.drivingCostSource = Config.TILE_TYPE_TO_DRIVING_COST;
+        this.buildingCost = new int[types.length][types.length];
+        this.drivingCost = new int[types.length][types.length];
+        int minimum = Integer.MAX_VALUE;
+        for (final Tile.Type from : types) {
+            for (final Tile.Type to : types) {
+                final Integer building = buildingCostSource.get(from == to ? Set.of(from) : Set.of(from, to));
+                final Integer driving = drivingCostSource.get(new Pair<>(from, to));
+                buildingCost[from.ordinal()][to.ordinal()] = building == null ? NO_COST : building;
+                drivingCost[from.ordinal()][to.ordinal()] = driving == null ? NO_COST : driving;
+                if (driving != null) {
+                    minimum = Math.min(minimum, driving);
+                }
+            }
+        }
+        this.minimumDrivingCost = minimum == Integer.MAX_VALUE ? 0 : minimum;
+    }
+
+    /**
+     * Returns the current cost tables.
+     * Recompiles them first if a cost map in {@link Config} was replaced.
+     *
+     * @return the current cost tables
+     */
+    public static CostTables get() {
+        final CostTables tables = current;
+        if (tables.buildingCostSource != Config.TILE_TYPE_TO_BUILDING_COST
+                || tables.drivingCostSource != Config.TILE_TYPE_TO_DRIVING_COST) {
+            return recompile();
+        }
+        return tables;
+    }
+
+    /**
+     * Compiles the cost maps of {@link Config} into new tables with a new version.
+     *
+     * @return the new cost tables
+     */
+    public static synchronized CostTables recompile() {
+        current = new CostTables(current.version + 1);
+        return current;
+    }
+
+    /**
+     * Returns the version of these tables.
+     *
+     * @return the version of these tables
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the cost of building a rail between tiles of the given types.
+     *
+     * @param type1 the type of the first tile
+     * @param type2 the type of the second tile
+     * @return the building cost
+     * @throws IllegalStateException if no cost is configured for the types
+     */
+    public int getBuildingCost(final Tile.Type type1, final Tile.Type type2) {
+        return checkCost(buildingCost[type1.ordinal()][type2.ordinal()], type1, type2);
+    }
+
+    /**
+     * Returns the cost of driving from a tile of the first type to a tile of the
+     * second type.
+     *
+     * @param from the type of the tile to start at
+     * @param to   the type of the tile to drive to
+     * @return the driving cost
+     * @throws IllegalStateException if no cost is configured for the types
+     */
+    public int getDrivingCost(final Tile.Type from, final Tile.Type to) {
+        return checkCost(drivingCost[from.ordinal()][to.ordinal()], from, to);
+    }
+
+    /**
+     * Returns the lowest configured driving cost.
+     *
+     * @return the lowest driving cost or {@code 0} if none is configured
+     */
+    public int getMinimumDrivingCost() {
+        return minimumDrivingCost;
+    }
+
+    /**
+     * Returns the given cost if it is configured.
+     *
+     * @param cost  the cost from a table
+     * @param type1 the first type, for the error message
+     * @param type2 the second type, for the error message
+     * @return the given cost
+     * @throws IllegalStateException if the cost is not configured
+     */
+    private static int checkCost(final int cost, final Tile.Type type1, final Tile.Type type2) {
+        if (cost == NO_COST) {
+            throw new IllegalStateException("No cost configured for " + type1 + " and " + type2);
+        }
+        return cost;
+    }
+}
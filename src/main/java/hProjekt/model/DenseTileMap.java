@@ -0,0 +1,281 @@
+package hProjekt.model;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link java.util.Map} from {@link TilePosition}s to {@link Tile}s that
+ * stores its tiles in flat arrays instead of hash buckets.
+ * The axial coordinates (q, r) are mapped into a bounding box that grows on
+ * demand. Every cell of the bounding box holds the index of the tile placed
+ * there, every tile gets a dense index in the order it was first added.
+ * Lookups by coordinates are therefore O(1) and do not allocate.
+ * Tiles can be replaced but not removed, so a tile index stays valid for the
+ * lifetime of the map.
+ * The map also caches one {@link TilePosition} per bounding box cell, so code
+ * walking over coordinates can reuse position instances instead of creating
+ * new ones.
+ */
+final class DenseTileMap extends AbstractMap<TilePosition, Tile> {
+
+    /**
+     * The value of a bounding box cell that does not contain a tile.
+     */
+    static final int NO_TILE = -1;
+
+    /**
+     * The extra space added on each side when the bounding box grows.
+     */
+    private static final int GROWTH_MARGIN = 8;
+
+    private int minQ;
+    private int minR;
+    private int width;
+    private int height;
+    private int[] cells = new int[0];
+    private TilePosition[] positions = new TilePosition[0];
+    private Tile[] tiles = new Tile[16];
+    private int size;
+
+    private final Set<Entry<TilePosition, Tile>> entrySet = new EntrySet();
+    private final Collection<Tile> values = new Values();
+
+    /**
+     * Returns the index of the tile at the given coordinates.
+     *
+     * @param q the q-coordinate
+     * @param r the r-coordinate
+     * @return the index of the tile or {@link #NO_TILE} if there is no tile
+     */
+    int indexOf(final int q, final int r) {
+        final int column = q - minQ;
+        final int row = r - minR;
+        if (column < 0 || row < 0 || column >= width || row >= height) {
+            return NO_TILE;
+        }
+        return cells[row * width + column];
+    }
+
+    /**
+     * Returns the index of the tile at the given position.
+     *
+     * @param position the position
+     * @return the index of the tile or {@link #NO_TILE} if there is no tile
+     */
+    int indexOf(final TilePosition position) {
+        return indexOf(position.q(), position.r());
+    }
+
+    /**
+     * Returns the tile at the given coordinates.
+     *
+     * @param q the q-coordinate
+     * @param r the r-coordinate
+     * @return the tile or {@code null} if there is no tile
+     */
+    Tile get(final int q, final int r) {
+        final int index = indexOf(q, r);
+        return index == NO_TILE ? null : tiles[index];
+    }
+
+    /**
+     * Returns the cached position with the given coordinates.
+     * Positions inside the bounding box are created once and then reused,
+     * positions outside of it are created on every call.
+     *
+     * @param q the q-coordinate
+     * @param r the r-coordinate
+     * @return the position with the given coordinates
+     */
+    TilePosition positionAt(final int q, final int r) {
+        final int column = q - minQ;
+        final int row = r - minR;
+        if (column < 0 || row < 0 || column >= width || row >= height) {
+            return new TilePosition(q, r);
+        }
+        final int cell = row * width + column;
+        TilePosition position = positions[cell];
+        if (position == null) {
+            position = new TilePosition(q, r);
+            positions[cell] = position;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the tile with the given index.
+     *
+     * @param index the index of the tile, must be in {@code [0, size())}
+     * @return the tile with the given index
+     */
+    Tile getByIndex(final int index) {
+        return tiles[index];
+    }
+
+    @Override
+    public Tile get(final Object key) {
+        return key instanceof TilePosition position ? get(position.q(), position.r()) : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof TilePosition position && indexOf(position) != NO_TILE;
+    }
+
+    @Override
+    public Tile put(final TilePosition position, final Tile tile) {
+        final int index = indexOf(position);
+        if (index != NO_TILE) {
+            final Tile previous = tiles[index];
+            tiles[index] = tile;
+            return previous;
+        }
+        ensureCovers(position.q(), position.r());
+        if (size == tiles.length) {
+            tiles = Arrays.copyOf(tiles, size * 2);
+        }
+        tiles[size] = tile;
+        cells[(position.r() - minR) * width + position.q() - minQ] = size;
+        size++;
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<TilePosition, Tile>> entrySet() {
+        return entrySet;
+    }
+
+    @Override
+    public Collection<Tile> values() {
+        return values;
+    }
+
+    /**
+     * Grows the bounding box so it covers the given coordinates.
+     *
+     * @param q the q-coordinate to cover
+     * @param r the r-coordinate to cover
+     */
+    private void ensureCovers(final int q, final int r) {
+        if (width == 0) {
+            minQ = q - GROWTH_MARGIN;
+            minR = r - GROWTH_MARGIN;
+            width = 2 * GROWTH_MARGIN + 1;
+            height = 2 * GROWTH_MARGIN + 1;
+            cells = new int[width * height];
+            positions = new TilePosition[width * height];
+            Arrays.fill(cells, NO_TILE);
+            return;
+        }
+        if (q >= minQ && r >= minR && q < minQ + width && r < minR + height) {
+            return;
+        }
+        // grow by at least half of the current size to keep insertions amortized O(1)
+        final int newMinQ = q < minQ ? Math.min(q, minQ - width / 2) - GROWTH_MARGIN : minQ;
+        final int newMinR = r < minR ? Math.min(r, minR - height / 2) - GROWTH_MARGIN : minR;
+        final int newMaxQ = q >= minQ + width ? Math.max(q, minQ + width + width / 2) + GROWTH_MARGIN
+                : minQ + width - 1;
+        final int newMaxR = r >= minR + height ? Math.max(r, minR + height + height / 2) + GROWTH_MARGIN
+                : minR + height - 1;
+        final int newWidth = newMaxQ - newMinQ + 1;
+        final int newHeight = newMaxR - newMinR + 1;
+        final int[] newCells = new int[newWidth * newHeight];
+        final TilePosition[] newPositions = new TilePosition[newWidth * newHeight];
+        Arrays.fill(newCells, NO_TILE);
+        for (int row = 0; row < height; row++) {
+            final int offset = (row + minR - newMinR) * newWidth + minQ - newMinQ;
+            System.arraycopy(cells, row * width, newCells, offset, width);
+            System.arraycopy(positions, row * width, newPositions, offset, width);
+        }
+        minQ = newMinQ;
+        minR = newMinR;
+        width = newWidth;
+        height = newHeight;
+        cells = newCells;
+        positions = newPositions;
+    }
+
+    /**
+     * Iterates over the tiles in index order.
+     *
+     * @param <T> the type of the returned elements
+     */
+    private abstract class TileIterator<T> implements Iterator<T> {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        /**
+         * Returns the next tile.
+         *
+         * @return the next tile
+         */
+        Tile nextTile() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            return tiles[next++];
+        }
+    }
+
+    /**
+     * The entry set view of this map.
+     */
+    private final class EntrySet extends AbstractSet<Entry<TilePosition, Tile>> {
+        @Override
+        public Iterator<Entry<TilePosition, Tile>> iterator() {
+            return new TileIterator<>() {
+                @Override
+                public Entry<TilePosition, Tile> next() {
+                    final Tile tile = nextTile();
+                    return new SimpleImmutableEntry<>(tile.getPosition(), tile);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return o instanceof Entry<?, ?> entry && entry.getValue() != null
+                    && entry.getValue().equals(DenseTileMap.this.get(entry.getKey()));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * The values view of this map.
+     */
+    private final class Values extends AbstractCollection<Tile> {
+        @Override
+        public Iterator<Tile> iterator() {
+            return new TileIterator<>() {
+                @Override
+                public Tile next() {
+                    return nextTile();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
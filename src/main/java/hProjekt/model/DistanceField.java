@@ -0,0 +1,146 @@
+package hProjekt.model;
+
+import java.util.Arrays;
+
+import hProjekt.model.TilePosition.EdgeDirection;
+
+/**
+ * The hex distance from every cell of a bounding box to the nearest of a set
+ * of source cells, computed by a multi-source breadth-first search.
+ * Cells do not have to contain a tile, so the distances are the same as the
+ * ones found by {@link TilePosition#forEachSpiral(int, int, int, TilePosition.PositionVisitor)}.
+ * Only distances below a limit are tracked, cells further away are
+ * {@link #FAR}. Sources can be added at any time, each addition only visits
+ * the cells that got closer.
+ */
+final class DistanceField {
+
+    /**
+     * The distance of a cell that is not closer than the limit to any source.
+     */
+    static final int FAR = Integer.MAX_VALUE;
+
+    private final int minQ;
+    private final int minR;
+    private final int width;
+    private final int height;
+    private final int limit;
+    private final int[] distances;
+    private final int[] queue;
+    private int head;
+    private int tail;
+
+    /**
+     * Receives a cell whose distance was lowered by
+     * {@link DistanceField#propagate(CellVisitor)}.
+     */
+    @FunctionalInterface
+    interface CellVisitor {
+
+        /**
+         * Visits the cell with the given coordinates.
+         *
+         * @param q        the q-coordinate of the cell
+         * @param r        the r-coordinate of the cell
+         * @param distance the new distance of the cell
+         */
+        void visit(int q, int r, int distance);
+    }
+
+    /**
+     * Creates a new distance field without sources.
+     * The bounding box has to contain all cells on a shortest path between any
+     * two of its cells, which is the case for any box in axial coordinates.
+     *
+     * @param minQ  the lowest q-coordinate of the bounding box
+     * @param minR  the lowest r-coordinate of the bounding box
+     * @param maxQ  the highest q-coordinate of the bounding box
+     * @param maxR  the highest r-coordinate of the bounding box
+     * @param limit the lowest distance that is not tracked
+     */
+    DistanceField(final int minQ, final int minR, final int maxQ, final int maxR, final int limit) {
+        this.minQ = minQ;
+        this.minR = minR;
+        this.width = maxQ - minQ + 1;
+        this.height = maxR - minR + 1;
+        this.limit = limit;
+        this.distances = new int[width * height];
+        this.queue = new int[width * height];
+        Arrays.fill(distances, FAR);
+    }
+
+    /**
+     * Returns the distance of the given cell to the nearest source.
+     *
+     * @param q the q-coordinate of the cell
+     * @param r the r-coordinate of the cell
+     * @return the distance or {@link #FAR} if it is not below the limit or the
+     *         cell is outside of the bounding box
+     */
+    int get(final int q, final int r) {
+        final int cell = cellOf(q, r);
+        return cell < 0 ? FAR : distances[cell];
+    }
+
+    /**
+     * Adds a source without updating the other cells.
+     * Call {@link #propagate(CellVisitor)} after adding all sources.
+     *
+     * @param q the q-coordinate of the source
+     * @param r the r-coordinate of the source
+     */
+    void seed(final int q, final int r) {
+        final int cell = cellOf(q, r);
+        if (cell >= 0 && limit > 0 && distances[cell] > 0) {
+            distances[cell] = 0;
+            queue[tail++] = cell;
+        }
+    }
+
+    /**
+     * Lowers the distances of all cells that got closer to a source since the
+     * last propagation.
+     *
+     * @param visitor gets every cell whose distance changed, including the new
+     *                sources, may be {@code null}
+     */
+    void propagate(final CellVisitor visitor) {
+        while (head < tail) {
+            final int cell = queue[head++];
+            final int q = minQ + cell % width;
+            final int r = minR + cell / width;
+            final int distance = distances[cell];
+            if (visitor != null) {
+                visitor.visit(q, r, distance);
+            }
+            if (distance + 1 >= limit) {
+                continue;
+            }
+            for (final EdgeDirection direction : EdgeDirection.VALUES) {
+                final int neighbour = cellOf(q + direction.position.q(), r + direction.position.r());
+                if (neighbour >= 0 && distances[neighbour] > distance + 1) {
+                    distances[neighbour] = distance + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        head = 0;
+        tail = 0;
+    }
+
+    /**
+     * Returns the index of the given cell.
+     *
+     * @param q the q-coordinate of the cell
+     * @param r the r-coordinate of the cell
+     * @return the index or {@code -1} if the cell is outside of the bounding box
+     */
+    private int cellOf(final int q, final int r) {
+        final int column = q - minQ;
+        final int row = r - minR;
+        if (column < 0 || row < 0 || column >= width || row >= height) {
+            return -1;
+        }
+        return row * width + column;
+    }
+}
@@ -0,0 +1,26 @@
+package hProjekt.model;
+
+/**
+ * The {@link EdgeCostFunction} returned by {@link EdgeCostFunction#drivingCost()}.
+ * There is only one instance, so path search results for it can be cached.
+ */
+final class DrivingCostFunction implements EdgeCostFunction {
+
+    /**
+     * The only instance.
+     */
+    static final DrivingCostFunction INSTANCE = new DrivingCostFunction();
+
+    private DrivingCostFunction() {
+    }
+
+    @Override
+    public int getCost(final Edge edge, final TilePosition from) {
+        return edge.getDrivingCost(from);
+    }
+
+    @Override
+    public int getMinimumCost() {
+        return Math.max(0, CostTables.get().getMinimumDrivingCost());
+    }
+}
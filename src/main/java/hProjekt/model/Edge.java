@@ -1,5 +1,6 @@
 package hProjekt.model;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -103,6 +104,38 @@ public interface Edge {
      */
     List<Player> getRailOwners();
 
+    /**
+     * Returns whether the given player has built a rail on this edge.
+     *
+     * @param player the player to check for
+     * @return {@code true} if the player owns a rail on this edge, {@code false}
+     *         otherwise
+     */
+    default boolean hasRailOwner(Player player) {
+        return getRailOwners().contains(player);
+    }
+
+    /**
+     * Returns the number of players that have built a rail on this edge.
+     *
+     * @return the number of rail owners
+     */
+    default int getRailOwnerCount() {
+        return getRailOwners().size();
+    }
+
+    /**
+     * Returns whether a player other than the given one has built a rail on this
+     * edge.
+     *
+     * @param player the player to ignore
+     * @return {@code true} if any other player owns a rail on this edge,
+     *         {@code false} otherwise
+     */
+    default boolean hasOtherRailOwners(Player player) {
+        return getRailOwners().stream().anyMatch(owner -> !owner.equals(player));
+    }
+
     /**
      * Returns the connected rails of the given player.
      *
@@ -139,6 +172,29 @@ public interface Edge {
      */
     int getTotalParallelCost(Player player);
 
+    /**
+     * Writes the credits the given player has to pay to each other player when
+     * building a rail into the given array.
+     * Index {@code id - 1} receives the credits paid to the player with that id,
+     * all other entries are set to {@code 0}.
+     * This is the same breakdown as {@link #getParallelCostPerPlayer(Player)}
+     * without creating a map, so the array can be reused.
+     *
+     * @param player    the player to calculate the parallel cost for
+     * @param costsById the array to write to, must be longer than the highest
+     *                  player id minus one
+     * @return the total parallel cost, see {@link #getTotalParallelCost(Player)}
+     */
+    default int getParallelCostPerPlayer(Player player, int[] costsById) {
+        Arrays.fill(costsById, 0);
+        int total = 0;
+        for (final Map.Entry<Player, Integer> entry : getParallelCostPerPlayer(player).entrySet()) {
+            costsById[entry.getKey().getID() - 1] = entry.getValue();
+            total += entry.getValue();
+        }
+        return total;
+    }
+
     /**
      * Returns the total cost the player has to pay to build a rail on this edge
      * including the parallel cost.
@@ -0,0 +1,49 @@
+package hProjekt.model;
+
+import hProjekt.Config;
+
+/**
+ * Calculates the cost of travelling along an edge for
+ * {@link HexGrid#findCheapestPath(TilePosition, TilePosition, java.util.Set, EdgeCostFunction)}.
+ * Costs are primitive {@code int}s and must not be negative.
+ * Path results may be cached per cost function instance until the rails of the
+ * grid or the {@link CostTables} change, so the cost of an edge must only depend
+ * on those.
+ */
+@FunctionalInterface
+public interface EdgeCostFunction {
+
+    /**
+     * Returns the cost of travelling along the given edge starting at the given
+     * position.
+     *
+     * @param edge the edge to travel along
+     * @param from the position to start at, one of the positions of the edge
+     * @return the cost of travelling along the edge
+     */
+    int getCost(Edge edge, TilePosition from);
+
+    /**
+     * Returns a lower bound for the cost of any edge.
+     * The path search uses it to scale its distance estimate, a higher bound lets
+     * it skip more tiles. The bound must never exceed the actual cost of an edge,
+     * otherwise the found path may not be the cheapest one.
+     *
+     * @return a lower bound for the cost of any edge
+     */
+    default int getMinimumCost() {
+        return 0;
+    }
+
+    /**
+     * Returns the cost function that uses {@link Edge#getDrivingCost(TilePosition)}
+     * with the lowest driving cost in {@link Config#TILE_TYPE_TO_DRIVING_COST} as
+     * lower bound.
+     * Always returns the same instance.
+     *
+     * @return the cost function for the driving cost
+     */
+    static EdgeCostFunction drivingCost() {
+        return DrivingCostFunction.INSTANCE;
+    }
+}
@@ -1,9 +1,18 @@
 package hProjekt.model;
 
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -11,23 +20,225 @@ import java.util.stream.Stream;
 
 import org.tudalgo.algoutils.student.annotation.StudentImplementationRequired;
 
-import hProjekt.Config;
 import javafx.beans.property.Property;
-import javafx.util.Pair;
 
 /**
  * Default implementation of {@link Edge}.
- *
- * @param grid       the HexGrid instance this edge is placed in
- * @param position1  the first position
- * @param position2  the second position
- * @param railOwners the road's owner, if a road has been built on this edge
+ * The edges connected to this edge are computed once by the {@link HexGrid}
+ * and kept in a compact array, see {@link #setConnectedEdges(Edge[])}.
+ * The building and driving costs are cached per {@link CostTables} version.
+ * The rail owners are kept as a bitmask with bit {@code id - 1} set for every
+ * owner, so ownership checks do not touch the owner list. The list in the
+ * {@link #getRailOwnersProperty() owners property} stays modifiable: adding or
+ * removing owners through it, or setting another list on the property, updates
+ * the bitmask and the rail indices of a {@link HexGridImpl} like
+ * {@link #addRail(Player)} and {@link #removeRail(Player)} do, just without
+ * checking the building rules.
  */
-public record EdgeImpl(
-        HexGrid grid,
-        TilePosition position1,
-        TilePosition position2,
-        Property<List<Player>> railOwners) implements Edge {
+public final class EdgeImpl implements Edge {
+
+    /**
+     * The maximum number of other edges an edge can be connected to.
+     */
+    static final int MAX_CONNECTED_EDGES = 2 * (TilePosition.EdgeDirection.SIZE - 1);
+
+    /**
+     * The highest player id that fits into the owner bitmask.
+     */
+    static final int MAX_PLAYER_ID = Short.SIZE;
+
+    /**
+     * The credits paid to each other owner of an edge when building on it.
+     */
+    public static final int PARALLEL_COST = 5;
+
+    /**
+     * The credits paid to each other owner of an edge at a city when building on
+     * it.
+     */
+    public static final int PARALLEL_COST_AT_CITY = 3;
+
+    /**
+     * The credits paid to each owner of a rail next to an edge when building on
+     * it.
+     */
+    public static final int NEIGHBOUR_PARALLEL_COST = 1;
+
+    private final HexGrid grid;
+    private final TilePosition position1;
+    private final TilePosition position2;
+    private final Property<List<Player>> railOwners;
+    private final OwnerList ownerList = new OwnerList();
+    private short railOwnerMask;
+    private Edge[] connectedEdges;
+    private Set<Edge> connectedEdgesView;
+    private volatile Costs costs;
+
+    /**
+     * The cached costs of an edge.
+     *
+     * @param version          the version of the {@link CostTables} they were read
+     *                         from
+     * @param baseBuildingCost the base building cost
+     * @param drivingCostFrom1 the driving cost starting at the first position
+     * @param drivingCostFrom2 the driving cost starting at the second position
+     */
+    private record Costs(int version, int baseBuildingCost, int drivingCostFrom1, int drivingCostFrom2) {
+    }
+
+    /**
+     * Creates a new edge.
+     *
+     * @param grid       the HexGrid instance this edge is placed in
+     * @param position1  the first position
+     * @param position2  the second position
+     * @param railOwners the road's owner, if a road has been built on this edge
+     */
+    public EdgeImpl(
+            final HexGrid grid,
+            final TilePosition position1,
+            final TilePosition position2,
+            final Property<List<Player>> railOwners) {
+        this.grid = grid;
+        this.position1 = position1;
+        this.position2 = position2;
+        this.railOwners = railOwners;
+        // the initial owners are indexed by the grid that receives this edge
+        if (railOwners.getValue() != null) {
+            this.railOwnerMask = ownerMask(railOwners.getValue());
+            for (final Player owner : railOwners.getValue()) {
+                if (ownerList.indexOfOwner(owner) < 0) {
+                    ownerList.owners.add(owner);
+                }
+            }
+        }
+        railOwners.setValue(ownerList);
+        railOwners.subscribe(this::replaceOwners);
+        // an invalid property does not report further invalidations until read
+        railOwners.getValue();
+    }
+
+    /**
+     * Returns the bit of the given player in the owner bitmask.
+     *
+     * @param player the player
+     * @return the bit of the player
+     * @throws IllegalArgumentException if the id of the player does not fit into
+     *                                  the bitmask
+     */
+    static int ownerBit(final Player player) {
+        final int id = player.getID();
+        if (id < 1 || id > MAX_PLAYER_ID) {
+            throw new IllegalArgumentException("Player ids must be between 1 and " + MAX_PLAYER_ID + ", got " + id);
+        }
+        return 1 << (id - 1);
+    }
+
+    /**
+     * Returns the owner bitmask of the given players.
+     *
+     * @param owners the players, may be {@code null}
+     * @return the bitmask with the bits of all given players set
+     */
+    private static short ownerMask(final List<Player> owners) {
+        int mask = 0;
+        if (owners != null) {
+            for (final Player owner : owners) {
+                mask |= ownerBit(owner);
+            }
+        }
+        return (short) mask;
+    }
+
+    /**
+     * Takes over the list set on the owners property.
+     * Owners missing from the new list are removed and new owners are added
+     * through the {@link OwnerList}, which keeps the grid up to date, then the
+     * property is set back to that list.
+     */
+    private void replaceOwners() {
+        final List<Player> value = railOwners.getValue();
+        if (value == ownerList) {
+            return;
+        }
+        final List<Player> replacement = value == null ? List.of() : List.copyOf(value);
+        final int mask;
+        try {
+            mask = ownerMask(replacement);
+        } catch (final IllegalArgumentException e) {
+            railOwners.setValue(ownerList);
+            throw e;
+        }
+        for (int index = ownerList.size() - 1; index >= 0; index--) {
+            if ((mask & ownerBit(ownerList.get(index))) == 0) {
+                ownerList.remove(index);
+            }
+        }
+        replacement.forEach(ownerList::add);
+        railOwners.setValue(ownerList);
+    }
+
+    /**
+     * Returns the bitmask of the rail owners of this edge.
+     * Bit {@code id - 1} is set for every player that owns a rail on this edge.
+     *
+     * @return the owner bitmask
+     */
+    public int getRailOwnerMask() {
+        return railOwnerMask & 0xFFFF;
+    }
+
+    /**
+     * Returns the HexGrid instance this edge is placed in.
+     *
+     * @return the HexGrid instance this edge is placed in
+     */
+    public HexGrid grid() {
+        return grid;
+    }
+
+    /**
+     * Returns the first position.
+     *
+     * @return the first position
+     */
+    public TilePosition position1() {
+        return position1;
+    }
+
+    /**
+     * Returns the second position.
+     *
+     * @return the second position
+     */
+    public TilePosition position2() {
+        return position2;
+    }
+
+    /**
+     * Returns the rail's owners property.
+     *
+     * @return the rail's owners property
+     */
+    public Property<List<Player>> railOwners() {
+        return railOwners;
+    }
+
+    /**
+     * Sets the edges connected to this edge, excluding this edge itself.
+     * Called by the {@link HexGrid} once all of its edges exist.
+     *
+     * @param connectedEdges the connected edges, at most
+     *                       {@link #MAX_CONNECTED_EDGES}
+     */
+    void setConnectedEdges(final Edge[] connectedEdges) {
+        if (connectedEdges.length > MAX_CONNECTED_EDGES) {
+            throw new IllegalArgumentException("An edge can be connected to at most " + MAX_CONNECTED_EDGES
+                    + " edges, got " + connectedEdges.length);
+        }
+        this.connectedEdges = connectedEdges;
+        this.connectedEdgesView = null;
+    }
 
     @Override
     public HexGrid getHexGrid() {
@@ -52,29 +263,60 @@ public record EdgeImpl(
     @Override
     @StudentImplementationRequired("P1.3")
     public Set<Edge> getConnectedRails(final Player player) {
-        return getConnectedEdges().stream()
-                .filter(Edge::hasRail)
-                .filter(edge -> edge.getRailOwnersProperty().getValue().contains(player))
-                .collect(Collectors.toUnmodifiableSet());
+        if (connectedEdges == null) {
+            return getConnectedEdges().stream()
+                    .filter(Edge::hasRail)
+                    .filter(edge -> edge.getRailOwnersProperty().getValue().contains(player))
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+        final Set<Edge> rails = new HashSet<>();
+        if (hasRailOwner(player)) {
+            rails.add(this);
+        }
+        for (final Edge edge : connectedEdges) {
+            if (edge.hasRailOwner(player)) {
+                rails.add(edge);
+            }
+        }
+        return Collections.unmodifiableSet(rails);
     }
 
     @Override
     public Map<Player, Integer> getRentingCost(Player player) {
-        if (getRailOwners().contains(player)) {
+        if (hasRailOwner(player)) {
             return Map.of();
         }
         return getRailOwners().stream().collect(Collectors.toMap(p -> p, p -> 1));
     }
 
+    /**
+     * Returns the costs of this edge, reading them from the {@link CostTables}
+     * again if they changed since the last call.
+     *
+     * @return the costs of this edge
+     */
+    private Costs costs() {
+        final CostTables tables = CostTables.get();
+        Costs cached = costs;
+        if (cached == null || cached.version() != tables.getVersion()) {
+            final Tile.Type type1 = grid.getTileAt(position1).getType();
+            final Tile.Type type2 = grid.getTileAt(position2).getType();
+            cached = new Costs(tables.getVersion(), tables.getBuildingCost(type1, type2),
+                    tables.getDrivingCost(type1, type2), tables.getDrivingCost(type2, type1));
+            costs = cached;
+        }
+        return cached;
+    }
+
     @Override
     public int getDrivingCost(TilePosition from) {
-        if (!getAdjacentTilePositions().contains(from)) {
-            throw new IllegalArgumentException("The given position is not adjacent to this edge.");
+        if (position1.equals(from)) {
+            return costs().drivingCostFrom1();
         }
-        return Config.TILE_TYPE_TO_DRIVING_COST
-                .get(new Pair<Tile.Type, Tile.Type>(getHexGrid().getTileAt(from).getType(),
-                        getHexGrid().getTileAt(getPosition1().equals(from) ? getPosition2() : getPosition1())
-                                .getType()));
+        if (position2.equals(from)) {
+            return costs().drivingCostFrom2();
+        }
+        throw new IllegalArgumentException("The given position is not adjacent to this edge.");
     }
 
     @Override
@@ -84,17 +326,40 @@ public record EdgeImpl(
 
     @Override
     public int getTotalParallelCost(Player player) {
+        if (grid instanceof HexGridImpl hexGridImpl) {
+            return parallelCost(hexGridImpl, player, null);
+        }
         return getParallelCostPerPlayer(player).values().stream().reduce(0, Integer::sum);
     }
 
+    @Override
+    public int getParallelCostPerPlayer(final Player player, final int[] costsById) {
+        if (grid instanceof HexGridImpl hexGridImpl) {
+            Arrays.fill(costsById, 0);
+            return parallelCost(hexGridImpl, player, costsById);
+        }
+        return Edge.super.getParallelCostPerPlayer(player, costsById);
+    }
+
     @Override
     public Map<Player, Integer> getParallelCostPerPlayer(Player player) {
+        if (grid instanceof HexGridImpl hexGridImpl) {
+            final int[] costsById = new int[MAX_PLAYER_ID];
+            parallelCost(hexGridImpl, player, costsById);
+            final Map<Player, Integer> result = new HashMap<>();
+            for (int slot = 0; slot < costsById.length; slot++) {
+                if (costsById[slot] > 0) {
+                    result.put(hexGridImpl.getPlayerById(slot + 1), costsById[slot]);
+                }
+            }
+            return result;
+        }
         final Map<Player, Integer> result = new HashMap<>();
-        if (!getRailOwners().isEmpty() && !(getRailOwners().size() == 1 && getRailOwners().contains(player))) {
+        if (hasOtherRailOwners(player)) {
             if (Collections.disjoint(getHexGrid().getCities().keySet(), getAdjacentTilePositions())) {
-                getRailOwners().stream().forEach(p -> result.put(p, 5));
+                getRailOwners().stream().forEach(p -> result.put(p, PARALLEL_COST));
             } else {
-                getRailOwners().stream().forEach(p -> result.put(p, 3));
+                getRailOwners().stream().forEach(p -> result.put(p, PARALLEL_COST_AT_CITY));
             }
         }
 
@@ -110,42 +375,126 @@ public record EdgeImpl(
                         return Stream.empty();
                     }
                     return owners.stream();
-                }).forEach(p -> result.put(p, Math.max(result.getOrDefault(p, 0), 1)));
+                }).forEach(p -> result.put(p, Math.max(result.getOrDefault(p, 0), NEIGHBOUR_PARALLEL_COST)));
 
         return result;
     }
 
+    /**
+     * Calculates the parallel cost of this edge from the rail counters of the
+     * given grid without allocating.
+     *
+     * @param hexGridImpl the grid of this edge
+     * @param player      the player that wants to build
+     * @param costsById   the array to write the cost per player id to, may be
+     *                    {@code null}
+     * @return the total parallel cost
+     * @see #parallelCost(int, int, boolean, int, boolean, int, int[])
+     */
+    private int parallelCost(final HexGridImpl hexGridImpl, final Player player, final int[] costsById) {
+        final int id = player.getID();
+        final int playerBit = id >= 1 && id <= MAX_PLAYER_ID ? 1 << (id - 1) : 0;
+        final int ownerMask = getRailOwnerMask();
+        final boolean cityAt1 = grid.getCityAt(position1) != null;
+        final boolean cityAt2 = grid.getCityAt(position2) != null;
+        return parallelCost(playerBit, ownerMask,
+                cityAt1, cityAt1 ? 0 : hexGridImpl.getOtherRailOwnerMask(position1, ownerMask),
+                cityAt2, cityAt2 ? 0 : hexGridImpl.getOtherRailOwnerMask(position2, ownerMask), costsById);
+    }
+
+    /**
+     * Calculates the parallel cost of an edge from owner bitmasks.
+     * Every other owner of the edge receives {@link #PARALLEL_COST}, or
+     * {@link #PARALLEL_COST_AT_CITY} if the edge touches a city. Every player with
+     * a rail on another edge of a non-city tile of the edge receives
+     * {@link #NEIGHBOUR_PARALLEL_COST}, unless the given player also has a rail
+     * there.
+     *
+     * @param playerBit the bit of the player that wants to build or {@code 0}
+     * @param ownerMask the owners of the edge
+     * @param cityAt1   whether there is a city at the first tile of the edge
+     * @param others1   the owners of the other rails at the first tile
+     * @param cityAt2   whether there is a city at the second tile of the edge
+     * @param others2   the owners of the other rails at the second tile
+     * @param costsById the array to write the cost per player id minus one to,
+     *                  may be {@code null}
+     * @return the total parallel cost
+     */
+    static int parallelCost(final int playerBit, final int ownerMask, final boolean cityAt1, final int others1,
+            final boolean cityAt2, final int others2, final int[] costsById) {
+        final int parallelOwners = (ownerMask & ~playerBit) != 0 ? ownerMask : 0;
+        int neighbourOwners = 0;
+        if (!cityAt1 && (others1 & playerBit) == 0) {
+            neighbourOwners |= others1;
+        }
+        if (!cityAt2 && (others2 & playerBit) == 0) {
+            neighbourOwners |= others2;
+        }
+        neighbourOwners &= ~parallelOwners;
+        final int cost = cityAt1 || cityAt2 ? PARALLEL_COST_AT_CITY : PARALLEL_COST;
+        if (costsById != null) {
+            for (int bits = parallelOwners; bits != 0; bits &= bits - 1) {
+                costsById[Integer.numberOfTrailingZeros(bits)] = cost;
+            }
+            for (int bits = neighbourOwners; bits != 0; bits &= bits - 1) {
+                costsById[Integer.numberOfTrailingZeros(bits)] = NEIGHBOUR_PARALLEL_COST;
+            }
+        }
+        return cost * Integer.bitCount(parallelOwners) + NEIGHBOUR_PARALLEL_COST * Integer.bitCount(neighbourOwners);
+    }
+
     @Override
     public int getBaseBuildingCost() {
-        return Config.TILE_TYPE_TO_BUILDING_COST.get(getAdjacentTilePositions().stream()
-                .map(position -> getHexGrid().getTileAt(position).getType()).collect(Collectors.toUnmodifiableSet()));
+        return costs().baseBuildingCost();
     }
 
     @Override
     public List<Player> getRailOwners() {
-        return getRailOwnersProperty().getValue();
+        return ownerList;
+    }
+
+    @Override
+    public boolean hasRailOwner(final Player player) {
+        final int id = player.getID();
+        return id >= 1 && id <= MAX_PLAYER_ID && (railOwnerMask & (1 << (id - 1))) != 0;
+    }
+
+    @Override
+    public int getRailOwnerCount() {
+        return Integer.bitCount(railOwnerMask & 0xFFFF);
+    }
+
+    @Override
+    public boolean hasOtherRailOwners(final Player player) {
+        final int id = player.getID();
+        final int others = id >= 1 && id <= MAX_PLAYER_ID ? railOwnerMask & ~(1 << (id - 1)) : railOwnerMask;
+        return (others & 0xFFFF) != 0;
     }
 
     @Override
     public boolean removeRail(Player player) {
-        return getRailOwnersProperty().getValue().remove(player);
+        if (!hasRailOwner(player)) {
+            return false;
+        }
+        ownerList.remove(ownerList.indexOfOwner(player));
+        return true;
     }
 
     @Override
     @StudentImplementationRequired("P1.3")
     public boolean addRail(Player player) {
-        if (getRailOwners().contains(player) || (player.getRails().size() > 0
-                && getConnectedEdges().stream().noneMatch(e -> e.getRailOwners().contains(player)))
+        if (hasRailOwner(player) || (player.getRails().size() > 0
+                && getConnectedEdges().stream().noneMatch(e -> e.hasRailOwner(player)))
                 || (player.getRails().size() == 0 && Collections.disjoint(getHexGrid().getStartingCities().keySet(),
                         getAdjacentTilePositions()))) {
             return false;
         }
-        return getRailOwnersProperty().getValue().add(player);
+        return ownerList.add(player);
     }
 
     @Override
     public boolean hasRail() {
-        return getRailOwnersProperty().getValue() != null && !getRailOwnersProperty().getValue().isEmpty();
+        return railOwnerMask != 0;
     }
 
     @Override
@@ -163,7 +512,168 @@ public record EdgeImpl(
     @Override
     @StudentImplementationRequired("P1.3")
     public Set<Edge> getConnectedEdges() {
-        return getHexGrid().getEdges().entrySet().stream().map(entry -> entry.getValue())
-                .filter(edge -> connectsTo(edge)).collect(Collectors.toUnmodifiableSet());
+        if (connectedEdges == null) {
+            return getHexGrid().getEdges().entrySet().stream().map(entry -> entry.getValue())
+                    .filter(edge -> connectsTo(edge)).collect(Collectors.toUnmodifiableSet());
+        }
+        if (connectedEdgesView == null) {
+            connectedEdgesView = new ConnectedEdges();
+        }
+        return connectedEdgesView;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Derived from the positions instead of the identity, so iterating hash based
+     * collections of edges is the same in every run and seeded games can be
+     * replayed.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * position1.hashCode() + position2.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EdgeImpl[position1=%s, position2=%s, railOwners=%s]", position1, position2,
+                getRailOwners());
+    }
+
+    /**
+     * The list of rail owners kept in the owners property.
+     * Every change updates the owner bitmask and then notifies the grid, so the
+     * grid sees the new owners when it updates its indices. A player owns at most
+     * one rail per edge, so adding an owner again does not change the list.
+     */
+    private final class OwnerList extends AbstractList<Player> implements RandomAccess {
+        private final List<Player> owners = new ArrayList<>(2);
+
+        /**
+         * Returns the index of the given player in this list.
+         * Players are compared by id like in the owner bitmask.
+         *
+         * @param player the player
+         * @return the index or {@code -1} if the player is not an owner
+         */
+        int indexOfOwner(final Player player) {
+            for (int index = 0; index < owners.size(); index++) {
+                if (owners.get(index).getID() == player.getID()) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Player get(final int index) {
+            return owners.get(index);
+        }
+
+        @Override
+        public int size() {
+            return owners.size();
+        }
+
+        @Override
+        public boolean add(final Player player) {
+            if (hasRailOwner(player)) {
+                return false;
+            }
+            add(owners.size(), player);
+            return true;
+        }
+
+        @Override
+        public void add(final int index, final Player player) {
+            final int bit = ownerBit(player);
+            if ((railOwnerMask & bit) != 0) {
+                throw new IllegalArgumentException(player.getName() + " already owns a rail on " + EdgeImpl.this);
+            }
+            owners.add(index, player);
+            modCount++;
+            railOwnerMask |= (short) bit;
+            if (grid instanceof HexGridImpl hexGridImpl) {
+                hexGridImpl.railAdded(EdgeImpl.this, player);
+            }
+        }
+
+        @Override
+        public Player remove(final int index) {
+            final Player player = owners.remove(index);
+            modCount++;
+            railOwnerMask &= (short) ~ownerBit(player);
+            if (grid instanceof HexGridImpl hexGridImpl) {
+                hexGridImpl.railRemoved(EdgeImpl.this, player);
+            }
+            return player;
+        }
+
+        @Override
+        public Player set(final int index, final Player player) {
+            final Player previous = owners.get(index);
+            if (previous.getID() == player.getID()) {
+                return owners.set(index, player);
+            }
+            if (hasRailOwner(player)) {
+                throw new IllegalArgumentException(player.getName() + " already owns a rail on " + EdgeImpl.this);
+            }
+            remove(index);
+            add(index, player);
+            return previous;
+        }
+
+        @Override
+        public void sort(final Comparator<? super Player> comparator) {
+            // reordering does not change the owners
+            owners.sort(comparator);
+            modCount++;
+        }
+    }
+
+    /**
+     * A read-only view of the precomputed connected edges.
+     * Like {@link #connectsTo(Edge)} it also contains this edge itself.
+     */
+    private final class ConnectedEdges extends AbstractSet<Edge> {
+        @Override
+        public Iterator<Edge> iterator() {
+            return new Iterator<>() {
+                private int next = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next < connectedEdges.length;
+                }
+
+                @Override
+                public Edge next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final Edge edge = next < 0 ? EdgeImpl.this : connectedEdges[next];
+                    next++;
+                    return edge;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            if (o == EdgeImpl.this) {
+                return true;
+            }
+            for (final Edge edge : connectedEdges) {
+                if (edge.equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return connectedEdges.length + 1;
+        }
     }
 }
@@ -0,0 +1,447 @@
+package hProjekt.model;
+
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hProjekt.Config;
+import hProjekt.controller.GamePhase;
+
+/**
+ * A copy-on-write fork of a {@link GameState} for trying moves without
+ * changing the game.
+ * <p>
+ * The fork shares the tiles, edges and cities of the grid of the game and only
+ * keeps what it changed on top of them: the rail owners of the edges it built
+ * on, the credits and the number of rails of each player, the positions of the
+ * players and the chosen cities. Creating a fork takes time in the number of
+ * players, every move in the number of its changes. All changes are recorded
+ * in a {@link MoveJournal}, so a search can {@link #mark()} the fork, try a
+ * move and {@link #undo(int)} it.
+ * <p>
+ * Building follows the rules of
+ * {@link hProjekt.controller.PlayerController#buildRail(Edge)} for the
+ * {@link GamePhase} of the game when the fork was created, except for the
+ * building budget, which is left to the caller.
+ * <p>
+ * A fork reads the rails of the game whenever it looks at an edge it did not
+ * change, so it is only valid as long as the rails of the game do not change.
+ * Afterwards the methods that look at rails throw a
+ * {@link ConcurrentModificationException}.
+ * Forks are not thread-safe.
+ */
+public final class GameFork {
+
+    private final HexGrid grid;
+    private final List<Player> players;
+    private final GamePhase phase;
+    private final long modificationCount;
+    private final int[] credits = new int[EdgeImpl.MAX_PLAYER_ID];
+    private final int[] railCounts = new int[EdgeImpl.MAX_PLAYER_ID];
+    private final Map<Edge, Integer> ownerMasks = new HashMap<>();
+    private final Map<Player, TilePosition> playerPositions;
+    private final Set<City> chosenCities;
+    private final MoveJournal journal = new MoveJournal();
+
+    /**
+     * Creates a new fork of the given game.
+     *
+     * @param gameState the game to fork
+     * @throws IllegalArgumentException if the id of a player does not fit into the
+     *                                  owner bitmasks of {@link EdgeImpl}
+     */
+    public GameFork(final GameState gameState) {
+        this.grid = gameState.getGrid();
+        this.players = List.copyOf(gameState.getPlayers());
+        this.phase = gameState.getGamePhaseProperty().getValue();
+        this.modificationCount = modificationCount(grid);
+        for (final Player player : players) {
+            final int slot = slot(player);
+            credits[slot] = player.getCredits();
+            railCounts[slot] = grid.getRails(player).size();
+        }
+        this.playerPositions = new HashMap<>(gameState.getPlayerPositions());
+        this.chosenCities = new HashSet<>(gameState.getChosenCities());
+    }
+
+    /**
+     * Returns the number of rail changes of the given grid.
+     *
+     * @param grid the grid
+     * @return the number of rail changes or {@code -1} if the grid does not count
+     *         them
+     */
+    private static long modificationCount(final HexGrid grid) {
+        if (grid instanceof HexGridImpl hexGridImpl) {
+            return hexGridImpl.getModificationCount();
+        }
+        if (grid instanceof OffHeapHexGrid offHeapHexGrid) {
+            return offHeapHexGrid.getModificationCount();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the given player in the per-player arrays.
+     *
+     * @param player the player
+     * @return the id of the player minus one
+     * @throws IllegalArgumentException if the id does not fit into the owner
+     *                                  bitmasks
+     */
+    private static int slot(final Player player) {
+        return Integer.numberOfTrailingZeros(EdgeImpl.ownerBit(player));
+    }
+
+    /**
+     * Throws if the rails of the game changed since this fork was created.
+     *
+     * @throws ConcurrentModificationException if the rails of the game changed
+     */
+    private void checkUnchanged() {
+        if (modificationCount(grid) != modificationCount) {
+            throw new ConcurrentModificationException("The rails of the forked game changed");
+        }
+    }
+
+    /**
+     * Returns the grid of the forked game.
+     * Its rails are the rails of the game, not of this fork.
+     *
+     * @return the grid of the forked game
+     */
+    public HexGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the players of the forked game.
+     *
+     * @return the players in the order of the game
+     */
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    // Journal
+
+    /**
+     * Returns a mark for the current state of this fork that can be passed to
+     * {@link #undo(int)}.
+     *
+     * @return the mark
+     */
+    public int mark() {
+        return journal.mark();
+    }
+
+    /**
+     * Takes back all changes made since the given mark, latest first.
+     *
+     * @param mark a mark returned by {@link #mark()}
+     * @throws IllegalArgumentException if the changes after the mark were
+     *                                  already undone
+     */
+    public void undo(final int mark) {
+        journal.undo(mark);
+    }
+
+    // Credits
+
+    /**
+     * Returns the credits of the given player in this fork.
+     *
+     * @param player the player
+     * @return the credits
+     */
+    public int getCredits(final Player player) {
+        return credits[slot(player)];
+    }
+
+    /**
+     * Adds the given amount to the credits of the given player, like
+     * {@link Player#addCredits(int)}.
+     *
+     * @param player the player
+     * @param amount the amount to add
+     */
+    public void addCredits(final Player player, final int amount) {
+        final int slot = slot(player);
+        final int previous = credits[slot];
+        credits[slot] += amount;
+        journal.record(() -> credits[slot] = previous);
+    }
+
+    /**
+     * Removes the given amount from the credits of the given player, like
+     * {@link Player#removeCredits(int)}.
+     *
+     * @param player the player
+     * @param amount the amount to remove
+     * @return {@code true} if the credits were removed, {@code false} if the
+     *         amount is negative or larger than the credits
+     */
+    public boolean removeCredits(final Player player, final int amount) {
+        if (amount < 0 || getCredits(player) - amount < 0) {
+            return false;
+        }
+        addCredits(player, -amount);
+        return true;
+    }
+
+    // Rails
+
+    /**
+     * Returns the owner bitmask of the given edge in this fork.
+     * Bit {@code id - 1} is set for every player that owns a rail on the edge.
+     *
+     * @param edge an edge of the grid of the game
+     * @return the owner bitmask
+     * @throws ConcurrentModificationException if the rails of the game changed
+     *                                         since this fork was created
+     */
+    public int getRailOwnerMask(final Edge edge) {
+        checkUnchanged();
+        final Integer mask = ownerMasks.get(edge);
+        if (mask != null) {
+            return mask;
+        }
+        if (edge instanceof EdgeImpl edgeImpl) {
+            return edgeImpl.getRailOwnerMask();
+        }
+        int owners = 0;
+        for (final Player owner : edge.getRailOwners()) {
+            owners |= EdgeImpl.ownerBit(owner);
+        }
+        return owners;
+    }
+
+    /**
+     * Returns whether the given player owns a rail on the given edge in this fork.
+     *
+     * @param edge   an edge of the grid of the game
+     * @param player the player
+     * @return whether the player owns a rail on the edge
+     */
+    public boolean hasRailOwner(final Edge edge, final Player player) {
+        return (getRailOwnerMask(edge) & EdgeImpl.ownerBit(player)) != 0;
+    }
+
+    /**
+     * Returns the number of rails of the given player in this fork.
+     *
+     * @param player the player
+     * @return the number of rails
+     */
+    public int getRailCount(final Player player) {
+        return railCounts[slot(player)];
+    }
+
+    /**
+     * Returns the owners of rails on the edges of the tile at the given position
+     * other than the given edge.
+     *
+     * @param position the position of the tile
+     * @param edge     the edge to ignore
+     * @return the owner bitmask of the other rails of the tile
+     */
+    private int otherRailOwnerMask(final TilePosition position, final Edge edge) {
+        int mask = 0;
+        for (final Edge other : grid.getTileAt(position).getEdges()) {
+            if (!other.equals(edge)) {
+                mask |= getRailOwnerMask(other);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns whether the given city is connected to any rail in this fork.
+     *
+     * @param city a city of the grid of the game
+     * @return whether a rail ends at the city
+     */
+    public boolean isConnected(final City city) {
+        return otherRailOwnerMask(city.getPosition(), null) != 0;
+    }
+
+    /**
+     * Returns whether the given player may build on the given edge in this fork
+     * without looking at the costs: the player does not own a rail on it yet and
+     * it extends the rails of the player, or touches a starting city if the player
+     * has no rails.
+     *
+     * @param edge   an edge of the grid of the game
+     * @param player the player
+     * @return whether the edge may be built on
+     */
+    public boolean isBuildable(final Edge edge, final Player player) {
+        final int bit = EdgeImpl.ownerBit(player);
+        if ((getRailOwnerMask(edge) & bit) != 0) {
+            return false;
+        }
+        if (getRailCount(player) == 0) {
+            return grid.getStartingCities().containsKey(edge.getPosition1())
+                    || grid.getStartingCities().containsKey(edge.getPosition2());
+        }
+        return ((otherRailOwnerMask(edge.getPosition1(), edge) | otherRailOwnerMask(edge.getPosition2(), edge))
+                & bit) != 0;
+    }
+
+    /**
+     * Calculates the parallel cost of the given edge in this fork with the rules
+     * of {@link Edge#getParallelCostPerPlayer(Player, int[])}.
+     *
+     * @param edge      an edge of the grid of the game
+     * @param player    the player that wants to build
+     * @param costsById the array to write the cost per player id minus one to,
+     *                  may be {@code null}
+     * @return the total parallel cost
+     */
+    private int parallelCost(final Edge edge, final Player player, final int[] costsById) {
+        final boolean cityAt1 = grid.getCityAt(edge.getPosition1()) != null;
+        final boolean cityAt2 = grid.getCityAt(edge.getPosition2()) != null;
+        return EdgeImpl.parallelCost(EdgeImpl.ownerBit(player), getRailOwnerMask(edge),
+                cityAt1, cityAt1 ? 0 : otherRailOwnerMask(edge.getPosition1(), edge),
+                cityAt2, cityAt2 ? 0 : otherRailOwnerMask(edge.getPosition2(), edge), costsById);
+    }
+
+    /**
+     * Returns the total parallel cost of the given edge for the given player in
+     * this fork, like {@link Edge#getTotalParallelCost(Player)}.
+     *
+     * @param edge   an edge of the grid of the game
+     * @param player the player that wants to build
+     * @return the total parallel cost
+     */
+    public int getTotalParallelCost(final Edge edge, final Player player) {
+        return parallelCost(edge, player, null);
+    }
+
+    /**
+     * Returns the total building cost of the given edge for the given player in
+     * this fork, like {@link Edge#getTotalBuildingCost(Player)}.
+     *
+     * @param edge   an edge of the grid of the game
+     * @param player the player that wants to build
+     * @return the base building cost plus the total parallel cost
+     */
+    public int getTotalBuildingCost(final Edge edge, final Player player) {
+        return edge.getBaseBuildingCost() + getTotalParallelCost(edge, player);
+    }
+
+    /**
+     * Builds a rail of the given player on the given edge in this fork, like
+     * {@link hProjekt.controller.PlayerController#buildRail(Edge)}.
+     * The owners of parallel rails are paid, the player receives
+     * {@link Config#CITY_CONNECTION_BONUS} for connecting a city without rails
+     * that is not a starting city, and pays the parallel cost in the building
+     * phase or the total building cost in the driving phase.
+     *
+     * @param edge   an edge of the grid of the game
+     * @param player the player that builds
+     * @return {@code true} if the rail was built, {@code false} if the edge is
+     *         not {@link #isBuildable(Edge, Player) buildable} or the player
+     *         cannot pay for it
+     */
+    public boolean buildRail(final Edge edge, final Player player) {
+        if (!isBuildable(edge, player)) {
+            return false;
+        }
+        final boolean buildingPhase = phase == GamePhase.BUILDING_PHASE;
+        final int price = buildingPhase ? getTotalParallelCost(edge, player) : getTotalBuildingCost(edge, player);
+        if (price > getCredits(player)) {
+            return false;
+        }
+        final boolean connectsCity = connectsUnconnectedCity(edge.getPosition1())
+                || connectsUnconnectedCity(edge.getPosition2());
+
+        final int previousMask = getRailOwnerMask(edge);
+        final int slot = slot(player);
+        ownerMasks.put(edge, previousMask | EdgeImpl.ownerBit(player));
+        railCounts[slot]++;
+        journal.record(() -> {
+            railCounts[slot]--;
+            ownerMasks.put(edge, previousMask);
+        });
+
+        // like the game, the costs are calculated with the new rail in place
+        final int[] costsById = new int[EdgeImpl.MAX_PLAYER_ID];
+        final int parallelCost = parallelCost(edge, player, costsById);
+        for (final Player owner : players) {
+            final int cost = costsById[slot(owner)];
+            if (cost > 0) {
+                addCredits(owner, cost);
+            }
+        }
+        if (connectsCity) {
+            addCredits(player, Config.CITY_CONNECTION_BONUS);
+        }
+        removeCredits(player, buildingPhase ? parallelCost : edge.getBaseBuildingCost() + parallelCost);
+        return true;
+    }
+
+    /**
+     * Returns whether the tile at the given position has a city that is not a
+     * starting city and has no rails in this fork.
+     *
+     * @param position the position of the tile
+     * @return whether building next to the tile earns the connection bonus
+     */
+    private boolean connectsUnconnectedCity(final TilePosition position) {
+        final City city = grid.getCityAt(position);
+        return city != null && !city.isStartingCity() && !isConnected(city);
+    }
+
+    // Driving
+
+    /**
+     * Returns the positions of the players in this fork.
+     *
+     * @return an unmodifiable view of the positions
+     */
+    public Map<Player, TilePosition> getPlayerPositions() {
+        return Collections.unmodifiableMap(playerPositions);
+    }
+
+    /**
+     * Sets the position of the given player in this fork.
+     *
+     * @param player   the player
+     * @param position the new position
+     */
+    public void setPlayerPosition(final Player player, final TilePosition position) {
+        final TilePosition previous = playerPositions.put(player, position);
+        journal.record(() -> {
+            if (previous == null) {
+                playerPositions.remove(player);
+            } else {
+                playerPositions.put(player, previous);
+            }
+        });
+    }
+
+    /**
+     * Returns the cities that have already been driven to in this fork.
+     *
+     * @return an unmodifiable view of the chosen cities
+     */
+    public Set<City> getChosenCities() {
+        return Collections.unmodifiableSet(chosenCities);
+    }
+
+    /**
+     * Adds the given city to the chosen cities of this fork.
+     *
+     * @param city the city
+     */
+    public void addChosenCity(final City city) {
+        if (chosenCities.add(city)) {
+            journal.record(() -> chosenCities.remove(city));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package hProjekt.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import hProjekt.util.FenwickTree;
+
+/**
+ * The iteration order of a {@link HashMap} with {@link TilePosition} keys.
+ * Grids used to be generated on a hash map, and drew random tiles by skipping
+ * into its iteration order. This class keeps that order for the tiles of a
+ * {@link DenseTileMap}, so a seed still generates the same map.
+ * The order is kept like the hash map keeps it: in buckets by the spread hash
+ * code of the position, and in insertion order within a bucket. The number of
+ * keys per bucket is kept in a {@link FenwickTree}, so the key at an index in
+ * the iteration order is found in {@code O(log capacity)} instead of by
+ * skipping over all keys before it.
+ * A hash map turns buckets with many keys into trees, which changes the order
+ * within them. From then on the order is read from a hash map filled with the
+ * same keys.
+ */
+final class HashMapOrder {
+
+    /**
+     * The capacity of a new {@link HashMap}.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The load factor of a new {@link HashMap}.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The number of keys in a bucket above which a {@link HashMap} turns the
+     * bucket into a tree or, while it is small, grows instead.
+     */
+    private static final int TREEIFY_THRESHOLD = 8;
+
+    /**
+     * The capacity from which a {@link HashMap} turns buckets into trees.
+     */
+    private static final int MIN_TREEIFY_CAPACITY = 64;
+
+    /**
+     * The value of a link that does not point to a key.
+     */
+    private static final int NONE = -1;
+
+    private final Map<TilePosition, Integer> map = new HashMap<>();
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] heads = new int[0];
+    private int[] tails = new int[0];
+    private int[] lengths = new int[0];
+    private FenwickTree counts = new FenwickTree(new long[0]);
+    private int threshold;
+    private int size;
+    private boolean treeified;
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds the given position as the key with the index {@link #size()}.
+     * The position must not have been added before.
+     *
+     * @param position the position to add
+     */
+    void add(final TilePosition position) {
+        final int key = size;
+        map.put(position, key);
+        if (treeified) {
+            size++;
+            return;
+        }
+        if (key == hashes.length) {
+            hashes = Arrays.copyOf(hashes, 2 * key);
+            next = Arrays.copyOf(next, 2 * key);
+        }
+        final int hash = position.hashCode();
+        hashes[key] = hash ^ (hash >>> 16);
+        if (heads.length == 0) {
+            resize();
+        }
+        final int bucket = append(key);
+        size++;
+        if (lengths[bucket] > TREEIFY_THRESHOLD) {
+            if (heads.length < MIN_TREEIFY_CAPACITY) {
+                resize();
+            } else {
+                treeified = true;
+            }
+        }
+        if (size > threshold && !treeified) {
+            resize();
+        }
+    }
+
+    /**
+     * Returns the key at the given index of the iteration order of the hash map.
+     *
+     * @param index the index in the iteration order, in {@code [0, size())}
+     * @return the index the key was added with
+     * @throws IndexOutOfBoundsException if the index is not in {@code [0, size())}
+     */
+    int get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in [0, " + size + ")");
+        }
+        if (treeified) {
+            return map.values().stream().skip(index).findFirst().orElseThrow();
+        }
+        final int bucket = counts.find(index);
+        int key = heads[bucket];
+        for (long skipped = counts.prefixSum(bucket); skipped < index; skipped++) {
+            key = next[key];
+        }
+        return key;
+    }
+
+    /**
+     * Returns all keys in the iteration order of the hash map.
+     *
+     * @return the indices the keys were added with
+     */
+    int[] toArray() {
+        if (treeified) {
+            return map.values().stream().mapToInt(Integer::intValue).toArray();
+        }
+        final int[] keys = new int[size];
+        int index = 0;
+        for (final int head : heads) {
+            for (int key = head; key != NONE; key = next[key]) {
+                keys[index++] = key;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Appends the given key to the end of its bucket.
+     *
+     * @param key the key
+     * @return the bucket of the key
+     */
+    private int append(final int key) {
+        final int bucket = hashes[key] & (heads.length - 1);
+        next[key] = NONE;
+        if (heads[bucket] == NONE) {
+            heads[bucket] = key;
+        } else {
+            next[tails[bucket]] = key;
+        }
+        tails[bucket] = key;
+        counts.set(bucket, ++lengths[bucket]);
+        return bucket;
+    }
+
+    /**
+     * Doubles the number of buckets like the hash map does.
+     * Splitting a bucket keeps the order of its keys, so appending the keys in
+     * the old iteration order fills the new buckets in the order of the hash map.
+     */
+    private void resize() {
+        final int[] order = toArray();
+        final int capacity = heads.length == 0 ? INITIAL_CAPACITY : 2 * heads.length;
+        threshold = (int) (capacity * LOAD_FACTOR);
+        heads = new int[capacity];
+        tails = new int[capacity];
+        lengths = new int[capacity];
+        Arrays.fill(heads, NONE);
+        counts = new FenwickTree(new long[capacity]);
+        for (final int key : order) {
+            append(key);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.util.function.BiFunction;
 import org.tudalgo.algoutils.student.annotation.DoNotTouch;
 
 import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyProperty;
 import javafx.beans.value.ObservableDoubleValue;
 
 /**
@@ -111,6 +112,17 @@ public interface HexGrid {
      */
     Edge getEdge(TilePosition position0, TilePosition position1);
 
+    /**
+     * Returns the edge leaving the given position in the given direction.
+     *
+     * @param position  the position the edge starts at
+     * @param direction the direction of the edge
+     * @return the edge in the given direction or {@code null} if there is none
+     */
+    default Edge getEdge(TilePosition position, TilePosition.EdgeDirection direction) {
+        return getEdge(position, TilePosition.neighbour(position, direction));
+    }
+
     /**
      * Returns all cities of the grid.
      *
@@ -140,6 +152,24 @@ public interface HexGrid {
      */
     Map<TilePosition, City> getUnconnectedCities();
 
+    /**
+     * Returns a property holding the cities connected to a rail.
+     * The value is a read-only snapshot that is replaced whenever a city gets its
+     * first rail or loses its last one, so listeners are notified on every change
+     * of {@link #getConnectedCities()}.
+     *
+     * @return a property holding the cities connected to a rail
+     */
+    ReadOnlyProperty<Map<TilePosition, City>> getConnectedCitiesProperty();
+
+    /**
+     * Returns a property holding the cities that are not connected to a rail.
+     * The value is replaced together with {@link #getConnectedCitiesProperty()}.
+     *
+     * @return a property holding the cities that are not connected to a rail
+     */
+    ReadOnlyProperty<Map<TilePosition, City>> getUnconnectedCitiesProperty();
+
     /**
      * Returns all cities that are stating cities.
      *
@@ -149,12 +179,41 @@ public interface HexGrid {
 
     /**
      * Returns all rails of the given player.
+     * The returned map is a read-only view that reflects rails built or removed
+     * later on.
      *
      * @param player the player to get the rails of
      * @return all rails of the given player
      */
     Map<Set<TilePosition>, Edge> getRails(Player player);
 
+    /**
+     * Returns whether the given positions are connected by rails of the given
+     * player.
+     * A position is always connected to itself.
+     *
+     * @param player    the player whose rails to use
+     * @param position1 the first position
+     * @param position2 the second position
+     * @return {@code true} if there is a path between the positions using only
+     *         rails of the given player, {@code false} otherwise
+     */
+    boolean isConnected(Player player, TilePosition position1, TilePosition position2);
+
+    /**
+     * Returns an identifier of the rail network of the given player that contains
+     * the given position.
+     * Two positions have the same identifier if and only if they are
+     * {@link #isConnected(Player, TilePosition, TilePosition) connected}.
+     * The identifier is only valid until the rails of the player change.
+     *
+     * @param player   the player whose rails to use
+     * @param position the position
+     * @return the identifier of the rail network or {@code -1} if there is no tile
+     *         at the given position
+     */
+    int getRailNetwork(Player player, TilePosition position);
+
     /**
      * Finds the shortest path between start and end using the available edges and
      * the edgeCostFunction.
@@ -169,4 +228,22 @@ public interface HexGrid {
      */
     List<Edge> findPath(TilePosition start, TilePosition end, Set<Edge> availabeEdges,
             BiFunction<TilePosition, TilePosition, Integer> edgeCostFunction);
+
+    /**
+     * Finds the cheapest path between start and end using the available edges and
+     * the given cost function.
+     * Unlike {@link #findPath(TilePosition, TilePosition, Set, BiFunction)} the
+     * costs are primitive and the cost function receives the edge directly.
+     * Results may be cached until the rails of this grid change, see
+     * {@link EdgeCostFunction}.
+     *
+     * @param start          the start position
+     * @param end            the end position
+     * @param availableEdges the edges to search for the path
+     * @param costFunction   the function to calculate the cost of an edge
+     * @return the edges of the cheapest path from start to end or an empty list if
+     *         there is none
+     */
+    List<Edge> findCheapestPath(TilePosition start, TilePosition end, Set<Edge> availableEdges,
+            EdgeCostFunction costFunction);
 }
@@ -1,45 +1,76 @@
 package hProjekt.model;
 
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.BiFunction;
-import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.tudalgo.algoutils.student.annotation.DoNotTouch;
 import org.tudalgo.algoutils.student.annotation.StudentImplementationRequired;
 
 import hProjekt.Config;
 import hProjekt.model.TilePosition.EdgeDirection;
+import hProjekt.util.DisjointSet;
 import hProjekt.util.NameGenerator;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.ReadOnlyProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableDoubleValue;
-import javafx.util.Pair;
 
 /**
  * Default implementation of {@link HexGrid}.
  */
 public class HexGridImpl implements HexGrid {
 
-    private final Map<TilePosition, Tile> tiles = new HashMap<>();
-    private final Map<Set<TilePosition>, Edge> edges = new HashMap<>();
+    /**
+     * The number of edges owned by each tile in the edge index.
+     */
+    private static final int EDGES_PER_TILE = EdgeDirection.SIZE / 2;
+
+    private final DenseTileMap tiles = new DenseTileMap();
+    private final Map<Set<TilePosition>, Edge> edges = new EdgeMap();
+    private Edge[] edgeSlots = new Edge[0];
+    private int[] neighbourIndices = new int[0];
+    private int edgeCount;
     private final Map<TilePosition, City> cities = new HashMap<>();
+    private final Map<Player, Map<Set<TilePosition>, Edge>> rails = new HashMap<>();
+    private final Map<Player, Map<Set<TilePosition>, Edge>> railViews = new HashMap<>();
+    private final Map<Player, DisjointSet> railNetworks = new HashMap<>();
+    private final Set<Player> staleRailNetworks = new HashSet<>();
+    private int[] railedEdgesAtTile = new int[0];
+    private int[] railCountsAtTile = new int[0];
+    private short[] railOwnersAtTile = new short[0];
+    private short[] singleRailOwnersAtTile = new short[0];
+    private final Player[] playersById = new Player[EdgeImpl.MAX_PLAYER_ID];
+    private Map<TilePosition, City> startingCities = Map.of();
+    private final Property<Map<TilePosition, City>> connectedCities = new SimpleObjectProperty<>(Map.of());
+    private final Property<Map<TilePosition, City>> unconnectedCities = new SimpleObjectProperty<>(Map.of());
     private final ObservableDoubleValue tileWidth;
     private final ObservableDoubleValue tileHeight;
     private final DoubleProperty tileSize = new SimpleDoubleProperty(50);
-    private final Random random = Config.RANDOM;
+    private final Random random;
+    private final MapSettings settings;
+    private final PathFinder pathFinder = new PathFinder(new Graph());
+    private final PathCache pathCache = new PathCache();
+    private volatile long modificationCount;
+    private GenerationReport generationReport;
+    private HashMapOrder generationOrder;
 
     /**
      * Creates a new HexGrid with the given scale.
@@ -50,12 +81,53 @@ public class HexGridImpl implements HexGrid {
      */
     @DoNotTouch
     public HexGridImpl(final int scale, final int numberOfCities, final String[] names) {
+        this(scale, numberOfCities, names, Config.RANDOM);
+    }
+
+    /**
+     * Creates a new HexGrid with the given scale that draws all random decisions
+     * from the given random instance.
+     * Grids generated on other threads should use their own instance, so they
+     * do not change the sequence of {@link Config#RANDOM}.
+     *
+     * @param scale          the scale of the grid
+     * @param numberOfCities the number of cities to place
+     * @param names          the names to use for the cities
+     * @param random         the random instance to use
+     */
+    public HexGridImpl(final int scale, final int numberOfCities, final String[] names, final Random random) {
+        this(MapSettings.of(scale, numberOfCities, names), random);
+    }
+
+    /**
+     * Creates a new HexGrid with the given settings that draws all random
+     * decisions from the given random instance.
+     * The generation does not read {@link Config}, so grids can be generated on
+     * other threads while the settings are changed.
+     *
+     * @param settings the settings to generate the grid with
+     * @param random   the random instance to use
+     */
+    public HexGridImpl(final MapSettings settings, final Random random) {
+        this.random = random;
+        this.settings = settings;
         this.tileHeight = Bindings.createDoubleBinding(() -> tileSize.get() * 2, tileSize);
         this.tileWidth = Bindings.createDoubleBinding(() -> Math.sqrt(3) * tileSize.get(), tileSize);
-        initTiles(scale);
+        final long start = System.nanoTime();
+        // random tiles are drawn in the order of the hash map the grid was generated on before
+        generationOrder = new HashMapOrder();
+        initTiles(settings.scale());
+        final long tilesDone = System.nanoTime();
         initEdges();
+        final long edgesDone = System.nanoTime();
 
-        initCities(numberOfCities, new NameGenerator(names, 3, random));
+        initCities(settings.numberOfCities(), new NameGenerator(settings.names(), 3, random));
+        generationOrder = null;
+        initCityIndex();
+        initRailCounters();
+        final long citiesDone = System.nanoTime();
+        this.generationReport = new GenerationReport(settings.scale(), tiles.size(), edgeCount, cities.size(),
+                tilesDone - start, edgesDone - tilesDone, citiesDone - edgesDone);
     }
 
     /**
@@ -69,6 +141,8 @@ public class HexGridImpl implements HexGrid {
 
     /**
      * Creates a new HexGrid with the given tiles, edges, and cities.
+     * The grid places copies of them, which report their changes to this grid,
+     * so the given objects and the grid they belong to stay unchanged.
      *
      * @param tiles  the tiles
      * @param edges  the edges
@@ -76,11 +150,63 @@ public class HexGridImpl implements HexGrid {
      */
     public HexGridImpl(final Map<TilePosition, Tile> tiles, final Map<Set<TilePosition>, Edge> edges,
             final Map<TilePosition, City> cities) {
-        this.tiles.putAll(tiles);
-        this.edges.putAll(edges);
-        this.cities.putAll(cities);
+        this.random = Config.RANDOM;
+        // only generated grids read the settings
+        this.settings = null;
         this.tileHeight = Bindings.createDoubleBinding(() -> tileSize.get() * 2, tileSize);
         this.tileWidth = Bindings.createDoubleBinding(() -> Math.sqrt(3) * tileSize.get(), tileSize);
+        tiles.values().forEach(tile -> addTile(tile.getPosition(), tile.getType()));
+        this.edgeSlots = new Edge[EDGES_PER_TILE * this.tiles.size()];
+        for (final Edge edge : edges.values()) {
+            addEdge(new EdgeImpl(this, edge.getPosition1(), edge.getPosition2(),
+                    new SimpleObjectProperty<>(new ArrayList<>(edge.getRailOwners()))));
+        }
+        initNeighbourIndices();
+        connectEdges();
+        initTileSlots();
+        cities.forEach((position, city) -> this.cities.put(position,
+                new CityImpl(position, city.getName(), city.isStartingCity(), this)));
+        initCityIndex();
+        initRailCounters();
+        for (final Edge edge : edgeSlots) {
+            if (edge != null) {
+                edge.getRailOwners().forEach(player -> indexRail(edge, player));
+                if (edge.hasRail()) {
+                    countRailedEdge(edge, 1);
+                }
+            }
+        }
+        publishCities();
+    }
+
+    /**
+     * Creates a new HexGrid from the contents of a map file.
+     * Creates tiles, edges and cities for this grid like the generated
+     * constructor, without drawing any random numbers.
+     *
+     * @param contents the parsed and validated contents of a {@link MapFile}
+     */
+    HexGridImpl(final MapFile.Contents contents) {
+        this.random = Config.RANDOM;
+        this.settings = null;
+        this.tileHeight = Bindings.createDoubleBinding(() -> tileSize.get() * 2, tileSize);
+        this.tileWidth = Bindings.createDoubleBinding(() -> Math.sqrt(3) * tileSize.get(), tileSize);
+        final Tile.Type[] types = Tile.Type.values();
+        final ByteBuffer cells = contents.cells();
+        for (int cell = 0; cell < cells.limit(); cell++) {
+            final int type = cells.get(cell);
+            if (type != MapFile.NO_TILE) {
+                addTile(tiles.positionAt(contents.minQ() + cell % contents.width(),
+                        contents.minR() + cell / contents.width()), types[type - 1]);
+            }
+        }
+        initEdges();
+        for (final MapFile.CityEntry entry : contents.cities()) {
+            final TilePosition position = tiles.get(entry.q(), entry.r()).getPosition();
+            cities.put(position, new CityImpl(position, entry.name(), entry.startingCity(), this));
+        }
+        initCityIndex();
+        initRailCounters();
     }
 
     /**
@@ -96,8 +222,9 @@ public class HexGridImpl implements HexGrid {
     private void doRandomWalk(final TilePosition start, final Tile.Type type, final int length) {
         TilePosition current = start;
         for (int i = 0; i < length; i++) {
-            final TilePosition next = TilePosition.neighbour(current,
-                    EdgeDirection.VALUES.get(random.nextInt(EdgeDirection.SIZE)));
+            final EdgeDirection direction = EdgeDirection.VALUES.get(random.nextInt(EdgeDirection.SIZE));
+            final TilePosition next = tiles.positionAt(current.q() + direction.position.q(),
+                    current.r() + direction.position.r());
             addTile(next, type);
             current = next;
         }
@@ -132,20 +259,25 @@ public class HexGridImpl implements HexGrid {
      * Performs several random walks to create a random map.
      * The map will contain plains and mountains.
      *
+     * The start of every walk is drawn by its index in the iteration order of
+     * the hash map the tiles were stored in before, which is kept by
+     * {@link HashMapOrder}. A seed therefore generates the same map as it did
+     * with the hash map.
+     *
      * @param grid_scale the scale of the grid
      */
     @DoNotTouch
     private void initTiles(final int grid_scale) {
-        final TilePosition center = new TilePosition(0, 0);
+        final TilePosition center = tiles.positionAt(0, 0);
         addTile(center, Tile.Type.PLAIN);
 
         for (int i = 0; i < 10 * grid_scale; i++) {
-            TilePosition start = tiles.keySet().stream().skip(random.nextInt(tiles.size())).findFirst().get();
+            TilePosition start = tiles.getByIndex(generationOrder.get(random.nextInt(tiles.size()))).getPosition();
             doRandomWalk(start, Tile.Type.PLAIN, 3 * grid_scale);
         }
 
         for (int i = 0; i < 4 * grid_scale; i++) {
-            TilePosition start = tiles.keySet().stream().skip(random.nextInt(tiles.size())).findFirst().get();
+            TilePosition start = tiles.getByIndex(generationOrder.get(random.nextInt(tiles.size()))).getPosition();
             doRandomWalk(start, Tile.Type.MOUNTAIN, (int) (0.5 * grid_scale));
         }
     }
@@ -161,40 +293,66 @@ public class HexGridImpl implements HexGrid {
      * - If the tile is near a mountain the probability is 0.05
      * - If the tile is near another city the probability is 0.001
      *
+     * The tiles are drawn in the iteration order of the hash map the tiles were
+     * stored in before, so a seed places the same cities as it did with the hash
+     * map. Whether a tile is near a mountain or a city is looked up in
+     * {@link DistanceField}s instead of searching the tiles around it, the one
+     * for cities is updated as cities are placed.
+     *
      * @param amount        the amount of cities to place
      * @param nameGenerator the name generator to use
+     * @throws IllegalStateException if there are not enough plains for the cities
      */
     @DoNotTouch
     private void initCities(int amount, NameGenerator nameGenerator) {
         int startingCitiesAdded = 0;
 
-        while (cities.size() < amount) {
-            Tile tile = tiles.values().stream().skip(random.nextInt(tiles.size())).findFirst().get();
-
-            if (tile.getType() != Tile.Type.PLAIN) {
-                continue;
+        int minQ = Integer.MAX_VALUE;
+        int minR = Integer.MAX_VALUE;
+        int maxQ = Integer.MIN_VALUE;
+        int maxR = Integer.MIN_VALUE;
+        int plains = 0;
+        for (int index = 0; index < tiles.size(); index++) {
+            final Tile tile = tiles.getByIndex(index);
+            minQ = Math.min(minQ, tile.getPosition().q());
+            minR = Math.min(minR, tile.getPosition().r());
+            maxQ = Math.max(maxQ, tile.getPosition().q());
+            maxR = Math.max(maxR, tile.getPosition().r());
+            if (tile.getType() == Tile.Type.PLAIN) {
+                plains++;
             }
-
-            double probability = Config.CITY_BASE_PROBABILTY;
-
-            if (tile.isAtCoast()) {
-                probability = Config.CITY_AT_COAST_PROBABILTY;
+        }
+        if (plains < amount) {
+            throw new IllegalStateException("Not enough plains to place " + amount + " cities");
+        }
+        final DistanceField mountainDistances = new DistanceField(minQ, minR, maxQ, maxR,
+                settings.nearMountainRadius());
+        final DistanceField cityDistances = new DistanceField(minQ, minR, maxQ, maxR, settings.nearCityRadius());
+        for (int index = 0; index < tiles.size(); index++) {
+            final Tile tile = tiles.getByIndex(index);
+            if (tile.getType() == Tile.Type.MOUNTAIN) {
+                mountainDistances.seed(tile.getPosition().q(), tile.getPosition().r());
             }
+        }
+        mountainDistances.propagate(null);
+        for (final TilePosition position : cities.keySet()) {
+            cityDistances.seed(position.q(), position.r());
+        }
+        cityDistances.propagate(null);
 
-            if (isNear(tile.getPosition(), t -> t != null && t.getType() == Tile.Type.MOUNTAIN,
-                    Config.CITY_NEAR_MOUNTAIN_RADIUS)) {
-                probability = Config.CITY_NEAR_MOUNTAIN_PROBABILTY;
-            }
+        final int[] order = generationOrder.toArray();
+        while (cities.size() < amount) {
+            final int index = order[random.nextInt(order.length)];
+            final Tile tile = tiles.getByIndex(index);
 
-            if (isNear(tile.getPosition(), t -> t != null && cities.get(t.getPosition()) != null,
-                    Config.CITY_NEAR_CITY_RADIUS)) {
-                probability = Config.CITY_NEAR_CITY_PROBABILTY;
+            if (tile.getType() != Tile.Type.PLAIN) {
+                continue;
             }
 
-            if (random.nextDouble() < probability) {
+            if (random.nextDouble() < cityProbability(index, mountainDistances, cityDistances)) {
                 boolean isStartingCity = false;
-                if (startingCitiesAdded < Config.NUMBER_OF_STARTING_CITIES
-                        && (amount - cities.size() <= Config.NUMBER_OF_STARTING_CITIES - startingCitiesAdded
+                if (startingCitiesAdded < settings.numberOfStartingCities()
+                        && (amount - cities.size() <= settings.numberOfStartingCities() - startingCitiesAdded
                                 || random.nextBoolean())) {
                     isStartingCity = true;
                     startingCitiesAdded++;
@@ -203,31 +361,165 @@ public class HexGridImpl implements HexGrid {
                 final City city = new CityImpl(tile.getPosition(), nameGenerator.generateName(10), isStartingCity,
                         this);
                 this.cities.put(tile.getPosition(), city);
+                cityDistances.seed(tile.getPosition().q(), tile.getPosition().r());
+                cityDistances.propagate(null);
+            }
+        }
+    }
+
+    /**
+     * Returns the probability of placing a city on the plain with the given
+     * index.
+     *
+     * @param index             the index of the plain
+     * @param mountainDistances the distances to the nearest mountain
+     * @param cityDistances     the distances to the nearest city
+     * @return the probability of placing a city on the plain
+     */
+    private double cityProbability(final int index, final DistanceField mountainDistances,
+            final DistanceField cityDistances) {
+        final TilePosition position = tiles.getByIndex(index).getPosition();
+        double probability = settings.baseProbability();
+        for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+            if (neighbourIndices[EdgeDirection.SIZE * index + direction] == DenseTileMap.NO_TILE) {
+                probability = settings.atCoastProbability();
+                break;
             }
         }
+        if (mountainDistances.get(position.q(), position.r()) != DistanceField.FAR) {
+            probability = settings.nearMountainProbability();
+        }
+        if (cityDistances.get(position.q(), position.r()) != DistanceField.FAR) {
+            probability = settings.nearCityProbability();
+        }
+        return probability;
+    }
+
+    /**
+     * Initializes the city index once all cities are placed.
+     * Every city starts out unconnected, rails are counted afterwards by
+     * {@link #countRailedEdge(Edge, int)}.
+     */
+    private void initCityIndex() {
+        railedEdgesAtTile = new int[tiles.size()];
+        final Map<TilePosition, City> starting = new HashMap<>();
+        cities.forEach((position, city) -> {
+            if (city.isStartingCity()) {
+                starting.put(position, city);
+            }
+        });
+        startingCities = Collections.unmodifiableMap(starting);
+        connectedCities.setValue(Map.of());
+        unconnectedCities.setValue(Collections.unmodifiableMap(new HashMap<>(cities)));
+    }
+
+    /**
+     * Initializes the per-tile counters of rails by owner.
+     */
+    private void initRailCounters() {
+        railCountsAtTile = new int[EdgeImpl.MAX_PLAYER_ID * tiles.size()];
+        railOwnersAtTile = new short[tiles.size()];
+        singleRailOwnersAtTile = new short[tiles.size()];
     }
 
     /**
      * Initializes the edges in this grid.
+     * Every tile owns the edges towards its neighbours in the first
+     * {@link #EDGES_PER_TILE} directions, so each edge is created exactly once.
      */
     @DoNotTouch
     private void initEdges() {
-        for (final var tile : this.tiles.values()) {
-            Arrays.stream(TilePosition.EdgeDirection.values())
-                    .filter(ed -> this.tiles.containsKey(TilePosition.neighbour(tile.getPosition(), ed)))
-                    .forEach(
-                            ed -> this.edges.putIfAbsent(
-                                    Set.of(
-                                            tile.getPosition(),
-                                            TilePosition.neighbour(tile.getPosition(), ed)),
-                                    new EdgeImpl(
-                                            this,
-                                            tile.getPosition(),
-                                            TilePosition.neighbour(tile.getPosition(), ed),
-                                            new SimpleObjectProperty<>(new ArrayList<>()))));
+        edgeSlots = new Edge[EDGES_PER_TILE * tiles.size()];
+        initNeighbourIndices();
+        for (int index = 0; index < tiles.size(); index++) {
+            final TilePosition position = tiles.getByIndex(index).getPosition();
+            for (int direction = 0; direction < EDGES_PER_TILE; direction++) {
+                final int neighbour = neighbourIndices[EdgeDirection.SIZE * index + direction];
+                if (neighbour != DenseTileMap.NO_TILE) {
+                    addEdge(new EdgeImpl(this, position, tiles.getByIndex(neighbour).getPosition(),
+                            new SimpleObjectProperty<>(new ArrayList<>())));
+                }
+            }
+        }
+        connectEdges();
+        initTileSlots();
+    }
+
+    /**
+     * Fills the table with the index of the neighbour of every tile in every
+     * direction.
+     */
+    private void initNeighbourIndices() {
+        neighbourIndices = new int[EdgeDirection.SIZE * tiles.size()];
+        for (int index = 0; index < tiles.size(); index++) {
+            final TilePosition position = tiles.getByIndex(index).getPosition();
+            for (final EdgeDirection direction : EdgeDirection.VALUES) {
+                neighbourIndices[EdgeDirection.SIZE * index + direction.ordinal()] = tiles.indexOf(
+                        position.q() + direction.position.q(), position.r() + direction.position.r());
+            }
+        }
+    }
+
+    /**
+     * Fills the neighbour and edge slots of every {@link TileImpl} placed in this
+     * grid. Requires the neighbour index table.
+     */
+    private void initTileSlots() {
+        for (int index = 0; index < tiles.size(); index++) {
+            if (!(tiles.getByIndex(index) instanceof TileImpl tile) || tile.getHexGrid() != this) {
+                continue;
+            }
+            final Tile[] neighbourSlots = new Tile[EdgeDirection.SIZE];
+            final Edge[] tileEdgeSlots = new Edge[EdgeDirection.SIZE];
+            for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                final int neighbour = neighbourIndices[EdgeDirection.SIZE * index + direction];
+                neighbourSlots[direction] = neighbour == DenseTileMap.NO_TILE ? null : tiles.getByIndex(neighbour);
+                tileEdgeSlots[direction] = edgeAt(index, direction);
+            }
+            tile.setSlots(neighbourSlots, tileEdgeSlots);
+        }
+    }
+
+    /**
+     * Computes the connected edges of every {@link EdgeImpl} in this grid.
+     * Two edges are connected if they share a position, so every edge is
+     * connected to at most five other edges at each of its two positions.
+     * Requires the neighbour index table.
+     */
+    private void connectEdges() {
+        final Edge[] buffer = new Edge[EdgeImpl.MAX_CONNECTED_EDGES];
+        for (final Edge edge : edgeSlots) {
+            if (!(edge instanceof EdgeImpl edgeImpl)) {
+                continue;
+            }
+            int count = 0;
+            for (int end = 0; end < 2; end++) {
+                final int index = tiles.indexOf(end == 0 ? edge.getPosition1() : edge.getPosition2());
+                for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                    final Edge connected = edgeAt(index, direction);
+                    if (connected != null && connected != edge) {
+                        buffer[count++] = connected;
+                    }
+                }
+            }
+            edgeImpl.setConnectedEdges(Arrays.copyOf(buffer, count));
         }
     }
 
+    /**
+     * Returns the edge of the tile with the given index in the given direction.
+     * Requires the neighbour index table.
+     *
+     * @param index     the index of the tile
+     * @param direction the ordinal of the direction
+     * @return the edge or {@code null} if there is none
+     */
+    private Edge edgeAt(final int index, final int direction) {
+        final int owner = direction < EDGES_PER_TILE ? index
+                : neighbourIndices[EdgeDirection.SIZE * index + direction];
+        return owner == DenseTileMap.NO_TILE ? null : edgeSlots[EDGES_PER_TILE * owner + direction % EDGES_PER_TILE];
+    }
+
     // Tiles
 
     @Override
@@ -267,12 +559,36 @@ public class HexGridImpl implements HexGrid {
 
     @Override
     public Tile getTileAt(final int q, final int r) {
-        return getTileAt(new TilePosition(q, r));
+        return tiles.get(q, r);
     }
 
     @Override
     public Tile getTileAt(final TilePosition position) {
-        return tiles.get(position);
+        return tiles.get(position.q(), position.r());
+    }
+
+    /**
+     * Returns the dense index of the tile at the given position.
+     * Tile indices are assigned in the order the tiles were added and lie in
+     * {@code [0, getTiles().size())}.
+     *
+     * @param position the position of the tile
+     * @return the index of the tile or {@code -1} if there is no tile at the given
+     *         position
+     */
+    public int getTileIndex(final TilePosition position) {
+        return tiles.indexOf(position);
+    }
+
+    /**
+     * Returns the tile with the given dense index.
+     *
+     * @param index the index of the tile
+     * @return the tile with the given index
+     * @see #getTileIndex(TilePosition)
+     */
+    public Tile getTileByIndex(final int index) {
+        return tiles.getByIndex(index);
     }
 
     /**
@@ -282,27 +598,256 @@ public class HexGridImpl implements HexGrid {
      * @param type     type of the new tile
      */
     private void addTile(final TilePosition position, final Tile.Type type) {
+        final int size = tiles.size();
         tiles.put(position, new TileImpl(position, type, tileHeight, tileWidth, this));
+        if (generationOrder != null && tiles.size() > size) {
+            generationOrder.add(position);
+        }
     }
 
     // Edges / Roads
 
+    /**
+     * Adds the given edge to the edge index.
+     * Both positions of the edge have to be tiles of this grid.
+     *
+     * @param edge the edge to add
+     */
+    private void addEdge(final Edge edge) {
+        final int key = edgeKey(edge.getPosition1().q(), edge.getPosition1().r(), edge.getPosition2().q(),
+                edge.getPosition2().r());
+        if (key < 0) {
+            throw new IllegalArgumentException("The positions of the edge are not adjacent tiles: " + edge);
+        }
+        if (edgeSlots[key] == null) {
+            edgeCount++;
+        }
+        edgeSlots[key] = edge;
+    }
+
+    /**
+     * Returns the packed key of the edge between the given coordinates.
+     * The key is {@code 3 * tileIndex + direction} of the tile that owns the edge,
+     * which is the tile the edge points away from in one of the first
+     * {@link #EDGES_PER_TILE} {@link EdgeDirection}s.
+     *
+     * @param q0 the q-coordinate of the first position
+     * @param r0 the r-coordinate of the first position
+     * @param q1 the q-coordinate of the second position
+     * @param r1 the r-coordinate of the second position
+     * @return the key of the edge or {@code -1} if the positions are not adjacent
+     *         tiles of this grid
+     */
+    int edgeKey(final int q0, final int r0, final int q1, final int r1) {
+        final EdgeDirection edgeDirection = EdgeDirection.fromOffset(q1 - q0, r1 - r0);
+        if (edgeDirection == null) {
+            return -1;
+        }
+        final int direction = edgeDirection.ordinal();
+        final int owner = direction < EDGES_PER_TILE ? tiles.indexOf(q0, r0) : tiles.indexOf(q1, r1);
+        if (owner == DenseTileMap.NO_TILE) {
+            return -1;
+        }
+        return EDGES_PER_TILE * owner + direction % EDGES_PER_TILE;
+    }
+
     @Override
     public Map<Set<TilePosition>, Edge> getEdges() {
-        return Collections.unmodifiableMap(edges);
+        return edges;
     }
 
     @Override
     public Edge getEdge(final TilePosition position0, final TilePosition position1) {
-        return edges.get(Set.of(position0, position1));
+        final int key = edgeKey(position0.q(), position0.r(), position1.q(), position1.r());
+        return key < 0 ? null : edgeSlots[key];
+    }
+
+    @Override
+    public Edge getEdge(final TilePosition position, final EdgeDirection direction) {
+        final int key = edgeKey(position.q(), position.r(), position.q() + direction.position.q(),
+                position.r() + direction.position.r());
+        return key < 0 ? null : edgeSlots[key];
     }
 
     @Override
     @StudentImplementationRequired("P1.3")
     public Map<Set<TilePosition>, Edge> getRails(final Player player) {
-        return Collections.unmodifiableMap(edges.entrySet().stream()
-                .filter(entry -> entry.getValue().getRailOwners().contains(player))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        return railViews.computeIfAbsent(player,
+                p -> Collections.unmodifiableMap(rails.computeIfAbsent(p, key -> new HashMap<>())));
+    }
+
+    /**
+     * Updates the rail index after the given player built a rail on the given
+     * edge.
+     *
+     * @param edge   the edge the rail was built on
+     * @param player the player that built the rail
+     */
+    void railAdded(final Edge edge, final Player player) {
+        modificationCount++;
+        indexRail(edge, player);
+        if (edge.getRailOwnerCount() == 1 && countRailedEdge(edge, 1)) {
+            publishCities();
+        }
+    }
+
+    /**
+     * Updates the rail index after the rail of the given player was removed from
+     * the given edge.
+     *
+     * @param edge   the edge the rail was removed from
+     * @param player the player whose rail was removed
+     */
+    void railRemoved(final Edge edge, final Player player) {
+        modificationCount++;
+        final Map<Set<TilePosition>, Edge> playerRails = rails.get(player);
+        if (playerRails != null) {
+            playerRails.remove(edge.getAdjacentTilePositions());
+        }
+        // removing a rail may split a network, which a disjoint set cannot undo
+        staleRailNetworks.add(player);
+        countRailOwner(edge, player, -1);
+        if (!edge.hasRail() && countRailedEdge(edge, -1)) {
+            publishCities();
+        }
+    }
+
+    /**
+     * Adds the given edge to the rails of the given player.
+     *
+     * @param edge   the edge with the rail
+     * @param player the owner of the rail
+     */
+    private void indexRail(final Edge edge, final Player player) {
+        rails.computeIfAbsent(player, key -> new HashMap<>()).put(edge.getAdjacentTilePositions(), edge);
+        if (!staleRailNetworks.contains(player)) {
+            railNetwork(player).union(tiles.indexOf(edge.getPosition1()), tiles.indexOf(edge.getPosition2()));
+        }
+        countRailOwner(edge, player, 1);
+    }
+
+    /**
+     * Updates the number of rails of the given player at both positions of the
+     * given edge.
+     *
+     * @param edge   the edge that changed
+     * @param player the owner of the rail
+     * @param delta  {@code 1} if the rail was built, {@code -1} if it was removed
+     */
+    private void countRailOwner(final Edge edge, final Player player, final int delta) {
+        final int bit = EdgeImpl.ownerBit(player);
+        final int slot = player.getID() - 1;
+        playersById[slot] = player;
+        for (final TilePosition position : List.of(edge.getPosition1(), edge.getPosition2())) {
+            final int index = tiles.indexOf(position);
+            final int count = railCountsAtTile[EdgeImpl.MAX_PLAYER_ID * index + slot] += delta;
+            railOwnersAtTile[index] = (short) (count > 0 ? railOwnersAtTile[index] | bit
+                    : railOwnersAtTile[index] & ~bit);
+            singleRailOwnersAtTile[index] = (short) (count == 1 ? singleRailOwnersAtTile[index] | bit
+                    : singleRailOwnersAtTile[index] & ~bit);
+        }
+    }
+
+    /**
+     * Returns the owners of rails at the given position that are not on the edge
+     * with the given owners.
+     * A player is included if it owns a rail on any edge of the tile except the
+     * given one.
+     *
+     * @param position      the position of the tile
+     * @param edgeOwnerMask the owner bitmask of an edge of the tile
+     * @return the owner bitmask of the other rails of the tile
+     * @see EdgeImpl#getRailOwnerMask()
+     */
+    int getOtherRailOwnerMask(final TilePosition position, final int edgeOwnerMask) {
+        final int index = tiles.indexOf(position);
+        return (railOwnersAtTile[index] & ~(edgeOwnerMask & singleRailOwnersAtTile[index])) & 0xFFFF;
+    }
+
+    /**
+     * Returns the player with the given id that has built a rail in this grid.
+     *
+     * @param id the id of the player
+     * @return the player or {@code null} if no player with this id has built a rail
+     */
+    Player getPlayerById(final int id) {
+        return id >= 1 && id <= EdgeImpl.MAX_PLAYER_ID ? playersById[id - 1] : null;
+    }
+
+    /**
+     * Returns the disjoint set of the rail networks of the given player over the
+     * tile indices.
+     * Rebuilds it from the rails of the player if a rail was removed since the
+     * last call.
+     *
+     * @param player the player
+     * @return the rail networks of the player
+     */
+    private DisjointSet railNetwork(final Player player) {
+        final DisjointSet network = railNetworks.computeIfAbsent(player, key -> new DisjointSet(tiles.size()));
+        if (staleRailNetworks.remove(player)) {
+            network.clear();
+            for (final Edge edge : rails.getOrDefault(player, Map.of()).values()) {
+                network.union(tiles.indexOf(edge.getPosition1()), tiles.indexOf(edge.getPosition2()));
+            }
+        }
+        return network;
+    }
+
+    @Override
+    public boolean isConnected(final Player player, final TilePosition position1, final TilePosition position2) {
+        final int index1 = tiles.indexOf(position1);
+        final int index2 = tiles.indexOf(position2);
+        if (index1 == DenseTileMap.NO_TILE || index2 == DenseTileMap.NO_TILE) {
+            return false;
+        }
+        return index1 == index2 || railNetwork(player).connected(index1, index2);
+    }
+
+    @Override
+    public int getRailNetwork(final Player player, final TilePosition position) {
+        final int index = tiles.indexOf(position);
+        return index == DenseTileMap.NO_TILE ? -1 : railNetwork(player).find(index);
+    }
+
+    /**
+     * Updates the number of edges with rails at both positions of the given edge.
+     * Must be called whenever the edge gets its first rail or loses its last one.
+     *
+     * @param edge  the edge that changed
+     * @param delta {@code 1} if the edge got its first rail, {@code -1} if it lost
+     *              its last one
+     * @return whether a city got connected or disconnected by this change
+     */
+    private boolean countRailedEdge(final Edge edge, final int delta) {
+        boolean citiesChanged = false;
+        for (final TilePosition position : List.of(edge.getPosition1(), edge.getPosition2())) {
+            final int index = tiles.indexOf(position);
+            final int previous = railedEdgesAtTile[index];
+            railedEdgesAtTile[index] += delta;
+            if ((previous == 0 || railedEdgesAtTile[index] == 0) && cities.containsKey(position)) {
+                citiesChanged = true;
+            }
+        }
+        return citiesChanged;
+    }
+
+    /**
+     * Replaces the connected and unconnected city snapshots with ones matching the
+     * current rail counts, which notifies the listeners of both properties.
+     */
+    private void publishCities() {
+        final Map<TilePosition, City> connected = new HashMap<>();
+        final Map<TilePosition, City> unconnected = new HashMap<>();
+        cities.forEach((position, city) -> {
+            if (railedEdgesAtTile[tiles.indexOf(position)] > 0) {
+                connected.put(position, city);
+            } else {
+                unconnected.put(position, city);
+            }
+        });
+        connectedCities.setValue(Collections.unmodifiableMap(connected));
+        unconnectedCities.setValue(Collections.unmodifiableMap(unconnected));
     }
 
     @Override
@@ -318,67 +863,234 @@ public class HexGridImpl implements HexGrid {
     @Override
     @StudentImplementationRequired("P1.4")
     public Map<TilePosition, City> getConnectedCities() {
-        return Collections.unmodifiableMap(cities.entrySet().stream()
-                .filter(entry -> edges.values().stream().filter(edge -> edge.hasRail())
-                        .anyMatch(edge -> edge.getAdjacentTilePositions().contains(entry.getKey())))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        return connectedCities.getValue();
     }
 
     @Override
     @StudentImplementationRequired("P1.4")
     public Map<TilePosition, City> getUnconnectedCities() {
-        Set<TilePosition> cityPositions = new HashSet<>(cities.keySet());
-        cityPositions.removeAll(getConnectedCities().keySet());
-        return Collections.unmodifiableMap(cityPositions.stream().collect(Collectors.toMap(p -> p, cities::get)));
+        return unconnectedCities.getValue();
     }
 
     @Override
     @StudentImplementationRequired("P1.4")
     public Map<TilePosition, City> getStartingCities() {
-        return getCities().values().stream().filter(City::isStartingCity)
-                .collect(Collectors.toMap(City::getPosition, Function.identity()));
+        return startingCities;
+    }
+
+    @Override
+    public ReadOnlyProperty<Map<TilePosition, City>> getConnectedCitiesProperty() {
+        return connectedCities;
+    }
+
+    @Override
+    public ReadOnlyProperty<Map<TilePosition, City>> getUnconnectedCitiesProperty() {
+        return unconnectedCities;
+    }
+
+    /**
+     * Returns the number of rail changes in this grid.
+     * The count grows by one whenever a rail is built or removed.
+     *
+     * @return the number of rail changes in this grid
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Returns how long generating this grid took.
+     *
+     * @return the generation report or {@code null} if this grid was not
+     *         generated but created from existing tiles
+     */
+    public GenerationReport getGenerationReport() {
+        return generationReport;
     }
 
     @Override
     public List<Edge> findPath(TilePosition start, TilePosition target, Set<Edge> availableEdges,
             BiFunction<TilePosition, TilePosition, Integer> edgeCostFunction) {
-        PriorityQueue<Pair<TilePosition, Integer>> positionQueue = new PriorityQueue<>(
-                (pair1, pair2) -> Integer.compare(pair1.getValue(), pair2.getValue()));
-        Map<TilePosition, TilePosition> previous = new HashMap<>();
-        Map<TilePosition, Integer> distance = new HashMap<>();
-        positionQueue.add(new Pair<>(start, 0));
-        previous.put(start, start);
-        distance.put(start, 0);
-
-        while (!positionQueue.isEmpty()) {
-            TilePosition current = positionQueue.poll().getKey();
-            if (current.equals(target)) {
-                break;
+        // arbitrary functions may depend on more than the rails, so they are not cached
+        return List.copyOf(pathFinder.findPath(start, target, availableEdges,
+                (edge, from) -> edgeCostFunction.apply(from,
+                        edge.getPosition1().equals(from) ? edge.getPosition2() : edge.getPosition1())));
+    }
+
+    @Override
+    public List<Edge> findCheapestPath(final TilePosition start, final TilePosition target,
+            final Set<Edge> availableEdges, final EdgeCostFunction costFunction) {
+        return findCachedPath(start, target, availableEdges, costFunction);
+    }
+
+    /**
+     * Returns the cached path for the given query or searches and caches it.
+     *
+     * @param start          the start position
+     * @param target         the target position
+     * @param availableEdges the edges to search for the path
+     * @param costFunction   the function to calculate the cost of an edge
+     * @return the edges of the cheapest path as an unmodifiable list
+     */
+    private List<Edge> findCachedPath(final TilePosition start, final TilePosition target,
+            final Set<Edge> availableEdges, final EdgeCostFunction costFunction) {
+        final long version = modificationCount;
+        final PathCache.Key key = pathCache.key(start, target, availableEdges, costFunction, this::edgeId);
+        if (key == null) {
+            return List.copyOf(pathFinder.findPath(start, target, availableEdges, costFunction));
+        }
+        List<Edge> path = pathCache.get(key, version);
+        if (path == null) {
+            path = List.copyOf(pathFinder.findPath(start, target, availableEdges, costFunction));
+            pathCache.put(key, version, path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns an id of the given edge for {@link PathCache} fingerprints.
+     * Edges of this grid are identified by their key, other edges by identity.
+     *
+     * @param edge the edge
+     * @return the id of the edge
+     */
+    private int edgeId(final Edge edge) {
+        final int key = edgeKey(edge.getPosition1().q(), edge.getPosition1().r(), edge.getPosition2().q(),
+                edge.getPosition2().r());
+        return key >= 0 && edgeSlots[key] == edge ? key : System.identityHashCode(edge) | Integer.MIN_VALUE;
+    }
+
+    /**
+     * The time taken by each step of generating a grid.
+     *
+     * @param scale       the scale of the grid
+     * @param tileCount   the number of generated tiles
+     * @param edgeCount   the number of generated edges
+     * @param cityCount   the number of placed cities
+     * @param tilesNanos  the nanoseconds spent on the random walks
+     * @param edgesNanos  the nanoseconds spent on creating and connecting edges
+     * @param citiesNanos the nanoseconds spent on placing cities and building
+     *                    the indices
+     */
+    public record GenerationReport(int scale, int tileCount, int edgeCount, int cityCount, long tilesNanos,
+            long edgesNanos, long citiesNanos) {
+
+        /**
+         * Returns the total time taken to generate the grid.
+         *
+         * @return the total nanoseconds
+         */
+        public long totalNanos() {
+            return tilesNanos + edgesNanos + citiesNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "scale %d: %d tiles, %d edges, %d cities in %.1f ms (tiles %.1f ms, edges %.1f ms, cities %.1f ms)",
+                    scale, tileCount, edgeCount, cityCount, totalNanos() / 1e6, tilesNanos / 1e6, edgesNanos / 1e6,
+                    citiesNanos / 1e6);
+        }
+    }
+
+    /**
+     * The {@link TileGraph} of this grid, backed by the dense tile and edge index.
+     */
+    private final class Graph implements TileGraph {
+        @Override
+        public int getTileCount() {
+            return tiles.size();
+        }
+
+        @Override
+        public int getTileIndex(final TilePosition position) {
+            return tiles.indexOf(position);
+        }
+
+        @Override
+        public TilePosition getTilePosition(final int index) {
+            return tiles.getByIndex(index).getPosition();
+        }
+
+        @Override
+        public int getNeighbourIndex(final int index, final int direction) {
+            return neighbourIndices[EdgeDirection.SIZE * index + direction];
+        }
+
+        @Override
+        public Edge getEdge(final int index, final int direction) {
+            return edgeAt(index, direction);
+        }
+    }
+
+    /**
+     * A read-only {@link Map} view of the edge index keyed by the two positions of
+     * each edge.
+     */
+    private final class EdgeMap extends AbstractMap<Set<TilePosition>, Edge> {
+
+        private final Set<Entry<Set<TilePosition>, Edge>> entrySet = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Set<TilePosition>, Edge>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int key) {
+                        while (key < edgeSlots.length && edgeSlots[key] == null) {
+                            key++;
+                        }
+                        return key;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < edgeSlots.length;
+                    }
+
+                    @Override
+                    public Entry<Set<TilePosition>, Edge> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Edge edge = edgeSlots[next];
+                        next = advance(next + 1);
+                        return new SimpleImmutableEntry<>(edge.getAdjacentTilePositions(), edge);
+                    }
+                };
             }
-            for (TilePosition next : getTileAt(current).getConnectedNeighbours(availableEdges).stream()
-                    .map(Tile::getPosition).toList()) {
-                int newDistance = distance.get(current)
-                        + edgeCostFunction.apply(current, next);
-                if (!distance.containsKey(next) || newDistance < distance.get(next)) {
-                    distance.put(next, newDistance);
-                    previous.put(next, current);
-                    positionQueue.add(new Pair<>(next, newDistance));
-                }
+
+            @Override
+            public int size() {
+                return edgeCount;
             }
+        };
+
+        @Override
+        public Edge get(final Object key) {
+            if (!(key instanceof Set<?> positions) || positions.size() != 2) {
+                return null;
+            }
+            final Iterator<?> iterator = positions.iterator();
+            if (iterator.next() instanceof TilePosition position0
+                    && iterator.next() instanceof TilePosition position1) {
+                return getEdge(position0, position1);
+            }
+            return null;
         }
 
-        if (!previous.containsKey(target)) {
-            return List.of();
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
         }
 
-        TilePosition current = target;
-        List<Edge> pathEdges = new ArrayList<>();
+        @Override
+        public Set<Entry<Set<TilePosition>, Edge>> entrySet() {
+            return entrySet;
+        }
 
-        while (!current.equals(start)) {
-            TilePosition previousPosition = previous.get(current);
-            pathEdges.add(getEdge(previousPosition, current));
-            current = previousPosition;
+        @Override
+        public int size() {
+            return edgeCount;
         }
-        return pathEdges.reversed();
     }
 }
@@ -0,0 +1,282 @@
+package hProjekt.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes maps in a compact binary format.
+ * A map file stores the tile types and the cities of a {@link HexGrid}, rails
+ * are not stored. All numbers are big-endian:
+ * <ul>
+ * <li>the magic number {@code "HPMP"} and the format version as {@code short}</li>
+ * <li>the bounding box of the tiles as {@code int}s: lowest q, lowest r, width
+ * and height</li>
+ * <li>one byte per cell of the bounding box in row-major order, {@code 0} for
+ * no tile and {@code ordinal + 1} of the {@link Tile.Type} otherwise</li>
+ * <li>the number of cities as {@code int}, then for every city q and r as
+ * {@code int}s, a flag byte with bit {@code 0} set for starting cities and the
+ * name as unsigned {@code short} length followed by the UTF-8 bytes</li>
+ * </ul>
+ * Files are read through a memory-mapped buffer, so loading a map only copies
+ * the city names.
+ */
+public final class MapFile {
+
+    /**
+     * The directory maps are saved to and listed from.
+     */
+    public static final Path MAP_DIRECTORY = Path.of("maps");
+
+    /**
+     * The file extension of map files.
+     */
+    public static final String FILE_EXTENSION = ".hpmap";
+
+    /**
+     * The value of a cell without a tile.
+     */
+    static final int NO_TILE = 0;
+
+    private static final int MAGIC = 0x48504D50;
+    private static final short VERSION = 1;
+    private static final int STARTING_CITY_FLAG = 1;
+    private static final int MAX_NAME_LENGTH = 0xFFFF;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + 4 * Integer.BYTES;
+
+    /**
+     * A city stored in a map file.
+     *
+     * @param q            the q-coordinate of the city
+     * @param r            the r-coordinate of the city
+     * @param name         the name of the city
+     * @param startingCity whether the city is a starting city
+     */
+    record CityEntry(int q, int r, String name, boolean startingCity) {
+    }
+
+    /**
+     * The contents of a map file.
+     *
+     * @param minQ   the lowest q-coordinate of the bounding box
+     * @param minR   the lowest r-coordinate of the bounding box
+     * @param width  the width of the bounding box
+     * @param cells  the cells of the bounding box in row-major order
+     * @param cities the cities
+     */
+    record Contents(int minQ, int minR, int width, ByteBuffer cells, List<CityEntry> cities) {
+    }
+
+    private MapFile() {
+    }
+
+    /**
+     * Writes the tiles and cities of the given grid to the given file.
+     * Existing files are replaced.
+     *
+     * @param grid the grid to write
+     * @param path the file to write to
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(final HexGrid grid, final Path path) throws IOException {
+        if (grid.getTiles().isEmpty()) {
+            throw new IllegalArgumentException("Cannot write a map without tiles");
+        }
+        int minQ = Integer.MAX_VALUE;
+        int minR = Integer.MAX_VALUE;
+        int maxQ = Integer.MIN_VALUE;
+        int maxR = Integer.MIN_VALUE;
+        for (final TilePosition position : grid.getTiles().keySet()) {
+            minQ = Math.min(minQ, position.q());
+            minR = Math.min(minR, position.r());
+            maxQ = Math.max(maxQ, position.q());
+            maxR = Math.max(maxR, position.r());
+        }
+        final int width = maxQ - minQ + 1;
+        final int height = maxR - minR + 1;
+        final List<City> cities = new ArrayList<>(grid.getCities().values());
+        cities.sort(Comparator.comparing(City::getPosition));
+        final List<byte[]> names = new ArrayList<>(cities.size());
+        int size = HEADER_SIZE + width * height + Integer.BYTES;
+        for (final City city : cities) {
+            final byte[] name = city.getName().getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("The name of " + city + " is too long");
+            }
+            names.add(name);
+            size += 2 * Integer.BYTES + 1 + Short.BYTES + name.length;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(minQ).putInt(minR).putInt(width).putInt(height);
+        for (final Tile tile : grid.getTiles().values()) {
+            buffer.put(HEADER_SIZE + (tile.getPosition().r() - minR) * width + tile.getPosition().q() - minQ,
+                    (byte) (tile.getType().ordinal() + 1));
+        }
+        buffer.position(HEADER_SIZE + width * height);
+        buffer.putInt(cities.size());
+        for (int i = 0; i < cities.size(); i++) {
+            final City city = cities.get(i);
+            buffer.putInt(city.getPosition().q()).putInt(city.getPosition().r());
+            buffer.put((byte) (city.isStartingCity() ? STARTING_CITY_FLAG : 0));
+            buffer.putShort((short) names.get(i).length).put(names.get(i));
+        }
+        buffer.flip();
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads the map in the given file into a new grid without rails.
+     *
+     * @param path the file to read
+     * @return the new grid
+     * @throws IOException if the file cannot be read or is not a valid map file
+     */
+    public static HexGridImpl read(final Path path) throws IOException {
+        return new HexGridImpl(readContents(path));
+    }
+
+    /**
+     * Reads the map in the given file into a new {@link OffHeapHexGrid} without
+     * rails, for maps too large for {@link HexGridImpl}.
+     *
+     * @param path the file to read
+     * @return the new grid
+     * @throws IOException if the file cannot be read or is not a valid map file
+     */
+    public static OffHeapHexGrid readOffHeap(final Path path) throws IOException {
+        return new OffHeapHexGrid(readContents(path));
+    }
+
+    /**
+     * Maps the given file into memory and parses it.
+     *
+     * @param path the file to read
+     * @return the parsed contents
+     * @throws IOException if the file cannot be read or is not a valid map file
+     */
+    private static Contents readContents(final Path path) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return parse(buffer);
+        } catch (final BufferUnderflowException e) {
+            throw new IOException("Map file " + path + " is truncated", e);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Map file " + path + " is invalid: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses and validates the contents of a map file.
+     *
+     * @param buffer the contents of the file
+     * @return the parsed contents, the cells are a view of the given buffer
+     * @throws IllegalArgumentException if the contents are not a valid map
+     * @throws BufferUnderflowException if the contents are truncated
+     */
+    static Contents parse(final ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a map file");
+        }
+        final short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unsupported version " + version);
+        }
+        final int minQ = buffer.getInt();
+        final int minR = buffer.getInt();
+        final int width = buffer.getInt();
+        final int height = buffer.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid bounding box " + width + "x" + height);
+        }
+        final ByteBuffer cells = buffer.slice(buffer.position(), width * height);
+        final int types = Tile.Type.values().length;
+        for (int cell = 0; cell < cells.limit(); cell++) {
+            final int value = cells.get(cell);
+            if (value < NO_TILE || value > types) {
+                throw new IllegalArgumentException("invalid tile type " + value);
+            }
+        }
+        buffer.position(buffer.position() + width * height);
+
+        final int cityCount = buffer.getInt();
+        if (cityCount < 0) {
+            throw new IllegalArgumentException("invalid number of cities " + cityCount);
+        }
+        final List<CityEntry> cities = new ArrayList<>(Math.min(cityCount, buffer.remaining()));
+        final Set<TilePosition> cityPositions = new HashSet<>();
+        for (int i = 0; i < cityCount; i++) {
+            final int q = buffer.getInt();
+            final int r = buffer.getInt();
+            final int flags = buffer.get();
+            final byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(name);
+            final int column = q - minQ;
+            final int row = r - minR;
+            if (column < 0 || row < 0 || column >= width || row >= height
+                    || cells.get(row * width + column) == NO_TILE) {
+                throw new IllegalArgumentException("city at (" + q + ", " + r + ") is not on a tile");
+            }
+            if (!cityPositions.add(new TilePosition(q, r))) {
+                throw new IllegalArgumentException("two cities at (" + q + ", " + r + ")");
+            }
+            cities.add(new CityEntry(q, r, new String(name, StandardCharsets.UTF_8),
+                    (flags & STARTING_CITY_FLAG) != 0));
+        }
+        return new Contents(minQ, minR, width, cells, cities);
+    }
+
+    /**
+     * Returns the path of the map with the given name in {@link #MAP_DIRECTORY}.
+     *
+     * @param name the name of the map
+     * @return the path of the map file
+     */
+    public static Path pathOf(final String name) {
+        return MAP_DIRECTORY.resolve(name + FILE_EXTENSION);
+    }
+
+    /**
+     * Returns the names of all maps in {@link #MAP_DIRECTORY}, sorted
+     * alphabetically.
+     *
+     * @return the names of the saved maps, empty if there are none
+     */
+    public static List<String> listMaps() {
+        if (!Files.isDirectory(MAP_DIRECTORY)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(MAP_DIRECTORY)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(FILE_EXTENSION))
+                    .map(name -> name.substring(0, name.length() - FILE_EXTENSION.length()))
+                    .sorted()
+                    .toList();
+        } catch (final IOException e) {
+            return List.of();
+        }
+    }
+}
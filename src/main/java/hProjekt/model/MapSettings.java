@@ -0,0 +1,51 @@
+package hProjekt.model;
+
+import hProjekt.Config;
+
+/**
+ * The settings of {@link Config} a {@link HexGridImpl} is generated with.
+ * Generating a grid only reads these values, so a snapshot taken on one thread
+ * can be used to generate a grid on another thread while {@link Config} is
+ * changed.
+ *
+ * @param scale                   the map scale
+ * @param numberOfCities          the number of cities
+ * @param numberOfStartingCities  the number of starting cities
+ * @param nearMountainRadius      the radius of the mountain check
+ * @param nearCityRadius          the radius of the city check
+ * @param baseProbability         the base city probability
+ * @param atCoastProbability      the city probability at the coast
+ * @param nearMountainProbability the city probability near mountains
+ * @param nearCityProbability     the city probability near cities
+ * @param names                   the names for the cities, compared by identity
+ *                                like every array component
+ */
+public record MapSettings(int scale, int numberOfCities, int numberOfStartingCities, int nearMountainRadius,
+        int nearCityRadius, double baseProbability, double atCoastProbability, double nearMountainProbability,
+        double nearCityProbability, String[] names) {
+
+    /**
+     * Returns the current settings of {@link Config}.
+     *
+     * @return the current settings
+     */
+    public static MapSettings current() {
+        return of(Config.MAP_SCALE, Config.NUMBER_OF_CITIES, Config.TOWN_NAMES);
+    }
+
+    /**
+     * Returns the current settings of {@link Config} with the given scale, number
+     * of cities and names.
+     *
+     * @param scale          the map scale
+     * @param numberOfCities the number of cities
+     * @param names          the names for the cities
+     * @return the settings
+     */
+    public static MapSettings of(final int scale, final int numberOfCities, final String[] names) {
+        return new MapSettings(scale, numberOfCities, Config.NUMBER_OF_STARTING_CITIES,
+                Config.CITY_NEAR_MOUNTAIN_RADIUS, Config.CITY_NEAR_CITY_RADIUS, Config.CITY_BASE_PROBABILTY,
+                Config.CITY_AT_COAST_PROBABILTY, Config.CITY_NEAR_MOUNTAIN_PROBABILTY,
+                Config.CITY_NEAR_CITY_PROBABILTY, names);
+    }
+}
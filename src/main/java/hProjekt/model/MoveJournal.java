@@ -0,0 +1,75 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how to undo the changes made to a {@link GameFork}, so a search can
+ * try a move and take it back in time proportional to the number of changes it
+ * made.
+ * <p>
+ * Usage:
+ *
+ * <pre>{@code
+ * final int mark = journal.mark();
+ * // make changes that record their undo actions
+ * // evaluate the position
+ * journal.undo(mark);
+ * }</pre>
+ *
+ * Changes made while undoing are not recorded.
+ */
+final class MoveJournal {
+
+    private final List<Runnable> undoActions = new ArrayList<>();
+    private boolean undoing;
+
+    /**
+     * Records the action that undoes a change that was just made.
+     *
+     * @param undoAction the action restoring the state before the change
+     */
+    void record(final Runnable undoAction) {
+        if (!undoing) {
+            undoActions.add(undoAction);
+        }
+    }
+
+    /**
+     * Returns a mark for the current state that can be passed to
+     * {@link #undo(int)}.
+     *
+     * @return the number of recorded changes
+     */
+    int mark() {
+        return undoActions.size();
+    }
+
+    /**
+     * Undoes all changes recorded after the given mark, latest first.
+     *
+     * @param mark a mark returned by {@link #mark()}
+     * @throws IllegalArgumentException if the mark is negative or the changes
+     *                                  after it were already undone
+     */
+    void undo(final int mark) {
+        if (mark < 0 || mark > undoActions.size()) {
+            throw new IllegalArgumentException("Invalid mark " + mark + " for " + undoActions.size() + " changes");
+        }
+        undoing = true;
+        try {
+            while (undoActions.size() > mark) {
+                undoActions.removeLast().run();
+            }
+        } finally {
+            undoing = false;
+        }
+    }
+
+    /**
+     * Forgets all recorded changes, so they can no longer be undone.
+     */
+    void clear() {
+        undoActions.clear();
+    }
+}
@@ -0,0 +1,1628 @@
+package hProjekt.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import hProjekt.Config;
+import hProjekt.model.TilePosition.EdgeDirection;
+import hProjekt.util.DisjointSet;
+import hProjekt.util.NameGenerator;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ObservableDoubleValue;
+
+/**
+ * A {@link HexGrid} for maps with millions of tiles, meant for headless
+ * simulations and benchmarks.
+ * Tile types, the neighbour index, edge costs and the rail owner bitmasks are
+ * stored in direct buffers outside of the Java heap, so the size of the heap
+ * and the work of the garbage collector do not grow with the map. Only the
+ * cities and the rail networks of each player are kept on the heap.
+ * <p>
+ * {@link Tile}s and {@link Edge}s are thin views that are created on demand
+ * and compare equal if they refer to the same tile or edge of the same grid.
+ * Unlike {@link HexGridImpl} the views have no observable state: edges do not
+ * support the {@link Edge#getRailOwnersProperty() rail owner property} and
+ * the rail owners are ordered by player id.
+ * <p>
+ * Like {@link EdgeImpl} rails support at most {@link EdgeImpl#MAX_PLAYER_ID}
+ * players with ids starting at {@code 1}.
+ */
+public final class OffHeapHexGrid implements HexGrid {
+
+    /**
+     * The number of edges owned by each tile in the edge index.
+     */
+    private static final int EDGES_PER_TILE = EdgeDirection.SIZE / 2;
+
+    /**
+     * The costs stored per edge: the base building cost and the driving costs
+     * from the owning tile and from its neighbour.
+     */
+    private static final int COSTS_PER_EDGE = 3;
+
+    private static final int NO_TILE = -1;
+    private static final int TYPE_MASK = 0x3F;
+    private static final int CITY_FLAG = 0x40;
+    private static final int STARTING_CITY_FLAG = 0x80;
+    private static final Tile.Type[] TYPES = Tile.Type.values();
+
+    private final int minQ;
+    private final int minR;
+    private final int width;
+    private final int height;
+    private final int tileCount;
+    private final int edgeCount;
+    private final IntBuffer cellTiles;
+    private final IntBuffer tileCells;
+    private final IntBuffer neighbourIndices;
+    private final ByteBuffer tileFlags;
+    private final ShortBuffer railOwners;
+    private final ShortBuffer edgeCosts;
+    private final long offHeapSize;
+
+    private final Map<TilePosition, City> cities;
+    private final Map<TilePosition, City> startingCities;
+    private final Property<Map<TilePosition, City>> connectedCities = new SimpleObjectProperty<>(Map.of());
+    private final Property<Map<TilePosition, City>> unconnectedCities = new SimpleObjectProperty<>(Map.of());
+    private final Player[] playersById = new Player[EdgeImpl.MAX_PLAYER_ID];
+    private final RailKeys[] railKeys = new RailKeys[EdgeImpl.MAX_PLAYER_ID];
+    private final IntList[] removedRailTiles = new IntList[EdgeImpl.MAX_PLAYER_ID];
+    private final DisjointSet[] railNetworks = new DisjointSet[EdgeImpl.MAX_PLAYER_ID];
+    private final boolean[] staleRailNetworks = new boolean[EdgeImpl.MAX_PLAYER_ID];
+    private final Map<TilePosition, Tile> tileMap = new TileMap();
+    private final Map<Set<TilePosition>, Edge> edgeMap = new EdgeMap(-1);
+    private final List<Map<Set<TilePosition>, Edge>> railMaps = new ArrayList<>(EdgeImpl.MAX_PLAYER_ID);
+    private final ObservableDoubleValue tileWidth;
+    private final ObservableDoubleValue tileHeight;
+    private final DoubleProperty tileSize = new SimpleDoubleProperty(50);
+    private final PathFinder pathFinder = new PathFinder(new Graph());
+    private final PathCache pathCache = new PathCache();
+    private volatile int costVersion = -1;
+    private long modificationCount;
+
+    /**
+     * Creates a new grid from the contents of a map file without rails.
+     * The cells of the contents are copied, so they may be a memory-mapped
+     * buffer that is closed afterwards.
+     *
+     * @param contents the parsed and validated contents of a {@link MapFile}
+     */
+    OffHeapHexGrid(final MapFile.Contents contents) {
+        final ByteBuffer cells = contents.cells();
+        this.minQ = contents.minQ();
+        this.minR = contents.minR();
+        this.width = contents.width();
+        this.height = cells.limit() / width;
+        this.tileHeight = Bindings.createDoubleBinding(() -> tileSize.get() * 2, tileSize);
+        this.tileWidth = Bindings.createDoubleBinding(() -> Math.sqrt(3) * tileSize.get(), tileSize);
+
+        int count = 0;
+        for (int cell = 0; cell < cells.limit(); cell++) {
+            if (cells.get(cell) != MapFile.NO_TILE) {
+                count++;
+            }
+        }
+        this.tileCount = count;
+        this.cellTiles = allocate((long) Integer.BYTES * width * height).asIntBuffer();
+        this.tileCells = allocate((long) Integer.BYTES * tileCount).asIntBuffer();
+        this.neighbourIndices = allocate((long) Integer.BYTES * EdgeDirection.SIZE * tileCount).asIntBuffer();
+        this.tileFlags = allocate(tileCount);
+        this.railOwners = allocate((long) Short.BYTES * EDGES_PER_TILE * tileCount).asShortBuffer();
+        this.edgeCosts = allocate((long) Short.BYTES * COSTS_PER_EDGE * EDGES_PER_TILE * tileCount)
+                .asShortBuffer();
+        this.offHeapSize = (long) Integer.BYTES * (cellTiles.capacity() + tileCells.capacity()
+                + neighbourIndices.capacity()) + tileFlags.capacity()
+                + (long) Short.BYTES * (railOwners.capacity() + edgeCosts.capacity());
+
+        int index = 0;
+        for (int cell = 0; cell < cells.limit(); cell++) {
+            final int type = cells.get(cell);
+            if (type == MapFile.NO_TILE) {
+                cellTiles.put(cell, NO_TILE);
+            } else {
+                cellTiles.put(cell, index);
+                tileCells.put(index, cell);
+                tileFlags.put(index, (byte) (type - 1));
+                index++;
+            }
+        }
+        int edges = 0;
+        for (int tile = 0; tile < tileCount; tile++) {
+            final int q = qOf(tile);
+            final int r = rOf(tile);
+            for (final EdgeDirection direction : EdgeDirection.VALUES) {
+                final int neighbour = indexOf(q + direction.position.q(), r + direction.position.r());
+                neighbourIndices.put(EdgeDirection.SIZE * tile + direction.ordinal(), neighbour);
+                if (neighbour != NO_TILE && direction.ordinal() < EDGES_PER_TILE) {
+                    edges++;
+                }
+            }
+        }
+        this.edgeCount = edges;
+
+        final Map<TilePosition, City> cities = new HashMap<>();
+        final Map<TilePosition, City> starting = new HashMap<>();
+        for (final MapFile.CityEntry entry : contents.cities()) {
+            final int tile = indexOf(entry.q(), entry.r());
+            final TilePosition position = positionOf(tile);
+            final City city = new CityImpl(position, entry.name(), entry.startingCity(), this);
+            tileFlags.put(tile, (byte) (tileFlags.get(tile) | CITY_FLAG
+                    | (entry.startingCity() ? STARTING_CITY_FLAG : 0)));
+            cities.put(position, city);
+            if (entry.startingCity()) {
+                starting.put(position, city);
+            }
+        }
+        this.cities = Collections.unmodifiableMap(cities);
+        this.startingCities = Collections.unmodifiableMap(starting);
+        for (int slot = 0; slot < EdgeImpl.MAX_PLAYER_ID; slot++) {
+            railKeys[slot] = new RailKeys();
+            removedRailTiles[slot] = new IntList();
+            railMaps.add(new EdgeMap(slot));
+        }
+        publishCities();
+    }
+
+    /**
+     * Generates a new hexagonal map with the given radius.
+     * All tiles within the radius of {@code (0, 0)} are plains, mountains are
+     * added by random walks like in {@link HexGridImpl}. Cities are placed on
+     * random plains, the first {@link Config#NUMBER_OF_STARTING_CITIES} of them
+     * are starting cities.
+     *
+     * @param radius         the radius of the map, a radius of {@code 577} gives
+     *                       about a million tiles
+     * @param numberOfCities the number of cities to place
+     * @param random         the random instance to use
+     * @return the new grid
+     * @throws IllegalArgumentException if the radius is negative
+     * @throws IllegalStateException    if there are not enough plains for the
+     *                                  cities
+     */
+    public static OffHeapHexGrid generate(final int radius, final int numberOfCities, final Random random) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("The radius must not be negative, got " + radius);
+        }
+        final int size = 2 * radius + 1;
+        final ByteBuffer cells = allocate((long) size * size);
+        final byte plain = (byte) (Tile.Type.PLAIN.ordinal() + 1);
+        final byte mountain = (byte) (Tile.Type.MOUNTAIN.ordinal() + 1);
+        int plains = 0;
+        for (int r = -radius; r <= radius; r++) {
+            for (int q = Math.max(-radius, -r - radius); q <= Math.min(radius, -r + radius); q++) {
+                cells.put((r + radius) * size + q + radius, plain);
+                plains++;
+            }
+        }
+
+        final int walkLength = Math.max(1, radius / 2);
+        for (int walk = 0; walk < radius; walk++) {
+            int cell = randomCell(cells, random, 0);
+            for (int step = 0; step < walkLength; step++) {
+                final EdgeDirection direction = EdgeDirection.VALUES.get(random.nextInt(EdgeDirection.SIZE));
+                final int q = cell % size + direction.position.q();
+                final int r = cell / size + direction.position.r();
+                if (q < 0 || r < 0 || q >= size || r >= size || cells.get(r * size + q) == MapFile.NO_TILE) {
+                    continue;
+                }
+                cell = r * size + q;
+                if (cells.get(cell) == plain) {
+                    cells.put(cell, mountain);
+                    plains--;
+                }
+            }
+        }
+
+        if (numberOfCities > plains) {
+            throw new IllegalStateException("Cannot place " + numberOfCities + " cities on " + plains + " plains");
+        }
+        final NameGenerator nameGenerator = new NameGenerator(Config.TOWN_NAMES, 3, random);
+        final List<MapFile.CityEntry> cities = new ArrayList<>(numberOfCities);
+        final Set<Integer> cityCells = new HashSet<>();
+        while (cities.size() < numberOfCities) {
+            final int cell = randomCell(cells, random, plain);
+            if (cityCells.add(cell)) {
+                cities.add(new MapFile.CityEntry(cell % size - radius, cell / size - radius,
+                        nameGenerator.generateName(10), cities.size() < Config.NUMBER_OF_STARTING_CITIES));
+            }
+        }
+        return new OffHeapHexGrid(new MapFile.Contents(-radius, -radius, size, cells, cities));
+    }
+
+    /**
+     * Returns a random cell of the given map with the given value, or with any
+     * tile if the value is {@code 0}.
+     *
+     * @param cells  the cells of the map
+     * @param random the random instance to use
+     * @param value  the value of the cell or {@code 0}
+     * @return the index of the cell
+     */
+    private static int randomCell(final ByteBuffer cells, final Random random, final int value) {
+        while (true) {
+            final int cell = random.nextInt(cells.limit());
+            final int type = cells.get(cell);
+            if (value == 0 ? type != MapFile.NO_TILE : type == value) {
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the given grid with the same tiles, cities and rails.
+     * Rails are copied as they are, without checking whether they could be
+     * built.
+     *
+     * @param grid the grid to copy
+     * @return the new grid
+     * @throws IllegalArgumentException if the grid has no tiles
+     */
+    public static OffHeapHexGrid copyOf(final HexGrid grid) {
+        final OffHeapHexGrid copy = structureOf(grid);
+        for (final Edge edge : grid.getEdges().values()) {
+            for (final Player player : edge.getRailOwners()) {
+                copy.putRail(edge.getPosition1(), edge.getPosition2(), player);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a copy of the tiles and cities of the given grid without rails.
+     *
+     * @param grid the grid to copy
+     * @return the new grid
+     * @throws IllegalArgumentException if the grid has no tiles
+     */
+    private static OffHeapHexGrid structureOf(final HexGrid grid) {
+        if (grid.getTiles().isEmpty()) {
+            throw new IllegalArgumentException("Cannot copy a grid without tiles");
+        }
+        int minQ = Integer.MAX_VALUE;
+        int minR = Integer.MAX_VALUE;
+        int maxQ = Integer.MIN_VALUE;
+        int maxR = Integer.MIN_VALUE;
+        for (final TilePosition position : grid.getTiles().keySet()) {
+            minQ = Math.min(minQ, position.q());
+            minR = Math.min(minR, position.r());
+            maxQ = Math.max(maxQ, position.q());
+            maxR = Math.max(maxR, position.r());
+        }
+        final int width = maxQ - minQ + 1;
+        final ByteBuffer cells = allocate((long) width * (maxR - minR + 1));
+        for (final Tile tile : grid.getTiles().values()) {
+            cells.put((tile.getPosition().r() - minR) * width + tile.getPosition().q() - minQ,
+                    (byte) (tile.getType().ordinal() + 1));
+        }
+        final List<MapFile.CityEntry> cities = new ArrayList<>();
+        for (final City city : grid.getCities().values()) {
+            cities.add(new MapFile.CityEntry(city.getPosition().q(), city.getPosition().r(), city.getName(),
+                    city.isStartingCity()));
+        }
+        return new OffHeapHexGrid(new MapFile.Contents(minQ, minR, width, cells, cities));
+    }
+
+    /**
+     * Builds a rail of the given player between the given positions without
+     * checking whether it could be built.
+     *
+     * @param position1 the first position of the edge
+     * @param position2 the second position of the edge
+     * @param player    the owner of the rail
+     * @throws IllegalArgumentException if there is no edge between the positions
+     */
+    void putRail(final TilePosition position1, final TilePosition position2, final Player player) {
+        final int key = edgeKey(position1.q(), position1.r(), position2.q(), position2.r());
+        if (key < 0) {
+            throw new IllegalArgumentException("There is no edge between " + position1 + " and " + position2);
+        }
+        setRail(key, player, true);
+    }
+
+    /**
+     * Allocates a zeroed direct buffer in native byte order.
+     *
+     * @param bytes the size of the buffer
+     * @return the new buffer
+     * @throws IllegalArgumentException if the size does not fit into a buffer
+     */
+    private static ByteBuffer allocate(final long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The grid is too large: " + bytes + " bytes in one buffer");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the number of bytes this grid stores outside of the Java heap.
+     *
+     * @return the size of the off-heap buffers in bytes
+     */
+    public long getOffHeapSize() {
+        return offHeapSize;
+    }
+
+    /**
+     * Returns the number of rail changes in this grid.
+     * The count grows by one whenever a rail is built or removed.
+     *
+     * @return the number of rail changes in this grid
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    // Tiles
+
+    /**
+     * Returns the index of the tile at the given coordinates.
+     *
+     * @param q the q-coordinate
+     * @param r the r-coordinate
+     * @return the index of the tile or {@code -1} if there is no tile
+     */
+    private int indexOf(final int q, final int r) {
+        final int column = q - minQ;
+        final int row = r - minR;
+        if (column < 0 || row < 0 || column >= width || row >= height) {
+            return NO_TILE;
+        }
+        return cellTiles.get(row * width + column);
+    }
+
+    /**
+     * Returns the dense index of the tile at the given position.
+     * Tile indices lie in {@code [0, getTiles().size())} and follow the rows of
+     * the map.
+     *
+     * @param position the position of the tile
+     * @return the index of the tile or {@code -1} if there is no tile at the given
+     *         position
+     */
+    public int getTileIndex(final TilePosition position) {
+        return indexOf(position.q(), position.r());
+    }
+
+    /**
+     * Returns the q-coordinate of the tile with the given index.
+     *
+     * @param index the index of the tile
+     * @return the q-coordinate
+     */
+    private int qOf(final int index) {
+        return minQ + tileCells.get(index) % width;
+    }
+
+    /**
+     * Returns the r-coordinate of the tile with the given index.
+     *
+     * @param index the index of the tile
+     * @return the r-coordinate
+     */
+    private int rOf(final int index) {
+        return minR + tileCells.get(index) / width;
+    }
+
+    /**
+     * Returns the position of the tile with the given index.
+     *
+     * @param index the index of the tile
+     * @return a new position
+     */
+    private TilePosition positionOf(final int index) {
+        final int cell = tileCells.get(index);
+        return new TilePosition(minQ + cell % width, minR + cell / width);
+    }
+
+    /**
+     * Returns the type of the tile with the given index.
+     *
+     * @param index the index of the tile
+     * @return the type of the tile
+     */
+    private Tile.Type typeOf(final int index) {
+        return TYPES[tileFlags.get(index) & TYPE_MASK];
+    }
+
+    /**
+     * Returns whether the tile with the given index has the given flag.
+     *
+     * @param index the index of the tile
+     * @param flag  {@link #CITY_FLAG} or {@link #STARTING_CITY_FLAG}
+     * @return whether the flag is set
+     */
+    private boolean hasFlag(final int index, final int flag) {
+        return (tileFlags.get(index) & flag) != 0;
+    }
+
+    /**
+     * Returns the index of the neighbour of the given tile.
+     *
+     * @param index     the index of the tile
+     * @param direction the ordinal of the direction
+     * @return the index of the neighbour or {@code -1} if there is none
+     */
+    private int neighbourOf(final int index, final int direction) {
+        return neighbourIndices.get(EdgeDirection.SIZE * index + direction);
+    }
+
+    @Override
+    public double getTileWidth() {
+        return tileWidth.get();
+    }
+
+    @Override
+    public double getTileHeight() {
+        return tileHeight.get();
+    }
+
+    @Override
+    public double getTileSize() {
+        return tileSize.get();
+    }
+
+    @Override
+    public ObservableDoubleValue tileWidthProperty() {
+        return tileWidth;
+    }
+
+    @Override
+    public ObservableDoubleValue tileHeightProperty() {
+        return tileHeight;
+    }
+
+    @Override
+    public DoubleProperty tileSizeProperty() {
+        return tileSize;
+    }
+
+    @Override
+    public Map<TilePosition, Tile> getTiles() {
+        return tileMap;
+    }
+
+    @Override
+    public Tile getTileAt(final int q, final int r) {
+        final int index = indexOf(q, r);
+        return index == NO_TILE ? null : new TileView(index);
+    }
+
+    @Override
+    public Tile getTileAt(final TilePosition position) {
+        return getTileAt(position.q(), position.r());
+    }
+
+    // Edges / Rails
+
+    /**
+     * Returns the key of the edge of the given tile in the given direction.
+     * Like in {@link HexGridImpl} the key is {@code 3 * tileIndex + direction} of
+     * the tile the edge points away from in one of the first three directions.
+     *
+     * @param index     the index of the tile
+     * @param direction the ordinal of the direction
+     * @return the key of the edge or {@code -1} if there is no edge
+     */
+    private int edgeKeyAt(final int index, final int direction) {
+        final int neighbour = neighbourOf(index, direction);
+        if (neighbour == NO_TILE) {
+            return -1;
+        }
+        return direction < EDGES_PER_TILE ? EDGES_PER_TILE * index + direction
+                : EDGES_PER_TILE * neighbour + direction - EDGES_PER_TILE;
+    }
+
+    /**
+     * Returns the key of the edge between the given coordinates.
+     *
+     * @param q0 the q-coordinate of the first position
+     * @param r0 the r-coordinate of the first position
+     * @param q1 the q-coordinate of the second position
+     * @param r1 the r-coordinate of the second position
+     * @return the key of the edge or {@code -1} if the positions are not adjacent
+     *         tiles of this grid
+     */
+    private int edgeKey(final int q0, final int r0, final int q1, final int r1) {
+        final EdgeDirection direction = EdgeDirection.fromOffset(q1 - q0, r1 - r0);
+        final int index = indexOf(q0, r0);
+        return direction == null || index == NO_TILE ? -1 : edgeKeyAt(index, direction.ordinal());
+    }
+
+    /**
+     * Returns the edge of the given tile in the given direction.
+     *
+     * @param index     the index of the tile
+     * @param direction the ordinal of the direction
+     * @return a view of the edge or {@code null} if there is no edge
+     */
+    private Edge edgeAt(final int index, final int direction) {
+        final int key = edgeKeyAt(index, direction);
+        return key < 0 ? null : new EdgeView(key);
+    }
+
+    /**
+     * Returns the owner bitmask of the edge with the given key.
+     *
+     * @param key the key of the edge
+     * @return the owner bitmask
+     */
+    private int ownerMask(final int key) {
+        return railOwners.get(key) & 0xFFFF;
+    }
+
+    /**
+     * Returns the bit of the given player in the owner bitmasks.
+     *
+     * @param player the player
+     * @return the bit of the player or {@code 0} if the player cannot own rails
+     */
+    private static int playerBit(final Player player) {
+        final int id = player.getID();
+        return id >= 1 && id <= EdgeImpl.MAX_PLAYER_ID ? 1 << (id - 1) : 0;
+    }
+
+    /**
+     * Returns the owners of rails on the other edges of the given tile.
+     *
+     * @param index the index of the tile
+     * @param key   the key of the edge to ignore
+     * @return the owner bitmask of the other rails of the tile
+     */
+    private int otherRailOwnerMask(final int index, final int key) {
+        int mask = 0;
+        for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+            final int other = edgeKeyAt(index, direction);
+            if (other >= 0 && other != key) {
+                mask |= ownerMask(other);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns whether any edge of the given tile has a rail.
+     *
+     * @param index the index of the tile
+     * @return whether the tile has a rail
+     */
+    private boolean hasRailAt(final int index) {
+        return otherRailOwnerMask(index, -1) != 0;
+    }
+
+    /**
+     * Builds or removes the rail of the given player on the given edge and
+     * updates the rail indices.
+     *
+     * @param key    the key of the edge
+     * @param player the owner of the rail
+     * @param add    {@code true} to build the rail, {@code false} to remove it
+     */
+    private void setRail(final int key, final Player player, final boolean add) {
+        final int bit = EdgeImpl.ownerBit(player);
+        final int slot = player.getID() - 1;
+        final int previous = ownerMask(key);
+        final int mask = add ? previous | bit : previous & ~bit;
+        if (mask == previous) {
+            return;
+        }
+        railOwners.put(key, (short) mask);
+        if (playersById[slot] == null) {
+            playersById[slot] = player;
+        }
+        modificationCount++;
+        final int owner = key / EDGES_PER_TILE;
+        final int neighbour = neighbourOf(owner, key % EDGES_PER_TILE);
+        if (add) {
+            railKeys[slot].add(key);
+            if (!staleRailNetworks[slot] && railNetworks[slot] != null) {
+                railNetworks[slot].union(owner, neighbour);
+            }
+        } else {
+            railKeys[slot].remove(key);
+            // removing a rail may split a network, which a disjoint set cannot undo
+            staleRailNetworks[slot] = true;
+            final IntList removed = removedRailTiles[slot];
+            if (railNetworks[slot] != null && removed.size() < tileCount) {
+                removed.add(owner);
+                removed.add(neighbour);
+            }
+        }
+        if ((previous == 0 || mask == 0) && (hasFlag(owner, CITY_FLAG) || hasFlag(neighbour, CITY_FLAG))) {
+            publishCities();
+        }
+    }
+
+    /**
+     * Returns the disjoint set of the rail networks of the player in the given
+     * slot over the tile indices, rebuilding it if a rail was removed since the
+     * last call.
+     * Only the tiles of the current and the removed rails of the player can be
+     * in a set with other tiles, so the rebuild resets just those tiles and takes
+     * time in the number of rails, not in the size of the map.
+     *
+     * @param slot the id of the player minus one
+     * @return the rail networks of the player
+     */
+    private DisjointSet railNetwork(final int slot) {
+        DisjointSet network = railNetworks[slot];
+        if (network == null) {
+            network = new DisjointSet(tileCount);
+            railNetworks[slot] = network;
+            staleRailNetworks[slot] = true;
+        }
+        if (staleRailNetworks[slot]) {
+            final RailKeys rails = railKeys[slot];
+            final IntList removed = removedRailTiles[slot];
+            if (removed.size() + 2L * rails.size() >= tileCount) {
+                network.clear();
+            } else {
+                for (int i = 0; i < removed.size(); i++) {
+                    network.reset(removed.get(i));
+                }
+                for (int i = 0; i < rails.size(); i++) {
+                    final int key = rails.get(i);
+                    network.reset(key / EDGES_PER_TILE);
+                    network.reset(neighbourOf(key / EDGES_PER_TILE, key % EDGES_PER_TILE));
+                }
+            }
+            removed.clear();
+            for (int i = 0; i < rails.size(); i++) {
+                final int key = rails.get(i);
+                network.union(key / EDGES_PER_TILE, neighbourOf(key / EDGES_PER_TILE, key % EDGES_PER_TILE));
+            }
+            staleRailNetworks[slot] = false;
+        }
+        return network;
+    }
+
+    /**
+     * Returns the costs of the edge with the given key, compiling them from the
+     * {@link CostTables} again if they changed since the last call.
+     *
+     * @param key   the key of the edge
+     * @param which {@code 0} for the base building cost, {@code 1} for the driving
+     *              cost from the owning tile and {@code 2} for the driving cost
+     *              from its neighbour
+     * @return the cost
+     */
+    private int cost(final int key, final int which) {
+        if (costVersion != CostTables.get().getVersion()) {
+            compileCosts();
+        }
+        return edgeCosts.get(COSTS_PER_EDGE * key + which);
+    }
+
+    /**
+     * Compiles the costs of all edges from the current {@link CostTables} unless
+     * another thread already did.
+     * Threads that find the costs outdated wait here until they are compiled, and
+     * the version is only published after all costs were written.
+     */
+    private synchronized void compileCosts() {
+        final CostTables tables = CostTables.get();
+        if (costVersion != tables.getVersion()) {
+            for (int edge = 0; edge < railOwners.capacity(); edge++) {
+                final int owner = edge / EDGES_PER_TILE;
+                final int neighbour = neighbourOf(owner, edge % EDGES_PER_TILE);
+                if (neighbour == NO_TILE) {
+                    continue;
+                }
+                final Tile.Type type1 = typeOf(owner);
+                final Tile.Type type2 = typeOf(neighbour);
+                edgeCosts.put(COSTS_PER_EDGE * edge, toShort(tables.getBuildingCost(type1, type2)));
+                edgeCosts.put(COSTS_PER_EDGE * edge + 1, toShort(tables.getDrivingCost(type1, type2)));
+                edgeCosts.put(COSTS_PER_EDGE * edge + 2, toShort(tables.getDrivingCost(type2, type1)));
+            }
+            costVersion = tables.getVersion();
+        }
+    }
+
+    /**
+     * Narrows the given cost to a {@code short}.
+     *
+     * @param cost the cost
+     * @return the cost as {@code short}
+     * @throws IllegalStateException if the cost does not fit into a {@code short}
+     */
+    private static short toShort(final int cost) {
+        if (cost < Short.MIN_VALUE || cost > Short.MAX_VALUE) {
+            throw new IllegalStateException("Cost " + cost + " is too large for an off-heap grid");
+        }
+        return (short) cost;
+    }
+
+    @Override
+    public Map<Set<TilePosition>, Edge> getEdges() {
+        return edgeMap;
+    }
+
+    @Override
+    public Edge getEdge(final TilePosition position0, final TilePosition position1) {
+        final int key = edgeKey(position0.q(), position0.r(), position1.q(), position1.r());
+        return key < 0 ? null : new EdgeView(key);
+    }
+
+    @Override
+    public Map<Set<TilePosition>, Edge> getRails(final Player player) {
+        final int bit = playerBit(player);
+        return bit == 0 ? Map.of() : railMaps.get(player.getID() - 1);
+    }
+
+    @Override
+    public boolean isConnected(final Player player, final TilePosition position1, final TilePosition position2) {
+        final int index1 = getTileIndex(position1);
+        final int index2 = getTileIndex(position2);
+        if (index1 == NO_TILE || index2 == NO_TILE) {
+            return false;
+        }
+        return index1 == index2 || playerBit(player) != 0 && railNetwork(player.getID() - 1).connected(index1, index2);
+    }
+
+    @Override
+    public int getRailNetwork(final Player player, final TilePosition position) {
+        final int index = getTileIndex(position);
+        if (index == NO_TILE) {
+            return -1;
+        }
+        return playerBit(player) == 0 ? index : railNetwork(player.getID() - 1).find(index);
+    }
+
+    // Cities
+
+    /**
+     * Replaces the connected and unconnected city snapshots with ones matching the
+     * current rails, which notifies the listeners of both properties.
+     */
+    private void publishCities() {
+        final Map<TilePosition, City> connected = new HashMap<>();
+        final Map<TilePosition, City> unconnected = new HashMap<>();
+        cities.forEach((position, city) -> {
+            if (hasRailAt(getTileIndex(position))) {
+                connected.put(position, city);
+            } else {
+                unconnected.put(position, city);
+            }
+        });
+        connectedCities.setValue(Collections.unmodifiableMap(connected));
+        unconnectedCities.setValue(Collections.unmodifiableMap(unconnected));
+    }
+
+    @Override
+    public Map<TilePosition, City> getCities() {
+        return cities;
+    }
+
+    @Override
+    public City getCityAt(final TilePosition position) {
+        return cities.get(position);
+    }
+
+    @Override
+    public Map<TilePosition, City> getConnectedCities() {
+        return connectedCities.getValue();
+    }
+
+    @Override
+    public Map<TilePosition, City> getUnconnectedCities() {
+        return unconnectedCities.getValue();
+    }
+
+    @Override
+    public ReadOnlyProperty<Map<TilePosition, City>> getConnectedCitiesProperty() {
+        return connectedCities;
+    }
+
+    @Override
+    public ReadOnlyProperty<Map<TilePosition, City>> getUnconnectedCitiesProperty() {
+        return unconnectedCities;
+    }
+
+    @Override
+    public Map<TilePosition, City> getStartingCities() {
+        return startingCities;
+    }
+
+    // Paths
+
+    @Override
+    public List<Edge> findPath(final TilePosition start, final TilePosition target, final Set<Edge> availableEdges,
+            final BiFunction<TilePosition, TilePosition, Integer> edgeCostFunction) {
+        // arbitrary functions may depend on more than the rails, so they are not cached
+        return List.copyOf(pathFinder.findPath(start, target, availableEdges,
+                (edge, from) -> edgeCostFunction.apply(from,
+                        edge.getPosition1().equals(from) ? edge.getPosition2() : edge.getPosition1())));
+    }
+
+    @Override
+    public List<Edge> findCheapestPath(final TilePosition start, final TilePosition target,
+            final Set<Edge> availableEdges, final EdgeCostFunction costFunction) {
+        return findCachedPath(start, target, availableEdges, costFunction);
+    }
+
+    /**
+     * Returns the cached path for the given query or searches and caches it.
+     *
+     * @param start          the start position
+     * @param target         the target position
+     * @param availableEdges the edges to search for the path
+     * @param costFunction   the function to calculate the cost of an edge
+     * @return the edges of the cheapest path as an unmodifiable list
+     */
+    private List<Edge> findCachedPath(final TilePosition start, final TilePosition target,
+            final Set<Edge> availableEdges, final EdgeCostFunction costFunction) {
+        final long version = modificationCount;
+        final PathCache.Key key = pathCache.key(start, target, availableEdges, costFunction, this::edgeId);
+        if (key == null) {
+            return List.copyOf(pathFinder.findPath(start, target, availableEdges, costFunction));
+        }
+        List<Edge> path = pathCache.get(key, version);
+        if (path == null) {
+            path = List.copyOf(pathFinder.findPath(start, target, availableEdges, costFunction));
+            pathCache.put(key, version, path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns an id of the given edge for {@link PathCache} fingerprints.
+     * Edges of this grid are identified by their key, other edges by identity.
+     *
+     * @param edge the edge
+     * @return the id of the edge
+     */
+    private int edgeId(final Edge edge) {
+        return edge instanceof EdgeView view && view.grid() == this ? view.key
+                : System.identityHashCode(edge) | Integer.MIN_VALUE;
+    }
+
+    /**
+     * A view of a tile of this grid.
+     */
+    private final class TileView implements Tile {
+        private final int index;
+
+        /**
+         * Creates a view of the tile with the given index.
+         *
+         * @param index the index of the tile
+         */
+        TileView(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public TilePosition getPosition() {
+            return positionOf(index);
+        }
+
+        @Override
+        public Type getType() {
+            return typeOf(index);
+        }
+
+        @Override
+        public ObservableDoubleValue heightProperty() {
+            return tileHeight;
+        }
+
+        @Override
+        public ObservableDoubleValue widthProperty() {
+            return tileWidth;
+        }
+
+        @Override
+        public HexGrid getHexGrid() {
+            return OffHeapHexGrid.this;
+        }
+
+        @Override
+        public Set<Tile> getNeighbours() {
+            final Set<Tile> neighbours = new HashSet<>();
+            for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                final int neighbour = neighbourOf(index, direction);
+                if (neighbour != NO_TILE) {
+                    neighbours.add(new TileView(neighbour));
+                }
+            }
+            return neighbours;
+        }
+
+        @Override
+        public Set<Tile> getConnectedNeighbours(final Set<Edge> connectingEdges) {
+            final Set<Tile> neighbours = new HashSet<>();
+            for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                final Edge edge = edgeAt(index, direction);
+                if (edge != null && connectingEdges.contains(edge)) {
+                    neighbours.add(new TileView(neighbourOf(index, direction)));
+                }
+            }
+            return neighbours;
+        }
+
+        @Override
+        public Tile getNeighbour(final EdgeDirection direction) {
+            final int neighbour = neighbourOf(index, direction.ordinal());
+            return neighbour == NO_TILE ? null : new TileView(neighbour);
+        }
+
+        @Override
+        public boolean isAtCoast() {
+            for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                if (neighbourOf(index, direction) == NO_TILE) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Edge getEdge(final EdgeDirection direction) {
+            return edgeAt(index, direction.ordinal());
+        }
+
+        @Override
+        public Set<Edge> getEdges() {
+            final Set<Edge> edges = new HashSet<>();
+            for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                final Edge edge = edgeAt(index, direction);
+                if (edge != null) {
+                    edges.add(edge);
+                }
+            }
+            return Collections.unmodifiableSet(edges);
+        }
+
+        @Override
+        public boolean hasCity() {
+            return hasFlag(index, CITY_FLAG);
+        }
+
+        @Override
+        public Set<Edge> getRails(final Player player) {
+            final int bit = playerBit(player);
+            final Set<Edge> rails = new HashSet<>();
+            for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                final int key = edgeKeyAt(index, direction);
+                if (key >= 0 && (ownerMask(key) & bit) != 0) {
+                    rails.add(new EdgeView(key));
+                }
+            }
+            return rails;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof TileView other && other.grid() == OffHeapHexGrid.this && other.index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("OffHeapTile[position=%s, type=%s]", getPosition(), getType());
+        }
+
+        /**
+         * Returns the grid of this view.
+         *
+         * @return the grid of this view
+         */
+        private OffHeapHexGrid grid() {
+            return OffHeapHexGrid.this;
+        }
+    }
+
+    /**
+     * A view of an edge of this grid.
+     * The first position is the tile that owns the edge in the edge index.
+     */
+    private final class EdgeView implements Edge {
+        private final int key;
+
+        /**
+         * Creates a view of the edge with the given key.
+         *
+         * @param key the key of the edge
+         */
+        EdgeView(final int key) {
+            this.key = key;
+        }
+
+        /**
+         * Returns the index of the first tile of this edge.
+         *
+         * @return the index of the first tile
+         */
+        private int index1() {
+            return key / EDGES_PER_TILE;
+        }
+
+        /**
+         * Returns the index of the second tile of this edge.
+         *
+         * @return the index of the second tile
+         */
+        private int index2() {
+            return neighbourOf(key / EDGES_PER_TILE, key % EDGES_PER_TILE);
+        }
+
+        @Override
+        public HexGrid getHexGrid() {
+            return OffHeapHexGrid.this;
+        }
+
+        @Override
+        public TilePosition getPosition1() {
+            return positionOf(index1());
+        }
+
+        @Override
+        public TilePosition getPosition2() {
+            return positionOf(index2());
+        }
+
+        @Override
+        public boolean connectsTo(final Edge other) {
+            return getAdjacentTilePositions().contains(other.getPosition1())
+                    || getAdjacentTilePositions().contains(other.getPosition2());
+        }
+
+        @Override
+        public Set<TilePosition> getAdjacentTilePositions() {
+            return Set.of(getPosition1(), getPosition2());
+        }
+
+        @Override
+        public Set<Edge> getConnectedEdges() {
+            return connectedEdges(-1);
+        }
+
+        /**
+         * Returns the edges of both tiles of this edge, including this edge, that
+         * have a rail of all players in the given bitmask.
+         *
+         * @param bit the bitmask of the players or {@code -1} for all edges
+         * @return the connected edges
+         */
+        private Set<Edge> connectedEdges(final int bit) {
+            final Set<Edge> edges = new HashSet<>();
+            for (final int index : new int[] { index1(), index2() }) {
+                for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                    final int other = edgeKeyAt(index, direction);
+                    if (other >= 0 && (bit == -1 || (ownerMask(other) & bit) != 0)) {
+                        edges.add(new EdgeView(other));
+                    }
+                }
+            }
+            return Collections.unmodifiableSet(edges);
+        }
+
+        @Override
+        public boolean hasRail() {
+            return ownerMask(key) != 0;
+        }
+
+        @Override
+        public boolean addRail(final Player player) {
+            final int bit = EdgeImpl.ownerBit(player);
+            if ((ownerMask(key) & bit) != 0) {
+                return false;
+            }
+            if (railKeys[player.getID() - 1].size() > 0) {
+                if ((otherRailOwnerMask(index1(), key) & bit) == 0 && (otherRailOwnerMask(index2(), key) & bit) == 0) {
+                    return false;
+                }
+            } else if (!hasFlag(index1(), STARTING_CITY_FLAG) && !hasFlag(index2(), STARTING_CITY_FLAG)) {
+                return false;
+            }
+            setRail(key, player, true);
+            return true;
+        }
+
+        @Override
+        public boolean removeRail(final Player player) {
+            if (!hasRailOwner(player)) {
+                return false;
+            }
+            setRail(key, player, false);
+            return true;
+        }
+
+        /**
+         * Not supported, the owners are only stored in the bitmask, which cannot
+         * be observed or set as a list. Use {@link #getRailOwners()},
+         * {@link #addRail(Player)} and {@link #removeRail(Player)} instead.
+         *
+         * @return never
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public Property<List<Player>> getRailOwnersProperty() {
+            throw new UnsupportedOperationException("The rail owners of an off-heap grid cannot be observed");
+        }
+
+        @Override
+        public List<Player> getRailOwners() {
+            final List<Player> owners = new ArrayList<>(Integer.bitCount(ownerMask(key)));
+            for (int bits = ownerMask(key); bits != 0; bits &= bits - 1) {
+                owners.add(playersById[Integer.numberOfTrailingZeros(bits)]);
+            }
+            return Collections.unmodifiableList(owners);
+        }
+
+        @Override
+        public boolean hasRailOwner(final Player player) {
+            return (ownerMask(key) & playerBit(player)) != 0;
+        }
+
+        @Override
+        public int getRailOwnerCount() {
+            return Integer.bitCount(ownerMask(key));
+        }
+
+        @Override
+        public boolean hasOtherRailOwners(final Player player) {
+            return (ownerMask(key) & ~playerBit(player)) != 0;
+        }
+
+        @Override
+        public Set<Edge> getConnectedRails(final Player player) {
+            final int bit = playerBit(player);
+            return bit == 0 ? Set.of() : connectedEdges(bit);
+        }
+
+        @Override
+        public int getBaseBuildingCost() {
+            return cost(key, 0);
+        }
+
+        @Override
+        public Map<Player, Integer> getParallelCostPerPlayer(final Player player) {
+            final int[] costsById = new int[EdgeImpl.MAX_PLAYER_ID];
+            parallelCost(player, costsById);
+            final Map<Player, Integer> result = new HashMap<>();
+            for (int slot = 0; slot < costsById.length; slot++) {
+                if (costsById[slot] > 0) {
+                    result.put(playersById[slot], costsById[slot]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int getParallelCostPerPlayer(final Player player, final int[] costsById) {
+            Arrays.fill(costsById, 0);
+            return parallelCost(player, costsById);
+        }
+
+        @Override
+        public int getTotalParallelCost(final Player player) {
+            return parallelCost(player, null);
+        }
+
+        /**
+         * Calculates the parallel cost of this edge with the same rules as
+         * {@link EdgeImpl}.
+         *
+         * @param player    the player that wants to build
+         * @param costsById the array to write the cost per player id to, may be
+         *                  {@code null}
+         * @return the total parallel cost
+         */
+        private int parallelCost(final Player player, final int[] costsById) {
+            final boolean cityAt1 = hasFlag(index1(), CITY_FLAG);
+            final boolean cityAt2 = hasFlag(index2(), CITY_FLAG);
+            return EdgeImpl.parallelCost(playerBit(player), ownerMask(key),
+                    cityAt1, cityAt1 ? 0 : otherRailOwnerMask(index1(), key),
+                    cityAt2, cityAt2 ? 0 : otherRailOwnerMask(index2(), key), costsById);
+        }
+
+        @Override
+        public int getTotalBuildingCost(final Player player) {
+            return getBaseBuildingCost() + getTotalParallelCost(player);
+        }
+
+        @Override
+        public int getDrivingCost(final TilePosition from) {
+            final int index = getTileIndex(from);
+            if (index == index1()) {
+                return cost(key, 1);
+            }
+            if (index == index2()) {
+                return cost(key, 2);
+            }
+            throw new IllegalArgumentException("The given position is not adjacent to this edge.");
+        }
+
+        @Override
+        public Map<Player, Integer> getRentingCost(final Player player) {
+            if (hasRailOwner(player)) {
+                return Map.of();
+            }
+            final Map<Player, Integer> rent = new HashMap<>();
+            for (final Player owner : getRailOwners()) {
+                rent.put(owner, 1);
+            }
+            return rent;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof EdgeView other && other.grid() == OffHeapHexGrid.this && other.key == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("OffHeapEdge[position1=%s, position2=%s, railOwners=%s]", getPosition1(),
+                    getPosition2(), getRailOwners());
+        }
+
+        /**
+         * Returns the grid of this view.
+         *
+         * @return the grid of this view
+         */
+        private OffHeapHexGrid grid() {
+            return OffHeapHexGrid.this;
+        }
+    }
+
+    /**
+     * The {@link TileGraph} of this grid, backed by the off-heap neighbour index.
+     */
+    private final class Graph implements TileGraph {
+        @Override
+        public int getTileCount() {
+            return tileCount;
+        }
+
+        @Override
+        public int getTileIndex(final TilePosition position) {
+            return OffHeapHexGrid.this.getTileIndex(position);
+        }
+
+        @Override
+        public TilePosition getTilePosition(final int index) {
+            return positionOf(index);
+        }
+
+        @Override
+        public int getNeighbourIndex(final int index, final int direction) {
+            return neighbourOf(index, direction);
+        }
+
+        @Override
+        public Edge getEdge(final int index, final int direction) {
+            return edgeAt(index, direction);
+        }
+    }
+
+    /**
+     * A read-only {@link Map} view of the tiles keyed by their position.
+     */
+    private final class TileMap extends AbstractMap<TilePosition, Tile> {
+
+        private final Set<Entry<TilePosition, Tile>> entrySet = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<TilePosition, Tile>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < tileCount;
+                    }
+
+                    @Override
+                    public Entry<TilePosition, Tile> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final int index = next++;
+                        return new SimpleImmutableEntry<>(positionOf(index), new TileView(index));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return tileCount;
+            }
+        };
+
+        @Override
+        public Tile get(final Object key) {
+            return key instanceof TilePosition position ? getTileAt(position) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof TilePosition position && getTileIndex(position) != NO_TILE;
+        }
+
+        @Override
+        public Set<Entry<TilePosition, Tile>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return tileCount;
+        }
+    }
+
+    /**
+     * A read-only {@link Map} view of the edges, or of the rails of one player,
+     * keyed by the two positions of each edge.
+     * The rails of a player are iterated through the {@link RailKeys} of the
+     * player, all edges through the edge index.
+     */
+    private final class EdgeMap extends AbstractMap<Set<TilePosition>, Edge> {
+        private final int slot;
+
+        private final Set<Entry<Set<TilePosition>, Edge>> entrySet = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Set<TilePosition>, Edge>> iterator() {
+                if (slot >= 0) {
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < railKeys[slot].size();
+                        }
+
+                        @Override
+                        public Entry<Set<TilePosition>, Edge> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final Edge edge = new EdgeView(railKeys[slot].get(next++));
+                            return new SimpleImmutableEntry<>(edge.getAdjacentTilePositions(), edge);
+                        }
+                    };
+                }
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int key) {
+                        while (key < railOwners.capacity() && !includes(key)) {
+                            key++;
+                        }
+                        return key;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < railOwners.capacity();
+                    }
+
+                    @Override
+                    public Entry<Set<TilePosition>, Edge> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Edge edge = new EdgeView(next);
+                        next = advance(next + 1);
+                        return new SimpleImmutableEntry<>(edge.getAdjacentTilePositions(), edge);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return EdgeMap.this.size();
+            }
+        };
+
+        /**
+         * Creates a view of the edges with a rail of the player in the given slot.
+         *
+         * @param slot the id of the player minus one or {@code -1} for all edges
+         */
+        EdgeMap(final int slot) {
+            this.slot = slot;
+        }
+
+        /**
+         * Returns whether the edge with the given key is part of this map.
+         *
+         * @param key the key of the edge
+         * @return whether the edge is part of this map
+         */
+        private boolean includes(final int key) {
+            if (neighbourOf(key / EDGES_PER_TILE, key % EDGES_PER_TILE) == NO_TILE) {
+                return false;
+            }
+            return slot < 0 || (ownerMask(key) & (1 << slot)) != 0;
+        }
+
+        @Override
+        public Edge get(final Object key) {
+            if (!(key instanceof Set<?> positions) || positions.size() != 2) {
+                return null;
+            }
+            final Iterator<?> iterator = positions.iterator();
+            if (iterator.next() instanceof TilePosition position0
+                    && iterator.next() instanceof TilePosition position1) {
+                final int edgeKey = edgeKey(position0.q(), position0.r(), position1.q(), position1.r());
+                return edgeKey >= 0 && includes(edgeKey) ? new EdgeView(edgeKey) : null;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<Set<TilePosition>, Edge>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return slot < 0 ? edgeCount : railKeys[slot].size();
+        }
+    }
+
+    /**
+     * A growable list of {@code int}s.
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        /**
+         * Appends the given value.
+         *
+         * @param value the value to append
+         */
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Returns the value at the given index.
+         *
+         * @param index the index, must be less than {@link #size()}
+         * @return the value
+         */
+        int get(final int index) {
+            return values[index];
+        }
+
+        /**
+         * Replaces the value at the given index.
+         *
+         * @param index the index, must be less than {@link #size()}
+         * @param value the new value
+         */
+        void set(final int index, final int value) {
+            values[index] = value;
+        }
+
+        /**
+         * Removes the last value.
+         *
+         * @return the removed value
+         */
+        int removeLast() {
+            return values[--size];
+        }
+
+        /**
+         * Returns the number of values.
+         *
+         * @return the number of values
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Removes all values.
+         */
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * The keys of the rails of one player in insertion order, with removals in
+     * constant time by moving the last key into the gap.
+     */
+    private static final class RailKeys {
+        private final IntList keys = new IntList();
+        private final Map<Integer, Integer> positions = new HashMap<>();
+
+        /**
+         * Adds the given key, which must not be in this list yet.
+         *
+         * @param key the key of the rail
+         */
+        void add(final int key) {
+            positions.put(key, keys.size());
+            keys.add(key);
+        }
+
+        /**
+         * Removes the given key, which must be in this list.
+         *
+         * @param key the key of the rail
+         */
+        void remove(final int key) {
+            final int position = positions.remove(key);
+            final int last = keys.removeLast();
+            if (last != key) {
+                keys.set(position, last);
+                positions.put(last, position);
+            }
+        }
+
+        /**
+         * Returns the key at the given position.
+         *
+         * @param position the position, must be less than {@link #size()}
+         * @return the key
+         */
+        int get(final int position) {
+            return keys.get(position);
+        }
+
+        /**
+         * Returns the number of keys.
+         *
+         * @return the number of keys
+         */
+        int size() {
+            return keys.size();
+        }
+
+        /**
+         * Returns a copy of this list.
+         *
+         * @return the copy
+         */
+        RailKeys copy() {
+            final RailKeys copy = new RailKeys();
+            for (int i = 0; i < size(); i++) {
+                copy.add(get(i));
+            }
+            return copy;
+        }
+    }
+}
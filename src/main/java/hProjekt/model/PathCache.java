@@ -0,0 +1,171 @@
+package hProjekt.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded least-recently-used cache of path search results.
+ * Entries are keyed by start, target, a fingerprint of the available edges, the
+ * identity of the cost function and the version of the {@link CostTables}. All
+ * entries are dropped as soon as the version of the grid changes, so results are
+ * never reused across rail or cost changes.
+ */
+final class PathCache {
+
+    /**
+     * The maximum number of cached paths.
+     */
+    static final int CAPACITY = 256;
+
+    /**
+     * The maximum size of a mutable edge set that is fingerprinted.
+     * Visiting every edge of a larger set takes about as long as the search.
+     */
+    static final int MAX_FINGERPRINTED_EDGES = 1024;
+
+    /**
+     * The classes of the sets returned by {@link Set#of} and {@link Set#copyOf},
+     * which can never change.
+     */
+    private static final Set<Class<?>> IMMUTABLE_SET_CLASSES = Set.of(Set.of(0).getClass(),
+            Set.of(0, 1, 2).getClass());
+
+    private final Map<Key, List<Edge>> entries = new LinkedHashMap<>(CAPACITY * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, List<Edge>> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private long version;
+    private volatile Fingerprint lastFingerprint = new Fingerprint(Set.of(), 0);
+
+    /**
+     * The fingerprint of an immutable set of edges.
+     *
+     * @param edges       the set, compared by identity
+     * @param fingerprint the fingerprint of the set
+     */
+    private record Fingerprint(Set<Edge> edges, long fingerprint) {
+    }
+
+    /**
+     * The key of a cached path.
+     *
+     * @param start        the start position
+     * @param target       the target position
+     * @param edgeCount    the number of available edges
+     * @param fingerprint  the fingerprint of the available edges
+     * @param costFunction the cost function, compared by identity
+     * @param costVersion  the version of the cost tables
+     */
+    record Key(TilePosition start, TilePosition target, int edgeCount, long fingerprint,
+            EdgeCostFunction costFunction, int costVersion) {
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Key key && start.equals(key.start) && target.equals(key.target)
+                    && edgeCount == key.edgeCount && fingerprint == key.fingerprint
+                    && costFunction == key.costFunction && costVersion == key.costVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((31 * start.hashCode() + target.hashCode()) * 31 + Long.hashCode(fingerprint)
+                    + System.identityHashCode(costFunction)) * 31 + costVersion;
+        }
+    }
+
+    /**
+     * Creates the key for the given query.
+     * The fingerprint is an order-independent 64-bit hash of the ids of the edges,
+     * so two sets with the same edges get the same key regardless of their type.
+     * Computing it has to visit every edge, so the fingerprint of the last
+     * immutable set is remembered for repeated queries with the same set, and
+     * large mutable sets are not cached at all.
+     * The cost tables are read here, so a search started after they were
+     * recompiled never finds a path cached for the old costs.
+     *
+     * @param start          the start position
+     * @param target         the target position
+     * @param availableEdges the available edges
+     * @param costFunction   the cost function
+     * @param edgeId         returns a unique id of an edge
+     * @return the key or {@code null} if the query should not be cached
+     */
+    Key key(final TilePosition start, final TilePosition target, final Set<Edge> availableEdges,
+            final EdgeCostFunction costFunction, final ToIntFunction<Edge> edgeId) {
+        final int costVersion = CostTables.get().getVersion();
+        final Fingerprint last = lastFingerprint;
+        if (last.edges() == availableEdges) {
+            return new Key(start, target, availableEdges.size(), last.fingerprint(), costFunction, costVersion);
+        }
+        final boolean immutable = IMMUTABLE_SET_CLASSES.contains(availableEdges.getClass());
+        if (!immutable && availableEdges.size() > MAX_FINGERPRINTED_EDGES) {
+            return null;
+        }
+        long fingerprint = 0;
+        for (final Edge edge : availableEdges) {
+            fingerprint += mix(edgeId.applyAsInt(edge));
+        }
+        if (immutable) {
+            lastFingerprint = new Fingerprint(availableEdges, fingerprint);
+        }
+        return new Key(start, target, availableEdges.size(), fingerprint, costFunction, costVersion);
+    }
+
+    /**
+     * Returns the cached path for the given key.
+     *
+     * @param key     the key
+     * @param version the current version of the grid
+     * @return the cached path or {@code null} if there is none
+     */
+    synchronized List<Edge> get(final Key key, final long version) {
+        return advance(version) ? entries.get(key) : null;
+    }
+
+    /**
+     * Caches the path for the given key.
+     *
+     * @param key     the key
+     * @param version the version of the grid the path was found in
+     * @param path    the path
+     */
+    synchronized void put(final Key key, final long version, final List<Edge> path) {
+        if (advance(version)) {
+            entries.put(key, path);
+        }
+    }
+
+    /**
+     * Drops all entries if the given version is newer than the cached one.
+     * Versions only grow, so an older version belongs to a result that is already
+     * outdated.
+     *
+     * @param version the version of the grid
+     * @return whether the given version is the current one
+     */
+    private boolean advance(final long version) {
+        if (version > this.version) {
+            entries.clear();
+            this.version = version;
+        }
+        return version == this.version;
+    }
+
+    /**
+     * Spreads the bits of the given value over a {@code long}.
+     * This is the finalizer of SplitMix64.
+     *
+     * @param value the value
+     * @return the mixed value
+     */
+    private static long mix(final long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
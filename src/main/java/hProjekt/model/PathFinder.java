@@ -0,0 +1,210 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import hProjekt.model.TilePosition.EdgeDirection;
+
+/**
+ * Finds cheapest paths in a {@link TileGraph} using A*.
+ * The distance estimate is the hex distance to the target scaled by the
+ * {@link EdgeCostFunction#getMinimumCost() minimum edge cost}, which never
+ * overestimates, so the found paths are as cheap as the ones found by Dijkstra.
+ * All bookkeeping is done in primitive arrays indexed by tile that are reused
+ * per thread, so a search does not allocate apart from the resulting path.
+ */
+final class PathFinder {
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final TileGraph graph;
+
+    /**
+     * Creates a new path finder for the given graph.
+     *
+     * @param graph the graph to search in
+     */
+    PathFinder(final TileGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Finds the cheapest path between start and target using only the available
+     * edges.
+     *
+     * @param start          the start position
+     * @param target         the target position
+     * @param availableEdges the edges the path may use
+     * @param costFunction   the cost of each edge
+     * @return the edges of the path in order from start to target or an empty list
+     *         if there is no path or start and target are equal
+     */
+    List<Edge> findPath(final TilePosition start, final TilePosition target, final Set<Edge> availableEdges,
+            final EdgeCostFunction costFunction) {
+        final int startIndex = graph.getTileIndex(start);
+        final int targetIndex = graph.getTileIndex(target);
+        if (startIndex < 0 || targetIndex < 0 || startIndex == targetIndex || availableEdges.isEmpty()) {
+            return List.of();
+        }
+        final Scratch scratch = SCRATCH.get();
+        final int generation = scratch.prepare(graph.getTileCount());
+        final int[] distance = scratch.distance;
+        final int[] via = scratch.via;
+        final int[] seen = scratch.seen;
+        final int[] closed = scratch.closed;
+        final int minimumCost = Math.max(0, costFunction.getMinimumCost());
+        final int targetQ = target.q();
+        final int targetR = target.r();
+
+        distance[startIndex] = 0;
+        seen[startIndex] = generation;
+        scratch.push(minimumCost * hexDistance(start.q() - targetQ, start.r() - targetR), startIndex);
+        while (scratch.heapSize > 0) {
+            final int current = scratch.pop();
+            if (closed[current] == generation) {
+                continue;
+            }
+            closed[current] = generation;
+            if (current == targetIndex) {
+                break;
+            }
+            final TilePosition currentPosition = graph.getTilePosition(current);
+            for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+                final int next = graph.getNeighbourIndex(current, direction);
+                if (next < 0 || closed[next] == generation) {
+                    continue;
+                }
+                final Edge edge = graph.getEdge(current, direction);
+                if (edge == null || !availableEdges.contains(edge)) {
+                    continue;
+                }
+                final int newDistance = distance[current] + costFunction.getCost(edge, currentPosition);
+                if (seen[next] != generation || newDistance < distance[next]) {
+                    seen[next] = generation;
+                    distance[next] = newDistance;
+                    via[next] = direction;
+                    final TilePosition nextPosition = graph.getTilePosition(next);
+                    scratch.push(newDistance
+                            + minimumCost * hexDistance(nextPosition.q() - targetQ, nextPosition.r() - targetR), next);
+                }
+            }
+        }
+        scratch.heapSize = 0;
+
+        if (closed[targetIndex] != generation) {
+            return List.of();
+        }
+        final List<Edge> path = new ArrayList<>();
+        for (int current = targetIndex; current != startIndex;) {
+            final int direction = via[current];
+            final int previous = graph.getNeighbourIndex(current,
+                    (direction + EdgeDirection.SIZE / 2) % EdgeDirection.SIZE);
+            path.add(graph.getEdge(previous, direction));
+            current = previous;
+        }
+        return path.reversed();
+    }
+
+    /**
+     * Returns the number of steps between two tiles with the given axial offset.
+     *
+     * @param dq the offset in q-direction
+     * @param dr the offset in r-direction
+     * @return the hex distance
+     */
+    private static int hexDistance(final int dq, final int dr) {
+        return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+    }
+
+    /**
+     * The per-thread arrays of a search.
+     * Instead of clearing the arrays before every search, entries are only valid
+     * if their stamp matches the current generation.
+     */
+    private static final class Scratch {
+        private int[] distance = new int[0];
+        private int[] via = new int[0];
+        private int[] seen = new int[0];
+        private int[] closed = new int[0];
+        private long[] heap = new long[64];
+        private int heapSize;
+        private int generation;
+
+        /**
+         * Prepares the arrays for a search over the given number of tiles.
+         *
+         * @param tileCount the number of tiles
+         * @return the generation of the new search
+         */
+        int prepare(final int tileCount) {
+            if (distance.length < tileCount) {
+                distance = new int[tileCount];
+                via = new int[tileCount];
+                seen = new int[tileCount];
+                closed = new int[tileCount];
+                generation = 0;
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(seen, 0);
+                Arrays.fill(closed, 0);
+                generation = 1;
+            }
+            heapSize = 0;
+            return generation;
+        }
+
+        /**
+         * Adds a tile to the binary min-heap.
+         * The priority and the tile index are packed into one {@code long}, so ties
+         * are broken by tile index.
+         *
+         * @param priority the priority of the tile
+         * @param tile     the index of the tile
+         */
+        void push(final int priority, final int tile) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            final long entry = ((long) priority << 32) | tile;
+            int index = heapSize++;
+            while (index > 0) {
+                final int parent = (index - 1) >>> 1;
+                if (heap[parent] <= entry) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = entry;
+        }
+
+        /**
+         * Removes the tile with the lowest priority from the heap.
+         *
+         * @return the index of the removed tile
+         */
+        int pop() {
+            final long top = heap[0];
+            final long last = heap[--heapSize];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (last <= heap[child]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = last;
+            return (int) top;
+        }
+    }
+}
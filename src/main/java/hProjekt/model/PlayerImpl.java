@@ -85,6 +85,17 @@ public class PlayerImpl implements Player {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Derived from the id instead of the identity, so iterating hash based
+     * collections of players is the same in every run.
+     */
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
     @Override
     public String toString() {
         return String.format("Player %d %s (%s)", getID(), getName(), getColor());
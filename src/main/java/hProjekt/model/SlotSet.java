@@ -0,0 +1,78 @@
+package hProjekt.model;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only {@link java.util.Set} view of the non-null elements of a
+ * fixed-size slot array.
+ * The elements of the array must be distinct and the size is counted once on
+ * creation, so the array must not change its non-null slots afterwards.
+ *
+ * @param <E> the type of the elements
+ */
+final class SlotSet<E> extends AbstractSet<E> {
+    private final E[] slots;
+    private final int size;
+
+    /**
+     * Creates a new view of the given slots.
+     *
+     * @param slots the slots to view
+     */
+    SlotSet(final E[] slots) {
+        this.slots = slots;
+        int count = 0;
+        for (final E element : slots) {
+            if (element != null) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int next = advance(0);
+
+            private int advance(int index) {
+                while (index < slots.length && slots[index] == null) {
+                    index++;
+                }
+                return index;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < slots.length;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final E element = slots[next];
+                next = advance(next + 1);
+                return element;
+            }
+        };
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        for (final E element : slots) {
+            if (element != null && element.equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
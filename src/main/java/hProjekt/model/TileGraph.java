@@ -0,0 +1,50 @@
+package hProjekt.model;
+
+/**
+ * The tiles and edges of a grid as seen by the {@link PathFinder}.
+ * Tiles are addressed by a dense index in {@code [0, getTileCount())},
+ * directions by {@link TilePosition.EdgeDirection#ordinal()}.
+ */
+interface TileGraph {
+
+    /**
+     * Returns the number of tiles.
+     *
+     * @return the number of tiles
+     */
+    int getTileCount();
+
+    /**
+     * Returns the index of the tile at the given position.
+     *
+     * @param position the position of the tile
+     * @return the index of the tile or {@code -1} if there is no tile
+     */
+    int getTileIndex(TilePosition position);
+
+    /**
+     * Returns the position of the tile with the given index.
+     *
+     * @param index the index of the tile
+     * @return the position of the tile
+     */
+    TilePosition getTilePosition(int index);
+
+    /**
+     * Returns the index of the neighbour of the given tile in the given direction.
+     *
+     * @param index     the index of the tile
+     * @param direction the ordinal of the direction
+     * @return the index of the neighbour or {@code -1} if there is no neighbour
+     */
+    int getNeighbourIndex(int index, int direction);
+
+    /**
+     * Returns the edge of the given tile in the given direction.
+     *
+     * @param index     the index of the tile
+     * @param direction the ordinal of the direction
+     * @return the edge or {@code null} if there is no edge
+     */
+    Edge getEdge(int index, int direction);
+}
@@ -1,6 +1,7 @@
 package hProjekt.model;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -13,21 +14,46 @@ import javafx.beans.value.ObservableDoubleValue;
 
 /**
  * Holds information on a tile.
+ * The neighbours and edges of a tile are stored in slot arrays indexed by
+ * {@link EdgeDirection#ordinal()}. They are filled once by the
+ * {@link HexGrid} after all tiles and edges exist, see
+ * {@link #setSlots(Tile[], Edge[])}.
  *
- * @param position       this tile's position
- * @param type           the type of this tile
- * @param heightProperty the height of this tile
- * @param widthProperty  the width of this tile
- * @param hexGrid        the grid this tile is placed in
  * @see Tile
  * @see TilePosition
  */
-public record TileImpl(
-        TilePosition position,
-        Type type,
-        ObservableDoubleValue heightProperty,
-        ObservableDoubleValue widthProperty,
-        HexGrid hexGrid) implements Tile {
+public final class TileImpl implements Tile {
+    private final TilePosition position;
+    private final Type type;
+    private final ObservableDoubleValue heightProperty;
+    private final ObservableDoubleValue widthProperty;
+    private final HexGrid hexGrid;
+    private Tile[] neighbourSlots;
+    private Edge[] edgeSlots;
+    private Set<Tile> neighbours;
+    private Set<Edge> edges;
+
+    /**
+     * Creates a new tile.
+     *
+     * @param position       this tile's position
+     * @param type           the type of this tile
+     * @param heightProperty the height of this tile
+     * @param widthProperty  the width of this tile
+     * @param hexGrid        the grid this tile is placed in
+     */
+    public TileImpl(
+            final TilePosition position,
+            final Type type,
+            final ObservableDoubleValue heightProperty,
+            final ObservableDoubleValue widthProperty,
+            final HexGrid hexGrid) {
+        this.position = position;
+        this.type = type;
+        this.heightProperty = heightProperty;
+        this.widthProperty = widthProperty;
+        this.hexGrid = hexGrid;
+    }
 
     /**
      * Alternative constructor with q- and r-coordinates instead of a
@@ -51,6 +77,62 @@ public record TileImpl(
         this(new TilePosition(q, r), type, heightProperty, widthProperty, hexGrid);
     }
 
+    /**
+     * Sets the neighbours and edges of this tile.
+     * Both arrays have {@link EdgeDirection#SIZE} slots indexed by
+     * {@link EdgeDirection#ordinal()}, a slot is {@code null} if there is no tile
+     * in that direction.
+     *
+     * @param neighbourSlots the neighbouring tiles
+     * @param edgeSlots      the edges to the neighbouring tiles
+     */
+    void setSlots(final Tile[] neighbourSlots, final Edge[] edgeSlots) {
+        if (neighbourSlots.length != EdgeDirection.SIZE || edgeSlots.length != EdgeDirection.SIZE) {
+            throw new IllegalArgumentException("A tile needs exactly " + EdgeDirection.SIZE + " slots");
+        }
+        this.neighbourSlots = neighbourSlots;
+        this.edgeSlots = edgeSlots;
+        this.neighbours = new SlotSet<>(neighbourSlots);
+        this.edges = new SlotSet<>(edgeSlots);
+    }
+
+    /**
+     * Returns the position of this tile.
+     *
+     * @return the position of this tile
+     */
+    public TilePosition position() {
+        return position;
+    }
+
+    /**
+     * Returns the type of this tile.
+     *
+     * @return the type of this tile
+     */
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * Returns the grid this tile is placed in.
+     *
+     * @return the grid this tile is placed in
+     */
+    public HexGrid hexGrid() {
+        return hexGrid;
+    }
+
+    @Override
+    public ObservableDoubleValue heightProperty() {
+        return heightProperty;
+    }
+
+    @Override
+    public ObservableDoubleValue widthProperty() {
+        return widthProperty;
+    }
+
     @Override
     public TilePosition getPosition() {
         return position;
@@ -64,8 +146,10 @@ public record TileImpl(
     @Override
     @StudentImplementationRequired("P1.4")
     public Edge getEdge(final EdgeDirection direction) {
-        final TilePosition neighbour = TilePosition.neighbour(this.position, direction);
-        return this.hexGrid.getEdges().get(Set.of(this.position, neighbour));
+        if (edgeSlots != null) {
+            return edgeSlots[direction.ordinal()];
+        }
+        return this.hexGrid.getEdge(this.position, direction);
     }
 
     @Override
@@ -75,6 +159,9 @@ public record TileImpl(
 
     @Override
     public Set<Edge> getEdges() {
+        if (edges != null) {
+            return edges;
+        }
         return Collections.unmodifiableSet(
                 EdgeDirection.stream().map(this::getEdge).filter(edge -> edge != null).collect(Collectors.toSet()));
     }
@@ -86,6 +173,9 @@ public record TileImpl(
 
     @Override
     public Set<Tile> getNeighbours() {
+        if (neighbours != null) {
+            return neighbours;
+        }
         return getHexGrid().getTiles().entrySet().stream()
                 .filter(entrySet -> TilePosition.neighbours(getPosition()).contains(entrySet.getKey()))
                 .map(Map.Entry::getValue)
@@ -95,6 +185,9 @@ public record TileImpl(
     @Override
     @StudentImplementationRequired("P1.4")
     public Tile getNeighbour(final EdgeDirection direction) {
+        if (neighbourSlots != null) {
+            return neighbourSlots[direction.ordinal()];
+        }
         return getHexGrid().getTileAt(TilePosition.neighbour(getPosition(), direction));
     }
 
@@ -106,15 +199,40 @@ public record TileImpl(
     @Override
     @StudentImplementationRequired("P1.4")
     public Set<Tile> getConnectedNeighbours(Set<Edge> connectingEdges) {
-        return getNeighbours().stream().filter(neighbour -> connectingEdges.stream().filter(
-                edge -> edge.getAdjacentTilePositions()
-                        .containsAll(Set.of(neighbour.getPosition(), this.getPosition())))
-                .count() > 0)
-                .collect(Collectors.toSet());
+        if (edgeSlots == null) {
+            return getNeighbours().stream().filter(neighbour -> connectingEdges.stream().filter(
+                    edge -> edge.getAdjacentTilePositions()
+                            .containsAll(Set.of(neighbour.getPosition(), this.getPosition())))
+                    .count() > 0)
+                    .collect(Collectors.toSet());
+        }
+        final Set<Tile> connectedNeighbours = new HashSet<>();
+        for (int direction = 0; direction < EdgeDirection.SIZE; direction++) {
+            if (edgeSlots[direction] != null && connectingEdges.contains(edgeSlots[direction])) {
+                connectedNeighbours.add(neighbourSlots[direction]);
+            }
+        }
+        return connectedNeighbours;
     }
 
     @Override
     public Set<Edge> getRails(Player player) {
-        return getEdges().stream().filter(edge -> edge.getRailOwners().contains(player)).collect(Collectors.toSet());
+        return getEdges().stream().filter(edge -> edge.hasRailOwner(player)).collect(Collectors.toSet());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Derived from the position instead of the identity, so iterating hash based
+     * collections of tiles is the same in every run.
+     */
+    @Override
+    public int hashCode() {
+        return position.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TileImpl[position=%s, type=%s]", position, type);
     }
 }
@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
@@ -85,6 +86,27 @@ public record TilePosition(int q, int r) implements Comparable<TilePosition> {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Receives the coordinates of a position visited by
+     * {@link #forEachRing(int, int, int, PositionVisitor)} and
+     * {@link #forEachSpiral(int, int, int, PositionVisitor)}.
+     */
+    @FunctionalInterface
+    public interface PositionVisitor {
+
+        /**
+         * Visits the position with the given coordinates.
+         *
+         * @param q      the q-coordinate of the position
+         * @param r      the r-coordinate of the position
+         * @param radius the radius of the ring the position is on
+         * @param side   the index of the side of the ring
+         * @param tile   the index of the position on the side
+         * @return {@code true} to stop the iteration
+         */
+        boolean visit(int q, int r, int radius, int side, int tile);
+    }
+
     /**
      * Executes the given function on each {@link TilePosition} on a ring with the
      * given radius around the given center.
@@ -98,19 +120,40 @@ public record TilePosition(int q, int r) implements Comparable<TilePosition> {
     public static boolean forEachRing(
             final TilePosition center, final int radius,
             final BiPredicate<TilePosition, Integer[]> function) {
+        return forEachRing(center.q, center.r, radius,
+                (q, r, ringRadius, side, tile) -> function.test(new TilePosition(q, r),
+                        new Integer[] { ringRadius, side, tile }));
+    }
+
+    /**
+     * Executes the given visitor on each position on a ring with the given radius
+     * around the given center.
+     * Unlike {@link #forEachRing(TilePosition, int, BiPredicate)} this does not
+     * allocate anything per visited position.
+     * If the given visitor returns {@code true}, the iteration exits early.
+     *
+     * @param centerQ the q-coordinate of the center of the ring
+     * @param centerR the r-coordinate of the center of the ring
+     * @param radius  the radius of the ring
+     * @param visitor the visitor to execute
+     * @return whether the visitor stopped the iteration
+     */
+    public static boolean forEachRing(final int centerQ, final int centerR, final int radius,
+            final PositionVisitor visitor) {
         if (radius == 0) {
-            if (function.test(center, new Integer[] { radius, 0, 0 })) {
-                return true;
-            }
-            return false;
+            return visitor.visit(centerQ, centerR, radius, 0, 0);
         }
-        TilePosition current = TilePosition.add(center, TilePosition.scale(EdgeDirection.values()[4].position, radius));
-        for (int side = 0; side < 6; side++) {
+        final TilePosition start = EdgeDirection.SOUTH_WEST.position;
+        int q = centerQ + start.q * radius;
+        int r = centerR + start.r * radius;
+        for (int side = 0; side < EdgeDirection.SIZE; side++) {
+            final TilePosition step = EdgeDirection.VALUES.get(side).position;
             for (int tile = 0; tile < radius; tile++) {
-                if (function.test(current, new Integer[] { radius, side, tile })) {
+                if (visitor.visit(q, r, radius, side, tile)) {
                     return true;
                 }
-                current = TilePosition.neighbour(current, EdgeDirection.values()[side]);
+                q += step.q;
+                r += step.r;
             }
         }
         return false;
@@ -135,6 +178,29 @@ public record TilePosition(int q, int r) implements Comparable<TilePosition> {
         }
     }
 
+    /**
+     * Executes the given visitor on each position on a spiral with the given
+     * radius around the given center.
+     * Unlike {@link #forEachSpiral(TilePosition, int, BiPredicate)} this does not
+     * allocate anything per visited position.
+     * If the given visitor returns {@code true}, the iteration exits early.
+     *
+     * @param centerQ the q-coordinate of the center of the spiral
+     * @param centerR the r-coordinate of the center of the spiral
+     * @param radius  the radius of the spiral including the center
+     * @param visitor the visitor to execute
+     * @return whether the visitor stopped the iteration
+     */
+    public static boolean forEachSpiral(final int centerQ, final int centerR, final int radius,
+            final PositionVisitor visitor) {
+        for (int i = 0; i < radius; i++) {
+            if (forEachRing(centerQ, centerR, i, visitor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * The possible directions around a tile position other tiles may be placed.
      * The order of the directions is counterclockwise and important!
@@ -155,6 +221,18 @@ public record TilePosition(int q, int r) implements Comparable<TilePosition> {
         public static final List<EdgeDirection> VALUES = Collections.unmodifiableList(Arrays.asList(values()));
         public static final int SIZE = VALUES.size();
 
+        /**
+         * Maps {@code (q + 1) * 3 + r + 1} of a relative position to the direction
+         * pointing to it or {@code null}.
+         */
+        private static final EdgeDirection[] BY_OFFSET = new EdgeDirection[9];
+
+        static {
+            for (final EdgeDirection direction : values()) {
+                BY_OFFSET[(direction.position.q + 1) * 3 + direction.position.r + 1] = direction;
+            }
+        }
+
         /**
          * Calculates the edge direction from the given tile position relative to
          * position (0, 0, 0).
@@ -162,12 +240,28 @@ public record TilePosition(int q, int r) implements Comparable<TilePosition> {
          *
          * @param position the tile position to get the edge direction for
          * @return the direction of the edge
+         * @throws NoSuchElementException if the position is not a direction
          */
         public static EdgeDirection fromRelativePosition(final TilePosition position) {
-            return Arrays.stream(EdgeDirection.values())
-                    .filter(direction -> direction.position.equals(position))
-                    .findFirst()
-                    .orElseThrow();
+            final EdgeDirection direction = fromOffset(position.q, position.r);
+            if (direction == null) {
+                throw new NoSuchElementException("No direction points to " + position);
+            }
+            return direction;
+        }
+
+        /**
+         * Returns the direction pointing to the given offset in constant time.
+         *
+         * @param dq the offset in q-direction
+         * @param dr the offset in r-direction
+         * @return the direction or {@code null} if the offset is not a direction
+         */
+        public static EdgeDirection fromOffset(final int dq, final int dr) {
+            if (dq < -1 || dq > 1 || dr < -1 || dr > 1) {
+                return null;
+            }
+            return BY_OFFSET[(dq + 1) * 3 + dr + 1];
         }
 
         /**
@@ -0,0 +1,122 @@
+package hProjekt.util;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set (union-find) structure over the integers {@code [0, size)}.
+ * Uses union by size and path halving, so {@link #find(int)} and
+ * {@link #union(int, int)} run in amortized near-constant time.
+ * Sets can only be merged, to split them the structure has to be
+ * {@link #clear() cleared}, or all elements of the sets {@link #reset(int)
+ * reset}, and rebuilt.
+ */
+public class DisjointSet {
+    private final int[] parent;
+    private final int[] setSize;
+
+    /**
+     * Creates a new disjoint-set structure where every element is in its own set.
+     *
+     * @param size the number of elements
+     */
+    public DisjointSet(final int size) {
+        this.parent = new int[size];
+        this.setSize = new int[size];
+        clear();
+    }
+
+    /**
+     * Puts every element back into its own set.
+     */
+    public void clear() {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        Arrays.fill(setSize, 1);
+    }
+
+    /**
+     * Puts the given element back into its own set without touching the other
+     * elements.
+     * Only use this to split sets completely: every element that was in the same
+     * set as the given element has to be reset as well before the structure is
+     * used again.
+     *
+     * @param element the element
+     */
+    public void reset(final int element) {
+        parent[element] = element;
+        setSize[element] = 1;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Returns the representative of the set containing the given element.
+     * Two elements are in the same set if and only if they have the same
+     * representative.
+     *
+     * @param element the element
+     * @return the representative of the set containing the element
+     */
+    public int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Merges the sets containing the given elements.
+     *
+     * @param first  the first element
+     * @param second the second element
+     * @return {@code true} if the elements were in different sets before,
+     *         {@code false} otherwise
+     */
+    public boolean union(final int first, final int second) {
+        int root1 = find(first);
+        int root2 = find(second);
+        if (root1 == root2) {
+            return false;
+        }
+        if (setSize[root1] < setSize[root2]) {
+            final int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        parent[root2] = root1;
+        setSize[root1] += setSize[root2];
+        return true;
+    }
+
+    /**
+     * Returns whether the given elements are in the same set.
+     *
+     * @param first  the first element
+     * @param second the second element
+     * @return {@code true} if the elements are in the same set, {@code false}
+     *         otherwise
+     */
+    public boolean connected(final int first, final int second) {
+        return find(first) == find(second);
+    }
+
+    /**
+     * Returns the number of elements in the set containing the given element.
+     *
+     * @param element the element
+     * @return the size of the set containing the element
+     */
+    public int setSize(final int element) {
+        return setSize[find(element)];
+    }
+}
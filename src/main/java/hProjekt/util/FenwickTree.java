@@ -0,0 +1,131 @@
+package hProjekt.util;
+
+/**
+ * A Fenwick tree (binary indexed tree) over non-negative {@code long} weights
+ * of the integers {@code [0, size)}.
+ * Changing a weight, computing a prefix sum and finding the element at a
+ * cumulative weight all run in {@code O(log size)}, which makes it suitable for
+ * drawing elements with probability proportional to their changing weights.
+ */
+public class FenwickTree {
+    private final long[] tree;
+    private final long[] weights;
+    private long total;
+
+    /**
+     * Creates a new Fenwick tree with the given weights.
+     *
+     * @param weights the initial weights, must not be negative
+     */
+    public FenwickTree(final long[] weights) {
+        this.weights = weights.clone();
+        this.tree = new long[weights.length + 1];
+        for (int i = 0; i < weights.length; i++) {
+            checkWeight(weights[i]);
+            tree[i + 1] += weights[i];
+            total += weights[i];
+            final int parent = i + 1 + ((i + 1) & -(i + 1));
+            if (parent < tree.length) {
+                tree[parent] += tree[i + 1];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return weights.length;
+    }
+
+    /**
+     * Returns the weight of the given element.
+     *
+     * @param element the element
+     * @return the weight of the element
+     */
+    public long get(final int element) {
+        return weights[element];
+    }
+
+    /**
+     * Sets the weight of the given element.
+     *
+     * @param element the element
+     * @param weight  the new weight, must not be negative
+     */
+    public void set(final int element, final long weight) {
+        checkWeight(weight);
+        final long delta = weight - weights[element];
+        if (delta == 0) {
+            return;
+        }
+        weights[element] = weight;
+        total += delta;
+        for (int i = element + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of all weights.
+     *
+     * @return the sum of all weights
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Returns the sum of the weights of the elements before the given one.
+     *
+     * @param element the element, may be {@link #size()} for the total
+     * @return the sum of the weights of the elements {@code [0, element)}
+     */
+    public long prefixSum(final int element) {
+        long sum = 0;
+        for (int i = element; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the element at the given cumulative weight, that is the element
+     * whose weight covers {@code target} if all weights are laid out in order.
+     * For a target drawn uniformly from {@code [0, total())} every element is
+     * returned with probability {@code weight / total()}.
+     *
+     * @param target the cumulative weight, in {@code [0, total())}
+     * @return the element with {@code prefixSum(element) <= target < prefixSum(element + 1)}
+     * @throws IndexOutOfBoundsException if the target is not in {@code [0, total())}
+     */
+    public int find(long target) {
+        if (target < 0 || target >= total) {
+            throw new IndexOutOfBoundsException("Target " + target + " is not in [0, " + total + ")");
+        }
+        int position = 0;
+        for (int step = Integer.highestOneBit(weights.length); step > 0; step >>= 1) {
+            final int next = position + step;
+            if (next < tree.length && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Checks that the given weight is not negative.
+     *
+     * @param weight the weight
+     * @throws IllegalArgumentException if the weight is negative
+     */
+    private static void checkWeight(final long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weights must not be negative, got " + weight);
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package hProjekt.util;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.function.Function;
 
 /**
  * The NameGenerator class generates new names based on a given list of names
@@ -19,12 +19,37 @@ import java.util.function.Function;
  * (https://www.destatis.de/DE/Themen/Laender-Regionen/Regionales/Gemeindeverzeichnis/_inhalt.html)
  * version from the 30.09.2024.
  *
+ * Training on the full list takes a while, so the chain trained last is
+ * reused by generators created for the same names array and order. The
+ * array must therefore not be changed after it was passed to a generator.
+ * The chain is shared by generators on any thread, so it cannot be changed
+ * through {@link #ngramCollection}.
  */
 public class NameGenerator {
-    public final Map<String, SortedMap<Character, Integer>> ngramCollection = new HashMap<>();
+    /**
+     * The ngrams of the chain with the counts of the following characters, as an
+     * unmodifiable view.
+     */
+    public final Map<String, SortedMap<Character, Integer>> ngramCollection;
+    private final List<String> startNgrams;
     private final int order;
     private final Random random;
 
+    private static volatile TrainedChain lastTrained;
+
+    /**
+     * A trained markov chain.
+     *
+     * @param names       the names the chain was trained on, compared by identity
+     * @param order       the order of the chain
+     * @param ngrams      the ngrams with the counts of the following characters,
+     *                    unmodifiable down to the counts
+     * @param startNgrams the ngrams at the start of a name
+     */
+    private record TrainedChain(String[] names, int order, Map<String, SortedMap<Character, Integer>> ngrams,
+            List<String> startNgrams) {
+    }
+
     /**
      * Creates a new NameGenerator trained on the given names with the specified
      * order.
@@ -37,7 +62,17 @@ public class NameGenerator {
     public NameGenerator(String[] names, int order, Random random) {
         this.random = random;
         this.order = order;
-        train(names, order);
+        TrainedChain trained = lastTrained;
+        if (trained == null || trained.names() != names || trained.order() != order) {
+            final Map<String, SortedMap<Character, Integer>> ngrams = new HashMap<>();
+            train(ngrams, names, order);
+            ngrams.replaceAll((ngram, counts) -> Collections.unmodifiableSortedMap(counts));
+            trained = new TrainedChain(names, order, ngrams,
+                    ngrams.keySet().stream().filter(ngram -> ngram.startsWith("^")).toList());
+            lastTrained = trained;
+        }
+        this.ngramCollection = Collections.unmodifiableMap(trained.ngrams());
+        this.startNgrams = trained.startNgrams();
     }
 
     /**
@@ -58,10 +93,12 @@ public class NameGenerator {
     /**
      * Trains the markov chain on the given names with the specified order.
      *
-     * @param names the names to train on
-     * @param order the order of the markov chain
+     * @param ngramCollection the map to add the ngrams to
+     * @param names           the names to train on
+     * @param order           the order of the markov chain
      */
-    private void train(String[] names, int order) {
+    private static void train(Map<String, SortedMap<Character, Integer>> ngramCollection, String[] names,
+            int order) {
         for (String name : names) {
             name = "^" + name + "$";
             for (int i = order; i < name.length(); i++) {
@@ -105,9 +142,7 @@ public class NameGenerator {
      * @return the generated name
      */
     public String generateName(int length) {
-        String result = ((Function<List<String>, String>) (ngrams) -> {
-            return ngrams.stream().skip(random.nextInt(ngrams.size())).findFirst().get();
-        }).apply(ngramCollection.keySet().stream().filter(ngram -> ngram.startsWith("^")).toList());
+        String result = startNgrams.get(random.nextInt(startNgrams.size()));
 
         for (int i = 0; i < length; i++) {
             String ngram = result.substring(result.length() - order);
@@ -2,6 +2,7 @@ package hProjekt.view.menus;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import hProjekt.Config;
 import hProjekt.controller.AiController;
@@ -27,13 +28,21 @@ import javafx.util.Callback;
  * Builder for the Setup Game menu.
  */
 public class SetupGameBuilder implements Builder<Region> {
+    /**
+     * The entry of the map selector for playing on a newly generated map.
+     */
+    private static final String RANDOM_MAP = "Generate Random Map";
+
     private final Runnable loadMainMenuAction;
     private final Runnable loadGameSceneAction;
     private final GameSetup gameSetup;
+    private final List<String> savedMaps;
+    private final Supplier<String> saveMapAction;
 
     private final VBox playerContainer;
     private final List<HBox> playerBoxes;
     private final Button addPlayerButton;
+    private final ComboBox<String> mapSelector;
     private final int maxPlayers = Config.MAX_PLAYERS;
     private final List<String> availableColors = List.of(
             "#ea3323", "#ff8b00", "#fde01a", "#1eb253", "#017cf3", "#9c78fe");
@@ -44,11 +53,18 @@ public class SetupGameBuilder implements Builder<Region> {
      * @param loadGameSceneAction the action to load the game scene
      * @param loadMainMenuAction  the action to load the main menu
      * @param gameSetup           the game setup object
+     * @param savedMaps           the names of the maps that can be selected
+     * @param saveMapAction       the action to save the generated map, returns
+     *                            the name of the saved map or {@code null} if
+     *                            it could not be saved
      */
-    public SetupGameBuilder(Runnable loadGameSceneAction, Runnable loadMainMenuAction, GameSetup gameSetup) {
+    public SetupGameBuilder(Runnable loadGameSceneAction, Runnable loadMainMenuAction, GameSetup gameSetup,
+            List<String> savedMaps, Supplier<String> saveMapAction) {
         this.loadGameSceneAction = loadGameSceneAction;
         this.loadMainMenuAction = loadMainMenuAction;
         this.gameSetup = gameSetup;
+        this.savedMaps = savedMaps;
+        this.saveMapAction = saveMapAction;
 
         playerBoxes = new ArrayList<>();
         playerContainer = new VBox(10);
@@ -57,6 +73,8 @@ public class SetupGameBuilder implements Builder<Region> {
         addPlayerButton = new Button("+ Add Player");
         addPlayerButton.getStyleClass().add("button-add");
         addPlayerButton.setOnAction(event -> addPlayer());
+
+        mapSelector = new ComboBox<>();
     }
 
     @Override
@@ -134,19 +152,30 @@ public class SetupGameBuilder implements Builder<Region> {
         Label mapLabel = new Label("Select a Map:");
         mapLabel.getStyleClass().add("label");
 
-        ComboBox<String> mapSelector = new ComboBox<>();
-        mapSelector.getItems().addAll("Generate Random Map"); // No other maps implemented yet
+        mapSelector.getItems().setAll(RANDOM_MAP);
+        mapSelector.getItems().addAll(savedMaps);
         mapSelector.setMaxWidth(200);
-        mapSelector.setValue("Generate Random Map");
+        mapSelector.setValue(RANDOM_MAP);
         mapSelector.getStyleClass().add("combo-box");
         mapSelector.setOnAction(event -> {
             if (gameSetup != null) {
-                gameSetup.setMapSelection(mapSelector.getValue());
+                // an empty selection plays on the generated map
+                gameSetup.setMapSelection(RANDOM_MAP.equals(mapSelector.getValue()) ? "" : mapSelector.getValue());
+            }
+        });
+
+        // Saves the generated map so it can be selected in later sessions
+        Button saveMapButton = new Button("Save Map");
+        saveMapButton.getStyleClass().add("button-add");
+        saveMapButton.setOnAction(event -> {
+            String savedMap = saveMapAction.get();
+            if (savedMap != null && !mapSelector.getItems().contains(savedMap)) {
+                mapSelector.getItems().add(savedMap);
             }
         });
 
         // Add label and dropdown to the container
-        mapSelectionContainer.getChildren().addAll(mapLabel, mapSelector);
+        mapSelectionContainer.getChildren().addAll(mapLabel, mapSelector, saveMapButton);
         mapSelectionWrapper.getChildren().add(mapSelectionContainer);
 
         mainContent.getChildren().addAll(titleLabel, playerContainer, addPlayerButton, mapSelectionWrapper);
@@ -271,6 +300,20 @@ public class SetupGameBuilder implements Builder<Region> {
         }
     }
 
+    /**
+     * Removes the given map from the map selection and selects the generated map
+     * instead, e.g. after the map could not be loaded.
+     *
+     * @param map the name of the map to remove
+     */
+    public void resetMapSelection(String map) {
+        mapSelector.getItems().remove(map);
+        mapSelector.setValue(RANDOM_MAP);
+        if (gameSetup != null) {
+            gameSetup.setMapSelection("");
+        }
+    }
+
     /**
      * Updates the visibility of the "Add Player" button.
      */
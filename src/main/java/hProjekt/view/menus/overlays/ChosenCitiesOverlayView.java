@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.function.Consumer;
 
+import hProjekt.controller.gui.AnimationTracker;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
@@ -153,6 +154,7 @@ public class ChosenCitiesOverlayView extends StackPane {
         }));
 
         timeline.play();
+        AnimationTracker.getInstance().track(timeline);
     }
 
     /**
@@ -13,13 +13,14 @@ import javafx.scene.paint.Color;
 
 /**
  * Overlay for displaying a confirmation dialog.
- * Contains a message and "Yes" and "No" buttons.
+ * Contains a message, "Yes" and "No" buttons and an optional extra button.
  */
 public class ConfirmationOverlayView extends VBox {
 
     private final Label messageLabel;
     private final Button yesButton;
     private final Button noButton;
+    private final Button extraButton;
     private final HBox buttonContainer;
 
     /**
@@ -39,6 +40,8 @@ public class ConfirmationOverlayView extends VBox {
         yesButton.getStyleClass().add("button-yes");
         noButton = new Button("No");
         noButton.getStyleClass().add("button-no");
+        extraButton = new Button();
+        extraButton.getStyleClass().add("button-extra");
 
         // Layout for buttons
         buttonContainer = new HBox(10, yesButton, noButton); // 10px spacing between buttons
@@ -103,4 +106,23 @@ public class ConfirmationOverlayView extends VBox {
             }
         });
     }
+
+    /**
+     * Updates the text and the action of the extra button.
+     * If the action is null, the button is removed.
+     *
+     * @param text          the text of the button
+     * @param onExtraAction the action to run when the button is clicked
+     */
+    public void setExtraAction(String text, Runnable onExtraAction) {
+        if (onExtraAction == null) {
+            buttonContainer.getChildren().remove(extraButton);
+            return;
+        }
+        extraButton.setText(text);
+        if (!buttonContainer.getChildren().contains(extraButton)) {
+            buttonContainer.getChildren().add(extraButton);
+        }
+        extraButton.setOnAction(event -> onExtraAction.run());
+    }
 }
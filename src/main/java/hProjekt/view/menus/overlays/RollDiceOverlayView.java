@@ -3,6 +3,7 @@ package hProjekt.view.menus.overlays;
 import java.util.Random;
 import java.util.function.Consumer;
 
+import hProjekt.controller.gui.AnimationTracker;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
@@ -95,6 +96,7 @@ public class RollDiceOverlayView extends StackPane {
         }));
 
         timeline.play();
+        AnimationTracker.getInstance().track(timeline);
     }
 
     public void enableRollDiceButton() {
@@ -0,0 +1,109 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link AiScheduler} and {@link AiPacing}.
+ */
+public class AiSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    public void testDecisionsRunInOrderOnOneThread() throws InterruptedException {
+        final AiScheduler scheduler = new AiScheduler(e -> fail(e));
+        scheduler.setPacing(AiPacing.instant());
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            final int decision = i;
+            scheduler.schedule(() -> {
+                order.add(decision);
+                threads.add(Thread.currentThread());
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        scheduler.shutdown();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, order.get(i));
+            assertSame(threads.getFirst(), threads.get(i));
+        }
+        assertNotSame(Thread.currentThread(), threads.getFirst());
+        assertTrue(threads.getFirst().isDaemon());
+    }
+
+    @Test
+    public void testFailureIsHandledAndLaterDecisionsRun() throws InterruptedException {
+        final List<RuntimeException> failures = Collections.synchronizedList(new ArrayList<>());
+        final AiScheduler scheduler = new AiScheduler(failures::add);
+        scheduler.setPacing(AiPacing.instant());
+        final RuntimeException failure = new IllegalStateException("decision failed");
+        final CountDownLatch done = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            throw failure;
+        });
+        scheduler.schedule(done::countDown);
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        scheduler.shutdown();
+
+        assertEquals(List.of(failure), failures);
+    }
+
+    @Test
+    public void testShutdownIgnoresDecisions() throws InterruptedException {
+        final AiScheduler scheduler = new AiScheduler(e -> fail(e));
+        final AtomicInteger runs = new AtomicInteger();
+        scheduler.setPacing(AiPacing.fixedDelay(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)));
+        // pending when the scheduler shuts down
+        scheduler.schedule(runs::incrementAndGet);
+        scheduler.shutdown();
+        scheduler.setPacing(AiPacing.instant());
+        scheduler.schedule(runs::incrementAndGet);
+        scheduler.shutdown();
+
+        Thread.sleep(100);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testPacingSchedulesDecisions() throws InterruptedException {
+        final AiScheduler scheduler = new AiScheduler(e -> fail(e));
+        final AtomicInteger paced = new AtomicInteger();
+        final AiPacing instant = AiPacing.instant();
+        scheduler.setPacing((decision, executor) -> {
+            paced.incrementAndGet();
+            instant.schedule(decision, executor);
+        });
+        final CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            scheduler.schedule(done::countDown);
+        }
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        assertEquals(3, paced.get());
+    }
+
+    @Test
+    public void testFixedDelay() throws InterruptedException {
+        final AiScheduler scheduler = new AiScheduler(e -> fail(e));
+        scheduler.setPacing(AiPacing.fixedDelay(50));
+        final CountDownLatch done = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        scheduler.schedule(done::countDown);
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}
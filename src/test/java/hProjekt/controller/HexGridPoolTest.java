@@ -0,0 +1,74 @@
+package hProjekt.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.model.HexGrid;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link HexGridPool}.
+ */
+public class HexGridPoolTest {
+
+    private int scale;
+    private int numberOfCities;
+
+    @BeforeEach
+    public void setUp() {
+        scale = Config.MAP_SCALE;
+        numberOfCities = Config.NUMBER_OF_CITIES;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Config.MAP_SCALE = scale;
+        Config.NUMBER_OF_CITIES = numberOfCities;
+        HexGridPool.getInstance().invalidate();
+    }
+
+    /**
+     * Waits until the pool is full.
+     */
+    private static void awaitFull() throws InterruptedException {
+        for (int i = 0; i < 500 && HexGridPool.getInstance().size() < HexGridPool.CAPACITY; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(HexGridPool.CAPACITY, HexGridPool.getInstance().size());
+    }
+
+    @Test
+    public void testTakeUsesCurrentSettings() throws InterruptedException {
+        final HexGridPool pool = HexGridPool.getInstance();
+        Config.MAP_SCALE = 4;
+        Config.NUMBER_OF_CITIES = 6;
+        pool.invalidate();
+        awaitFull();
+        final HexGrid pooled = pool.take();
+        assertEquals(6, pooled.getCities().size());
+        assertNotSame(pooled, pool.take());
+
+        // changed without invalidating, so the pooled grids for 6 cities must not be handed out
+        awaitFull();
+        Config.NUMBER_OF_CITIES = 8;
+        assertEquals(8, pool.take().getCities().size());
+        awaitFull();
+        assertEquals(8, pool.take().getCities().size());
+    }
+
+    @Test
+    public void testWorkerUsesSnapshot() throws InterruptedException {
+        final HexGridPool pool = HexGridPool.getInstance();
+        Config.MAP_SCALE = 4;
+        Config.NUMBER_OF_CITIES = 5;
+        pool.invalidate();
+        // the worker generates for the settings at invalidate, not the ones written afterwards
+        Config.NUMBER_OF_CITIES = 9;
+        awaitFull();
+        Config.NUMBER_OF_CITIES = 5;
+        assertEquals(5, pool.take().getCities().size());
+    }
+}
@@ -0,0 +1,272 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.model.City;
+import hProjekt.model.Edge;
+import hProjekt.model.GameState;
+import hProjekt.model.HexGrid;
+import hProjekt.model.HexGridImpl;
+import hProjekt.model.Player;
+import hProjekt.model.PlayerState;
+import hProjekt.model.TilePosition;
+import javafx.scene.paint.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the repair of the plan of the {@link PlannerAiController}.
+ */
+public class PlannerAiControllerTest {
+
+    private GameState game;
+    private HexGrid grid;
+    private Player player;
+    private Player opponent;
+    private PlannerAiController planner;
+
+    @BeforeEach
+    public void setUp() {
+        game = new GameState(new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(7)), new ArrayList<>());
+        for (final Color color : List.of(Color.RED, Color.BLUE)) {
+            game.newPlayer(null, color, null);
+        }
+        grid = game.getGrid();
+        player = game.getPlayers().get(0);
+        opponent = game.getPlayers().get(1);
+        final GameController controller = new GameController(game, new Random(1));
+        // the plan is repaired by the tests, not by decisions on the AI thread
+        controller.getAiScheduler().shutdown();
+        planner = new PlannerAiController(new PlayerController(controller, player), grid, game,
+                controller.activePlayerControllerProperty(), controller.currentDiceRollProperty(),
+                controller.roundCounterProperty(), controller.chosenCitiesProperty());
+    }
+
+    /**
+     * Returns the tile the given leg starts at.
+     *
+     * @param edges the edges of the leg in building order
+     * @param city  the city the leg ends at
+     * @return the start of the leg
+     */
+    private static TilePosition startOf(final List<Edge> edges, final TilePosition city) {
+        TilePosition tile = city;
+        for (final Edge edge : edges.reversed()) {
+            assertTrue(edge.getAdjacentTilePositions().contains(tile), "the edges of a leg form a path");
+            tile = edge.getPosition1().equals(tile) ? edge.getPosition2() : edge.getPosition1();
+        }
+        return tile;
+    }
+
+    /**
+     * Checks that the plan is a tree rooted in the network of the player, or in a
+     * starting city if there is none, that reaches unconnected cities only.
+     */
+    private void assertValidPlan() {
+        final List<TilePosition> cities = planner.getPlannedCities();
+        final List<List<Edge>> legs = planner.getPlannedEdges();
+        assertEquals(cities.size(), legs.size());
+        assertFalse(cities.isEmpty());
+        assertTrue(cities.size() <= PlannerAiController.MAX_PLANNED_LEGS);
+        assertEquals(cities.size(), Set.copyOf(cities).size());
+
+        final Set<TilePosition> tree = new HashSet<>();
+        grid.getRails(player).values().forEach(edge -> tree.addAll(edge.getAdjacentTilePositions()));
+        for (int i = 0; i < cities.size(); i++) {
+            final City city = grid.getCityAt(cities.get(i));
+            assertNotNull(city);
+            assertFalse(city.isStartingCity());
+            assertFalse(grid.getConnectedCities().containsKey(city.getPosition()));
+            assertFalse(legs.get(i).isEmpty());
+            assertTrue(legs.get(i).stream().noneMatch(edge -> edge.hasRailOwner(player)));
+
+            final TilePosition start = startOf(legs.get(i), cities.get(i));
+            assertTrue(tree.isEmpty() ? grid.getStartingCities().containsKey(start) : tree.contains(start),
+                    "leg " + i + " starts at the planned tree");
+            tree.add(start);
+            legs.get(i).forEach(edge -> tree.addAll(edge.getAdjacentTilePositions()));
+        }
+    }
+
+    @Test
+    public void testPlanStartsAtStartingCity() {
+        planner.repairPlan();
+        assertValidPlan();
+        assertEquals(PlannerAiController.MAX_PLANNED_LEGS, planner.getPlannedCities().size());
+
+        // nothing changed, so the plan stays the same
+        final List<List<Edge>> legs = planner.getPlannedEdges();
+        planner.repairPlan();
+        assertEquals(legs, planner.getPlannedEdges());
+    }
+
+    @Test
+    public void testBuiltEdgesAreRemoved() {
+        planner.repairPlan();
+        final List<TilePosition> cities = planner.getPlannedCities();
+        final List<List<Edge>> legs = planner.getPlannedEdges();
+        final Edge first = legs.getFirst().getFirst();
+        assertTrue(first.addRail(player));
+
+        planner.repairPlan();
+        assertValidPlan();
+        assertEquals(cities, planner.getPlannedCities());
+        assertEquals(legs.getFirst().subList(1, legs.getFirst().size()), planner.getPlannedEdges().getFirst());
+        assertEquals(legs.subList(1, legs.size()), planner.getPlannedEdges().subList(1, legs.size()));
+    }
+
+    /**
+     * Returns the planned cost of each edge of the given legs for the player.
+     *
+     * @param legs the edges of the legs
+     * @return the costs of the edges of each leg
+     */
+    private List<List<Integer>> costsOf(final List<List<Edge>> legs) {
+        return legs.stream().map(edges -> edges.stream()
+                .map(edge -> edge.getBaseBuildingCost() + edge.getTotalParallelCost(player)).toList()).toList();
+    }
+
+    /**
+     * Lets the opponent build from a starting city the first leg does not start
+     * at to the given tile, avoiding the tiles of the given legs except the
+     * target.
+     *
+     * @param target the tile to build to
+     * @param legs   the legs to avoid
+     */
+    private void buildOpponentRails(final TilePosition target, final List<List<Edge>> legs) {
+        final List<Edge> firstLeg = planner.getPlannedEdges().getFirst();
+        final TilePosition firstStart = startOf(firstLeg, planner.getPlannedCities().getFirst());
+        final TilePosition start = grid.getStartingCities().keySet().stream()
+                .filter(position -> !position.equals(firstStart)).sorted().findFirst().orElseThrow();
+        final Set<Edge> available = new HashSet<>(grid.getEdges().values());
+        final Set<TilePosition> avoided = new HashSet<>();
+        legs.forEach(edges -> edges.forEach(edge -> avoided.addAll(edge.getAdjacentTilePositions())));
+        avoided.remove(target);
+        available.removeIf(edge -> !Collections.disjoint(avoided, edge.getAdjacentTilePositions()));
+        final List<Edge> path = grid.findCheapestPath(start, target, available,
+                (edge, from) -> edge.getBaseBuildingCost());
+        assertFalse(path.isEmpty());
+        for (final Edge edge : path) {
+            assertTrue(edge.addRail(opponent));
+        }
+    }
+
+    /**
+     * Repairs the plan after the opponent built and checks that exactly the legs
+     * up to the first one that got more expensive or lost its city are kept.
+     *
+     * @param cities the planned cities before the opponent built
+     * @param legs   the planned edges before the opponent built
+     * @param costs  the costs of the planned edges before the opponent built
+     * @return the index of the first leg that was planned again
+     */
+    private int assertRepairKeepsUnchangedLegs(final List<TilePosition> cities, final List<List<Edge>> legs,
+            final List<List<Integer>> costs) {
+        final List<List<Integer>> newCosts = costsOf(legs);
+        int changed = 0;
+        while (changed < legs.size() && !grid.getConnectedCities().containsKey(cities.get(changed))
+                && newCosts.get(changed).equals(costs.get(changed))) {
+            changed++;
+        }
+        assertTrue(changed < legs.size());
+
+        planner.repairPlan();
+        assertValidPlan();
+        assertEquals(cities.subList(0, changed), planner.getPlannedCities().subList(0, changed));
+        assertEquals(legs.subList(0, changed), planner.getPlannedEdges().subList(0, changed));
+        assertFalse(changed < planner.getPlannedCities().size()
+                && cities.get(changed).equals(planner.getPlannedCities().get(changed))
+                && legs.get(changed).equals(planner.getPlannedEdges().get(changed)));
+        return changed;
+    }
+
+    @Test
+    public void testMoreExpensiveLegIsPlannedAgain() {
+        planner.repairPlan();
+        final List<TilePosition> cities = planner.getPlannedCities();
+        final List<List<Edge>> legs = planner.getPlannedEdges();
+        final List<List<Integer>> costs = costsOf(legs);
+        // the opponent builds to the middle of the second leg, away from any city
+        final TilePosition middle = legs.get(1).stream().flatMap(edge -> edge.getAdjacentTilePositions().stream())
+                .filter(position -> !grid.getCities().containsKey(position)).sorted().findFirst().orElseThrow();
+        buildOpponentRails(middle, legs.subList(0, 1));
+
+        assertTrue(assertRepairKeepsUnchangedLegs(cities, legs, costs) > 0);
+    }
+
+    @Test
+    public void testConnectedCityIsDropped() {
+        planner.repairPlan();
+        final List<TilePosition> cities = planner.getPlannedCities();
+        final List<List<Edge>> legs = planner.getPlannedEdges();
+        final List<List<Integer>> costs = costsOf(legs);
+        final TilePosition last = cities.getLast();
+        // around the legs, so the last leg only loses its city
+        buildOpponentRails(last, legs);
+        assertTrue(grid.getConnectedCities().containsKey(last));
+        assertEquals(costs.getLast(), costsOf(legs).getLast());
+
+        assertEquals(cities.size() - 1, assertRepairKeepsUnchangedLegs(cities, legs, costs));
+        assertFalse(planner.getPlannedCities().contains(last));
+    }
+
+    /**
+     * Returns the cost of building the given rail and the cheapest path from it to
+     * one of the given targets.
+     *
+     * @param rail    the rail at a starting city
+     * @param targets the tiles the path may end at
+     * @return the cost of the rail and the path
+     */
+    private int costTowards(final Edge rail, final Set<TilePosition> targets) {
+        final TilePosition far = grid.getStartingCities().containsKey(rail.getPosition1()) ? rail.getPosition2()
+                : rail.getPosition1();
+        final Set<Edge> edges = new HashSet<>(grid.getEdges().values());
+        int best = Integer.MAX_VALUE;
+        for (final TilePosition target : targets) {
+            final List<Edge> path = far.equals(target) ? List.of()
+                    : grid.findCheapestPath(far, target, edges, (edge, from) -> edge.getBaseBuildingCost());
+            if (far.equals(target) || !path.isEmpty()) {
+                best = Math.min(best, path.stream().mapToInt(Edge::getBaseBuildingCost).sum());
+            }
+        }
+        return rail.getBaseBuildingCost() + best;
+    }
+
+    @Test
+    public void testBlockedPlanBuildsTowardsPlan() {
+        planner.repairPlan();
+        final Edge first = planner.getPlannedEdges().getFirst().getFirst();
+        // the rails at the starting cities, as the player has no budget outside of a turn
+        final Set<Edge> buildable = new HashSet<>();
+        grid.getStartingCities().keySet().forEach(position -> buildable.addAll(grid.getTileAt(position).getEdges()));
+        assertTrue(buildable.contains(first));
+        assertSame(first, planner.nextRail(new PlayerState(buildable, PlayerObjective.PLACE_RAIL, Set.of(),
+                Set.of(), false, Map.of(), 10)));
+
+        // the first rail of the plan costs more credits than are left
+        buildable.remove(first);
+        final Edge rail = planner.nextRail(new PlayerState(buildable, PlayerObjective.PLACE_RAIL, Set.of(),
+                Set.of(), false, Map.of(), 10));
+        assertNotNull(rail);
+        assertTrue(buildable.contains(rail));
+
+        final Set<TilePosition> targets = new HashSet<>();
+        planner.getPlannedEdges()
+                .forEach(edges -> edges.forEach(edge -> targets.addAll(edge.getAdjacentTilePositions())));
+        targets.removeAll(grid.getStartingCities().keySet());
+        final int cheapest = buildable.stream().mapToInt(edge -> costTowards(edge, targets)).min().orElseThrow();
+        assertEquals(cheapest, costTowards(rail, targets));
+    }
+}
@@ -0,0 +1,237 @@
+package hProjekt.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.model.Edge;
+import hProjekt.model.HexGrid;
+import hProjekt.model.HexGridImpl;
+import hProjekt.model.Player;
+import hProjekt.model.PlayerImpl;
+import hProjekt.model.TilePosition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link RentalOptimizer} against the Pareto front of all simple
+ * paths.
+ */
+public class RentalOptimizerTest {
+
+    private int maxRentableDistance;
+    private HexGrid grid;
+    private Player player;
+    private Set<Edge> own;
+    private Set<Edge> rentable;
+    private List<TilePosition> railTiles;
+
+    @BeforeEach
+    public void setUp() {
+        maxRentableDistance = Config.MAX_RENTABLE_DISTANCE;
+        grid = new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(5));
+        final List<Player> players = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            players.add(new PlayerImpl.Builder(id).build(grid));
+        }
+        final Random random = new Random(9);
+        for (int round = 0; round < 35; round++) {
+            for (final Player owner : players) {
+                buildRail(owner, random);
+            }
+        }
+        // rails of several opponents make renting cost more than one credit per rail
+        for (final Player owner : players.subList(1, players.size())) {
+            for (final Edge edge : grid.getEdges().values().stream().filter(Edge::hasRail)
+                    .sorted(Comparator.comparing(Edge::getPosition1).thenComparing(Edge::getPosition2)).toList()) {
+                if (random.nextBoolean()) {
+                    edge.addRail(owner);
+                }
+            }
+        }
+        player = players.getFirst();
+        own = new HashSet<>(grid.getRails(player).values());
+        rentable = new HashSet<>();
+        grid.getEdges().values().stream().filter(edge -> edge.hasRail() && !edge.hasRailOwner(player))
+                .forEach(rentable::add);
+        final Set<TilePosition> tiles = new HashSet<>();
+        own.forEach(edge -> tiles.addAll(edge.getAdjacentTilePositions()));
+        rentable.forEach(edge -> tiles.addAll(edge.getAdjacentTilePositions()));
+        railTiles = tiles.stream().sorted().toList();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Config.MAX_RENTABLE_DISTANCE = maxRentableDistance;
+    }
+
+    /**
+     * Builds a rail of the given owner next to its network, or at a starting city
+     * if it has none.
+     *
+     * @param owner  the owner of the rail
+     * @param random the random to pick the edge
+     */
+    private void buildRail(final Player owner, final Random random) {
+        final List<Edge> rails = grid.getRails(owner).values().stream()
+                .sorted(Comparator.comparing(Edge::getPosition1).thenComparing(Edge::getPosition2)).toList();
+        final List<Edge> candidates = new ArrayList<>();
+        if (rails.isEmpty()) {
+            final List<TilePosition> starts = grid.getStartingCities().keySet().stream().sorted().toList();
+            candidates.addAll(grid.getTileAt(starts.get(random.nextInt(starts.size()))).getEdges());
+        } else {
+            candidates.addAll(rails.get(random.nextInt(rails.size())).getConnectedEdges());
+        }
+        candidates.sort(Comparator.comparing(Edge::getPosition1).thenComparing(Edge::getPosition2));
+        for (int attempt = 0; attempt < 10; attempt++) {
+            if (candidates.get(random.nextInt(candidates.size())).addRail(owner)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collects the driving cost and rent of every simple path from the given tile
+     * to the target that rents only the given rails within the limits.
+     *
+     * @param position    the current tile
+     * @param target      the target tile
+     * @param allowed     the rails that may be rented
+     * @param credits     the credits that can be spent on rent
+     * @param visited     the tiles of the path so far
+     * @param drivingCost the driving cost of the path so far
+     * @param rent        the rent of the path so far
+     * @param rented      the number of rented rails of the path so far
+     * @param results     the list to add the driving cost and rent of each path to
+     */
+    private void enumeratePaths(final TilePosition position, final TilePosition target, final Set<Edge> allowed,
+            final int credits, final Set<TilePosition> visited, final int drivingCost, final int rent,
+            final int rented, final List<int[]> results) {
+        if (position.equals(target)) {
+            results.add(new int[] { drivingCost, rent });
+            return;
+        }
+        for (final Edge edge : grid.getTileAt(position).getEdges()) {
+            final boolean owned = own.contains(edge);
+            if (!owned && !allowed.contains(edge)) {
+                continue;
+            }
+            final TilePosition next = edge.getPosition1().equals(position) ? edge.getPosition2()
+                    : edge.getPosition1();
+            final int nextRent = rent + (owned ? 0 : edge.getRailOwners().size());
+            final int nextRented = rented + (owned ? 0 : 1);
+            if (visited.contains(next) || nextRent > credits || nextRented > Config.MAX_RENTABLE_DISTANCE) {
+                continue;
+            }
+            visited.add(next);
+            enumeratePaths(next, target, allowed, credits, visited, drivingCost + edge.getDrivingCost(position),
+                    nextRent, nextRented, results);
+            visited.remove(next);
+        }
+    }
+
+    /**
+     * Returns the Pareto front of the driving cost and rent of all simple paths,
+     * fastest first.
+     *
+     * @param start   the start tile
+     * @param target  the target tile
+     * @param allowed the rails that may be rented
+     * @param credits the credits that can be spent on rent
+     * @return the driving cost and rent of each path on the front
+     */
+    private List<List<Integer>> paretoFront(final TilePosition start, final TilePosition target,
+            final Set<Edge> allowed, final int credits) {
+        final List<int[]> paths = new ArrayList<>();
+        enumeratePaths(start, target, allowed, credits, new HashSet<>(Set.of(start)), 0, 0, 0, paths);
+        paths.sort(Comparator.<int[]>comparingInt(path -> path[0]).thenComparingInt(path -> path[1]));
+        final List<List<Integer>> front = new ArrayList<>();
+        for (final int[] path : paths) {
+            if (front.isEmpty() || path[1] < front.getLast().get(1)) {
+                front.add(List.of(path[0], path[1]));
+            }
+        }
+        return front;
+    }
+
+    /**
+     * Compares the options between random pairs of rail tiles with the Pareto
+     * front of all simple paths and checks that every option can be driven.
+     *
+     * @param credits the credits that can be spent on rent
+     * @param pairs   the number of pairs to compare
+     * @return the number of pairs with more than one option
+     */
+    private int assertOptionsMatchFront(final int credits, final int pairs) {
+        final Random random = new Random(credits);
+        int choices = 0;
+        for (int pair = 0; pair < pairs; pair++) {
+            final TilePosition start = railTiles.get(random.nextInt(railTiles.size()));
+            final TilePosition target = railTiles.get(random.nextInt(railTiles.size()));
+            if (start.equals(target)) {
+                continue;
+            }
+            final List<RentalOptimizer.Option> options = RentalOptimizer.findOptions(grid, player, start, target,
+                    rentable, credits);
+            assertEquals(paretoFront(start, target, rentable, credits),
+                    options.stream().map(option -> List.of(option.drivingCost(), option.rent())).toList(),
+                    "options from " + start + " to " + target);
+            for (final RentalOptimizer.Option option : options) {
+                assertTrue(rentable.containsAll(option.edges()));
+                assertTrue(option.edges().size() <= Config.MAX_RENTABLE_DISTANCE);
+                assertEquals(option.rent(),
+                        option.edges().stream().mapToInt(edge -> edge.getRailOwners().size()).sum());
+                // renting only these rails reaches the target as fast and as cheap
+                assertEquals(List.of(option.drivingCost(), option.rent()),
+                        paretoFront(start, target, option.edges(), credits).getFirst());
+            }
+            if (options.size() > 1) {
+                choices++;
+            }
+        }
+        return choices;
+    }
+
+    @Test
+    public void testFrontWithoutLimits() {
+        assertTrue(assertOptionsMatchFront(1000, 200) > 0);
+    }
+
+    @Test
+    public void testFrontWithFewCredits() {
+        assertOptionsMatchFront(2, 200);
+    }
+
+    @Test
+    public void testFrontWithFewRentableRails() {
+        Config.MAX_RENTABLE_DISTANCE = 2;
+        assertOptionsMatchFront(1000, 200);
+    }
+
+    @Test
+    public void testOwnRailsNeedNoRent() {
+        final Edge rail = own.iterator().next();
+        final List<RentalOptimizer.Option> options = RentalOptimizer.findOptions(grid, player, rail.getPosition1(),
+                rail.getPosition2(), rentable, 0);
+        assertEquals(1, options.size());
+        assertTrue(options.getFirst().edges().isEmpty());
+        assertEquals(0, options.getFirst().rent());
+        assertEquals(rail.getDrivingCost(rail.getPosition1()), options.getFirst().drivingCost());
+    }
+
+    @Test
+    public void testUnreachableTarget() {
+        final TilePosition outside = grid.getTiles().keySet().stream().filter(position -> !railTiles.contains(position))
+                .sorted().findFirst().orElseThrow();
+        assertTrue(RentalOptimizer.findOptions(grid, player, railTiles.getFirst(), outside, rentable, 1000)
+                .isEmpty());
+    }
+}
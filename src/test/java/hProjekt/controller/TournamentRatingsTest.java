@@ -0,0 +1,152 @@
+package hProjekt.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link TournamentRatings} against small cases computed by hand.
+ */
+public class TournamentRatingsTest {
+
+    private static final double ELO_PER_NAT = 400 / Math.log(10);
+    private static final double Z_95 = 1.959964;
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Returns the half width of the 95% confidence interval for the given Fisher
+     * information of the log strength.
+     *
+     * @param information the Fisher information
+     * @return the half width in Elo
+     */
+    private static double error95(final double information) {
+        return Z_95 * ELO_PER_NAT / Math.sqrt(information);
+    }
+
+    @Test
+    public void testEvenEntrants() {
+        final TournamentRatings ratings = new TournamentRatings(List.of("A", "B"));
+        ratings.record(0, 1, 1);
+        ratings.record(1, 0, 1);
+        assertEquals(2, ratings.getGames());
+
+        for (final TournamentRatings.Rating rating : ratings.getRatings()) {
+            assertEquals(2, rating.games());
+            assertEquals(0.5, rating.score(), DELTA);
+            assertEquals(TournamentRatings.BASE_RATING, rating.elo(), DELTA);
+            // the virtual draw and two games against an equal opponent, 1/4 each
+            assertEquals(error95(0.75), rating.error95(), DELTA);
+        }
+    }
+
+    @Test
+    public void testFitOfThreeEntrants() {
+        // the scores are the win probabilities of the strengths 2, 1 and 1/2, which
+        // are the fixed point of the fit including the virtual draws:
+        // A: 1/2 + 2/3 + 29/30 = 2/3 + 2/3 + 4/5
+        // B: 1/2 + 1/3 + 2/3 = 1/2 + 1/3 + 2/3
+        // C: 1/2 + 1/30 + 1/3 = 1/3 + 1/5 + 1/3
+        final TournamentRatings ratings = new TournamentRatings(List.of("C", "B", "A"));
+        ratings.record(2, 1, 2.0 / 3);
+        ratings.record(0, 2, 1.0 / 30);
+        ratings.record(1, 0, 2.0 / 3);
+
+        final List<TournamentRatings.Rating> standings = ratings.getRatings();
+        assertEquals(List.of("A", "B", "C"), standings.stream().map(TournamentRatings.Rating::name).toList());
+        final TournamentRatings.Rating a = standings.get(0);
+        final TournamentRatings.Rating b = standings.get(1);
+        final TournamentRatings.Rating c = standings.get(2);
+        assertEquals(TournamentRatings.BASE_RATING + ELO_PER_NAT * Math.log(2), a.elo(), DELTA);
+        assertEquals(TournamentRatings.BASE_RATING, b.elo(), DELTA);
+        assertEquals(TournamentRatings.BASE_RATING - ELO_PER_NAT * Math.log(2), c.elo(), DELTA);
+        assertEquals((2.0 / 3 + 29.0 / 30) / 2, a.score(), DELTA);
+        assertEquals(2, a.games());
+
+        // information p * (1 - p) per game, plus the virtual draw against strength 1
+        assertEquals(error95(2.0 / 9 + 2.0 / 9 + 4.0 / 25), a.error95(), DELTA);
+        assertEquals(error95(1.0 / 4 + 2.0 / 9 + 2.0 / 9), b.error95(), DELTA);
+        assertEquals(error95(2.0 / 9 + 4.0 / 25 + 2.0 / 9), c.error95(), DELTA);
+    }
+
+    @Test
+    public void testRatingsDoNotDependOnOrder() {
+        final TournamentRatings forward = new TournamentRatings(List.of("A", "B", "C"));
+        final TournamentRatings backward = new TournamentRatings(List.of("A", "B", "C"));
+        final int[][] results = { { 0, 1, 1 }, { 1, 2, 0 }, { 0, 2, 1 }, { 2, 1, 1 }, { 0, 1, 0 }, { 2, 0, 1 } };
+        for (int i = 0; i < results.length; i++) {
+            forward.record(results[i][0], results[i][1], results[i][2]);
+            final int[] result = results[results.length - 1 - i];
+            backward.record(result[0], result[1], result[2]);
+        }
+        final List<TournamentRatings.Rating> expected = forward.getRatings();
+        final List<TournamentRatings.Rating> actual = backward.getRatings();
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).name(), actual.get(i).name());
+            assertEquals(expected.get(i).elo(), actual.get(i).elo(), DELTA);
+            assertEquals(expected.get(i).error95(), actual.get(i).error95(), DELTA);
+        }
+    }
+
+    @Test
+    public void testMatchup() {
+        final TournamentRatings ratings = new TournamentRatings(List.of("A", "B"));
+        ratings.record(0, 1, 1);
+        ratings.record(1, 0, 0);
+        ratings.record(0, 1, 1);
+        ratings.record(1, 0, 1);
+
+        final TournamentRatings.Matchup matchup = ratings.getMatchups().getFirst();
+        assertEquals("A", matchup.first());
+        assertEquals("B", matchup.second());
+        assertEquals(4, matchup.games());
+        assertEquals(0.75, matchup.score(), DELTA);
+        assertEquals(ELO_PER_NAT * Math.log(3), matchup.eloDiff(), DELTA);
+        // variance 3/4 - 9/16 = 3/16, the upper bound is clamped to half a game
+        // below a perfect score
+        final double error = Math.sqrt(3.0 / 16 / 4);
+        final double lower = 0.75 - Z_95 * error;
+        assertEquals(ELO_PER_NAT * Math.log(lower / (1 - lower)), matchup.lower95(), DELTA);
+        assertEquals(ELO_PER_NAT * Math.log(7), matchup.upper95(), DELTA);
+        // P(Z <= 1/sqrt(3/4)) of the standard normal distribution
+        assertEquals(0.875893, matchup.los(), 1e-5);
+    }
+
+    @Test
+    public void testMatchupWithoutLosses() {
+        final TournamentRatings ratings = new TournamentRatings(List.of("A", "B", "C"));
+        for (int i = 0; i < 3; i++) {
+            ratings.record(1, 2, 1);
+        }
+        final List<TournamentRatings.Matchup> matchups = ratings.getMatchups();
+        assertEquals(1, matchups.size());
+        final TournamentRatings.Matchup matchup = matchups.getFirst();
+        assertEquals("B", matchup.first());
+        assertEquals(1, matchup.score(), DELTA);
+        // a perfect score counts as 5/6, half a game below
+        assertEquals(ELO_PER_NAT * Math.log(5), matchup.eloDiff(), DELTA);
+        assertEquals(ELO_PER_NAT * Math.log(5), matchup.upper95(), DELTA);
+        // no game ended differently, so the variance is the one of the score 5/6
+        final double error = Math.sqrt(5.0 / 36 / 3);
+        final double lower = 1 - Z_95 * error;
+        assertEquals(ELO_PER_NAT * Math.log(lower / (1 - lower)), matchup.lower95(), DELTA);
+        // P(Z <= 0.5 / sqrt(5/108)) of the standard normal distribution
+        assertEquals(0.989932, matchup.los(), 1e-5);
+
+        final TournamentRatings.Rating b = ratings.getRatings().getFirst();
+        assertEquals("B", b.name());
+        assertTrue(Double.isFinite(b.elo()));
+        assertTrue(Double.isFinite(b.error95()));
+    }
+
+    @Test
+    public void testInvalidResult() {
+        final TournamentRatings ratings = new TournamentRatings(List.of("A", "B"));
+        assertThrows(IllegalArgumentException.class, () -> ratings.record(0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ratings.record(0, 1, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> ratings.record(0, 1, -0.5));
+        assertEquals(0, ratings.getGames());
+    }
+}
@@ -0,0 +1,90 @@
+package hProjekt.model;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import javafx.util.Pair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link CostTables} and the costs edges read from them.
+ */
+public class CostTablesTest {
+
+    private Map<Set<Tile.Type>, Integer> buildingCosts;
+    private Map<Pair<Tile.Type, Tile.Type>, Integer> drivingCosts;
+
+    @BeforeEach
+    public void setUp() {
+        buildingCosts = Config.TILE_TYPE_TO_BUILDING_COST;
+        drivingCosts = Config.TILE_TYPE_TO_DRIVING_COST;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Config.TILE_TYPE_TO_BUILDING_COST = buildingCosts;
+        Config.TILE_TYPE_TO_DRIVING_COST = drivingCosts;
+        CostTables.recompile();
+    }
+
+    @Test
+    public void testTablesMatchConfig() {
+        final CostTables tables = CostTables.get();
+        for (final Tile.Type from : Tile.Type.values()) {
+            for (final Tile.Type to : Tile.Type.values()) {
+                assertEquals(Config.TILE_TYPE_TO_BUILDING_COST.get(EnumSet.of(from, to)),
+                        tables.getBuildingCost(from, to));
+                assertEquals(Config.TILE_TYPE_TO_DRIVING_COST.get(new Pair<>(from, to)),
+                        tables.getDrivingCost(from, to));
+            }
+        }
+        assertEquals(Config.TILE_TYPE_TO_DRIVING_COST.values().stream().mapToInt(Integer::intValue).min().getAsInt(),
+                tables.getMinimumDrivingCost());
+    }
+
+    @Test
+    public void testReplacedMapsAreRecompiled() {
+        final int version = CostTables.get().getVersion();
+        assertSame(CostTables.get(), CostTables.get());
+
+        final Map<Pair<Tile.Type, Tile.Type>, Integer> changed = new HashMap<>(drivingCosts);
+        changed.put(new Pair<>(Tile.Type.PLAIN, Tile.Type.PLAIN), 7);
+        Config.TILE_TYPE_TO_DRIVING_COST = changed;
+        assertTrue(CostTables.get().getVersion() > version);
+        assertEquals(7, CostTables.get().getDrivingCost(Tile.Type.PLAIN, Tile.Type.PLAIN));
+    }
+
+    @Test
+    public void testEdgeCostsMatchConfig() {
+        final HexGridImpl grid = new HexGridImpl(6, 8, Config.TOWN_NAMES, new Random(9));
+        assertEdgeCosts(grid);
+
+        Config.TILE_TYPE_TO_BUILDING_COST = buildingCosts.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue() * 2));
+        Config.TILE_TYPE_TO_DRIVING_COST = drivingCosts.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue() + 3));
+        assertEdgeCosts(grid);
+    }
+
+    private static void assertEdgeCosts(final HexGrid grid) {
+        for (final Edge edge : grid.getEdges().values()) {
+            final Tile.Type type1 = grid.getTileAt(edge.getPosition1()).getType();
+            final Tile.Type type2 = grid.getTileAt(edge.getPosition2()).getType();
+            assertEquals(Config.TILE_TYPE_TO_BUILDING_COST.get(EnumSet.of(type1, type2)), edge.getBaseBuildingCost());
+            assertEquals(Config.TILE_TYPE_TO_DRIVING_COST.get(new Pair<>(type1, type2)),
+                    edge.getDrivingCost(edge.getPosition1()));
+            assertEquals(Config.TILE_TYPE_TO_DRIVING_COST.get(new Pair<>(type2, type1)),
+                    edge.getDrivingCost(edge.getPosition2()));
+        }
+    }
+}
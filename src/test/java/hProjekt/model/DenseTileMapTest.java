@@ -0,0 +1,100 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DenseTileMap}, checked against a {@link HashMap} holding the
+ * same tiles.
+ */
+public class DenseTileMapTest {
+
+    private static Tile tile(final int q, final int r) {
+        return new TileImpl(q, r, Tile.Type.PLAIN, null, null, null);
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        final Random random = new Random(1);
+        final DenseTileMap map = new DenseTileMap();
+        final Map<TilePosition, Tile> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            final TilePosition position = new TilePosition(random.nextInt(81) - 40, random.nextInt(81) - 40);
+            final Tile tile = tile(position.q(), position.r());
+            assertEquals(expected.put(position, tile), map.put(position, tile));
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        for (int q = -45; q <= 45; q++) {
+            for (int r = -45; r <= 45; r++) {
+                final TilePosition position = new TilePosition(q, r);
+                assertEquals(expected.get(position), map.get(position));
+                assertEquals(expected.get(position), map.get(q, r));
+                assertEquals(expected.containsKey(position), map.containsKey(position));
+            }
+        }
+    }
+
+    @Test
+    public void testIndicesFollowInsertionOrder() {
+        final DenseTileMap map = new DenseTileMap();
+        final List<Tile> added = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            // walks away from the origin in both directions so the bounding box grows on every side
+            final int q = i % 2 == 0 ? i : -i;
+            final Tile tile = tile(q, -q / 2);
+            map.put(tile.getPosition(), tile);
+            added.add(tile);
+        }
+        for (int index = 0; index < added.size(); index++) {
+            assertSame(added.get(index), map.getByIndex(index));
+            assertEquals(index, map.indexOf(added.get(index).getPosition()));
+        }
+        assertEquals(added, new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void testReplaceKeepsIndex() {
+        final DenseTileMap map = new DenseTileMap();
+        final Tile first = tile(3, 4);
+        final Tile second = tile(-2, 1);
+        final Tile replacement = new TileImpl(3, 4, Tile.Type.MOUNTAIN, null, null, null);
+        map.put(first.getPosition(), first);
+        map.put(second.getPosition(), second);
+
+        assertSame(first, map.put(replacement.getPosition(), replacement));
+        assertEquals(2, map.size());
+        assertEquals(0, map.indexOf(3, 4));
+        assertSame(replacement, map.getByIndex(0));
+    }
+
+    @Test
+    public void testMissingTiles() {
+        final DenseTileMap map = new DenseTileMap();
+        assertEquals(DenseTileMap.NO_TILE, map.indexOf(0, 0));
+        assertNull(map.get(0, 0));
+        final Tile tile = tile(0, 0);
+        map.put(tile.getPosition(), tile);
+        assertEquals(DenseTileMap.NO_TILE, map.indexOf(1000, -1000));
+        assertNull(map.get(1, 0));
+        assertNull(map.get("not a position"));
+        assertFalse(map.containsKey(new TilePosition(0, 1)));
+    }
+
+    @Test
+    public void testPositionsAreReused() {
+        final DenseTileMap map = new DenseTileMap();
+        final Tile tile = tile(0, 0);
+        map.put(tile.getPosition(), tile);
+        assertSame(map.positionAt(1, 1), map.positionAt(1, 1));
+        assertEquals(new TilePosition(1, 1), map.positionAt(1, 1));
+        assertEquals(new TilePosition(5000, 0), map.positionAt(5000, 0));
+    }
+}
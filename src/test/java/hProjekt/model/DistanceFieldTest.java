@@ -0,0 +1,69 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DistanceField}, checked against the distance to every
+ * source.
+ */
+public class DistanceFieldTest {
+
+    private static int hexDistance(final int q1, final int r1, final int q2, final int r2) {
+        final int dq = q1 - q2;
+        final int dr = r1 - r2;
+        return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        final Random random = new Random(12);
+        final int limit = 4;
+        final DistanceField field = new DistanceField(-10, -8, 12, 9, limit);
+        final List<int[]> sources = new ArrayList<>();
+        for (int batch = 0; batch < 8; batch++) {
+            for (int i = 0; i < 3; i++) {
+                final int[] source = { random.nextInt(23) - 10, random.nextInt(18) - 8 };
+                sources.add(source);
+                field.seed(source[0], source[1]);
+            }
+            final List<int[]> changed = new ArrayList<>();
+            field.propagate((q, r, distance) -> changed.add(new int[] { q, r, distance }));
+            for (final int[] cell : changed) {
+                assertEquals(cell[2], field.get(cell[0], cell[1]));
+            }
+            for (int q = -10; q <= 12; q++) {
+                for (int r = -8; r <= 9; r++) {
+                    int expected = DistanceField.FAR;
+                    for (final int[] source : sources) {
+                        final int distance = hexDistance(q, r, source[0], source[1]);
+                        if (distance < limit) {
+                            expected = Math.min(expected, distance);
+                        }
+                    }
+                    assertEquals(expected, field.get(q, r));
+                }
+            }
+        }
+        assertEquals(DistanceField.FAR, field.get(100, 100));
+    }
+
+    @Test
+    public void testMatchesSpiral() {
+        final DistanceField field = new DistanceField(-6, -6, 6, 6, 3);
+        field.seed(1, -1);
+        field.propagate(null);
+        final List<TilePosition> near = new ArrayList<>();
+        TilePosition.forEachSpiral(new TilePosition(1, -1), 3, (position, parameters) -> !near.add(position));
+        for (int q = -6; q <= 6; q++) {
+            for (int r = -6; r <= 6; r++) {
+                assertEquals(near.contains(new TilePosition(q, r)), field.get(q, r) != DistanceField.FAR);
+            }
+        }
+    }
+}
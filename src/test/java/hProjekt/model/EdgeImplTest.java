@@ -0,0 +1,205 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link EdgeImpl}.
+ */
+public class EdgeImplTest {
+
+    private HexGridImpl grid;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(7));
+    }
+
+    @Test
+    public void testConnectedEdgesMatchScan() {
+        for (final Edge edge : grid.getEdges().values()) {
+            final Set<Edge> expected = grid.getEdges().values().stream()
+                    .filter(edge::connectsTo)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, edge.getConnectedEdges());
+            assertEquals(expected.size(), edge.getConnectedEdges().size());
+            assertTrue(edge.getConnectedEdges().contains(edge));
+        }
+    }
+
+    private Map<Set<TilePosition>, Edge> scanRails(final Player player) {
+        return grid.getEdges().entrySet().stream()
+                .filter(entry -> entry.getValue().getRailOwners().contains(player))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private Edge cityEdge() {
+        final TilePosition city = grid.getCities().keySet().iterator().next();
+        return grid.getTileAt(city).getEdges().iterator().next();
+    }
+
+    @Test
+    public void testOwnerListUpdatesGrid() {
+        final Player first = new PlayerImpl.Builder(1).build(grid);
+        final Player second = new PlayerImpl.Builder(2).build(grid);
+        final Edge edge = cityEdge();
+        final long version = grid.getModificationCount();
+
+        assertTrue(edge.getRailOwners().add(first));
+        assertFalse(edge.getRailOwners().add(first));
+        edge.getRailOwnersProperty().getValue().add(second);
+        assertEquals(List.of(first, second), edge.getRailOwners());
+        assertTrue(edge.hasRailOwner(first));
+        assertTrue(edge.hasRailOwner(second));
+        assertEquals(2, edge.getRailOwnerCount());
+        assertEquals(version + 2, grid.getModificationCount());
+        assertEquals(Map.of(edge.getAdjacentTilePositions(), edge), grid.getRails(first));
+        assertTrue(grid.getConnectedCities().keySet().stream()
+                .anyMatch(edge.getAdjacentTilePositions()::contains));
+
+        assertTrue(edge.getRailOwners().remove(first));
+        assertFalse(edge.hasRailOwner(first));
+        assertEquals(scanRails(first), grid.getRails(first));
+        edge.getRailOwners().clear();
+        assertFalse(edge.hasRail());
+        assertEquals(scanRails(second), grid.getRails(second));
+        assertTrue(grid.getConnectedCities().isEmpty());
+    }
+
+    @Test
+    public void testReplacedOwnerListUpdatesGrid() {
+        final Player first = new PlayerImpl.Builder(1).build(grid);
+        final Player second = new PlayerImpl.Builder(2).build(grid);
+        final Player third = new PlayerImpl.Builder(3).build(grid);
+        final Edge edge = cityEdge();
+        edge.getRailOwners().add(first);
+        edge.getRailOwners().add(second);
+
+        edge.getRailOwnersProperty().setValue(new ArrayList<>(List.of(second, third)));
+        assertSame(edge.getRailOwners(), edge.getRailOwnersProperty().getValue());
+        assertEquals(Set.of(second, third), Set.copyOf(edge.getRailOwners()));
+        assertFalse(edge.hasRailOwner(first));
+        assertTrue(edge.hasRailOwner(third));
+        assertEquals(scanRails(first), grid.getRails(first));
+        assertEquals(scanRails(third), grid.getRails(third));
+
+        // the list set last is not kept, so changing it does not affect the edge
+        final List<Player> replacement = new ArrayList<>();
+        edge.getRailOwnersProperty().setValue(replacement);
+        replacement.add(first);
+        assertFalse(edge.hasRail());
+        assertTrue(grid.getRails(second).isEmpty());
+        assertTrue(grid.getConnectedCities().isEmpty());
+
+        edge.getRailOwnersProperty().setValue(null);
+        assertTrue(edge.getRailOwners().isEmpty());
+    }
+
+    @Test
+    public void testMaskMatchesOwnerList() {
+        final Random random = new Random(17);
+        final List<Player> players = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            players.add(new PlayerImpl.Builder(id).build(grid));
+        }
+        final List<Edge> edges = new ArrayList<>(grid.getEdges().values());
+        for (int step = 0; step < 2000; step++) {
+            final Edge edge = edges.get(random.nextInt(edges.size()));
+            final Player player = players.get(random.nextInt(players.size()));
+            if (random.nextBoolean()) {
+                edge.getRailOwners().add(player);
+            } else {
+                edge.getRailOwners().remove(player);
+            }
+            for (final Player other : players) {
+                assertEquals(edge.getRailOwners().contains(other), edge.hasRailOwner(other));
+                assertEquals(edge.getRailOwners().stream().anyMatch(owner -> owner != other),
+                        edge.hasOtherRailOwners(other));
+            }
+            assertEquals(edge.getRailOwners().size(), edge.getRailOwnerCount());
+            assertEquals(!edge.getRailOwners().isEmpty(), edge.hasRail());
+        }
+        for (final Player player : players) {
+            assertEquals(scanRails(player), grid.getRails(player));
+        }
+    }
+
+    /**
+     * Computes the parallel costs of the edge from all rails of the tiles like
+     * {@link Edge#getParallelCostPerPlayer(Player)} did before the per-tile
+     * counters.
+     */
+    private static Map<Player, Integer> scanParallelCosts(final Edge edge, final Player player) {
+        final HexGrid grid = edge.getHexGrid();
+        final Map<Player, Integer> result = new HashMap<>();
+        final List<Player> owners = edge.getRailOwners();
+        if (!owners.isEmpty() && !(owners.size() == 1 && owners.contains(player))) {
+            final int cost = Collections.disjoint(grid.getCities().keySet(), edge.getAdjacentTilePositions())
+                    ? EdgeImpl.PARALLEL_COST
+                    : EdgeImpl.PARALLEL_COST_AT_CITY;
+            owners.forEach(owner -> result.put(owner, cost));
+        }
+        edge.getAdjacentTilePositions().stream()
+                .flatMap(position -> {
+                    if (grid.getCityAt(position) != null) {
+                        return Stream.empty();
+                    }
+                    final Set<Player> neighbours = grid.getTileAt(position).getEdges().stream()
+                            .filter(Predicate.not(edge::equals)).flatMap(other -> other.getRailOwners().stream())
+                            .collect(Collectors.toUnmodifiableSet());
+                    return neighbours.contains(player) ? Stream.empty() : neighbours.stream();
+                }).forEach(owner -> result.put(owner,
+                        Math.max(result.getOrDefault(owner, 0), EdgeImpl.NEIGHBOUR_PARALLEL_COST)));
+        return result;
+    }
+
+    @Test
+    public void testParallelCostsMatchScan() {
+        final Random random = new Random(23);
+        final List<Player> players = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            players.add(new PlayerImpl.Builder(id).build(grid));
+        }
+        final List<Edge> edges = new ArrayList<>(grid.getEdges().values());
+        for (int round = 0; round < 6; round++) {
+            for (int step = 0; step < 150; step++) {
+                final Edge edge = edges.get(random.nextInt(edges.size()));
+                final Player player = players.get(random.nextInt(players.size()));
+                if (random.nextInt(3) == 0) {
+                    edge.getRailOwners().remove(player);
+                } else {
+                    edge.getRailOwners().add(player);
+                }
+            }
+            for (final Edge edge : edges) {
+                for (final Player player : players) {
+                    final Map<Player, Integer> expected = scanParallelCosts(edge, player);
+                    final int total = expected.values().stream().mapToInt(Integer::intValue).sum();
+                    assertEquals(expected, edge.getParallelCostPerPlayer(player));
+                    assertEquals(total, edge.getTotalParallelCost(player));
+                    assertEquals(edge.getBaseBuildingCost() + total, edge.getTotalBuildingCost(player));
+                    final int[] costsById = new int[EdgeImpl.MAX_PLAYER_ID];
+                    assertEquals(total, edge.getParallelCostPerPlayer(player, costsById));
+                    for (final Player owner : players) {
+                        assertEquals(expected.getOrDefault(owner, 0), costsById[owner.getID() - 1]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.controller.GameController;
+import hProjekt.controller.GamePhase;
+import hProjekt.controller.PlayerController;
+import hProjekt.controller.actions.IllegalActionException;
+import javafx.scene.paint.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link GameFork} against moves made in a live game.
+ */
+public class GameForkTest {
+
+    private GameState game;
+    private GameState forked;
+
+    @BeforeEach
+    public void setUp() {
+        game = newGame();
+        forked = newGame();
+    }
+
+    /**
+     * Creates a game with three players on the same map every time.
+     *
+     * @return the new game
+     */
+    private static GameState newGame() {
+        final GameState state = new GameState(new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(7)),
+                new ArrayList<>());
+        for (final Color color : List.of(Color.RED, Color.BLUE, Color.GREEN)) {
+            state.newPlayer(null, color, null);
+        }
+        return state;
+    }
+
+    private static Edge edgeOf(final GameState state, final Edge edge) {
+        return state.getGrid().getEdge(edge.getPosition1(), edge.getPosition2());
+    }
+
+    private static Player playerOf(final GameState state, final Player player) {
+        return state.getPlayers().get(player.getID() - 1);
+    }
+
+    /**
+     * Tries the same random builds in the live game through
+     * {@link PlayerController#buildRail(Edge)} and in a fork of the other game,
+     * and checks that both end up with the same rails and credits.
+     *
+     * @param phase the phase to build in
+     */
+    private void assertBuildsMatchGame(final GamePhase phase) {
+        game.getGamePhaseProperty().setValue(phase);
+        forked.getGamePhaseProperty().setValue(phase);
+        final GameController controller = new GameController(game, new Random(1));
+        final Map<Player, PlayerController> controllers = new HashMap<>();
+        for (final Player player : game.getPlayers()) {
+            final PlayerController playerController = new PlayerController(controller, player);
+            playerController.setBuildingBudget(1_000_000);
+            controllers.put(player, playerController);
+        }
+        final GameFork fork = new GameFork(forked);
+
+        final List<Edge> edges = new ArrayList<>(game.getGrid().getEdges().values());
+        final Random random = new Random(phase.ordinal());
+        int built = 0;
+        for (int attempt = 0; attempt < 3000; attempt++) {
+            final Player player = game.getPlayers().get(attempt % game.getPlayers().size());
+            // most attempts next to the own network, so the players get into each other's way
+            final Edge edge = attempt % 4 != 0 && !player.getRails().isEmpty()
+                    ? randomConnectedEdge(player, random)
+                    : edges.get(random.nextInt(edges.size()));
+            boolean builtInGame;
+            try {
+                controllers.get(player).buildRail(edge);
+                builtInGame = true;
+            } catch (final IllegalActionException e) {
+                builtInGame = false;
+            }
+            assertEquals(builtInGame, fork.buildRail(edgeOf(forked, edge), playerOf(forked, player)),
+                    "build of " + player + " on " + edge);
+            if (builtInGame) {
+                built++;
+            }
+            for (final Player owner : game.getPlayers()) {
+                assertEquals(owner.getCredits(), fork.getCredits(playerOf(forked, owner)));
+            }
+        }
+        assertTrue(built > 50);
+        for (final Edge edge : game.getGrid().getEdges().values()) {
+            assertEquals(((EdgeImpl) edge).getRailOwnerMask(), fork.getRailOwnerMask(edgeOf(forked, edge)));
+        }
+        for (final Player player : game.getPlayers()) {
+            assertEquals(player.getRails().size(), fork.getRailCount(playerOf(forked, player)));
+        }
+        for (final City city : game.getGrid().getCities().values()) {
+            assertEquals(game.getGrid().getConnectedCities().containsKey(city.getPosition()),
+                    fork.isConnected(forked.getGrid().getCityAt(city.getPosition())));
+        }
+    }
+
+    private static Edge randomConnectedEdge(final Player player, final Random random) {
+        final List<Edge> rails = new ArrayList<>(player.getRails().values());
+        final List<Edge> connected = new ArrayList<>(rails.get(random.nextInt(rails.size())).getConnectedEdges());
+        connected.sort((a, b) -> a.getPosition1().equals(b.getPosition1())
+                ? a.getPosition2().compareTo(b.getPosition2())
+                : a.getPosition1().compareTo(b.getPosition1()));
+        return connected.get(random.nextInt(connected.size()));
+    }
+
+    @Test
+    public void testBuildingPhaseMatchesGame() {
+        assertBuildsMatchGame(GamePhase.BUILDING_PHASE);
+    }
+
+    @Test
+    public void testDrivingPhaseMatchesGame() {
+        for (final Player player : game.getPlayers()) {
+            player.addCredits(200);
+            playerOf(forked, player).addCredits(200);
+        }
+        assertBuildsMatchGame(GamePhase.DRIVING_PHASE);
+    }
+
+    @Test
+    public void testForkDoesNotChangeGame() {
+        final HexGridImpl grid = (HexGridImpl) game.getGrid();
+        final long modificationCount = grid.getModificationCount();
+        final GameFork fork = new GameFork(game);
+        final Player player = game.getPlayers().getFirst();
+        final Edge start = grid.getTileAt(grid.getStartingCities().keySet().iterator().next()).getEdges()
+                .iterator().next();
+        assertTrue(fork.buildRail(start, player));
+        assertTrue(fork.hasRailOwner(start, player));
+        assertEquals(1, fork.getRailCount(player));
+
+        assertFalse(start.hasRail());
+        assertTrue(player.getRails().isEmpty());
+        assertEquals(Config.STARTING_CREDITS, player.getCredits());
+        assertEquals(modificationCount, grid.getModificationCount());
+    }
+
+    @Test
+    public void testUndo() {
+        final GameFork fork = new GameFork(game);
+        final Player first = game.getPlayers().get(0);
+        final Player second = game.getPlayers().get(1);
+        final Edge start = game.getGrid().getTileAt(game.getGrid().getStartingCities().keySet().iterator().next())
+                .getEdges().iterator().next();
+        assertTrue(fork.buildRail(start, first));
+        final int mark = fork.mark();
+        final int firstCredits = fork.getCredits(first);
+
+        assertTrue(fork.buildRail(start, second));
+        final Edge next = start.getConnectedEdges().stream().filter(edge -> !edge.equals(start)).findFirst()
+                .orElseThrow();
+        assertTrue(fork.buildRail(next, first));
+        fork.setPlayerPosition(first, next.getPosition2());
+        final City city = game.getGrid().getCities().values().iterator().next();
+        fork.addChosenCity(city);
+        assertEquals(2, fork.getRailCount(first));
+        assertEquals(Set.of(city), fork.getChosenCities());
+
+        fork.undo(mark);
+        assertEquals(1, fork.getRailCount(first));
+        assertEquals(0, fork.getRailCount(second));
+        assertFalse(fork.hasRailOwner(next, first));
+        assertFalse(fork.hasRailOwner(start, second));
+        assertTrue(fork.hasRailOwner(start, first));
+        assertEquals(firstCredits, fork.getCredits(first));
+        assertEquals(Config.STARTING_CREDITS, fork.getCredits(second));
+        assertTrue(fork.getPlayerPositions().isEmpty());
+        assertTrue(fork.getChosenCities().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> fork.undo(mark + 1));
+
+        fork.undo(0);
+        assertEquals(0, fork.getRailCount(first));
+        assertEquals(0, fork.getRailOwnerMask(start));
+        assertEquals(Config.STARTING_CREDITS, fork.getCredits(first));
+    }
+
+    @Test
+    public void testCredits() {
+        final GameFork fork = new GameFork(game);
+        final Player player = game.getPlayers().getFirst();
+        assertFalse(fork.removeCredits(player, Config.STARTING_CREDITS + 1));
+        assertFalse(fork.removeCredits(player, -1));
+        assertTrue(fork.removeCredits(player, Config.STARTING_CREDITS));
+        assertEquals(0, fork.getCredits(player));
+        fork.addCredits(player, 7);
+        assertEquals(7, fork.getCredits(player));
+        assertEquals(Config.STARTING_CREDITS, player.getCredits());
+    }
+
+    @Test
+    public void testChangedGameInvalidatesFork() {
+        final GameFork fork = new GameFork(game);
+        final Player player = game.getPlayers().getFirst();
+        final Edge start = game.getGrid().getTileAt(game.getGrid().getStartingCities().keySet().iterator().next())
+                .getEdges().iterator().next();
+        assertTrue(start.addRail(player));
+        assertThrows(ConcurrentModificationException.class, () -> fork.getRailOwnerMask(start));
+        assertThrows(ConcurrentModificationException.class, () -> fork.buildRail(start, player));
+    }
+}
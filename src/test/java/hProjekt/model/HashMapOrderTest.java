@@ -0,0 +1,63 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link HashMapOrder}, checked against a {@link HashMap} holding the
+ * same keys.
+ */
+public class HashMapOrderTest {
+
+    private final HashMapOrder order = new HashMapOrder();
+    private final Map<TilePosition, Tile> expected = new HashMap<>();
+    private final List<TilePosition> added = new ArrayList<>();
+
+    private void add(final TilePosition position) {
+        if (expected.put(position, new TileImpl(position, Tile.Type.PLAIN, null, null, null)) == null) {
+            order.add(position);
+            added.add(position);
+        }
+    }
+
+    private void assertOrder() {
+        final List<TilePosition> keys = new ArrayList<>(expected.keySet());
+        assertEquals(keys.size(), order.size());
+        assertEquals(keys, Arrays.stream(order.toArray()).mapToObj(added::get).toList());
+        for (int index = 0; index < keys.size(); index++) {
+            assertEquals(keys.get(index), added.get(order.get(index)));
+        }
+    }
+
+    @Test
+    public void testMatchesHashMapWhileGrowing() {
+        final Random random = new Random(3);
+        for (int i = 0; i < 3000; i++) {
+            add(new TilePosition(random.nextInt(81) - 40, random.nextInt(81) - 40));
+            if (i < 200 || i % 97 == 0) {
+                assertOrder();
+            }
+        }
+        assertOrder();
+        assertThrows(IndexOutOfBoundsException.class, () -> order.get(order.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> order.get(-1));
+    }
+
+    @Test
+    public void testMatchesHashMapWithCollidingKeys() {
+        // all of these positions have the hash code 0, so they share a bucket
+        for (int k = 0; k < 40; k++) {
+            add(new TilePosition(k, -31 * k));
+            add(new TilePosition(k, k));
+            assertOrder();
+        }
+    }
+}
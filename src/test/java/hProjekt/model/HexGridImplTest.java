@@ -0,0 +1,342 @@
+package hProjekt.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.model.TilePosition.EdgeDirection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the indices kept by {@link HexGridImpl}.
+ */
+public class HexGridImplTest {
+
+    private HexGridImpl grid;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new HexGridImpl(10, 12, Config.TOWN_NAMES, new Random(42));
+    }
+
+    @Test
+    public void testTileLookups() {
+        assertEquals(grid.getTiles().size(), grid.getTiles().values().size());
+        for (final Tile tile : grid.getTiles().values()) {
+            final TilePosition position = tile.getPosition();
+            assertSame(tile, grid.getTileAt(position));
+            assertSame(tile, grid.getTileAt(position.q(), position.r()));
+            assertSame(tile, grid.getTileByIndex(grid.getTileIndex(position)));
+        }
+        assertNull(grid.getTileAt(1000, 1000));
+    }
+
+    @Test
+    public void testSameSeedSameMap() {
+        final HexGridImpl other = new HexGridImpl(10, 12, Config.TOWN_NAMES, new Random(42));
+        assertEquals(grid.getTiles().keySet(), other.getTiles().keySet());
+        for (final Tile tile : grid.getTiles().values()) {
+            assertEquals(tile.getType(), other.getTileAt(tile.getPosition()).getType());
+        }
+        assertEquals(grid.getCities().keySet(), other.getCities().keySet());
+    }
+
+    /**
+     * Returns a hash of the tiles and cities of the given grid that does not
+     * depend on the order of its maps.
+     *
+     * @param grid the grid
+     * @return the hash of the grid
+     */
+    private static int mapHash(final HexGrid grid) {
+        final StringBuilder map = new StringBuilder();
+        grid.getTiles().keySet().stream().sorted().forEach(position -> map.append(position.q()).append(',')
+                .append(position.r()).append(',').append(grid.getTileAt(position).getType()).append(';'));
+        grid.getCities().keySet().stream().sorted().forEach(position -> {
+            final City city = grid.getCityAt(position);
+            map.append(position.q()).append(',').append(position.r()).append(',').append(city.getName())
+                    .append(',').append(city.isStartingCity()).append(';');
+        });
+        return map.toString().hashCode();
+    }
+
+    @Test
+    public void testSeedGeneratesBaselineMap() {
+        // the hashes of the maps generated on a hash map before the dense tile index,
+        // with Config.RANDOM set to the seed
+        assertEquals(-151593529, mapHash(new HexGridImpl(5, 10, Config.TOWN_NAMES, new Random(1))));
+        assertEquals(1743648003, mapHash(new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(7))));
+        assertEquals(2116884777, mapHash(new HexGridImpl(10, 12, Config.TOWN_NAMES, new Random(42))));
+        assertEquals(-1244177063, mapHash(new HexGridImpl(12, 20, Config.TOWN_NAMES, new Random(4))));
+        assertEquals(795230874, mapHash(new HexGridImpl(30, 30, Config.TOWN_NAMES, new Random(6))));
+    }
+
+    @Test
+    public void testEdgeLookupsMatchNeighbours() {
+        final Set<Set<TilePosition>> expected = new HashSet<>();
+        for (final Tile tile : grid.getTiles().values()) {
+            final TilePosition position = tile.getPosition();
+            for (final EdgeDirection direction : EdgeDirection.values()) {
+                final TilePosition neighbour = TilePosition.neighbour(position, direction);
+                final Edge edge = grid.getEdge(position, direction);
+                if (grid.getTileAt(neighbour) == null) {
+                    assertNull(edge);
+                    assertNull(grid.getEdge(position, neighbour));
+                    continue;
+                }
+                expected.add(Set.of(position, neighbour));
+                assertNotNull(edge);
+                assertEquals(Set.of(position, neighbour), edge.getAdjacentTilePositions());
+                assertSame(edge, grid.getEdge(position, neighbour));
+                assertSame(edge, grid.getEdge(neighbour, position));
+                assertSame(edge, grid.getEdges().get(Set.of(position, neighbour)));
+            }
+        }
+        assertEquals(expected, grid.getEdges().keySet());
+        assertEquals(expected.size(), grid.getEdges().size());
+        assertNull(grid.getEdges().get(Set.of(new TilePosition(0, 0), new TilePosition(5, 5))));
+        assertFalse(grid.getEdges().containsKey("not a key"));
+    }
+
+    /**
+     * Builds up to the given number of rails for the player, each one connected to
+     * the player's network as required by {@link Edge#addRail(Player)}.
+     *
+     * @param player the player to build for
+     * @param count  the number of rails to try to build
+     * @param random the random to pick the edges
+     * @return the edges the rails were built on
+     */
+    private List<Edge> buildRails(final Player player, final int count, final Random random) {
+        final List<Edge> built = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>(grid.getEdges().values());
+        for (int attempt = 0; built.size() < count && attempt < 100 * count; attempt++) {
+            final Edge edge = edges.get(random.nextInt(edges.size()));
+            if (edge.addRail(player)) {
+                built.add(edge);
+            }
+        }
+        return built;
+    }
+
+    private Map<Set<TilePosition>, Edge> scanRails(final Player player) {
+        return grid.getEdges().entrySet().stream()
+                .filter(entry -> entry.getValue().getRailOwners().contains(player))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Test
+    public void testRailIndexMatchesScan() {
+        final Random random = new Random(5);
+        final Player first = new PlayerImpl.Builder(1).build(grid);
+        final Player second = new PlayerImpl.Builder(2).build(grid);
+        final List<Edge> firstRails = buildRails(first, 40, random);
+        buildRails(second, 40, random);
+        assertFalse(firstRails.isEmpty());
+
+        assertEquals(scanRails(first), grid.getRails(first));
+        assertEquals(scanRails(second), grid.getRails(second));
+        assertEquals(firstRails.size(), first.getRails().size());
+
+        for (int i = 0; i < firstRails.size(); i += 3) {
+            assertTrue(firstRails.get(i).removeRail(first));
+        }
+        assertFalse(firstRails.get(0).removeRail(first));
+        assertEquals(scanRails(first), grid.getRails(first));
+        assertEquals(scanRails(second), grid.getRails(second));
+        final Map<Set<TilePosition>, Edge> remaining = scanRails(first);
+        for (final Edge edge : grid.getEdges().values()) {
+            assertEquals(edge.getRailOwners().contains(first), edge.hasRailOwner(first));
+            assertEquals(remaining.values().stream().filter(edge::connectsTo).collect(Collectors.toSet()),
+                    edge.getConnectedRails(first));
+        }
+    }
+
+    private Map<TilePosition, City> scanConnectedCities() {
+        return grid.getCities().entrySet().stream()
+                .filter(entry -> grid.getEdges().values().stream().filter(Edge::hasRail)
+                        .anyMatch(edge -> edge.getAdjacentTilePositions().contains(entry.getKey())))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private void assertCityIndex() {
+        final Map<TilePosition, City> connected = scanConnectedCities();
+        assertEquals(connected, grid.getConnectedCities());
+        assertEquals(connected, grid.getConnectedCitiesProperty().getValue());
+        final Set<TilePosition> unconnected = new HashSet<>(grid.getCities().keySet());
+        unconnected.removeAll(connected.keySet());
+        assertEquals(unconnected, grid.getUnconnectedCities().keySet());
+        assertEquals(unconnected, grid.getUnconnectedCitiesProperty().getValue().keySet());
+        assertEquals(grid.getCities().values().stream().filter(City::isStartingCity).collect(Collectors.toSet()),
+                Set.copyOf(grid.getStartingCities().values()));
+    }
+
+    @Test
+    public void testCityIndexMatchesScan() {
+        final Random random = new Random(11);
+        final Player first = new PlayerImpl.Builder(1).build(grid);
+        final Player second = new PlayerImpl.Builder(2).build(grid);
+        assertCityIndex();
+        assertTrue(grid.getConnectedCities().isEmpty());
+
+        final List<Edge> firstRails = buildRails(first, 150, random);
+        final List<Edge> secondRails = buildRails(second, 150, random);
+        assertCityIndex();
+        assertFalse(grid.getConnectedCities().isEmpty());
+
+        for (final Edge edge : firstRails) {
+            edge.removeRail(first);
+            assertCityIndex();
+        }
+        for (final Edge edge : secondRails) {
+            edge.removeRail(second);
+        }
+        assertCityIndex();
+        assertTrue(grid.getConnectedCities().isEmpty());
+    }
+
+    /**
+     * Returns the positions reachable from the given position over the rails of
+     * the player.
+     *
+     * @param player the player
+     * @param start  the position to start from
+     * @return the reachable positions, including the start
+     */
+    private Set<TilePosition> reachable(final Player player, final TilePosition start) {
+        final Set<TilePosition> visited = new HashSet<>(Set.of(start));
+        final Deque<TilePosition> queue = new ArrayDeque<>(visited);
+        while (!queue.isEmpty()) {
+            final TilePosition position = queue.poll();
+            for (final Edge edge : grid.getTileAt(position).getEdges()) {
+                if (!edge.hasRailOwner(player)) {
+                    continue;
+                }
+                final TilePosition next = edge.getPosition1().equals(position) ? edge.getPosition2()
+                        : edge.getPosition1();
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private void assertRailNetworks(final Player player) {
+        final List<TilePosition> positions = new ArrayList<>();
+        grid.getRails(player).values().forEach(edge -> positions.add(edge.getPosition1()));
+        positions.add(grid.getStartingCities().keySet().iterator().next());
+        for (final TilePosition from : positions) {
+            final Set<TilePosition> expected = reachable(player, from);
+            for (final TilePosition to : positions) {
+                assertEquals(expected.contains(to), grid.isConnected(player, from, to));
+                assertEquals(expected.contains(to),
+                        grid.getRailNetwork(player, from) == grid.getRailNetwork(player, to));
+            }
+        }
+    }
+
+    @Test
+    public void testRailNetworksMatchSearch() {
+        final Random random = new Random(13);
+        final Player player = new PlayerImpl.Builder(1).build(grid);
+        final List<Edge> built = buildRails(player, 80, random);
+        assertRailNetworks(player);
+
+        // removing rails splits networks, which rebuilds the disjoint set
+        for (int i = 0; i < built.size(); i += 4) {
+            built.get(i).removeRail(player);
+            assertRailNetworks(player);
+        }
+        buildRails(player, 20, random);
+        assertRailNetworks(player);
+        assertFalse(grid.isConnected(player, new TilePosition(1000, 0), new TilePosition(0, 0)));
+    }
+
+    @Test
+    public void testGenerationReport() {
+        final HexGridImpl.GenerationReport report = grid.getGenerationReport();
+        assertNotNull(report);
+        assertEquals(10, report.scale());
+        assertEquals(grid.getTiles().size(), report.tileCount());
+        assertEquals(grid.getEdges().size(), report.edgeCount());
+        assertEquals(grid.getCities().size(), report.cityCount());
+        assertEquals(12, report.cityCount());
+        assertEquals(report.tilesNanos() + report.edgesNanos() + report.citiesNanos(), report.totalNanos());
+        assertNull(new HexGridImpl(grid.getTiles(), grid.getEdges(), grid.getCities()).getGenerationReport());
+    }
+
+    @Test
+    public void testGridFromMapsKeepsItsOwnIndex() {
+        final Player player = new PlayerImpl.Builder(1).build(grid);
+        buildRails(player, 20, new Random(11));
+        final Map<Set<TilePosition>, Edge> originalRails = Map.copyOf(grid.getRails(player));
+        final Map<TilePosition, City> originalConnected = grid.getConnectedCities();
+        final HexGridImpl copy = new HexGridImpl(grid.getTiles(), grid.getEdges(), grid.getCities());
+        assertEquals(originalRails.keySet(), copy.getRails(player).keySet());
+        assertEquals(originalConnected.keySet(), copy.getConnectedCities().keySet());
+
+        // a rail built in the copy next to the network of the player
+        final Edge rail = List.copyOf(copy.getRails(player).values()).stream()
+                .flatMap(edge -> edge.getConnectedEdges().stream()).filter(edge -> edge.addRail(player)).findFirst()
+                .orElseThrow();
+        assertSame(rail, copy.getRails(player).get(rail.getAdjacentTilePositions()));
+        assertEquals(originalRails.size() + 1, copy.getRails(player).size());
+        final TilePosition start = originalRails.values().iterator().next().getPosition1();
+        assertTrue(copy.isConnected(player, start, rail.getPosition1()));
+        assertTrue(copy.isConnected(player, start, rail.getPosition2()));
+
+        // the original grid and its edges are unchanged
+        assertEquals(originalRails, grid.getRails(player));
+        assertFalse(grid.getEdge(rail.getPosition1(), rail.getPosition2()).hasRail());
+        assertEquals(originalConnected, grid.getConnectedCities());
+        assertNotSame(rail, grid.getEdge(rail.getPosition1(), rail.getPosition2()));
+        for (final Edge edge : grid.getEdges().values()) {
+            assertSame(grid, edge.getHexGrid());
+            assertTrue(edge.getConnectedEdges().stream().allMatch(connected -> connected.getHexGrid() == grid));
+        }
+
+        assertTrue(rail.removeRail(player));
+        assertEquals(originalRails.keySet(), copy.getRails(player).keySet());
+    }
+
+    @Test
+    public void testCitiesArePlacedOnPlains() {
+        for (int seed = 0; seed < 5; seed++) {
+            final HexGridImpl generated = new HexGridImpl(12, 20, Config.TOWN_NAMES, new Random(seed));
+            assertEquals(20, generated.getCities().size());
+            assertEquals(Config.NUMBER_OF_STARTING_CITIES, generated.getStartingCities().size());
+            generated.getCities().forEach((position, city) -> {
+                assertEquals(position, city.getPosition());
+                assertEquals(Tile.Type.PLAIN, generated.getTileAt(position).getType());
+            });
+        }
+    }
+
+    @Test
+    public void testGenerationUsesSettings() {
+        final int startingCities = Config.NUMBER_OF_STARTING_CITIES;
+        final MapSettings settings = MapSettings.of(8, 9, Config.TOWN_NAMES);
+        try {
+            // changing Config after the snapshot does not affect the generation
+            Config.NUMBER_OF_STARTING_CITIES = startingCities + 2;
+            final HexGridImpl generated = new HexGridImpl(settings, new Random(3));
+            assertEquals(9, generated.getCities().size());
+            assertEquals(settings.numberOfStartingCities(), generated.getStartingCities().size());
+            assertEquals(8, generated.getGenerationReport().scale());
+        } finally {
+            Config.NUMBER_OF_STARTING_CITIES = startingCities;
+        }
+    }
+}
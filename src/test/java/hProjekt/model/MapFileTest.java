@@ -0,0 +1,99 @@
+package hProjekt.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading and writing maps with {@link MapFile}.
+ */
+public class MapFileTest {
+
+    private HexGridImpl grid;
+    private Path path;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        grid = new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(11));
+        path = Files.createTempFile("map", MapFile.FILE_EXTENSION);
+        MapFile.write(grid, path);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertSameMap(grid, MapFile.read(path));
+    }
+
+    @Test
+    public void testRoundTripOffHeap() throws IOException {
+        assertSameMap(grid, MapFile.readOffHeap(path));
+    }
+
+    @Test
+    public void testRoundTripOfReadMap() throws IOException {
+        final HexGridImpl read = MapFile.read(path);
+        final Path other = Files.createTempFile("map", MapFile.FILE_EXTENSION);
+        try {
+            MapFile.write(read, other);
+            assertArrayEquals(Files.readAllBytes(path), Files.readAllBytes(other));
+        } finally {
+            Files.delete(other);
+        }
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        final byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> MapFile.read(path));
+        Files.write(path, Arrays.copyOf(bytes, 10));
+        assertThrows(IOException.class, () -> MapFile.read(path));
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        final byte[] bytes = Files.readAllBytes(path);
+        final byte[] badMagic = bytes.clone();
+        badMagic[0] = 0;
+        Files.write(path, badMagic);
+        assertThrows(IOException.class, () -> MapFile.read(path));
+
+        // the first cell of the bounding box follows the header
+        final byte[] badCell = bytes.clone();
+        badCell[Integer.BYTES + Short.BYTES + 4 * Integer.BYTES] = 100;
+        Files.write(path, badCell);
+        assertThrows(IOException.class, () -> MapFile.read(path));
+    }
+
+    private static void assertSameMap(final HexGrid expected, final HexGrid actual) {
+        assertEquals(expected.getTiles().keySet(), actual.getTiles().keySet());
+        for (final Tile tile : expected.getTiles().values()) {
+            final Tile other = actual.getTileAt(tile.getPosition());
+            assertEquals(tile.getType(), other.getType());
+            assertEquals(tile.getNeighbours().size(), other.getNeighbours().size());
+        }
+        assertEquals(expected.getEdges().keySet(), actual.getEdges().keySet());
+        assertEquals(expected.getCities().keySet(), actual.getCities().keySet());
+        for (final City city : expected.getCities().values()) {
+            final City other = actual.getCityAt(city.getPosition());
+            assertEquals(city.getName(), other.getName());
+            assertEquals(city.isStartingCity(), other.isStartingCity());
+        }
+        assertEquals(expected.getStartingCities().keySet(), actual.getStartingCities().keySet());
+    }
+}
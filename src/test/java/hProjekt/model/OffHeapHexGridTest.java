@@ -0,0 +1,230 @@
+package hProjekt.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link OffHeapHexGrid} against plain scans and against
+ * {@link HexGridImpl}.
+ */
+public class OffHeapHexGridTest {
+
+    private static final int RADIUS = 10;
+
+    private OffHeapHexGrid grid;
+
+    @BeforeEach
+    public void setUp() {
+        grid = OffHeapHexGrid.generate(RADIUS, 12, new Random(42));
+    }
+
+    @Test
+    public void testGenerate() {
+        assertEquals(3 * RADIUS * (RADIUS + 1) + 1, grid.getTiles().size());
+        for (final TilePosition position : grid.getTiles().keySet()) {
+            assertTrue(Math.max(Math.abs(position.q()), Math.max(Math.abs(position.r()),
+                    Math.abs(position.q() + position.r()))) <= RADIUS);
+        }
+        assertEquals(12, grid.getCities().size());
+        assertEquals(Math.min(12, Config.NUMBER_OF_STARTING_CITIES), grid.getStartingCities().size());
+        for (final City city : grid.getCities().values()) {
+            assertEquals(Tile.Type.PLAIN, grid.getTileAt(city.getPosition()).getType());
+            assertTrue(grid.getTileAt(city.getPosition()).hasCity());
+        }
+
+        final OffHeapHexGrid other = OffHeapHexGrid.generate(RADIUS, 12, new Random(42));
+        assertEquals(grid.getCities().keySet(), other.getCities().keySet());
+        for (final Tile tile : grid.getTiles().values()) {
+            assertEquals(tile.getType(), other.getTileAt(tile.getPosition()).getType());
+        }
+        assertThrows(IllegalArgumentException.class, () -> OffHeapHexGrid.generate(-1, 1, new Random(1)));
+        assertThrows(IllegalStateException.class, () -> OffHeapHexGrid.generate(1, 100, new Random(1)));
+    }
+
+    @Test
+    public void testCopyMatchesSource() {
+        final HexGridImpl source = new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(3));
+        final Player player = new PlayerImpl.Builder(1).build(source);
+        final Player other = new PlayerImpl.Builder(2).build(source);
+        final List<Edge> edges = new ArrayList<>(source.getEdges().values());
+        final Random random = new Random(8);
+        for (int attempt = 0; attempt < 2000; attempt++) {
+            edges.get(random.nextInt(edges.size())).addRail(attempt % 2 == 0 ? player : other);
+        }
+        final OffHeapHexGrid copy = OffHeapHexGrid.copyOf(source);
+
+        assertEquals(source.getTiles().keySet(), copy.getTiles().keySet());
+        assertEquals(source.getEdges().keySet(), copy.getEdges().keySet());
+        assertEquals(source.getCities().keySet(), copy.getCities().keySet());
+        assertEquals(source.getConnectedCities().keySet(), copy.getConnectedCities().keySet());
+        assertEquals(source.getRails(player).keySet(), copy.getRails(player).keySet());
+        assertEquals(source.getRails(other).keySet(), copy.getRails(other).keySet());
+        for (final Edge edge : source.getEdges().values()) {
+            final Edge copied = copy.getEdge(edge.getPosition1(), edge.getPosition2());
+            assertEquals(edge.getBaseBuildingCost(), copied.getBaseBuildingCost());
+            assertEquals(edge.getDrivingCost(edge.getPosition1()), copied.getDrivingCost(edge.getPosition1()));
+            assertEquals(edge.getDrivingCost(edge.getPosition2()), copied.getDrivingCost(edge.getPosition2()));
+            assertEquals(edge.getTotalParallelCost(player), copied.getTotalParallelCost(player));
+            assertEquals(edge.getParallelCostPerPlayer(other), copied.getParallelCostPerPlayer(other));
+        }
+    }
+
+    /**
+     * Builds rails of the given player on random edges where they can be built.
+     *
+     * @param player the player to build for
+     * @param count  the number of rails to try to build
+     * @param random the random to pick the edges
+     * @return the edges the rails were built on
+     */
+    private List<Edge> buildRails(final Player player, final int count, final Random random) {
+        final List<Edge> built = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>(grid.getEdges().values());
+        for (int attempt = 0; built.size() < count && attempt < 100 * count; attempt++) {
+            final Edge edge = edges.get(random.nextInt(edges.size()));
+            if (edge.addRail(player)) {
+                built.add(edge);
+            }
+        }
+        return built;
+    }
+
+    private Map<Set<TilePosition>, Edge> scanRails(final Player player) {
+        return grid.getEdges().entrySet().stream()
+                .filter(entry -> entry.getValue().hasRailOwner(player))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Test
+    public void testRailIndexMatchesScan() {
+        final Random random = new Random(5);
+        final Player first = new PlayerImpl.Builder(1).build(grid);
+        final Player second = new PlayerImpl.Builder(2).build(grid);
+        final List<Edge> firstRails = buildRails(first, 40, random);
+        buildRails(second, 40, random);
+        assertFalse(firstRails.isEmpty());
+
+        assertEquals(scanRails(first), grid.getRails(first));
+        assertEquals(scanRails(second), grid.getRails(second));
+        assertEquals(firstRails.size(), grid.getRails(first).size());
+
+        for (int i = 0; i < firstRails.size(); i += 3) {
+            assertTrue(firstRails.get(i).removeRail(first));
+        }
+        assertFalse(firstRails.get(0).removeRail(first));
+        assertEquals(scanRails(first), grid.getRails(first));
+        assertEquals(scanRails(first).size(), grid.getRails(first).size());
+        assertEquals(scanRails(second), grid.getRails(second));
+
+        buildRails(first, 10, random);
+        assertEquals(scanRails(first), grid.getRails(first));
+        assertEquals(scanRails(first).keySet(), Set.copyOf(new ArrayList<>(grid.getRails(first).keySet())));
+    }
+
+    /**
+     * Returns the positions reachable from the given position over rails of the
+     * given player.
+     *
+     * @param player the player
+     * @param start  the start position
+     * @return the reachable positions, including the start
+     */
+    private Set<TilePosition> reachable(final Player player, final TilePosition start) {
+        final Set<TilePosition> visited = new HashSet<>(Set.of(start));
+        final Deque<TilePosition> queue = new ArrayDeque<>(visited);
+        while (!queue.isEmpty()) {
+            final TilePosition position = queue.poll();
+            for (final Edge edge : grid.getTileAt(position).getEdges()) {
+                if (!edge.hasRailOwner(player)) {
+                    continue;
+                }
+                final TilePosition next = edge.getPosition1().equals(position) ? edge.getPosition2()
+                        : edge.getPosition1();
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private void assertRailNetworks(final Player player, final List<Edge> edges) {
+        final List<TilePosition> positions = new ArrayList<>();
+        edges.forEach(edge -> positions.add(edge.getPosition1()));
+        positions.add(grid.getStartingCities().keySet().iterator().next());
+        for (final TilePosition from : positions) {
+            final Set<TilePosition> expected = reachable(player, from);
+            for (final TilePosition to : positions) {
+                assertEquals(expected.contains(to), grid.isConnected(player, from, to));
+                assertEquals(expected.contains(to),
+                        grid.getRailNetwork(player, from) == grid.getRailNetwork(player, to));
+            }
+        }
+    }
+
+    @Test
+    public void testRailNetworksMatchSearch() {
+        final Random random = new Random(13);
+        final Player player = new PlayerImpl.Builder(1).build(grid);
+        final List<Edge> built = buildRails(player, 80, random);
+        assertRailNetworks(player, built);
+
+        // removing rails splits networks, which resets the tiles of the rails
+        for (int i = 0; i < built.size(); i += 4) {
+            built.get(i).removeRail(player);
+            assertRailNetworks(player, built);
+        }
+        // several removals between two queries
+        for (int i = 1; i < built.size(); i += 4) {
+            built.get(i).removeRail(player);
+        }
+        assertRailNetworks(player, built);
+        built.addAll(buildRails(player, 20, random));
+        assertRailNetworks(player, built);
+        assertFalse(grid.isConnected(player, new TilePosition(1000, 0), new TilePosition(0, 0)));
+    }
+
+    @Test
+    public void testConnectedCitiesMatchScan() {
+        final Random random = new Random(17);
+        final Player player = new PlayerImpl.Builder(1).build(grid);
+        final List<Edge> built = buildRails(player, 60, random);
+        assertConnectedCities();
+        for (final Edge edge : built) {
+            edge.removeRail(player);
+            assertConnectedCities();
+        }
+        assertTrue(grid.getConnectedCities().isEmpty());
+        assertEquals(grid.getCities().keySet(), grid.getUnconnectedCities().keySet());
+    }
+
+    @Test
+    public void testRailOwnersPropertyIsNotSupported() {
+        final Player player = new PlayerImpl.Builder(1).build(grid);
+        final Edge edge = buildRails(player, 1, new Random(19)).getFirst();
+        assertThrows(UnsupportedOperationException.class, edge::getRailOwnersProperty);
+        assertEquals(List.of(player), edge.getRailOwners());
+    }
+
+    private void assertConnectedCities() {
+        final Set<TilePosition> connected = grid.getCities().keySet().stream()
+                .filter(position -> grid.getTileAt(position).getEdges().stream().anyMatch(Edge::hasRail))
+                .collect(Collectors.toSet());
+        assertEquals(connected, grid.getConnectedCities().keySet());
+        assertEquals(grid.getCities().size() - connected.size(), grid.getUnconnectedCities().size());
+    }
+}
@@ -0,0 +1,110 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import javafx.util.Pair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the path cache of {@link HexGridImpl}.
+ */
+public class PathCacheTest {
+
+    private HexGridImpl grid;
+    private Set<Edge> allEdges;
+    private TilePosition start;
+    private TilePosition target;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(4));
+        allEdges = Set.copyOf(grid.getEdges().values());
+        final List<TilePosition> positions = new ArrayList<>(grid.getTiles().keySet());
+        start = positions.get(0);
+        target = positions.get(positions.size() - 1);
+    }
+
+    @Test
+    public void testRepeatedQueryIsCached() {
+        final List<Edge> path = grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost());
+        assertFalse(path.isEmpty());
+        assertSame(path, grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost()));
+    }
+
+    @Test
+    public void testEqualSetsShareEntries() {
+        final Set<Edge> edges = new HashSet<>(grid.findCheapestPath(start, target, allEdges,
+                EdgeCostFunction.drivingCost()));
+        final List<Edge> path = grid.findCheapestPath(start, target, edges, EdgeCostFunction.drivingCost());
+        assertFalse(path.isEmpty());
+        assertSame(path, grid.findCheapestPath(start, target, Set.copyOf(edges), EdgeCostFunction.drivingCost()));
+    }
+
+    @Test
+    public void testCostFunctionsAreKeyedByIdentity() {
+        final EdgeCostFunction constant = (edge, from) -> 1;
+        final List<Edge> driving = grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost());
+        final List<Edge> steps = grid.findCheapestPath(start, target, allEdges, constant);
+        assertNotSame(driving, steps);
+        assertSame(steps, grid.findCheapestPath(start, target, allEdges, constant));
+    }
+
+    @Test
+    public void testRailChangeDropsCache() {
+        final List<Edge> path = grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost());
+        final Player player = new PlayerImpl.Builder(1).build(grid);
+        final long version = grid.getModificationCount();
+        final City city = grid.getStartingCities().values().iterator().next();
+        assertTrue(grid.getTileAt(city.getPosition()).getEdges().iterator().next().addRail(player));
+        assertEquals(version + 1, grid.getModificationCount());
+
+        final List<Edge> again = grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost());
+        assertNotSame(path, again);
+        assertEquals(path, again);
+    }
+
+    @Test
+    public void testBiFunctionsAreNotCached() {
+        final int[] extra = { 0 };
+        final Edge first = grid.findPath(start, target, allEdges, (from, to) -> 1).getFirst();
+        // the same lambda instance returns different costs on the second query
+        final BiFunction<TilePosition, TilePosition, Integer> costs = (from, to) -> grid
+                .getEdge(from, to) == first ? extra[0] : 1;
+        final List<Edge> before = grid.findPath(start, target, allEdges, costs);
+        extra[0] = 1000;
+        final List<Edge> after = grid.findPath(start, target, allEdges, costs);
+        assertNotSame(before, after);
+        assertFalse(after.contains(first));
+    }
+
+    @Test
+    public void testCostChangeDropsCache() {
+        final Map<Pair<Tile.Type, Tile.Type>, Integer> drivingCosts = Config.TILE_TYPE_TO_DRIVING_COST;
+        try {
+            final List<Edge> path = grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost());
+            final Map<Pair<Tile.Type, Tile.Type>, Integer> changed = new HashMap<>(drivingCosts);
+            changed.replaceAll((types, cost) -> types.getKey() == Tile.Type.MOUNTAIN
+                    || types.getValue() == Tile.Type.MOUNTAIN ? 100 : cost);
+            Config.TILE_TYPE_TO_DRIVING_COST = changed;
+
+            final List<Edge> again = grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost());
+            assertNotSame(path, again);
+            assertSame(again, grid.findCheapestPath(start, target, allEdges, EdgeCostFunction.drivingCost()));
+        } finally {
+            Config.TILE_TYPE_TO_DRIVING_COST = drivingCosts;
+            CostTables.recompile();
+        }
+    }
+}
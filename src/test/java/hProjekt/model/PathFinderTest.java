@@ -0,0 +1,131 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the A* search behind {@link HexGrid#findPath} and
+ * {@link HexGrid#findCheapestPath}, checked against a plain Dijkstra search.
+ */
+public class PathFinderTest {
+
+    private HexGridImpl grid;
+    private List<TilePosition> positions;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new HexGridImpl(10, 12, Config.TOWN_NAMES, new Random(21));
+        positions = new ArrayList<>(grid.getTiles().keySet());
+    }
+
+    /**
+     * Returns the cost of the cheapest path between the positions using Dijkstra.
+     *
+     * @return the cost or {@code -1} if there is no path
+     */
+    private int dijkstra(final TilePosition start, final TilePosition target, final Set<Edge> availableEdges) {
+        final Map<TilePosition, Integer> distance = new HashMap<>(Map.of(start, 0));
+        final PriorityQueue<Map.Entry<TilePosition, Integer>> queue = new PriorityQueue<>(
+                Map.Entry.comparingByValue());
+        queue.add(Map.entry(start, 0));
+        while (!queue.isEmpty()) {
+            final Map.Entry<TilePosition, Integer> entry = queue.poll();
+            final TilePosition current = entry.getKey();
+            if (entry.getValue() > distance.get(current)) {
+                continue;
+            }
+            if (current.equals(target)) {
+                return entry.getValue();
+            }
+            for (final Edge edge : grid.getTileAt(current).getEdges()) {
+                if (!availableEdges.contains(edge)) {
+                    continue;
+                }
+                final TilePosition next = edge.getPosition1().equals(current) ? edge.getPosition2()
+                        : edge.getPosition1();
+                final int newDistance = entry.getValue() + edge.getDrivingCost(current);
+                if (newDistance < distance.getOrDefault(next, Integer.MAX_VALUE)) {
+                    distance.put(next, newDistance);
+                    queue.add(Map.entry(next, newDistance));
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks that the path leads from start to target over available edges and
+     * returns its cost.
+     */
+    private int cost(final List<Edge> path, final TilePosition start, final TilePosition target,
+            final Set<Edge> availableEdges) {
+        TilePosition current = start;
+        int cost = 0;
+        for (final Edge edge : path) {
+            assertTrue(availableEdges.contains(edge));
+            assertTrue(edge.getAdjacentTilePositions().contains(current));
+            cost += edge.getDrivingCost(current);
+            current = edge.getPosition1().equals(current) ? edge.getPosition2() : edge.getPosition1();
+        }
+        assertEquals(target, current);
+        return cost;
+    }
+
+    private void assertCheapest(final Set<Edge> availableEdges, final Random random) {
+        for (int i = 0; i < 60; i++) {
+            final TilePosition start = positions.get(random.nextInt(positions.size()));
+            final TilePosition target = positions.get(random.nextInt(positions.size()));
+            final int expected = dijkstra(start, target, availableEdges);
+            final List<Edge> cheapest = grid.findCheapestPath(start, target, availableEdges,
+                    EdgeCostFunction.drivingCost());
+            final List<Edge> found = grid.findPath(start, target, availableEdges,
+                    (from, to) -> grid.getEdge(from, to).getDrivingCost(from));
+            if (expected <= 0) {
+                assertTrue(cheapest.isEmpty());
+                assertTrue(found.isEmpty());
+                continue;
+            }
+            assertEquals(expected, cost(cheapest, start, target, availableEdges));
+            assertEquals(expected, cost(found, start, target, availableEdges));
+        }
+    }
+
+    @Test
+    public void testAllEdges() {
+        assertCheapest(Set.copyOf(grid.getEdges().values()), new Random(1));
+    }
+
+    @Test
+    public void testEdgeSubset() {
+        final Random random = new Random(2);
+        final Set<Edge> available = new HashSet<>();
+        for (final Edge edge : grid.getEdges().values()) {
+            if (random.nextInt(4) != 0) {
+                available.add(edge);
+            }
+        }
+        assertCheapest(available, random);
+    }
+
+    @Test
+    public void testNoPath() {
+        final TilePosition start = positions.get(0);
+        assertTrue(grid.findCheapestPath(start, positions.get(1), Set.of(), EdgeCostFunction.drivingCost())
+                .isEmpty());
+        assertTrue(grid.findCheapestPath(start, start, Set.copyOf(grid.getEdges().values()),
+                EdgeCostFunction.drivingCost()).isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+package hProjekt.model;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+import hProjekt.model.TilePosition.EdgeDirection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the neighbour and edge slots of {@link TileImpl}.
+ */
+public class TileImplTest {
+
+    private HexGridImpl grid;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new HexGridImpl(8, 10, Config.TOWN_NAMES, new Random(3));
+    }
+
+    @Test
+    public void testNeighboursMatchScan() {
+        for (final Tile tile : grid.getTiles().values()) {
+            final Set<Tile> expected = grid.getTiles().entrySet().stream()
+                    .filter(entry -> TilePosition.neighbours(tile.getPosition()).contains(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, tile.getNeighbours());
+            assertEquals(expected.size() < 6, tile.isAtCoast());
+            for (final EdgeDirection direction : EdgeDirection.values()) {
+                assertSame(grid.getTileAt(TilePosition.neighbour(tile.getPosition(), direction)),
+                        tile.getNeighbour(direction));
+            }
+        }
+    }
+
+    @Test
+    public void testEdgesMatchScan() {
+        for (final Tile tile : grid.getTiles().values()) {
+            final Set<Edge> expected = grid.getEdges().values().stream()
+                    .filter(edge -> edge.getAdjacentTilePositions().contains(tile.getPosition()))
+                    .collect(Collectors.toSet());
+            assertEquals(expected, tile.getEdges());
+            for (final EdgeDirection direction : EdgeDirection.values()) {
+                assertSame(grid.getEdge(tile.getPosition(), direction), tile.getEdge(direction));
+            }
+        }
+    }
+}
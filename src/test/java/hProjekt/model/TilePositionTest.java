@@ -0,0 +1,109 @@
+package hProjekt.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.model.TilePosition.EdgeDirection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ring and spiral iteration and the direction lookup of
+ * {@link TilePosition}.
+ */
+public class TilePositionTest {
+
+    /**
+     * Returns the positions of a ring by walking from neighbour to neighbour.
+     */
+    private static List<TilePosition> walkRing(final TilePosition center, final int radius) {
+        if (radius == 0) {
+            return List.of(center);
+        }
+        final List<TilePosition> ring = new ArrayList<>();
+        TilePosition current = TilePosition.add(center, TilePosition.scale(EdgeDirection.SOUTH_WEST.position, radius));
+        for (int side = 0; side < EdgeDirection.SIZE; side++) {
+            for (int tile = 0; tile < radius; tile++) {
+                ring.add(current);
+                current = TilePosition.neighbour(current, EdgeDirection.values()[side]);
+            }
+        }
+        return ring;
+    }
+
+    @Test
+    public void testRingsMatchWalk() {
+        final TilePosition center = new TilePosition(3, -5);
+        for (int radius = 0; radius < 8; radius++) {
+            final List<TilePosition> expected = walkRing(center, radius);
+            final List<TilePosition> visited = new ArrayList<>();
+            final List<Integer[]> params = new ArrayList<>();
+            assertFalse(TilePosition.forEachRing(center, radius, (position, parameters) -> {
+                visited.add(position);
+                params.add(parameters);
+                return false;
+            }));
+            assertEquals(expected, visited);
+            final List<TilePosition> primitive = new ArrayList<>();
+            assertFalse(TilePosition.forEachRing(center.q(), center.r(), radius, (q, r, ringRadius, side, tile) -> {
+                primitive.add(new TilePosition(q, r));
+                final Integer[] parameters = params.get(primitive.size() - 1);
+                assertArrayEquals(parameters, new Integer[] { ringRadius, side, tile });
+                return false;
+            }));
+            assertEquals(expected, primitive);
+        }
+    }
+
+    @Test
+    public void testSpiralVisitsEveryRing() {
+        final TilePosition center = new TilePosition(0, 0);
+        final int radius = 5;
+        final List<TilePosition> expected = new ArrayList<>();
+        for (int ring = 0; ring < radius; ring++) {
+            expected.addAll(walkRing(center, ring));
+        }
+        final List<TilePosition> visited = new ArrayList<>();
+        TilePosition.forEachSpiral(center, radius, (position, parameters) -> !visited.add(position));
+        assertEquals(expected, visited);
+        assertEquals(3 * radius * (radius - 1) + 1, visited.size());
+
+        final List<TilePosition> primitive = new ArrayList<>();
+        assertFalse(TilePosition.forEachSpiral(0, 0, radius,
+                (q, r, ring, side, tile) -> !primitive.add(new TilePosition(q, r))));
+        assertEquals(expected, primitive);
+    }
+
+    @Test
+    public void testEarlyExit() {
+        final int[] count = { 0 };
+        assertTrue(TilePosition.forEachSpiral(0, 0, 4, (q, r, ring, side, tile) -> ++count[0] == 5));
+        assertEquals(5, count[0]);
+        count[0] = 0;
+        TilePosition.forEachSpiral(new TilePosition(0, 0), 4, (position, parameters) -> ++count[0] == 9);
+        assertEquals(9, count[0]);
+    }
+
+    @Test
+    public void testDirectionLookup() {
+        for (int dq = -2; dq <= 2; dq++) {
+            for (int dr = -2; dr <= 2; dr++) {
+                final TilePosition offset = new TilePosition(dq, dr);
+                final EdgeDirection expected = Arrays.stream(EdgeDirection.values())
+                        .filter(direction -> direction.position.equals(offset))
+                        .findFirst()
+                        .orElse(null);
+                assertEquals(expected, EdgeDirection.fromOffset(dq, dr));
+                if (expected == null) {
+                    assertThrows(NoSuchElementException.class, () -> EdgeDirection.fromRelativePosition(offset));
+                } else {
+                    assertEquals(expected, EdgeDirection.fromRelativePosition(offset));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package hProjekt.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DisjointSet}, checked against relabelling a plain label
+ * array on every union.
+ */
+public class DisjointSetTest {
+
+    @Test
+    public void testMatchesLabels() {
+        final Random random = new Random(2);
+        final int size = 200;
+        final DisjointSet set = new DisjointSet(size);
+        final int[] labels = new int[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = i;
+        }
+        for (int step = 0; step < 300; step++) {
+            final int first = random.nextInt(size);
+            final int second = random.nextInt(size);
+            final int from = labels[second];
+            final boolean merged = labels[first] != from;
+            for (int i = 0; i < size; i++) {
+                if (labels[i] == from) {
+                    labels[i] = labels[first];
+                }
+            }
+            assertEquals(merged, set.union(first, second));
+            for (int check = 0; check < 20; check++) {
+                final int a = random.nextInt(size);
+                final int b = random.nextInt(size);
+                assertEquals(labels[a] == labels[b], set.connected(a, b));
+                assertEquals(labels[a] == labels[b], set.find(a) == set.find(b));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int expectedSize = 0;
+            for (int j = 0; j < size; j++) {
+                if (labels[j] == labels[i]) {
+                    expectedSize++;
+                }
+            }
+            assertEquals(expectedSize, set.setSize(i));
+        }
+    }
+
+    @Test
+    public void testClear() {
+        final DisjointSet set = new DisjointSet(10);
+        set.union(1, 2);
+        set.union(2, 3);
+        assertTrue(set.connected(1, 3));
+        assertEquals(3, set.setSize(1));
+        set.clear();
+        assertFalse(set.connected(1, 3));
+        assertEquals(1, set.setSize(1));
+        assertEquals(10, set.size());
+    }
+
+    @Test
+    public void testResetSplitsOnlyResetSets() {
+        final DisjointSet set = new DisjointSet(10);
+        set.union(1, 2);
+        set.union(2, 3);
+        set.union(5, 6);
+        for (final int element : new int[] { 1, 2, 3 }) {
+            set.reset(element);
+        }
+        assertFalse(set.connected(1, 2));
+        assertFalse(set.connected(2, 3));
+        assertEquals(1, set.setSize(3));
+        assertTrue(set.connected(5, 6));
+        assertEquals(2, set.setSize(6));
+        set.union(3, 1);
+        assertTrue(set.connected(1, 3));
+        assertEquals(2, set.setSize(1));
+    }
+}
@@ -0,0 +1,58 @@
+package hProjekt.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link FenwickTree}, checked against prefix sums over a plain array.
+ */
+public class FenwickTreeTest {
+
+    @Test
+    public void testMatchesArray() {
+        final Random random = new Random(6);
+        final long[] weights = new long[37];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextInt(5);
+        }
+        final FenwickTree tree = new FenwickTree(weights.clone());
+        for (int step = 0; step < 500; step++) {
+            final int element = random.nextInt(weights.length);
+            weights[element] = random.nextInt(4) == 0 ? 0 : random.nextInt(100);
+            tree.set(element, weights[element]);
+
+            long sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                assertEquals(sum, tree.prefixSum(i));
+                assertEquals(weights[i], tree.get(i));
+                sum += weights[i];
+            }
+            assertEquals(sum, tree.total());
+            if (sum > 0) {
+                final long target = random.nextLong(sum);
+                long prefix = 0;
+                int expected = 0;
+                while (prefix + weights[expected] <= target) {
+                    prefix += weights[expected];
+                    expected++;
+                }
+                assertEquals(expected, tree.find(target));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        final FenwickTree tree = new FenwickTree(new long[] { 1, 0, 2 });
+        assertEquals(3, tree.size());
+        assertEquals(0, tree.find(0));
+        assertEquals(2, tree.find(1));
+        assertEquals(2, tree.find(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.find(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.find(-1));
+        assertThrows(IllegalArgumentException.class, () -> tree.set(0, -1));
+    }
+}
@@ -0,0 +1,41 @@
+package hProjekt.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import hProjekt.Config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link NameGenerator}.
+ */
+public class NameGeneratorTest {
+
+    @Test
+    public void testReusedChainMatchesFreshTraining() {
+        final NameGenerator first = new NameGenerator(Config.TOWN_NAMES, 3, new Random(8));
+        // the chain is reused for the same array
+        final NameGenerator reused = new NameGenerator(Config.TOWN_NAMES, 3, new Random(8));
+        assertSame(first.ngramCollection.get("^be"), reused.ngramCollection.get("^be"));
+        // a copy of the array has another identity and is trained again
+        final NameGenerator trained = new NameGenerator(Config.TOWN_NAMES.clone(), 3, new Random(8));
+        assertNotSame(first.ngramCollection.get("^be"), trained.ngramCollection.get("^be"));
+        assertEquals(first.ngramCollection, trained.ngramCollection);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(trained.generateName(10), reused.generateName(10));
+        }
+    }
+
+    @Test
+    public void testSharedChainCannotBeChanged() {
+        final NameGenerator first = new NameGenerator(Config.TOWN_NAMES, 3, new Random(8));
+        final NameGenerator reused = new NameGenerator(Config.TOWN_NAMES, 3, new Random(8));
+        assertThrows(UnsupportedOperationException.class, () -> first.ngramCollection.clear());
+        assertThrows(UnsupportedOperationException.class, () -> first.ngramCollection.get("^be").put('#', 1000));
+        assertEquals(reused.ngramCollection, first.ngramCollection);
+        assertFalse(reused.ngramCollection.get("^be").containsKey('#'));
+    }
+}